@@ -14,6 +14,8 @@
 
 package org.activiti.engine;
 
+import java.util.Date;
+
 import org.activiti.engine.history.HistoricActivityInstance;
 import org.activiti.engine.history.HistoricActivityInstanceQuery;
 import org.activiti.engine.history.HistoricProcessInstance;
@@ -22,6 +24,7 @@ import org.activiti.engine.history.HistoricDetail;
 import org.activiti.engine.history.HistoricDetailQuery;
 import org.activiti.engine.history.HistoricTaskInstance;
 import org.activiti.engine.history.HistoricTaskInstanceQuery;
+import org.activiti.engine.history.HistoryCleanup;
 
 /** 
  * Service exposing information about ongoing and past process instances.  This is different
@@ -60,4 +63,19 @@ public interface HistoryService {
    */
   void deleteHistoricProcessInstance(String processInstanceId);
 
+  /**
+   * Deletes the historic process instances that ended before the given date, with 
+   * their historic activities, tasks and details, in the background.  The instances 
+   * are deleted in chunks of the configured historyCleanupBatchSize, each in its 
+   * own transaction, by jobs of the job executor.
+   * @param processDefinitionKey if not null, only the historic process instances 
+   * of the process definitions with this key are deleted.
+   * @return the id of the cleanup, see {@link #getHistoryCleanup(String)}.
+   */
+  String cleanupHistoricProcessInstancesEndedBefore(Date endedBefore, String processDefinitionKey);
+
+  /** The progress of a cleanup started with {@link #cleanupHistoricProcessInstancesEndedBefore(Date, String)}, 
+   * null if the cleanup finished or doesn't exist. */
+  HistoryCleanup getHistoryCleanup(String historyCleanupId);
+
 }
@@ -13,8 +13,10 @@
 package org.activiti.engine;
 
 import java.sql.Connection;
+import java.util.Date;
 import java.util.Map;
 
+import org.activiti.engine.management.JobExecutorMetrics;
 import org.activiti.engine.management.TableMetaData;
 import org.activiti.engine.management.TablePage;
 import org.activiti.engine.management.TablePageQuery;
@@ -90,4 +92,43 @@ public interface ManagementService {
   
   /** programmatic schema update on a given connection returning feedback about what happened */
   String databaseSchemaUpgrade(Connection connection, String catalog, String schema);
+  
+  /**
+   * Returns a snapshot of the counters and timings collected by the job executor 
+   * of this process engine: acquisitions, acquired, rejected and failed jobs, 
+   * execution times per job handler type, queue depth and the delay between 
+   * the due date of jobs and their execution.  The job executor can also expose 
+   * them over JMX, see {@link org.activiti.engine.impl.jobexecutor.JobExecutor#setJmxEnabled(boolean)}.
+   */
+  JobExecutorMetrics getJobExecutorMetrics();
+  
+  /**
+   * Creates the partitions of the month of the given date in the partitioned 
+   * history tables, partitions that already exist are skipped.  On postgres, 
+   * rows of that month that were written to the default partition are moved 
+   * to the new partition.  Oracle creates the partitions itself.
+   * @param month any date in the month of the partitions, cannot be null.
+   * @throws ActivitiException when the history tables are not partitioned, see 
+   * {@link org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl#setHistoryPartitioned(boolean)}.
+   */
+  void createHistoryPartition(Date month);
+  
+  /**
+   * Writes the history of the process instances started in a closed month to 
+   * a gzip compressed file <code>activiti-history-P&lt;yyyyMM&gt;.json.gz</code> 
+   * in the given directory and removes it from the database.  Activity instances, 
+   * details, task instances, comments, attachments and variable contents of those 
+   * process instances are archived with them, also when they were written in a 
+   * later month.  If the history tables are partitioned, the partitions of that 
+   * month are dropped after the deletion committed, as soon as they are empty.  
+   * Archiving a month that is already archived only drops its remaining empty 
+   * partitions, so a failed archiving can be repeated.
+   * @param month any date in the month to archive, cannot be null.
+   * @param archiveDirectory existing directory on the local disk, cannot be null.
+   * @return the absolute path of the archive file.
+   * @throws ActivitiException when the month isn't over yet, when it contains 
+   * process instances that didn't end or when the archive already exists while 
+   * the month still has process instances.
+   */
+  String archiveHistoryPartition(Date month, String archiveDirectory);
 }
@@ -0,0 +1,120 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.history;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.activiti.engine.HistoryService;
+import org.activiti.engine.ManagementService;
+
+
+/**
+ * Progress of a cleanup of historic process instances that was started with 
+ * {@link HistoryService#cleanupHistoricProcessInstancesEndedBefore(Date, String)}, 
+ * see {@link HistoryService#getHistoryCleanup(String)}.
+ */
+public class HistoryCleanup implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String id;
+  protected Date endedBefore;
+  protected String processDefinitionKey;
+  protected Date startTime;
+  protected long deletedCount;
+  protected long remainingCount;
+  protected String jobId;
+  protected String exceptionMessage;
+  protected boolean isDeadLetter;
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  /** historic process instances that ended before this time are deleted */
+  public Date getEndedBefore() {
+    return endedBefore;
+  }
+
+  public void setEndedBefore(Date endedBefore) {
+    this.endedBefore = endedBefore;
+  }
+
+  /** if not null, only the historic process instances of the process definitions with this key are deleted */
+  public String getProcessDefinitionKey() {
+    return processDefinitionKey;
+  }
+
+  public void setProcessDefinitionKey(String processDefinitionKey) {
+    this.processDefinitionKey = processDefinitionKey;
+  }
+
+  public Date getStartTime() {
+    return startTime;
+  }
+
+  public void setStartTime(Date startTime) {
+    this.startTime = startTime;
+  }
+
+  /** number of historic process instances deleted so far */
+  public long getDeletedCount() {
+    return deletedCount;
+  }
+
+  public void setDeletedCount(long deletedCount) {
+    this.deletedCount = deletedCount;
+  }
+
+  /** number of historic process instances that are still to be deleted */
+  public long getRemainingCount() {
+    return remainingCount;
+  }
+
+  public void setRemainingCount(long remainingCount) {
+    this.remainingCount = remainingCount;
+  }
+
+  /** the job that deletes the next chunk of historic process instances */
+  public String getJobId() {
+    return jobId;
+  }
+
+  public void setJobId(String jobId) {
+    this.jobId = jobId;
+  }
+
+  /** the message of the exception with which deleting the last chunk failed, null if it didn't fail */
+  public String getExceptionMessage() {
+    return exceptionMessage;
+  }
+
+  public void setExceptionMessage(String exceptionMessage) {
+    this.exceptionMessage = exceptionMessage;
+  }
+
+  /** true if the job ran out of retries.  The cleanup is resumed by setting the 
+   * retries of the {@link #getJobId() job}, see {@link ManagementService#setJobRetries(String, int)}. */
+  public boolean isDeadLetter() {
+    return isDeadLetter;
+  }
+
+  public void setDeadLetter(boolean isDeadLetter) {
+    this.isDeadLetter = isDeadLetter;
+  }
+}
@@ -14,13 +14,18 @@
 
 package org.activiti.engine.impl;
 
+import java.util.Date;
+
 import org.activiti.engine.HistoryService;
 import org.activiti.engine.history.HistoricActivityInstanceQuery;
 import org.activiti.engine.history.HistoricProcessInstanceQuery;
 import org.activiti.engine.history.HistoricDetailQuery;
 import org.activiti.engine.history.HistoricTaskInstanceQuery;
+import org.activiti.engine.history.HistoryCleanup;
 import org.activiti.engine.impl.cmd.DeleteHistoricProcessInstanceCmd;
 import org.activiti.engine.impl.cmd.DeleteHistoricTaskInstanceCmd;
+import org.activiti.engine.impl.cmd.GetHistoryCleanupCmd;
+import org.activiti.engine.impl.cmd.StartHistoryCleanupCmd;
 
 /**
  * @author Tom Baeyens
@@ -51,4 +56,12 @@ public class HistoryServiceImpl extends ServiceImpl implements HistoryService {
   public void deleteHistoricProcessInstance(String processInstanceId) {
     commandExecutor.execute(new DeleteHistoricProcessInstanceCmd(processInstanceId));
   }
+
+  public String cleanupHistoricProcessInstancesEndedBefore(Date endedBefore, String processDefinitionKey) {
+    return commandExecutor.execute(new StartHistoryCleanupCmd(endedBefore, processDefinitionKey));
+  }
+
+  public HistoryCleanup getHistoryCleanup(String historyCleanupId) {
+    return commandExecutor.execute(new GetHistoryCleanupCmd(historyCleanupId));
+  }
 }
@@ -13,11 +13,15 @@
 package org.activiti.engine.impl;
 
 import java.sql.Connection;
+import java.util.Date;
 import java.util.Map;
 
 import org.activiti.engine.ManagementService;
+import org.activiti.engine.impl.cmd.ArchiveHistoryPartitionCmd;
+import org.activiti.engine.impl.cmd.CreateHistoryPartitionCmd;
 import org.activiti.engine.impl.cmd.ExecuteJobsCmd;
 import org.activiti.engine.impl.cmd.GetJobExceptionStacktraceCmd;
+import org.activiti.engine.impl.cmd.GetJobExecutorMetricsCmd;
 import org.activiti.engine.impl.cmd.GetPropertiesCmd;
 import org.activiti.engine.impl.cmd.GetTableCountCmd;
 import org.activiti.engine.impl.cmd.GetTableMetaDataCmd;
@@ -26,6 +30,7 @@ import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.db.DbSqlSessionFactory;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.management.JobExecutorMetrics;
 import org.activiti.engine.management.TableMetaData;
 import org.activiti.engine.management.TablePageQuery;
 import org.activiti.engine.runtime.JobQuery;
@@ -70,6 +75,18 @@ public class ManagementServiceImpl extends ServiceImpl implements ManagementServ
     return commandExecutor.execute(new GetPropertiesCmd());
   }
 
+  public JobExecutorMetrics getJobExecutorMetrics() {
+    return commandExecutor.execute(new GetJobExecutorMetricsCmd());
+  }
+  
+  public void createHistoryPartition(Date month) {
+    commandExecutor.execute(new CreateHistoryPartitionCmd(month));
+  }
+  
+  public String archiveHistoryPartition(Date month, String archiveDirectory) {
+    return commandExecutor.execute(new ArchiveHistoryPartitionCmd(month, archiveDirectory));
+  }
+
   public String databaseSchemaUpgrade(final Connection connection, final String catalog, final String schema) {
     return commandExecutor.execute(new Command<String>(){
       public String execute(CommandContext commandContext) {
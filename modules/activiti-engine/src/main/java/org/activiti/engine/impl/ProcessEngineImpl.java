@@ -26,6 +26,7 @@ import org.activiti.engine.RuntimeService;
 import org.activiti.engine.TaskService;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cfg.TransactionContextFactory;
+import org.activiti.engine.impl.db.DbIdGenerator;
 import org.activiti.engine.impl.db.DbSqlSession;
 import org.activiti.engine.impl.db.DbSqlSessionFactory;
 import org.activiti.engine.impl.el.ExpressionManager;
@@ -87,6 +88,10 @@ public class ProcessEngineImpl implements ProcessEngine {
     if ((jobExecutor != null) && (jobExecutor.isAutoActivate())) {
       jobExecutor.start();
     }
+    
+    if (processEngineConfiguration.getAsyncHistoryWriter() != null) {
+      processEngineConfiguration.getAsyncHistoryWriter().start();
+    }
   }
   
   public void close() {
@@ -94,6 +99,14 @@ public class ProcessEngineImpl implements ProcessEngine {
     if ((jobExecutor != null) && (jobExecutor.isActive())) {
       jobExecutor.shutdown();
     }
+    
+    if (processEngineConfiguration.getAsyncHistoryWriter() != null) {
+      processEngineConfiguration.getAsyncHistoryWriter().shutdown();
+    }
+    
+    if (processEngineConfiguration.getIdGenerator() instanceof DbIdGenerator) {
+      ((DbIdGenerator) processEngineConfiguration.getIdGenerator()).shutdown();
+    }
 
     commandExecutor.execute(new SchemaOperationProcessEngineClose());
   }
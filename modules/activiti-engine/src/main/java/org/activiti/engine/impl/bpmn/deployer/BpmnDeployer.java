@@ -80,6 +80,10 @@ public class BpmnDeployer implements Deployer {
         
         if (!deployment.isValidatingSchema()) {
           bpmnParse.setSchemaResource(null);
+        } else if (!deployment.isNew()) {
+          // the resources were validated when the deployment was created, so 
+          // redeploying after a cache miss or a reboot skips the schema validation
+          bpmnParse.setValidatingSchema(false);
         }
         
         bpmnParse.execute();
@@ -155,6 +159,9 @@ public class BpmnDeployer implements Deployer {
         .getProcessEngineConfiguration()
         .getDeploymentCache()
         .addProcessDefinition(processDefinition);
+      
+      // a bounded cache may have evicted it again already
+      deployment.addDeployedArtifact(processDefinition);
     }
   }
 
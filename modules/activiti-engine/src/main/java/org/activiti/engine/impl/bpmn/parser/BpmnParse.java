@@ -84,6 +84,8 @@ import org.activiti.engine.impl.bpmn.webservice.MessageImplicitDataInputAssociat
 import org.activiti.engine.impl.bpmn.webservice.MessageImplicitDataOutputAssociation;
 import org.activiti.engine.impl.bpmn.webservice.Operation;
 import org.activiti.engine.impl.bpmn.webservice.OperationImplementation;
+import org.activiti.engine.impl.calendar.DurationHelper;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.el.ExpressionManager;
 import org.activiti.engine.impl.el.FixedValue;
 import org.activiti.engine.impl.el.UelExpressionCondition;
@@ -140,6 +142,8 @@ public class BpmnParse extends Parse {
   public static final String PROPERTYNAME_IS_FOR_COMPENSATION = "isForCompensation";
   public static final String PROPERTYNAME_ERROR_EVENT_DEFINITIONS = "errorEventDefinitions";
   public static final String PROPERTYNAME_MESSAGE_EVENT_DEFINITIONS = "messageEventDefinitions";
+  public static final String PROPERTYNAME_JOB_PRIORITY = "jobPriority";
+  public static final String PROPERTYNAME_FAILED_JOB_RETRY_TIME_CYCLE = "failedJobRetryTimeCycle";
 
   /** The deployment to which the parsed process definitions will be added. */
   protected DeploymentEntity deployment;
@@ -180,6 +184,7 @@ public class BpmnParse extends Parse {
   // Members
   protected ExpressionManager expressionManager;
   protected List<BpmnParseListener> parseListeners;
+  protected Map<String, String> processDefinitionHistoryLevels;
   protected Map<String, XMLImporter> importers = new HashMap<String, XMLImporter>();
   protected Map<String, String> prefixs = new HashMap<String, String>();
   protected String targetNamespace;
@@ -194,6 +199,7 @@ public class BpmnParse extends Parse {
     super(parser);
     this.expressionManager = parser.getExpressionManager();
     this.parseListeners = parser.getParseListeners();
+    this.processDefinitionHistoryLevels = parser.getProcessDefinitionHistoryLevels();
     setSchemaResource(ReflectUtil.getResource(BpmnParser.BPMN_20_SCHEMA_LOCATION).toString());
     this.initializeXSDItemDefinitions();
   }
@@ -574,6 +580,9 @@ public class BpmnParse extends Parse {
     processDefinition.setProperty(PROPERTYNAME_DOCUMENTATION, parseDocumentation(processElement));
     processDefinition.setTaskDefinitions(new HashMap<String, TaskDefinition>());
     processDefinition.setDeploymentId(deployment.getId());
+    processDefinition.setProperty(PROPERTYNAME_JOB_PRIORITY, parseJobPriority(processElement));
+    // the history level must be known before the activities are parsed
+    processDefinition.setHistoryLevel(parseHistoryLevel(processElement, processDefinition.getKey()));
 
     if (LOGGER.isLoggable(Level.FINE)) {
       LOGGER.fine("Parsing process " + processDefinition.getKey());
@@ -1197,6 +1206,25 @@ public class BpmnParse extends Parse {
       activity.setProperty(PROPERTYNAME_IS_FOR_COMPENSATION, true);        
     }
     
+    // the job priority is inherited from the enclosing scopes
+    Integer jobPriority = parseJobPriority(activityElement);
+    if (jobPriority==null) {
+      jobPriority = (Integer) scopeElement.getProperty(PROPERTYNAME_JOB_PRIORITY);
+    }
+    if (jobPriority!=null) {
+      activity.setProperty(PROPERTYNAME_JOB_PRIORITY, jobPriority);
+    }
+    
+    String failedJobRetryTimeCycle = activityElement.attributeNS(BpmnParser.ACTIVITI_BPMN_EXTENSIONS_NS, PROPERTYNAME_FAILED_JOB_RETRY_TIME_CYCLE);
+    if (failedJobRetryTimeCycle!=null) {
+      try {
+        new DurationHelper(failedJobRetryTimeCycle.trim());
+        activity.setProperty(PROPERTYNAME_FAILED_JOB_RETRY_TIME_CYCLE, failedJobRetryTimeCycle.trim());
+      } catch (Exception e) {
+        addError("Cannot parse failedJobRetryTimeCycle: " + e.getMessage(), activityElement);
+      }
+    }
+    
     return activity;
   }
 
@@ -2312,6 +2340,10 @@ public class BpmnParse extends Parse {
     TimerDeclarationImpl timerDeclaration = new TimerDeclarationImpl(expression, type, jobHandlerType);
     timerDeclaration.setJobHandlerConfiguration(timerActivity.getId());
     timerDeclaration.setExclusive("true".equals(timerEventDefinition.attributeNS(BpmnParser.ACTIVITI_BPMN_EXTENSIONS_NS, "exclusive", String.valueOf(JobEntity.DEFAULT_EXCLUSIVE))));
+    Integer jobPriority = (Integer) timerActivity.getProperty(PROPERTYNAME_JOB_PRIORITY);
+    if (jobPriority!=null) {
+      timerDeclaration.setPriority(jobPriority);
+    }
     return timerDeclaration;
   }
 
@@ -3016,6 +3048,47 @@ public class BpmnParse extends Parse {
     return "true".equals(element.attributeNS(BpmnParser.ACTIVITI_BPMN_EXTENSIONS_NS, "exclusive", String.valueOf(JobEntity.DEFAULT_EXCLUSIVE)));              
   }
 
+  /**
+   * Parses the activiti:jobPriority attribute of a process or activity.
+   * @return null if no job priority is declared on the element.
+   */
+  protected Integer parseJobPriority(Element element) {
+    String jobPriority = element.attributeNS(BpmnParser.ACTIVITI_BPMN_EXTENSIONS_NS, "jobPriority");
+    if (jobPriority==null) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(jobPriority.trim());
+    } catch (NumberFormatException e) {
+      addError("Cannot parse jobPriority: " + e.getMessage(), element);
+      return null;
+    }
+  }
+
+  /**
+   * The history level declared for the process with the given key, either in the 
+   * process engine configuration or with the activiti:historyLevel attribute.  
+   * Returns null if no history level is declared.
+   */
+  protected Integer parseHistoryLevel(Element processElement, String processDefinitionKey) {
+    String historyLevel = null;
+    if (processDefinitionHistoryLevels!=null) {
+      historyLevel = processDefinitionHistoryLevels.get(processDefinitionKey);
+    }
+    if (historyLevel==null) {
+      historyLevel = processElement.attributeNS(BpmnParser.ACTIVITI_BPMN_EXTENSIONS_NS, "historyLevel");
+    }
+    if (historyLevel==null) {
+      return null;
+    }
+    try {
+      return ProcessEngineConfigurationImpl.parseHistoryLevel(historyLevel.trim());
+    } catch (ActivitiException e) {
+      addError("Cannot parse historyLevel: " + e.getMessage(), processElement);
+      return null;
+    }
+  }
+
   protected boolean isAsync(Element element) {
     return "true".equals(element.attributeNS(BpmnParser.ACTIVITI_BPMN_EXTENSIONS_NS, "async"));
   }
@@ -14,6 +14,7 @@ package org.activiti.engine.impl.bpmn.parser;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.activiti.engine.impl.el.ExpressionManager;
 import org.activiti.engine.impl.util.xml.Parser;
@@ -68,6 +69,7 @@ public class BpmnParser extends Parser {
 
   protected ExpressionManager expressionManager;
   protected List<BpmnParseListener> parseListeners = new ArrayList<BpmnParseListener>();
+  protected Map<String, String> processDefinitionHistoryLevels;
   
   public BpmnParser(ExpressionManager expressionManager) {
     this.expressionManager = expressionManager;
@@ -96,4 +98,12 @@ public class BpmnParser extends Parser {
   public void setParseListeners(List<BpmnParseListener> parseListeners) {
     this.parseListeners = parseListeners;
   }
+
+  public Map<String, String> getProcessDefinitionHistoryLevels() {
+    return processDefinitionHistoryLevels;
+  }
+
+  public void setProcessDefinitionHistoryLevels(Map<String, String> processDefinitionHistoryLevels) {
+    this.processDefinitionHistoryLevels = processDefinitionHistoryLevels;
+  }
 }
@@ -20,13 +20,13 @@ package org.activiti.engine.impl.calendar;
 
 import java.io.Serializable;
 import java.text.ParseException;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
-import java.util.SortedSet;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.TreeSet;
@@ -247,6 +247,15 @@ public class CronExpression implements Serializable, Cloneable {
     protected transient TreeSet<Integer> months;
     protected transient TreeSet<Integer> daysOfWeek;
     protected transient TreeSet<Integer> years;
+    // the same values as bitsets (including the '*' and '?' markers), so that
+    // getTimeAfter finds the next matching value without TreeSet.tailSet views
+    protected transient BitSet secondBits;
+    protected transient BitSet minuteBits;
+    protected transient BitSet hourBits;
+    protected transient BitSet dayOfMonthBits;
+    protected transient BitSet monthBits;
+    protected transient BitSet dayOfWeekBits;
+    protected transient BitSet yearBits;
 
     protected transient boolean lastdayOfWeek = false;
     protected transient int nthdayOfWeek = 0;
@@ -291,6 +300,14 @@ public class CronExpression implements Serializable, Cloneable {
         return timeZone;
     }
 
+    /**
+     * Sets the time zone for which this <code>CronExpression</code>
+     * will be resolved.
+     */
+    public void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
     /**
      * Returns the string representation of the <CODE>CronExpression</CODE>
      *
@@ -387,6 +404,8 @@ public class CronExpression implements Serializable, Cloneable {
                 throw new ParseException(
                         "Support for specifying both a day-of-week AND a day-of-month parameter is not implemented.", 0);
             }
+
+            buildBitSets();
         } catch (ParseException pe) {
             throw pe;
         } catch (Exception e) {
@@ -867,6 +886,24 @@ public class CronExpression implements Serializable, Cloneable {
         }
     }
 
+    protected void buildBitSets() {
+        secondBits = toBitSet(seconds);
+        minuteBits = toBitSet(minutes);
+        hourBits = toBitSet(hours);
+        dayOfMonthBits = toBitSet(daysOfMonth);
+        monthBits = toBitSet(months);
+        dayOfWeekBits = toBitSet(daysOfWeek);
+        yearBits = toBitSet(years);
+    }
+
+    protected BitSet toBitSet(TreeSet<Integer> set) {
+        BitSet bits = new BitSet();
+        for (Integer value : set) {
+            bits.set(value.intValue());
+        }
+        return bits;
+    }
+
     protected TreeSet<Integer> getSet(int type) {
         switch (type) {
             case SECOND:
@@ -959,18 +996,18 @@ public class CronExpression implements Serializable, Cloneable {
                 return null;
             }
 
-            SortedSet st = null;
+            int next = -1;
             int t = 0;
 
             int sec = cl.get(Calendar.SECOND);
             int min = cl.get(Calendar.MINUTE);
 
             // get second.................................................
-            st = seconds.tailSet(Integer.valueOf(sec));
-            if (st != null && st.size() != 0) {
-                sec = ((Integer) st.first()).intValue();
+            next = secondBits.nextSetBit(sec);
+            if (next != -1) {
+                sec = next;
             } else {
-                sec = ((Integer) seconds.first()).intValue();
+                sec = secondBits.nextSetBit(0);
                 min++;
                 cl.set(Calendar.MINUTE, min);
             }
@@ -981,12 +1018,12 @@ public class CronExpression implements Serializable, Cloneable {
             t = -1;
 
             // get minute.................................................
-            st = minutes.tailSet(Integer.valueOf(min));
-            if (st != null && st.size() != 0) {
+            next = minuteBits.nextSetBit(min);
+            if (next != -1) {
                 t = min;
-                min = ((Integer) st.first()).intValue();
+                min = next;
             } else {
-                min = ((Integer) minutes.first()).intValue();
+                min = minuteBits.nextSetBit(0);
                 hr++;
             }
             if (min != t) {
@@ -1002,12 +1039,12 @@ public class CronExpression implements Serializable, Cloneable {
             t = -1;
 
             // get hour...................................................
-            st = hours.tailSet(Integer.valueOf(hr));
-            if (st != null && st.size() != 0) {
+            next = hourBits.nextSetBit(hr);
+            if (next != -1) {
                 t = hr;
-                hr = ((Integer) st.first()).intValue();
+                hr = next;
             } else {
-                hr = ((Integer) hours.first()).intValue();
+                hr = hourBits.nextSetBit(0);
                 day++;
             }
             if (hr != t) {
@@ -1027,10 +1064,10 @@ public class CronExpression implements Serializable, Cloneable {
             int tmon = mon;
 
             // get day...................................................
-            boolean dayOfMSpec = !daysOfMonth.contains(NO_SPEC);
-            boolean dayOfWSpec = !daysOfWeek.contains(NO_SPEC);
+            boolean dayOfMSpec = !dayOfMonthBits.get(NO_SPEC_INT);
+            boolean dayOfWSpec = !dayOfWeekBits.get(NO_SPEC_INT);
             if (dayOfMSpec && !dayOfWSpec) { // get day by day of month rule
-                st = daysOfMonth.tailSet(Integer.valueOf(day));
+                next = dayOfMonthBits.nextSetBit(day);
                 if (lastdayOfMonth) {
                     if(!nearestWeekday) {
                         t = day;
@@ -1075,7 +1112,7 @@ public class CronExpression implements Serializable, Cloneable {
                     }
                 } else if(nearestWeekday) {
                     t = day;
-                    day = ((Integer) daysOfMonth.first()).intValue();
+                    day = dayOfMonthBits.nextSetBit(0);
 
                     java.util.Calendar tcal = java.util.Calendar.getInstance(getTimeZone());
                     tcal.set(Calendar.SECOND, 0);
@@ -1106,20 +1143,20 @@ public class CronExpression implements Serializable, Cloneable {
                     tcal.set(Calendar.MONTH, mon - 1);
                     Date nTime = tcal.getTime();
                     if(nTime.before(afterTime)) {
-                        day = ((Integer) daysOfMonth.first()).intValue();
+                        day = dayOfMonthBits.nextSetBit(0);
                         mon++;
                     }
-                } else if (st != null && st.size() != 0) {
+                } else if (next != -1) {
                     t = day;
-                    day = ((Integer) st.first()).intValue();
+                    day = next;
                     // make sure we don't over-run a short month, such as february
                     int lastDay = getLastDayOfMonth(mon, cl.get(Calendar.YEAR));
                     if (day > lastDay) {
-                        day = ((Integer) daysOfMonth.first()).intValue();
+                        day = dayOfMonthBits.nextSetBit(0);
                         mon++;
                     }
                 } else {
-                    day = ((Integer) daysOfMonth.first()).intValue();
+                    day = dayOfMonthBits.nextSetBit(0);
                     mon++;
                 }
 
@@ -1136,7 +1173,7 @@ public class CronExpression implements Serializable, Cloneable {
             } else if (dayOfWSpec && !dayOfMSpec) { // get day by day of week rule
                 if (lastdayOfWeek) { // are we looking for the last XXX day of
                     // the month?
-                    int dow = ((Integer) daysOfWeek.first()).intValue(); // desired
+                    int dow = dayOfWeekBits.nextSetBit(0); // desired
                     // d-o-w
                     int cDow = cl.get(Calendar.DAY_OF_WEEK); // current d-o-w
                     int daysToAdd = 0;
@@ -1179,7 +1216,7 @@ public class CronExpression implements Serializable, Cloneable {
 
                 } else if (nthdayOfWeek != 0) {
                     // are we looking for the Nth XXX day in the month?
-                    int dow = ((Integer) daysOfWeek.first()).intValue(); // desired
+                    int dow = dayOfWeekBits.nextSetBit(0); // desired
                     // d-o-w
                     int cDow = cl.get(Calendar.DAY_OF_WEEK); // current d-o-w
                     int daysToAdd = 0;
@@ -1223,11 +1260,11 @@ public class CronExpression implements Serializable, Cloneable {
                     }
                 } else {
                     int cDow = cl.get(Calendar.DAY_OF_WEEK); // current d-o-w
-                    int dow = ((Integer) daysOfWeek.first()).intValue(); // desired
+                    int dow = dayOfWeekBits.nextSetBit(0); // desired
                     // d-o-w
-                    st = daysOfWeek.tailSet(Integer.valueOf(cDow));
-                    if (st != null && st.size() > 0) {
-                        dow = ((Integer) st.first()).intValue();
+                    next = dayOfWeekBits.nextSetBit(cDow);
+                    if (next != -1) {
+                        dow = next;
                     }
 
                     int daysToAdd = 0;
@@ -1280,12 +1317,12 @@ public class CronExpression implements Serializable, Cloneable {
             }
 
             // get month...................................................
-            st = months.tailSet(Integer.valueOf(mon));
-            if (st != null && st.size() != 0) {
+            next = monthBits.nextSetBit(mon);
+            if (next != -1) {
                 t = mon;
-                mon = ((Integer) st.first()).intValue();
+                mon = next;
             } else {
-                mon = ((Integer) months.first()).intValue();
+                mon = monthBits.nextSetBit(0);
                 year++;
             }
             if (mon != t) {
@@ -1307,10 +1344,10 @@ public class CronExpression implements Serializable, Cloneable {
             t = -1;
 
             // get year...................................................
-            st = years.tailSet(Integer.valueOf(year));
-            if (st != null && st.size() != 0) {
+            next = yearBits.nextSetBit(year);
+            if (next != -1) {
                 t = year;
-                year = ((Integer) st.first()).intValue();
+                year = next;
             } else {
                 return null; // ran out of years...
             }
@@ -12,25 +12,45 @@
  */
 package org.activiti.engine.impl.calendar;
 
+import java.util.Date;
+import java.util.TimeZone;
+
 import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.persistence.deploy.BoundedCacheMap;
 import org.activiti.engine.impl.util.ClockUtil;
 
-import javax.xml.datatype.Duration;
-import java.text.ParseException;
-import java.util.Date;
-
+/**
+ * Resolves the next due date of repeating timers, from an ISO 8601 repeating 
+ * interval or a cron expression.  Parsed expressions are kept in a bounded 
+ * LRU cache by expression and default time zone, so that timers firing 
+ * repeatedly don't parse the same expression over and over.  The cached 
+ * {@link DurationHelper}s and {@link CronExpression}s are not changed when 
+ * they are evaluated, so they are shared between threads.
+ */
 public class CycleBusinessCalendar implements BusinessCalendar {
 
   public static String NAME = "cycle";
+  
+  public static final int DEFAULT_CACHE_LIMIT = 1000;
+  
+  protected BoundedCacheMap<String, Object> parsedExpressions;
 
+  public CycleBusinessCalendar() {
+    this(DEFAULT_CACHE_LIMIT);
+  }
+
+  /** @param cacheLimit the maximum number of parsed expressions, 0 or less for no limit */
+  public CycleBusinessCalendar(int cacheLimit) {
+    parsedExpressions = new BoundedCacheMap<String, Object>(cacheLimit, BoundedCacheMap.EVICTION_POLICY_LRU, null);
+  }
 
   public Date resolveDuedate(String duedateDescription) {
     try {
-      if (duedateDescription.startsWith("R")) {
-        return new DurationHelper(duedateDescription).getDateAfter();
+      Object parsedExpression = getParsedExpression(duedateDescription);
+      if (parsedExpression instanceof DurationHelper) {
+        return ((DurationHelper) parsedExpression).getDateAfterNow();
       } else {
-        CronExpression ce = new CronExpression(duedateDescription);
-        return ce.getTimeAfter(ClockUtil.getCurrentTime());
+        return ((CronExpression) parsedExpression).getTimeAfter(ClockUtil.getCurrentTime());
       }
 
     } catch (Exception e) {
@@ -39,4 +59,31 @@ public class CycleBusinessCalendar implements BusinessCalendar {
 
   }
 
+  protected Object getParsedExpression(String duedateDescription) throws Exception {
+    // dates without time zone are parsed in the default time zone
+    TimeZone timeZone = TimeZone.getDefault();
+    String key = timeZone.getID() + " " + duedateDescription;
+    Object parsedExpression = parsedExpressions.get(key);
+    if (parsedExpression == null) {
+      if (duedateDescription.startsWith("R")) {
+        parsedExpression = new DurationHelper(duedateDescription);
+      } else {
+        CronExpression cronExpression = new CronExpression(duedateDescription);
+        // the time zone is initialized lazily, so it is set before the expression is shared
+        cronExpression.setTimeZone(timeZone);
+        parsedExpression = cronExpression;
+      }
+      parsedExpressions.put(key, parsedExpression);
+    }
+    return parsedExpression;
+  }
+  
+  public void clearCache() {
+    parsedExpressions.clear();
+  }
+  
+  public int getCacheSize() {
+    return parsedExpressions.size();
+  }
+
 }
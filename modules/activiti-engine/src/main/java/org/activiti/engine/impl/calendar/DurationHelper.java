@@ -36,6 +36,9 @@ public class DurationHelper {
 
   int times;
 
+  /** neither start nor end are given, so the expression starts when it is parsed */
+  boolean isStartImplicit;
+
   DatatypeFactory datatypeFactory;
 
   public DurationHelper(String expressionS) throws Exception {
@@ -64,14 +67,31 @@ public class DurationHelper {
       }
     }
     if (start == null && end == null) {
+      isStartImplicit = true;
       start = ClockUtil.getCurrentTime();
     }
 
   }
 
   public Date getDateAfter() {
+    return getDateAfter(start);
+  }
+
+  /**
+   * Like {@link #getDateAfter()}, but an expression without start and end 
+   * starts at the current time instead of at the time it was parsed.  
+   * This allows to reuse a parsed helper, as the helper is not changed.
+   */
+  public Date getDateAfterNow() {
+    if (isStartImplicit) {
+      return getDateAfter(ClockUtil.getCurrentTime());
+    }
+    return getDateAfter(start);
+  }
+
+  private Date getDateAfter(Date start) {
     if (isRepeat) {
-      return getDateAfterRepeat(ClockUtil.getCurrentTime());
+      return getDateAfterRepeat(start, ClockUtil.getCurrentTime());
     }
     //TODO: is this correct?
     if (end != null) {
@@ -80,7 +100,7 @@ public class DurationHelper {
     return add(start, period);
   }
 
-  private Date getDateAfterRepeat(Date date) {
+  private Date getDateAfterRepeat(Date start, Date date) {
     if (start != null) {
       Date cur = start;
       for (int i=0;i<times && !cur.after(date);i++) {
@@ -98,6 +118,15 @@ public class DurationHelper {
     return next.before(date) ? null : next;
   }
 
+  public boolean isRepeat() {
+    return isRepeat;
+  }
+
+  /** number of repetitions of a repeating expression */
+  public int getTimes() {
+    return times;
+  }
+
   private Date add(Date date, Duration duration) {
     Calendar calendar = new GregorianCalendar();
     calendar.setTime(date);
@@ -21,6 +21,7 @@ import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -76,6 +77,7 @@ import org.activiti.engine.impl.form.FormTypes;
 import org.activiti.engine.impl.form.JuelFormEngine;
 import org.activiti.engine.impl.form.LongFormType;
 import org.activiti.engine.impl.form.StringFormType;
+import org.activiti.engine.impl.history.AsyncHistoryWriter;
 import org.activiti.engine.impl.history.handler.HistoryParseListener;
 import org.activiti.engine.impl.interceptor.CommandContextFactory;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
@@ -84,10 +86,10 @@ import org.activiti.engine.impl.interceptor.CommandInterceptor;
 import org.activiti.engine.impl.interceptor.DelegateInterceptor;
 import org.activiti.engine.impl.interceptor.SessionFactory;
 import org.activiti.engine.impl.jobexecutor.AsyncContinuationJobHandler;
-import org.activiti.engine.impl.jobexecutor.CallerRunsRejectedJobsHandler;
 import org.activiti.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
 import org.activiti.engine.impl.jobexecutor.DefaultJobExecutor;
 import org.activiti.engine.impl.jobexecutor.FailedJobCommandFactory;
+import org.activiti.engine.impl.jobexecutor.HistoryCleanupJobHandler;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.jobexecutor.JobHandler;
 import org.activiti.engine.impl.jobexecutor.ProcessEventJobHandler;
@@ -95,8 +97,11 @@ import org.activiti.engine.impl.jobexecutor.RejectedJobsHandler;
 import org.activiti.engine.impl.jobexecutor.TimerCatchIntermediateEventJobHandler;
 import org.activiti.engine.impl.jobexecutor.TimerExecuteNestedActivityJobHandler;
 import org.activiti.engine.impl.jobexecutor.TimerStartEventJobHandler;
+import org.activiti.engine.impl.jobexecutor.UnlockRejectedJobsHandler;
 import org.activiti.engine.impl.mail.MailScanner;
 import org.activiti.engine.impl.persistence.GenericManagerFactory;
+import org.activiti.engine.impl.persistence.deploy.BoundedCacheMap;
+import org.activiti.engine.impl.persistence.deploy.CacheWeigher;
 import org.activiti.engine.impl.persistence.deploy.Deployer;
 import org.activiti.engine.impl.persistence.deploy.DeploymentCache;
 import org.activiti.engine.impl.persistence.entity.AttachmentManager;
@@ -109,10 +114,13 @@ import org.activiti.engine.impl.persistence.entity.HistoricActivityInstanceManag
 import org.activiti.engine.impl.persistence.entity.HistoricDetailManager;
 import org.activiti.engine.impl.persistence.entity.HistoricProcessInstanceManager;
 import org.activiti.engine.impl.persistence.entity.HistoricTaskInstanceManager;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxManager;
+import org.activiti.engine.impl.persistence.entity.HistoryPartitionManager;
 import org.activiti.engine.impl.persistence.entity.IdentityInfoManager;
 import org.activiti.engine.impl.persistence.entity.IdentityLinkManager;
 import org.activiti.engine.impl.persistence.entity.JobManager;
 import org.activiti.engine.impl.persistence.entity.MembershipManager;
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.activiti.engine.impl.persistence.entity.ProcessDefinitionManager;
 import org.activiti.engine.impl.persistence.entity.PropertyManager;
 import org.activiti.engine.impl.persistence.entity.ResourceManager;
@@ -216,6 +224,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected List<Deployer> customPostDeployers;
   protected List<Deployer> deployers;
   protected DeploymentCache deploymentCache;
+  /** maximum number (or weight) of cached process definitions, 0 or less means unbounded.  
+   * An evicted process definition is reloaded by redeploying its whole deployment, which 
+   * caches all process definitions of that deployment again: keep the limit well above the 
+   * number of process definitions in the largest deployment, otherwise every miss evicts 
+   * definitions of the same deployment and the cache keeps reparsing it. */
+  protected int processDefinitionCacheLimit = -1;
+  protected String processDefinitionCacheEvictionPolicy = BoundedCacheMap.EVICTION_POLICY_LRU;
+  protected CacheWeigher<ProcessDefinitionEntity> processDefinitionCacheWeigher;
+  protected int knowledgeBaseCacheLimit = -1;
 
   // JOB EXECUTOR /////////////////////////////////////////////////////////////
   
@@ -235,6 +252,11 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   // ID GENERATOR /////////////////////////////////////////////////////////////
   protected IdGenerator idGenerator;
+  /** ids left in the current id block at which the next block is prefetched, 0 disables prefetching */
+  protected int idBlockLowWaterMark = 0;
+  /** ids every thread reserves at once, 0 disables it.  Unused ids are lost when a thread ends, 
+   * so only enable it when ids are created by long lived pooled threads. */
+  protected int threadIdBlockSize = 0;
   
   // OTHER ////////////////////////////////////////////////////////////////////
   protected List<FormEngine> customFormEngines;
@@ -251,6 +273,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected List<String> customScriptingEngineClasses;
   protected ScriptingEngines scriptingEngines;
   protected List<ResolverFactory> resolverFactories;
+  protected int compiledScriptCacheLimit = ScriptingEngines.DEFAULT_COMPILED_SCRIPT_CACHE_LIMIT;
   
   protected BusinessCalendarManager businessCalendarManager;
 
@@ -260,6 +283,10 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected TransactionContextFactory transactionContextFactory;
   
   protected int historyLevel;
+  /** history level names by process definition key, see {@link #setProcessDefinitionHistoryLevels(Map)} */
+  protected Map<String, String> processDefinitionHistoryLevels;
+  /** stays below the maximum number of expressions in an in-list on oracle */
+  protected int historyCleanupBatchSize = 500;
   
   protected List<BpmnParseListener> preParseListeners;
   protected List<BpmnParseListener> postParseListeners;
@@ -268,6 +295,15 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
   protected boolean isDbIdentityUsed = true;
   protected boolean isDbHistoryUsed = true;
+  protected boolean isSelectiveVariableLoading = false;
+  protected boolean isDbBatchFlushEnabled = false;
+  protected boolean isAsyncHistoryEnabled = false;
+  protected AsyncHistoryWriter asyncHistoryWriter;
+  protected boolean isHistoryPartitioned = false;
+  protected boolean isByteArrayCompressionEnabled = false;
+  /** smaller byte arrays are stored uncompressed */
+  protected int byteArrayCompressionThreshold = 1024;
+  protected boolean isByteArrayDeduplicationEnabled = false;
   
   protected DelegateInterceptor delegateInterceptor;
 
@@ -279,6 +315,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   protected List<EventHandler> customEventHandlers;
 
   protected FailedJobCommandFactory failedJobCommandFactory;
+  protected boolean isDeadLetterJobsEnabled = false;
   
   protected String databaseTablePrefix = "";
   
@@ -307,6 +344,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     initIdGenerator();
     initDeployers();
     initJobExecutor();
+    initAsyncHistoryWriter();
     initMailScanner();
     initDataSource();
     initTransactionFactory();
@@ -575,6 +613,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       dbSqlSessionFactory.setSqlSessionFactory(sqlSessionFactory);
       dbSqlSessionFactory.setDbIdentityUsed(isDbIdentityUsed);
       dbSqlSessionFactory.setDbHistoryUsed(isDbHistoryUsed);
+      dbSqlSessionFactory.setDbBatchFlushEnabled(isDbBatchFlushEnabled);
+      dbSqlSessionFactory.setAsyncHistoryEnabled(isAsyncHistoryEnabled);
+      dbSqlSessionFactory.setHistoryPartitioned(isHistoryPartitioned);
       dbSqlSessionFactory.setDatabaseTablePrefix(databaseTablePrefix);
       addSessionFactory(dbSqlSessionFactory);
       
@@ -586,6 +627,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       addSessionFactory(new GenericManagerFactory(HistoricDetailManager.class));
       addSessionFactory(new GenericManagerFactory(HistoricProcessInstanceManager.class));
       addSessionFactory(new GenericManagerFactory(HistoricTaskInstanceManager.class));
+      addSessionFactory(new GenericManagerFactory(HistoryOutboxManager.class));
+      addSessionFactory(new GenericManagerFactory(HistoryPartitionManager.class));
       addSessionFactory(new GenericManagerFactory(IdentityInfoManager.class));
       addSessionFactory(new GenericManagerFactory(IdentityLinkManager.class));
       addSessionFactory(new GenericManagerFactory(JobManager.class));
@@ -636,6 +679,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
 
       deploymentCache = new DeploymentCache();
       deploymentCache.setDeployers(deployers);
+      deploymentCache.setProcessDefinitionCache(new BoundedCacheMap<String, ProcessDefinitionEntity>(processDefinitionCacheLimit, processDefinitionCacheEvictionPolicy, processDefinitionCacheWeigher));
+      deploymentCache.setKnowledgeBaseCache(new BoundedCacheMap<String, Object>(knowledgeBaseCacheLimit, processDefinitionCacheEvictionPolicy, null));
     }
   }
 
@@ -646,6 +691,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     bpmnDeployer.setExpressionManager(expressionManager);
     bpmnDeployer.setIdGenerator(idGenerator);
     BpmnParser bpmnParser = new BpmnParser(expressionManager);
+    bpmnParser.setProcessDefinitionHistoryLevels(processDefinitionHistoryLevels);
     
     if(preParseListeners != null) {
       bpmnParser.getParseListeners().addAll(preParseListeners);
@@ -692,6 +738,9 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     ProcessEventJobHandler processEventJobHandler = new ProcessEventJobHandler();
     jobHandlers.put(processEventJobHandler.getType(), processEventJobHandler);
     
+    HistoryCleanupJobHandler historyCleanupJobHandler = new HistoryCleanupJobHandler();
+    jobHandlers.put(historyCleanupJobHandler.getType(), historyCleanupJobHandler);
+    
     // if we have custom job handlers, register them
     if (getCustomJobHandlers()!=null) {
       for (JobHandler customJobHandler : getCustomJobHandlers()) {
@@ -706,12 +755,23 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
       if(customRejectedJobsHandler != null) {
         jobExecutor.setRejectedJobsHandler(customRejectedJobsHandler);
       } else {
-        jobExecutor.setRejectedJobsHandler(new CallerRunsRejectedJobsHandler());
+        jobExecutor.setRejectedJobsHandler(new UnlockRejectedJobsHandler());
       }
     }
     
   }
   
+  // async history ////////////////////////////////////////////////////////////
+  
+  protected void initAsyncHistoryWriter() {
+    if (isAsyncHistoryEnabled) {
+      if (asyncHistoryWriter==null) {
+        asyncHistoryWriter = new AsyncHistoryWriter();
+      }
+      asyncHistoryWriter.setCommandExecutor(commandExecutorTxRequired);
+    }
+  }
+  
   protected void initMailScanner() {
     if (mailScanner==null) {
       mailScanner = new MailScanner();
@@ -722,17 +782,22 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   // history //////////////////////////////////////////////////////////////////
   
   public void initHistoryLevel() {
+    historyLevel = parseHistoryLevel(history);
+  }
+  
+  /** converts one of the history level names none, activity, audit or full 
+   * into the corresponding HISTORYLEVEL_ constant. */
+  public static int parseHistoryLevel(String history) {
     if (HISTORY_NONE.equalsIgnoreCase(history)) {
-      historyLevel = 0;
+      return HISTORYLEVEL_NONE;
     } else if (HISTORY_ACTIVITY.equalsIgnoreCase(history)) {
-      historyLevel = 1;
+      return HISTORYLEVEL_ACTIVITY;
     } else if (HISTORY_AUDIT.equalsIgnoreCase(history)) {
-      historyLevel = 2;
+      return HISTORYLEVEL_AUDIT;
     } else if (HISTORY_FULL.equalsIgnoreCase(history)) {
-      historyLevel = 3;
-    } else {
-      throw new ActivitiException("invalid history level: "+history);
+      return HISTORYLEVEL_FULL;
     }
+    throw new ActivitiException("invalid history level: "+history);
   }
   
   // id generator /////////////////////////////////////////////////////////////
@@ -741,6 +806,8 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     if (idGenerator==null) {
       DbIdGenerator dbIdGenerator = new DbIdGenerator();
       dbIdGenerator.setIdBlockSize(idBlockSize);
+      dbIdGenerator.setLowWaterMark(idBlockLowWaterMark);
+      dbIdGenerator.setThreadIdBlockSize(threadIdBlockSize);
       dbIdGenerator.setCommandExecutor(commandExecutorTxRequiresNew);
       idGenerator = dbIdGenerator;
     }
@@ -826,6 +893,7 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     }
     if (scriptingEngines==null) {
       scriptingEngines = new ScriptingEngines(new ScriptBindingsFactory(resolverFactories));
+      scriptingEngines.setCompiledScriptCacheLimit(compiledScriptCacheLimit);
     }
   }
 
@@ -911,6 +979,35 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   public void setHistoryLevel(int historyLevel) {
     this.historyLevel = historyLevel;
   }
+  
+  public Map<String, String> getProcessDefinitionHistoryLevels() {
+    return processDefinitionHistoryLevels;
+  }
+  
+  /**
+   * History levels (none, activity, audit or full) by process definition key.  
+   * A configured level takes precedence over the activiti:historyLevel attribute
+   * of the process.  Like that attribute, it can only lower the history level 
+   * of the engine for the process definition: a higher level is ignored.  
+   * The levels are applied when process definitions are parsed.
+   */
+  public void setProcessDefinitionHistoryLevels(Map<String, String> processDefinitionHistoryLevels) {
+    this.processDefinitionHistoryLevels = processDefinitionHistoryLevels;
+  }
+  
+  public int getHistoryCleanupBatchSize() {
+    return historyCleanupBatchSize;
+  }
+  
+  /**
+   * Number of historic process instances that a history cleanup deletes in one 
+   * transaction, see {@link HistoryService#cleanupHistoricProcessInstancesEndedBefore(Date, String)}.  
+   * The ids of a chunk end up in an 'in' list, so keep it below 1000 on Oracle.
+   */
+  public ProcessEngineConfigurationImpl setHistoryCleanupBatchSize(int historyCleanupBatchSize) {
+    this.historyCleanupBatchSize = historyCleanupBatchSize;
+    return this;
+  }
 
   public ProcessEngineConfigurationImpl setProcessEngineName(String processEngineName) {
     this.processEngineName = processEngineName;
@@ -1088,6 +1185,35 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
   
+  public int getIdBlockLowWaterMark() {
+    return idBlockLowWaterMark;
+  }
+  
+  /**
+   * When only this many ids are left in the current id block, the next block 
+   * is fetched in the background, so that id generation doesn't wait for the 
+   * database.  Only applies to the default {@link DbIdGenerator}.
+   */
+  public ProcessEngineConfigurationImpl setIdBlockLowWaterMark(int idBlockLowWaterMark) {
+    this.idBlockLowWaterMark = idBlockLowWaterMark;
+    return this;
+  }
+  
+  public int getThreadIdBlockSize() {
+    return threadIdBlockSize;
+  }
+  
+  /**
+   * Number of ids every thread reserves from the current id block at once.  
+   * The ids a thread hasn't used when it ends are lost, so with short lived 
+   * threads this wastes most of every id block; leave it at 0 then.  
+   * Only applies to the default {@link DbIdGenerator}.
+   */
+  public ProcessEngineConfigurationImpl setThreadIdBlockSize(int threadIdBlockSize) {
+    this.threadIdBlockSize = threadIdBlockSize;
+    return this;
+  }
+  
   public String getWsSyncFactoryClassName() {
     return wsSyncFactoryClassName;
   }
@@ -1124,6 +1250,21 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
   
+  public int getCompiledScriptCacheLimit() {
+    return compiledScriptCacheLimit;
+  }
+  
+  /**
+   * Maximum number of compiled scripts that are kept per scripting language.  
+   * Only scripts of thread safe engines implementing {@link javax.script.Compilable} 
+   * are compiled, each by an engine of its own that is garbage collected 
+   * together with the evicted script.  0 disables the cache.
+   */
+  public ProcessEngineConfigurationImpl setCompiledScriptCacheLimit(int compiledScriptCacheLimit) {
+    this.compiledScriptCacheLimit = compiledScriptCacheLimit;
+    return this;
+  }
+  
   public VariableTypes getVariableTypes() {
     return variableTypes;
   }
@@ -1526,6 +1667,115 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   public void setDbHistoryUsed(boolean isDbHistoryUsed) {
     this.isDbHistoryUsed = isDbHistoryUsed;
   }
+
+  public boolean isSelectiveVariableLoading() {
+    return isSelectiveVariableLoading;
+  }
+
+  /**
+   * When enabled, reading single variables (getVariable, hasVariable, expressions)
+   * fetches only the requested variables of a scope instead of all its variables.  
+   * Fetched and missing variables are remembered until the end of the command.
+   * Reading all variables or changing a variable still loads all variables of the scope.
+   */
+  public ProcessEngineConfigurationImpl setSelectiveVariableLoading(boolean isSelectiveVariableLoading) {
+    this.isSelectiveVariableLoading = isSelectiveVariableLoading;
+    return this;
+  }
+  
+  public boolean isDbBatchFlushEnabled() {
+    return isDbBatchFlushEnabled;
+  }
+  
+  /**
+   * When enabled, the inserts, updates and deletes of a flush are sent to the 
+   * database in jdbc batches instead of one round-trip per entity.  On oracle, 
+   * whose jdbc drivers don't report the row counts of batched statements, 
+   * updates are still executed one by one so that optimistic locking failures 
+   * are detected.
+   */
+  public void setDbBatchFlushEnabled(boolean isDbBatchFlushEnabled) {
+    this.isDbBatchFlushEnabled = isDbBatchFlushEnabled;
+  }
+  
+  public boolean isAsyncHistoryEnabled() {
+    return isAsyncHistoryEnabled;
+  }
+  
+  /**
+   * When enabled, ended activity instances, variable updates and form properties 
+   * of process instances are not inserted in the history tables by the transaction 
+   * that produced them.  They are stored in a history outbox in that transaction 
+   * and written to the history tables in batches by the {@link AsyncHistoryWriter} 
+   * after the commit.  The history queries only see them once they are written.
+   */
+  public void setAsyncHistoryEnabled(boolean isAsyncHistoryEnabled) {
+    this.isAsyncHistoryEnabled = isAsyncHistoryEnabled;
+  }
+  
+  public AsyncHistoryWriter getAsyncHistoryWriter() {
+    return asyncHistoryWriter;
+  }
+  
+  public void setAsyncHistoryWriter(AsyncHistoryWriter asyncHistoryWriter) {
+    this.asyncHistoryWriter = asyncHistoryWriter;
+  }
+  
+  public boolean isHistoryPartitioned() {
+    return isHistoryPartitioned;
+  }
+  
+  /**
+   * When enabled on postgres, oracle or mysql, the history tables ACT_HI_PROCINST, 
+   * ACT_HI_ACTINST and ACT_HI_DETAIL are created range partitioned by month, and 
+   * the history tables of an existing schema are converted when the schema is updated.  
+   * On mysql and postgres, the unique key on the process definition and business key 
+   * of ACT_HI_PROCINST has to contain the partitioning column START_TIME_, so it only 
+   * keeps process instances started at the same time from sharing a business key; 
+   * running process instances are still kept unique by the key on ACT_RU_EXECUTION.  
+   * See {@link ManagementService#createHistoryPartition(Date)} and 
+   * {@link ManagementService#archiveHistoryPartition(Date, String)}.
+   */
+  public void setHistoryPartitioned(boolean isHistoryPartitioned) {
+    this.isHistoryPartitioned = isHistoryPartitioned;
+  }
+  
+  public boolean isByteArrayCompressionEnabled() {
+    return isByteArrayCompressionEnabled;
+  }
+  
+  /**
+   * When enabled, byte arrays of variables, historic variable updates, 
+   * deployment resources and other entities are deflated before they are 
+   * written to ACT_GE_BYTEARRAY.  Byte arrays are always read transparently, 
+   * compressed or not, so compression can be switched on and off for an 
+   * existing database.
+   */
+  public void setByteArrayCompressionEnabled(boolean isByteArrayCompressionEnabled) {
+    this.isByteArrayCompressionEnabled = isByteArrayCompressionEnabled;
+  }
+  
+  public int getByteArrayCompressionThreshold() {
+    return byteArrayCompressionThreshold;
+  }
+  
+  public void setByteArrayCompressionThreshold(int byteArrayCompressionThreshold) {
+    this.byteArrayCompressionThreshold = byteArrayCompressionThreshold;
+  }
+  
+  public boolean isByteArrayDeduplicationEnabled() {
+    return isByteArrayDeduplicationEnabled;
+  }
+  
+  /**
+   * When enabled, a historic variable update with the same content as an 
+   * earlier update of the same process instance and task in the same month 
+   * shares the byte array of that update instead of storing another copy.  
+   * Byte arrays are matched by the SHA-256 hash of their content.
+   */
+  public void setByteArrayDeduplicationEnabled(boolean isByteArrayDeduplicationEnabled) {
+    this.isByteArrayDeduplicationEnabled = isByteArrayDeduplicationEnabled;
+  }
   
   public List<ResolverFactory> getResolverFactories() {
     return resolverFactories;
@@ -1550,6 +1800,54 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
   public void setDeploymentCache(DeploymentCache deploymentCache) {
     this.deploymentCache = deploymentCache;
   }
+  
+  public int getProcessDefinitionCacheLimit() {
+    return processDefinitionCacheLimit;
+  }
+  
+  /**
+   * Bounds the process definition cache to the given number of process definitions, 
+   * or to the given total weight when a {@link #setProcessDefinitionCacheWeigher(CacheWeigher) weigher} 
+   * is configured.  Evicted process definitions are redeployed on the next access, 
+   * together with all other process definitions of their deployment.  The limit should 
+   * be well above the number of process definitions in a single deployment, otherwise 
+   * the definitions of a deployment keep evicting each other, see {@link DeploymentCache}.
+   */
+  public ProcessEngineConfigurationImpl setProcessDefinitionCacheLimit(int processDefinitionCacheLimit) {
+    this.processDefinitionCacheLimit = processDefinitionCacheLimit;
+    return this;
+  }
+  
+  public String getProcessDefinitionCacheEvictionPolicy() {
+    return processDefinitionCacheEvictionPolicy;
+  }
+  
+  /**
+   * Either {@link BoundedCacheMap#EVICTION_POLICY_LRU 'lru'} (default) or 
+   * {@link BoundedCacheMap#EVICTION_POLICY_LFU 'lfu'}.
+   */
+  public ProcessEngineConfigurationImpl setProcessDefinitionCacheEvictionPolicy(String processDefinitionCacheEvictionPolicy) {
+    this.processDefinitionCacheEvictionPolicy = processDefinitionCacheEvictionPolicy;
+    return this;
+  }
+  
+  public CacheWeigher<ProcessDefinitionEntity> getProcessDefinitionCacheWeigher() {
+    return processDefinitionCacheWeigher;
+  }
+  
+  public ProcessEngineConfigurationImpl setProcessDefinitionCacheWeigher(CacheWeigher<ProcessDefinitionEntity> processDefinitionCacheWeigher) {
+    this.processDefinitionCacheWeigher = processDefinitionCacheWeigher;
+    return this;
+  }
+  
+  public int getKnowledgeBaseCacheLimit() {
+    return knowledgeBaseCacheLimit;
+  }
+  
+  public ProcessEngineConfigurationImpl setKnowledgeBaseCacheLimit(int knowledgeBaseCacheLimit) {
+    this.knowledgeBaseCacheLimit = knowledgeBaseCacheLimit;
+    return this;
+  }
     
   public ProcessEngineConfigurationImpl setDelegateInterceptor(DelegateInterceptor delegateInterceptor) {
     this.delegateInterceptor = delegateInterceptor;
@@ -1598,6 +1896,21 @@ public abstract class ProcessEngineConfigurationImpl extends ProcessEngineConfig
     return this;
   }
   
+  public boolean isDeadLetterJobsEnabled() {
+    return isDeadLetterJobsEnabled;
+  }
+  
+  /**
+   * When enabled, jobs that run out of retries are moved from ACT_RU_JOB to 
+   * ACT_RU_DEADLETTER_JOB, so that the job acquisition doesn't scan them anymore.
+   * Setting the retries of such a job with {@link ManagementService#setJobRetries(String, int)} 
+   * moves it back.  Dead letter jobs are not returned by job queries.
+   */
+  public ProcessEngineConfigurationImpl setDeadLetterJobsEnabled(boolean isDeadLetterJobsEnabled) {
+    this.isDeadLetterJobsEnabled = isDeadLetterJobsEnabled;
+    return this;
+  }
+  
   /**
    * Allows configuring a database table prefix which is used for all runtime operations of the process engine.
    * For example, if you specify a prefix named 'PRE1.', activiti will query for executions in a table named
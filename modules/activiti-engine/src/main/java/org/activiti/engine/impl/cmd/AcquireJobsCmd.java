@@ -14,15 +14,20 @@ package org.activiti.engine.impl.cmd;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 
 import org.activiti.engine.impl.Page;
+import org.activiti.engine.impl.cfg.TransactionState;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.jobexecutor.AcquiredJobs;
+import org.activiti.engine.impl.jobexecutor.FailedAcquisitionListener;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.JobManager;
 import org.activiti.engine.impl.util.ClockUtil;
 
 
@@ -35,46 +40,76 @@ public class AcquireJobsCmd implements Command<AcquiredJobs> {
   private static final long serialVersionUID = 1L;
   
   private final JobExecutor jobExecutor;
+  private final Integer partitionFrom;
+  private final Integer partitionTo;
 
   public AcquireJobsCmd(JobExecutor jobExecutor) {
     this.jobExecutor = jobExecutor;
+    this.partitionFrom = null;
+    this.partitionTo = null;
+  }
+
+  /** only acquires jobs with a partition in [partitionFrom, partitionTo) */
+  public AcquireJobsCmd(JobExecutor jobExecutor, int partitionFrom, int partitionTo) {
+    this.jobExecutor = jobExecutor;
+    this.partitionFrom = partitionFrom;
+    this.partitionTo = partitionTo;
   }
   
   public AcquiredJobs execute(CommandContext commandContext) {
     
+    if (jobExecutor.isSkipLockedAcquisition()
+            && commandContext.getJobManager().isSkipLockedAcquisitionSupported()) {
+      return acquireJobsSkipLocked(commandContext);
+    }
+    
     String lockOwner = jobExecutor.getLockOwner();
     int lockTimeInMillis = jobExecutor.getLockTimeInMillis();
-    int maxJobsPerAcquisition = jobExecutor.getMaxJobsPerAcquisition();    
+    int maxJobsPerAcquisition = jobExecutor.getAcquisitionSize();    
     int jobsInThisAcquisition = 0;
     
     AcquiredJobs acquiredJobs = new AcquiredJobs();
+    if (maxJobsPerAcquisition<=0) {
+      // no free capacity to execute jobs
+      return acquiredJobs;
+    }
+    List<String> reservedJobIds = getReservedJobIds(commandContext);
     List<JobEntity> jobs = commandContext
       .getJobManager()
-      .findNextJobsToExecute(new Page(0, maxJobsPerAcquisition));
+      .findNextJobsToExecute(partitionFrom, partitionTo, new Page(0, maxJobsPerAcquisition));
         
     for (JobEntity job: jobs) {
       List<String> jobIds = new ArrayList<String>();
+      int priority = JobEntity.DEFAULT_PRIORITY;
 
       if (job != null && !acquiredJobs.contains(job.getId())) {     
+        priority = job.getPriority();
         if (job.isExclusive() && job.getProcessInstanceId() != null) {
           // acquire all exclusive jobs in the same process instance
           // (includes the current job)
           List<JobEntity> exclusiveJobs = commandContext.getJobManager()
             .findExclusiveJobsToExecute(job.getProcessInstanceId());
+          if (!reserveJobs(exclusiveJobs, reservedJobIds)) {
+            continue;
+          }
           for (JobEntity exclusiveJob : exclusiveJobs) {   
             if(exclusiveJob != null) {
               lockJob(exclusiveJob, lockOwner, lockTimeInMillis);
               jobIds.add(exclusiveJob.getId());
+              priority = Math.max(priority, exclusiveJob.getPriority());
             }
           }
         } else {
+          if (!reserveJobs(Collections.singletonList(job), reservedJobIds)) {
+            continue;
+          }
           lockJob(job, lockOwner, lockTimeInMillis);
           jobIds.add(job.getId());        
         }
         
       } 
 
-      acquiredJobs.addJobIdBatch(jobIds);
+      acquiredJobs.addJobIdBatch(jobIds, priority);
       
       jobsInThisAcquisition += jobIds.size();
       if(jobsInThisAcquisition >= maxJobsPerAcquisition) {
@@ -85,11 +120,108 @@ public class AcquireJobsCmd implements Command<AcquiredJobs> {
     return acquiredJobs;
   }
 
+  /**
+   * Selects the jobs with SELECT ... FOR UPDATE SKIP LOCKED, so that jobs 
+   * being acquired by another job executor are skipped instead of causing 
+   * an optimistic locking exception at flush time.  All acquired jobs are 
+   * then locked with a single bulk update.  The exclusive jobs of a process 
+   * instance are only acquired if none of them is skipped, otherwise the 
+   * process instance is left to the next acquisition.
+   */
+  protected AcquiredJobs acquireJobsSkipLocked(CommandContext commandContext) {
+    JobManager jobManager = commandContext.getJobManager();
+    int maxJobsPerAcquisition = jobExecutor.getAcquisitionSize();    
+    
+    AcquiredJobs acquiredJobs = new AcquiredJobs();
+    List<String> lockedJobIds = new ArrayList<String>();
+    if (maxJobsPerAcquisition<=0) {
+      return acquiredJobs;
+    }
+    List<String> reservedJobIds = getReservedJobIds(commandContext);
+    List<JobEntity> jobs = jobManager.findNextJobsToExecuteSkipLocked(partitionFrom, partitionTo, new Page(0, maxJobsPerAcquisition));
+    
+    for (JobEntity job: jobs) {
+      List<String> jobIds = new ArrayList<String>();
+      int priority = JobEntity.DEFAULT_PRIORITY;
+      
+      if (job != null && !acquiredJobs.contains(job.getId())) {     
+        priority = job.getPriority();
+        if (job.isExclusive() && job.getProcessInstanceId() != null) {
+          List<JobEntity> exclusiveJobs = jobManager.findExclusiveJobsToExecuteSkipLocked(job.getProcessInstanceId());
+          if (exclusiveJobs.size() < jobManager.findExclusiveJobsToExecute(job.getProcessInstanceId()).size()) {
+            // a concurrent acquisition holds some of the exclusive jobs of the process instance, 
+            // acquiring the others would execute exclusive jobs of one process instance concurrently
+            continue;
+          }
+          if (!reserveJobs(exclusiveJobs, reservedJobIds)) {
+            continue;
+          }
+          for (JobEntity exclusiveJob : exclusiveJobs) {   
+            if (exclusiveJob != null && !acquiredJobs.contains(exclusiveJob.getId())) {
+              jobIds.add(exclusiveJob.getId());
+              priority = Math.max(priority, exclusiveJob.getPriority());
+            }
+          }
+        } else {
+          if (!reserveJobs(Collections.singletonList(job), reservedJobIds)) {
+            continue;
+          }
+          jobIds.add(job.getId());        
+        }
+      }
+      
+      acquiredJobs.addJobIdBatch(jobIds, priority);
+      lockedJobIds.addAll(jobIds);
+      
+      if (lockedJobIds.size() >= maxJobsPerAcquisition) {
+        break;
+      }      
+    }
+    
+    jobManager.lockJobs(lockedJobIds, jobExecutor.getLockOwner(), getLockExpirationTime(jobExecutor.getLockTimeInMillis()));
+    
+    return acquiredJobs;
+  }
+
+  /**
+   * The list collecting the ids of the jobs for which a concurrency slot is 
+   * reserved, whose slots are released again if the acquisition is rolled back.
+   * Null if the job executor doesn't limit the concurrency of job handlers.
+   */
+  protected List<String> getReservedJobIds(CommandContext commandContext) {
+    if (!jobExecutor.isJobHandlerConcurrencyLimited()) {
+      return null;
+    }
+    List<String> reservedJobIds = new ArrayList<String>();
+    commandContext.getTransactionContext().addTransactionListener(
+      TransactionState.ROLLED_BACK, 
+      new FailedAcquisitionListener(jobExecutor, reservedJobIds));
+    return reservedJobIds;
+  }
+
+  /** @return false if the jobs must be skipped because the concurrency limit of their job handler is reached. */
+  protected boolean reserveJobs(List<JobEntity> jobs, List<String> reservedJobIds) {
+    if (reservedJobIds==null) {
+      return true;
+    }
+    if (!jobExecutor.reserveJobs(jobs)) {
+      return false;
+    }
+    for (JobEntity job: jobs) {
+      reservedJobIds.add(job.getId());
+    }
+    return true;
+  }
+
   protected void lockJob(JobEntity job, String lockOwner, int lockTimeInMillis) {    
     job.setLockOwner(lockOwner);
+    job.setLockExpirationTime(getLockExpirationTime(lockTimeInMillis));    
+  }
+
+  protected Date getLockExpirationTime(int lockTimeInMillis) {
     GregorianCalendar gregorianCalendar = new GregorianCalendar();
     gregorianCalendar.setTime(ClockUtil.getCurrentTime());
     gregorianCalendar.add(Calendar.MILLISECOND, lockTimeInMillis);
-    job.setLockExpirationTime(gregorianCalendar.getTime());    
+    return gregorianCalendar.getTime();
   }
 }
@@ -0,0 +1,115 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.logging.Logger;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.cfg.TransactionContext;
+import org.activiti.engine.impl.cfg.TransactionState;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.history.HistoryArchiveCommittedListener;
+import org.activiti.engine.impl.history.HistoryArchiveRolledBackListener;
+import org.activiti.engine.impl.history.HistoryArchiveWriter;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.HistoryPartitionManager;
+import org.activiti.engine.impl.util.ClockUtil;
+
+
+/**
+ * Writes the history of a closed month to a compressed archive file and 
+ * deletes it from the history tables.  The archive is written to a temporary 
+ * file that is only renamed to its final name once the deletion committed; 
+ * the emptied partitions are dropped after that in a transaction of their own, 
+ * as partition DDL commits implicitly on some databases.  Archiving a month 
+ * again completes an archiving that failed after the deletion committed.
+ */
+public class ArchiveHistoryPartitionCmd implements Command<String>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static Logger log = Logger.getLogger(ArchiveHistoryPartitionCmd.class.getName());
+  
+  protected Date month;
+  protected String archiveDirectory;
+  
+  public ArchiveHistoryPartitionCmd(Date month, String archiveDirectory) {
+    this.month = month;
+    this.archiveDirectory = archiveDirectory;
+  }
+
+  public String execute(CommandContext commandContext) {
+    if (month==null) {
+      throw new ActivitiException("month is null");
+    }
+    if (archiveDirectory==null) {
+      throw new ActivitiException("archiveDirectory is null");
+    }
+    String partitionName = HistoryPartitionManager.getPartitionName(month);
+    if (HistoryPartitionManager.getPartitionEnd(month).after(ClockUtil.getCurrentTime())) {
+      throw new ActivitiException("history partition "+partitionName+" is not closed yet");
+    }
+    
+    HistoryPartitionManager historyPartitionManager = commandContext.getHistoryPartitionManager();
+    long unfinishedProcessInstanceCount = historyPartitionManager.findUnfinishedProcessInstanceCount(month);
+    if (unfinishedProcessInstanceCount>0) {
+      throw new ActivitiException("history partition "+partitionName+" has "+unfinishedProcessInstanceCount+" unfinished process instances");
+    }
+    
+    File directory = new File(archiveDirectory);
+    if (!directory.isDirectory()) {
+      throw new ActivitiException("archive directory "+archiveDirectory+" doesn't exist");
+    }
+    File archiveFile = new File(directory, "activiti-history-"+partitionName+".json.gz");
+    File temporaryFile = new File(directory, archiveFile.getName()+".tmp");
+    long processInstanceCount = historyPartitionManager.findProcessInstanceCount(month);
+    
+    TransactionContext transactionContext = commandContext.getTransactionContext();
+    CommandExecutor commandExecutor = Context.getProcessEngineConfiguration().getCommandExecutorTxRequiresNew();
+    if (archiveFile.exists()) {
+      if (processInstanceCount>0) {
+        throw new ActivitiException("history archive "+archiveFile+" already exists");
+      }
+      log.info("history partition "+partitionName+" is already archived to "+archiveFile.getAbsolutePath());
+      transactionContext.addTransactionListener(TransactionState.COMMITTED, new HistoryArchiveCommittedListener(commandExecutor, month, null, archiveFile));
+      
+    } else if (processInstanceCount==0 && temporaryFile.exists()) {
+      // the deletion of an earlier archiving committed, but its archive wasn't renamed
+      log.info("history partition "+partitionName+" is already archived to "+temporaryFile.getAbsolutePath());
+      transactionContext.addTransactionListener(TransactionState.COMMITTED, new HistoryArchiveCommittedListener(commandExecutor, month, temporaryFile, archiveFile));
+      
+    } else {
+      HistoryArchiveWriter archiveWriter = new HistoryArchiveWriter(temporaryFile);
+      try {
+        historyPartitionManager.writeHistoryPartition(month, archiveWriter);
+      } catch (RuntimeException e) {
+        archiveWriter.close();
+        temporaryFile.delete();
+        throw e;
+      }
+      archiveWriter.close();
+      
+      transactionContext.addTransactionListener(TransactionState.ROLLED_BACK, new HistoryArchiveRolledBackListener(temporaryFile));
+      historyPartitionManager.deleteHistoryPartition(month);
+      transactionContext.addTransactionListener(TransactionState.COMMITTED, new HistoryArchiveCommittedListener(commandExecutor, month, temporaryFile, archiveFile));
+      log.info("archiving "+archiveWriter.getRowCount()+" history rows of partition "+partitionName+" to "+archiveFile.getAbsolutePath());
+    }
+    
+    return archiveFile.getAbsolutePath();
+  }
+
+}
@@ -16,6 +16,9 @@ package org.activiti.engine.impl.cmd;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.bpmn.parser.BpmnParse;
+import org.activiti.engine.impl.calendar.DurationHelper;
 import org.activiti.engine.impl.cfg.TransactionContext;
 import org.activiti.engine.impl.cfg.TransactionState;
 import org.activiti.engine.impl.context.Context;
@@ -23,9 +26,17 @@ import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.jobexecutor.MessageAddedNotification;
+import org.activiti.engine.impl.jobexecutor.RetryPolicy;
+import org.activiti.engine.impl.jobexecutor.TimerExecuteNestedActivityJobHandler;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.pvm.process.ActivityImpl;
 
 /**
+ * Decrements the retries of a failed job and postpones its next attempt 
+ * according to the <code>activiti:failedJobRetryTimeCycle</code> of its 
+ * activity or else the {@link RetryPolicy}.  
+ * 
  * @author Tom Baeyens
  */
 public class DecrementJobRetriesCmd implements Command<Object> {
@@ -33,10 +44,16 @@ public class DecrementJobRetriesCmd implements Command<Object> {
   private static final long serialVersionUID = 1L;
   protected String jobId;
   protected Throwable exception;
+  protected RetryPolicy retryPolicy;
 
   public DecrementJobRetriesCmd(String jobId, Throwable exception) {
+    this(jobId, exception, null);
+  }
+
+  public DecrementJobRetriesCmd(String jobId, Throwable exception, RetryPolicy retryPolicy) {
     this.jobId = jobId;
     this.exception = exception;
+    this.retryPolicy = retryPolicy;
   }
 
   public Object execute(CommandContext commandContext) {
@@ -44,6 +61,8 @@ public class DecrementJobRetriesCmd implements Command<Object> {
       .getCommandContext()
       .getJobManager()
       .findJobById(jobId);
+    // the exception stacktrace is only stored from the first failure on
+    boolean isFirstFailure = (exception!=null && job.getExceptionByteArrayId()==null);
     job.setRetries(job.getRetries() - 1);
     job.setLockOwner(null);
     job.setLockExpirationTime(null);
@@ -53,6 +72,31 @@ public class DecrementJobRetriesCmd implements Command<Object> {
       job.setExceptionStacktrace(getExceptionStacktrace());
     }
     
+    String failedJobRetryTimeCycle = getFailedJobRetryTimeCycle(job, commandContext);
+    if (failedJobRetryTimeCycle!=null) {
+      DurationHelper durationHelper;
+      try {
+        durationHelper = new DurationHelper(failedJobRetryTimeCycle);
+      } catch (Exception e) {
+        throw new ActivitiException("couldn't parse failedJobRetryTimeCycle '"+failedJobRetryTimeCycle+"'", e);
+      }
+      if (isFirstFailure && durationHelper.isRepeat()) {
+        // the cycle defines the number of retries
+        job.setRetries(durationHelper.getTimes());
+      }
+      job.setDuedate(durationHelper.getDateAfter());
+      
+    } else if (retryPolicy!=null && job.getRetries()>0) {
+      job.setDuedate(retryPolicy.getRetryTime(job, exception));
+    }
+    
+    if (job.getRetries()<=0 && Context.getProcessEngineConfiguration().isDeadLetterJobsEnabled()) {
+      commandContext
+        .getJobManager()
+        .moveJobToDeadLetter(job);
+      return null;
+    }
+    
     JobExecutor jobExecutor = Context.getProcessEngineConfiguration().getJobExecutor();
     MessageAddedNotification messageAddedNotification = new MessageAddedNotification(jobExecutor);
     TransactionContext transactionContext = commandContext.getTransactionContext();
@@ -61,6 +105,28 @@ public class DecrementJobRetriesCmd implements Command<Object> {
     return null;
   }
   
+  protected String getFailedJobRetryTimeCycle(JobEntity job, CommandContext commandContext) {
+    if (job.getExecutionId()==null) {
+      return null;
+    }
+    ExecutionEntity execution = commandContext
+      .getExecutionManager()
+      .findExecutionById(job.getExecutionId());
+    if (execution==null) {
+      return null;
+    }
+    ActivityImpl activity = null;
+    if (TimerExecuteNestedActivityJobHandler.TYPE.equals(job.getJobHandlerType())) {
+      activity = execution.getProcessDefinition().findActivity(job.getJobHandlerConfiguration());
+    } else {
+      activity = execution.getActivity();
+    }
+    if (activity==null) {
+      return null;
+    }
+    return (String) activity.getProperty(BpmnParse.PROPERTYNAME_FAILED_JOB_RETRY_TIME_CYCLE);
+  }
+  
   private String getExceptionStacktrace() {
     StringWriter stringWriter = new StringWriter();
     exception.printStackTrace(new PrintWriter(stringWriter));
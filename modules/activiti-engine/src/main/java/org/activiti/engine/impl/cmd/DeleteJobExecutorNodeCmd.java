@@ -0,0 +1,43 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.JobExecutorNodeEntity;
+
+
+/**
+ * Removes a job executor node, so that its job partitions are taken over 
+ * by the remaining nodes with their next heartbeat.
+ */
+public class DeleteJobExecutorNodeCmd implements Command<Object> {
+
+  protected final String nodeId;
+
+  public DeleteJobExecutorNodeCmd(String nodeId) {
+    this.nodeId = nodeId;
+  }
+
+  public Object execute(CommandContext commandContext) {
+    JobExecutorNodeEntity node = commandContext
+      .getJobManager()
+      .findJobExecutorNodeById(nodeId);
+    if (node!=null) {
+      commandContext
+        .getJobManager()
+        .deleteJobExecutorNode(nodeId);
+    }
+    return null;
+  }
+}
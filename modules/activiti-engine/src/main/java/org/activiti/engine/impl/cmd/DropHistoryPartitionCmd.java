@@ -0,0 +1,47 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+
+/**
+ * Drops the emptied partitions of an archived month.  Runs in a transaction 
+ * of its own after the archiving committed, see {@link ArchiveHistoryPartitionCmd}.
+ */
+public class DropHistoryPartitionCmd implements Command<Void>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected Date month;
+  
+  public DropHistoryPartitionCmd(Date month) {
+    this.month = month;
+  }
+
+  public Void execute(CommandContext commandContext) {
+    if (month==null) {
+      throw new ActivitiException("month is null");
+    }
+    commandContext
+      .getHistoryPartitionManager()
+      .dropHistoryPartition(month);
+    return null;
+  }
+
+}
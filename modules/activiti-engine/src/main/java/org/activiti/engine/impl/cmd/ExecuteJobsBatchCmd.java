@@ -0,0 +1,95 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.jobexecutor.JobExecutor;
+import org.activiti.engine.impl.jobexecutor.JobExecutorContext;
+import org.activiti.engine.impl.jobexecutor.JobExecutorMetricsCollector;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
+
+/**
+ * Executes several jobs in one transaction, see 
+ * {@link JobExecutor#setMaxJobsPerTransaction(int)}.  Unlike 
+ * {@link ExecuteJobsCmd}, a failing job doesn't decrement its retries: the 
+ * exception rolls back the whole batch, after which the caller executes 
+ * the jobs one by one.
+ */
+public class ExecuteJobsBatchCmd implements Command<Object>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static Logger log = Logger.getLogger(ExecuteJobsBatchCmd.class.getName());
+  
+  protected List<String> jobIds;
+
+  public ExecuteJobsBatchCmd(List<String> jobIds) {
+    this.jobIds = jobIds;
+  }
+
+  public Object execute(CommandContext commandContext) {
+    if (jobIds == null || jobIds.isEmpty()) {
+      throw new ActivitiException("jobIds is null or empty");
+    }
+    
+    if (log.isLoggable(Level.FINE)) {
+      log.fine("Executing jobs " + jobIds + " in one transaction");
+    }
+    
+    JobExecutorContext jobExecutorContext = Context.getJobExecutorContext();
+    for (String jobId: jobIds) {
+      if (commandContext.getDbSqlSession().isDeleted(JobEntity.class, jobId)) {
+        // an earlier job of the batch removed this job, e.g. by ending its execution
+        continue;
+      }
+      
+      JobEntity job = commandContext
+        .getJobManager()
+        .findJobById(jobId);
+      
+      if (job == null) {
+        throw new ActivitiException("No job found with id '" + jobId + "'");
+      }
+      
+      JobExecutorMetricsCollector metricsCollector = null;
+      if (jobExecutorContext != null) {
+        jobExecutorContext.setCurrentJob(job);
+        metricsCollector = jobExecutorContext.getMetricsCollector();
+      }
+      if (metricsCollector != null) {
+        metricsCollector.jobStarted(job);
+      }
+      long start = System.currentTimeMillis();
+      try {
+        job.execute(commandContext);
+      } finally {
+        if (jobExecutorContext != null) {
+          jobExecutorContext.setCurrentJob(null);
+        }
+        if (metricsCollector != null) {
+          metricsCollector.jobExecuted(job, System.currentTimeMillis() - start);
+        }
+      }
+    }
+    return null;
+  }
+}
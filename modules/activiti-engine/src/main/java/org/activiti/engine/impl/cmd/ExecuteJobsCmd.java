@@ -24,6 +24,7 @@ import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.jobexecutor.FailedJobListener;
 import org.activiti.engine.impl.jobexecutor.JobExecutorContext;
+import org.activiti.engine.impl.jobexecutor.JobExecutorMetricsCollector;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 
 
@@ -59,9 +60,15 @@ public class ExecuteJobsCmd implements Command<Object>, Serializable {
     }
     
     JobExecutorContext jobExecutorContext = Context.getJobExecutorContext();
+    JobExecutorMetricsCollector metricsCollector = null;
     if(jobExecutorContext != null) { // if null, then we are not called by the job executor     
       jobExecutorContext.setCurrentJob(job);
+      metricsCollector = jobExecutorContext.getMetricsCollector();
     }
+    if (metricsCollector != null) {
+      metricsCollector.jobStarted(job);
+    }
+    long start = System.currentTimeMillis();
     
     try { 
       job.execute(commandContext);
@@ -81,6 +88,9 @@ public class ExecuteJobsCmd implements Command<Object>, Serializable {
       if(jobExecutorContext != null) {
         jobExecutorContext.setCurrentJob(null);
       }
+      if (metricsCollector != null) {
+        metricsCollector.jobExecuted(job, System.currentTimeMillis() - start);
+      }
     }
     return null;
   }
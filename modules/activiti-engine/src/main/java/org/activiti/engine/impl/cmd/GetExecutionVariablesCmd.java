@@ -52,7 +52,14 @@ public class GetExecutionVariablesCmd implements Command<Map<String, Object>>, S
     }
 
     Map<String, Object> executionVariables;
-    if (isLocal) {
+    if (variableNames!=null) {
+      // only fetches the requested variables when selective variable loading is enabled
+      if (isLocal) {
+        executionVariables = execution.getVariablesLocal(variableNames);
+      } else {
+        executionVariables = execution.getVariables(variableNames);
+      }
+    } else if (isLocal) {
       executionVariables = execution.getVariablesLocal();
     } else {
       executionVariables = execution.getVariables();
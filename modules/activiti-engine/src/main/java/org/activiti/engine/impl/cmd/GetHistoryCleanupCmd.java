@@ -0,0 +1,82 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.history.HistoryCleanup;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.jobexecutor.HistoryCleanupJobHandler;
+import org.activiti.engine.impl.persistence.entity.DeadLetterJobEntity;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.persistence.entity.JobManager;
+
+
+/**
+ * Looks up the progress of a history cleanup from the configuration of the 
+ * job that deletes its next chunk.  Returns null when the cleanup finished.
+ */
+public class GetHistoryCleanupCmd implements Command<HistoryCleanup>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  protected String historyCleanupId;
+
+  public GetHistoryCleanupCmd(String historyCleanupId) {
+    this.historyCleanupId = historyCleanupId;
+  }
+
+  public HistoryCleanup execute(CommandContext commandContext) {
+    if (historyCleanupId==null) {
+      throw new ActivitiException("historyCleanupId is null");
+    }
+    
+    JobManager jobManager = commandContext.getJobManager();
+    HistoryCleanup historyCleanup = null;
+    for (JobEntity job: jobManager.findJobsByHandlerType(HistoryCleanupJobHandler.TYPE)) {
+      historyCleanup = getHistoryCleanup(job.getJobHandlerConfiguration());
+      if (historyCleanup!=null) {
+        historyCleanup.setJobId(job.getId());
+        historyCleanup.setExceptionMessage(job.getExceptionMessage());
+        break;
+      }
+    }
+    if (historyCleanup==null) {
+      for (DeadLetterJobEntity deadLetterJob: jobManager.findDeadLetterJobsByHandlerType(HistoryCleanupJobHandler.TYPE)) {
+        historyCleanup = getHistoryCleanup(deadLetterJob.getJobHandlerConfiguration());
+        if (historyCleanup!=null) {
+          historyCleanup.setJobId(deadLetterJob.getId());
+          historyCleanup.setExceptionMessage(deadLetterJob.getExceptionMessage());
+          historyCleanup.setDeadLetter(true);
+          break;
+        }
+      }
+    }
+    
+    if (historyCleanup!=null) {
+      historyCleanup.setRemainingCount(commandContext
+        .getHistoricProcessInstanceManager()
+        .findHistoricProcessInstanceCountEndedBefore(historyCleanup.getEndedBefore(), historyCleanup.getProcessDefinitionKey()));
+    }
+    return historyCleanup;
+  }
+
+  protected HistoryCleanup getHistoryCleanup(String configuration) {
+    HistoryCleanup historyCleanup = HistoryCleanupJobHandler.parseConfiguration(configuration);
+    if (historyCleanupId.equals(historyCleanup.getId())) {
+      return historyCleanup;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,65 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.JobExecutorNodeEntity;
+import org.activiti.engine.impl.persistence.entity.JobManager;
+import org.activiti.engine.impl.util.ClockUtil;
+
+
+/**
+ * Records the heartbeat of a job executor node, removes the nodes that 
+ * stopped sending heartbeats and returns the ids of all nodes that are 
+ * alive, ordered by id.
+ */
+public class JobExecutorHeartbeatCmd implements Command<List<String>> {
+
+  protected final String nodeId;
+  protected final long nodeTimeoutInMillis;
+
+  public JobExecutorHeartbeatCmd(String nodeId, long nodeTimeoutInMillis) {
+    this.nodeId = nodeId;
+    this.nodeTimeoutInMillis = nodeTimeoutInMillis;
+  }
+
+  public List<String> execute(CommandContext commandContext) {
+    JobManager jobManager = commandContext.getJobManager();
+    Date now = ClockUtil.getCurrentTime();
+    Date staleHeartbeat = new Date(now.getTime() - nodeTimeoutInMillis);
+    
+    JobExecutorNodeEntity node = jobManager.findJobExecutorNodeById(nodeId);
+    if (node==null) {
+      node = new JobExecutorNodeEntity(nodeId);
+      node.setHeartbeat(now);
+      jobManager.insertJobExecutorNode(node);
+    } else {
+      node.setHeartbeat(now);
+    }
+    
+    List<String> nodeIds = jobManager.findJobExecutorNodeIdsByHeartbeat(staleHeartbeat);
+    jobManager.deleteJobExecutorNodesByHeartbeat(staleHeartbeat);
+    
+    // the heartbeat of this node is only flushed at the end of the command
+    if (!nodeIds.contains(nodeId)) {
+      nodeIds.add(nodeId);
+      Collections.sort(nodeIds);
+    }
+    return nodeIds;
+  }
+}
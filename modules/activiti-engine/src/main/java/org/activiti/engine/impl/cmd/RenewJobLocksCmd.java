@@ -0,0 +1,49 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.Date;
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+
+/**
+ * Extends the locks of jobs that are still being executed by the given 
+ * lock owner.  Locks that were taken over by another lock owner are 
+ * left untouched.
+ * 
+ * @return the number of renewed locks.
+ */
+public class RenewJobLocksCmd implements Command<Integer> {
+
+  protected final List<String> jobIds;
+  protected final String lockOwner;
+  protected final Date lockExpirationTime;
+
+  public RenewJobLocksCmd(List<String> jobIds, String lockOwner, Date lockExpirationTime) {
+    this.jobIds = jobIds;
+    this.lockOwner = lockOwner;
+    this.lockExpirationTime = lockExpirationTime;
+  }
+
+  public Integer execute(CommandContext commandContext) {
+    if (jobIds.isEmpty()) {
+      return 0;
+    }
+    return commandContext
+      .getJobManager()
+      .renewJobLocks(jobIds, lockOwner, lockExpirationTime);
+  }
+}
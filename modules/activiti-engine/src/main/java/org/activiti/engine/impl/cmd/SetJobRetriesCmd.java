@@ -18,6 +18,7 @@ import java.io.Serializable;
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.DeadLetterJobEntity;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 
 
@@ -46,6 +47,17 @@ public class SetJobRetriesCmd implements Command<Void>, Serializable {
     JobEntity job = commandContext
             .getJobManager()
             .findJobById(jobId);
+    if (job == null) {
+      // a job that ran out of retries may have been moved to the dead letter jobs
+      DeadLetterJobEntity deadLetterJob = commandContext
+              .getJobManager()
+              .findDeadLetterJobById(jobId);
+      if (deadLetterJob != null) {
+        job = commandContext
+                .getJobManager()
+                .restoreDeadLetterJob(deadLetterJob);
+      }
+    }
     if (job != null) {
       job.setRetries(retries);
     } else {
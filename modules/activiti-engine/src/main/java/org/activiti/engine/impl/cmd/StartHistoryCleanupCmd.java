@@ -0,0 +1,57 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.history.HistoryCleanup;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.jobexecutor.HistoryCleanupJobHandler;
+import org.activiti.engine.impl.util.ClockUtil;
+
+
+/**
+ * Starts a cleanup of the historic process instances that ended before a 
+ * given date, see {@link HistoryCleanupJobHandler}.
+ */
+public class StartHistoryCleanupCmd implements Command<String>, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  protected Date endedBefore;
+  protected String processDefinitionKey;
+
+  public StartHistoryCleanupCmd(Date endedBefore, String processDefinitionKey) {
+    this.endedBefore = endedBefore;
+    this.processDefinitionKey = processDefinitionKey;
+  }
+
+  public String execute(CommandContext commandContext) {
+    if (endedBefore==null) {
+      throw new ActivitiException("endedBefore is null");
+    }
+    
+    HistoryCleanup historyCleanup = new HistoryCleanup();
+    historyCleanup.setId(Context.getProcessEngineConfiguration().getIdGenerator().getNextId());
+    historyCleanup.setEndedBefore(endedBefore);
+    historyCleanup.setProcessDefinitionKey(processDefinitionKey);
+    historyCleanup.setStartTime(ClockUtil.getCurrentTime());
+    
+    HistoryCleanupJobHandler.sendMessage(historyCleanup, commandContext);
+    
+    return historyCleanup.getId();
+  }
+}
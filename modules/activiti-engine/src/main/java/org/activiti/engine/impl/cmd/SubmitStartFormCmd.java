@@ -61,7 +61,7 @@ public class SubmitStartFormCmd implements Command<ProcessInstance>, Serializabl
       processInstance = processDefinition.createProcessInstance();
     }
 
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = processDefinition.getEffectiveHistoryLevel();
     if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
       DbSqlSession dbSqlSession = commandContext.getSession(DbSqlSession.class);
 
@@ -57,7 +57,9 @@ public class SubmitTaskFormCmd implements Command<Object>, Serializable {
       throw new ActivitiException("Cannot find task with id " + taskId);
     }
     
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = commandContext
+      .getHistoricTaskInstanceManager()
+      .getHistoryLevel(task.getProcessDefinitionId());
     ExecutionEntity execution = task.getExecution();
     if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT && execution != null) {
       DbSqlSession dbSqlSession = commandContext.getSession(DbSqlSession.class);
@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.List;
+
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
+
+/**
+ * Releases the locks of jobs that were locked by the given lock owner 
+ * but could not be executed, so that they are picked up again 
+ * by the next job acquisition.
+ */
+public class UnlockJobsCmd implements Command<Object> {
+
+  protected final List<String> jobIds;
+  protected final String lockOwner;
+
+  public UnlockJobsCmd(List<String> jobIds, String lockOwner) {
+    this.jobIds = jobIds;
+    this.lockOwner = lockOwner;
+  }
+
+  public Object execute(CommandContext commandContext) {
+    for (String jobId: jobIds) {
+      JobEntity job = commandContext
+        .getJobManager()
+        .findJobById(jobId);
+      
+      // the job may have been executed or re-acquired in the meantime
+      if (job != null && lockOwner.equals(job.getLockOwner())) {
+        job.setLockOwner(null);
+        job.setLockExpirationTime(null);
+      }
+    }
+    return null;
+  }
+}
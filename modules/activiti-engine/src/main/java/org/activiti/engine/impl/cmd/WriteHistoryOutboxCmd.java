@@ -0,0 +1,78 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.cmd;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.db.DbSqlSession;
+import org.activiti.engine.impl.history.AsyncHistoryWriter;
+import org.activiti.engine.impl.history.HistoryEvent;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxEntity;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxManager;
+
+
+/**
+ * Writes the {@link HistoryEvent history events} of the given outboxes to 
+ * the history tables and deletes the outboxes.  Outboxes that were already 
+ * written by another transaction are skipped.
+ * 
+ * @see AsyncHistoryWriter
+ */
+public class WriteHistoryOutboxCmd implements Command<Integer> {
+
+  private static Logger log = Logger.getLogger(WriteHistoryOutboxCmd.class.getName());
+
+  protected List<String> historyOutboxIds;
+  protected String processInstanceId;
+
+  public WriteHistoryOutboxCmd(List<String> historyOutboxIds) {
+    this.historyOutboxIds = historyOutboxIds;
+  }
+
+  /** writes all pending outboxes of the given process instance */
+  public WriteHistoryOutboxCmd(String processInstanceId) {
+    this.processInstanceId = processInstanceId;
+  }
+
+  /** @return the number of history events that were written */
+  public Integer execute(CommandContext commandContext) {
+    DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+    // the written history must not end up in the outbox again
+    dbSqlSession.setAsyncHistoryEnabled(false);
+
+    HistoryOutboxManager historyOutboxManager = commandContext.getHistoryOutboxManager();
+    List<String> outboxIds = historyOutboxIds;
+    if (outboxIds==null) {
+      outboxIds = historyOutboxManager.findHistoryOutboxIdsByProcessInstanceId(processInstanceId);
+    }
+
+    int writtenEvents = 0;
+    for (String outboxId: outboxIds) {
+      HistoryOutboxEntity historyOutbox = historyOutboxManager.findHistoryOutboxById(outboxId);
+      if ( (historyOutbox==null)
+           || (!historyOutboxManager.claimHistoryOutbox(outboxId))
+         ) {
+        log.fine("history outbox "+outboxId+" was already written");
+        continue;
+      }
+      for (HistoryEvent historyEvent: historyOutbox.getHistoryEvents()) {
+        dbSqlSession.insert(historyEvent.createEntity());
+        writtenEvents++;
+      }
+    }
+    return writtenEvents;
+  }
+}
@@ -13,35 +13,206 @@
 
 package org.activiti.engine.impl.db;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
 import org.activiti.engine.impl.cfg.IdGenerator;
 import org.activiti.engine.impl.cmd.GetNextIdBlockCmd;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 
 
 /**
+ * Hands out ids from blocks that are reserved in the database.
+ * 
+ * Taking an id from the current block doesn't lock; only the thread that 
+ * finds the block exhausted switches to the next one.  When a low water 
+ * mark is configured, the next block is fetched in the background as soon 
+ * as only that many ids are left, so that callers normally don't wait 
+ * for the database.  The prefetch runs on a single thread of this id 
+ * generator, which is stopped with {@link #shutdown()} when the process 
+ * engine closes.
+ * 
+ * With a thread id block size, every thread takes a sub-block of ids 
+ * at once, which avoids contention on the shared block.  The ids a thread 
+ * doesn't use are lost when it ends, so thread id blocks only pay off when 
+ * ids are generated by long lived pooled threads (job executor, request 
+ * thread pools).  Leave them disabled when short lived threads create ids.
+ * 
  * @author Tom Baeyens
  */
 public class DbIdGenerator implements IdGenerator {
 
+  private static Logger log = Logger.getLogger(DbIdGenerator.class.getName());
+
   protected int idBlockSize;
-  protected long nextId = 0;
-  protected long lastId = -1;
+  protected int lowWaterMark = 0;
+  protected int threadIdBlockSize = 0;
+  protected int maxConflictRetries = 3;
   
   protected CommandExecutor commandExecutor;
+  protected ExecutorService prefetchExecutor;
+  
+  protected final AtomicReference<SharedIdBlock> currentBlock = new AtomicReference<SharedIdBlock>(new SharedIdBlock(0, -1, -1));
+  protected final AtomicReference<FutureTask<IdBlock>> prefetchedBlock = new AtomicReference<FutureTask<IdBlock>>();
+  protected final ThreadLocal<IdBlock> threadIdBlock = new ThreadLocal<IdBlock>();
+  protected final IdGeneratorMetrics metrics = new IdGeneratorMetrics();
   
-  public synchronized String getNextId() {
-    if (lastId<nextId) {
-      getNewBlock();
+  public String getNextId() {
+    if (threadIdBlockSize<=1) {
+      return Long.toString(takeIds(1).nextId);
+    }
+    IdBlock ids = threadIdBlock.get();
+    if (ids==null || ids.nextId>ids.lastId) {
+      ids = takeIds(threadIdBlockSize);
+      threadIdBlock.set(ids);
+    }
+    return Long.toString(ids.nextId++);
+  }
+
+  /** takes at least one and at most count ids from the current block */
+  protected IdBlock takeIds(int count) {
+    while (true) {
+      SharedIdBlock block = currentBlock.get();
+      long first = block.nextId.getAndAdd(count);
+      if (first<=block.lastId) {
+        long last = Math.min(first+count-1, block.lastId);
+        // only the caller that takes the low water mark id starts the prefetch
+        if (first<=block.lowWaterMarkId && block.lowWaterMarkId<=last) {
+          prefetchNextBlock();
+        }
+        return new IdBlock(first, last);
+      }
+      switchBlock(block);
+    }
+  }
+
+  protected synchronized void switchBlock(SharedIdBlock exhaustedBlock) {
+    if (currentBlock.get()!=exhaustedBlock) {
+      // another thread already switched
+      return;
+    }
+    IdBlock idBlock = takePrefetchedBlock();
+    if (idBlock==null) {
+      metrics.recordBlockingFetch();
+      idBlock = getNewBlock();
+    }
+    long lowWaterMarkId = -1;
+    if (lowWaterMark>0) {
+      lowWaterMarkId = Math.max(idBlock.getNextId(), idBlock.getLastId()-lowWaterMark+1);
+    }
+    currentBlock.set(new SharedIdBlock(idBlock.getNextId(), idBlock.getLastId(), lowWaterMarkId));
+  }
+
+  protected void prefetchNextBlock() {
+    FutureTask<IdBlock> prefetch = new FutureTask<IdBlock>(new Callable<IdBlock>() {
+      public IdBlock call() throws Exception {
+        return getNewBlock();
+      }
+    });
+    if (prefetchedBlock.compareAndSet(null, prefetch)) {
+      try {
+        getPrefetchExecutor().execute(prefetch);
+        metrics.recordPrefetch();
+      } catch (RejectedExecutionException e) {
+        // shut down concurrently, the next block is fetched when it's needed
+        prefetchedBlock.compareAndSet(prefetch, null);
+      }
+    }
+  }
+
+  protected synchronized ExecutorService getPrefetchExecutor() {
+    if (prefetchExecutor==null) {
+      prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "activiti-id-block-prefetch");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return prefetchExecutor;
+  }
+
+  /** stops the prefetch thread after a running prefetch is done.  
+   * Ids are still handed out afterwards; a later prefetch starts a new thread. */
+  public void shutdown() {
+    ExecutorService executor;
+    synchronized (this) {
+      executor = prefetchExecutor;
+      prefetchExecutor = null;
+    }
+    if (executor==null) {
+      return;
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(60L, TimeUnit.SECONDS)) {
+        log.log(Level.WARNING, "id block prefetch didn't finish within 60 seconds after shutdown");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** @return the prefetched block or null if none was prefetched or the prefetch failed */
+  protected IdBlock takePrefetchedBlock() {
+    FutureTask<IdBlock> prefetch = prefetchedBlock.getAndSet(null);
+    if (prefetch==null) {
+      return null;
+    }
+    try {
+      return prefetch.get();
+    } catch (ExecutionException e) {
+      log.log(Level.WARNING, "prefetching the next id block failed, fetching it again", e.getCause());
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
     }
-    long _nextId = nextId++;
-    return Long.toString(_nextId);
   }
 
-  protected synchronized void getNewBlock() {
+  protected IdBlock getNewBlock() {
     // TODO http://jira.codehaus.org/browse/ACT-45 use a separate 'requiresNew' command executor
-    IdBlock idBlock = commandExecutor.execute(new GetNextIdBlockCmd(idBlockSize));
-    this.nextId = idBlock.getNextId();
-    this.lastId = idBlock.getLastId();
+    int conflicts = 0;
+    while (true) {
+      long start = System.currentTimeMillis();
+      try {
+        IdBlock idBlock = commandExecutor.execute(new GetNextIdBlockCmd(idBlockSize));
+        metrics.recordFetch(System.currentTimeMillis()-start);
+        return idBlock;
+      } catch (ActivitiOptimisticLockingException e) {
+        // another process engine reserved a block concurrently
+        metrics.recordConflict();
+        if (++conflicts>maxConflictRetries) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /** the block ids are taken from concurrently */
+  protected static class SharedIdBlock {
+    
+    protected final AtomicLong nextId;
+    protected final long lastId;
+    protected final long lowWaterMarkId;
+    
+    public SharedIdBlock(long nextId, long lastId, long lowWaterMarkId) {
+      this.nextId = new AtomicLong(nextId);
+      this.lastId = lastId;
+      this.lowWaterMarkId = lowWaterMarkId;
+    }
   }
 
   public int getIdBlockSize() {
@@ -52,6 +223,40 @@ public class DbIdGenerator implements IdGenerator {
     this.idBlockSize = idBlockSize;
   }
   
+  public int getLowWaterMark() {
+    return lowWaterMark;
+  }
+  
+  /** number of ids left in the current block at which the next block 
+   * is fetched in the background.  0 disables prefetching. */
+  public void setLowWaterMark(int lowWaterMark) {
+    this.lowWaterMark = lowWaterMark;
+  }
+  
+  public int getThreadIdBlockSize() {
+    return threadIdBlockSize;
+  }
+  
+  /** number of ids every thread takes from the current block at once.  
+   * Ids that a thread doesn't use are lost, also when the thread ends, so 
+   * keep this well below the id block size and only use it with long lived 
+   * threads.  0 or 1 disables thread id blocks. */
+  public void setThreadIdBlockSize(int threadIdBlockSize) {
+    this.threadIdBlockSize = threadIdBlockSize;
+  }
+  
+  public int getMaxConflictRetries() {
+    return maxConflictRetries;
+  }
+  
+  public void setMaxConflictRetries(int maxConflictRetries) {
+    this.maxConflictRetries = maxConflictRetries;
+  }
+  
+  public IdGeneratorMetrics getMetrics() {
+    return metrics;
+  }
+  
   public CommandExecutor getCommandExecutor() {
     return commandExecutor;
   }
@@ -19,13 +19,20 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,15 +55,28 @@ import org.activiti.engine.impl.ProcessInstanceQueryImpl;
 import org.activiti.engine.impl.TaskQueryImpl;
 import org.activiti.engine.impl.UserQueryImpl;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.cfg.TransactionState;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.db.upgrade.DbUpgradeStep;
+import org.activiti.engine.impl.history.AsyncHistoryWriter;
+import org.activiti.engine.impl.history.HistoryEvent;
+import org.activiti.engine.impl.history.HistoryOutboxCommittedListener;
+import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.Session;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxEntity;
 import org.activiti.engine.impl.persistence.entity.PropertyEntity;
 import org.activiti.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.activiti.engine.impl.util.ClassNameUtil;
+import org.activiti.engine.impl.util.ClockUtil;
 import org.activiti.engine.impl.util.IoUtil;
 import org.activiti.engine.impl.util.ReflectUtil;
 import org.activiti.engine.impl.variable.DeserializedObject;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.parameter.DefaultParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 
@@ -65,6 +85,7 @@ import org.apache.ibatis.session.SqlSession;
  *   - delayed flushing of inserts updates and deletes
  *   - optional dirty checking
  *   - db specific statement name mapping
+ *   - optional jdbc batching of the flushed statements
  *   
  * @author Tom Baeyens
  */
@@ -75,24 +96,43 @@ public class DbSqlSession implements Session {
   protected SqlSession sqlSession;
   protected DbSqlSessionFactory dbSqlSessionFactory;
   protected List<PersistentObject> insertedObjects = new ArrayList<PersistentObject>();
+  /** inserted objects indexed by class and id, to avoid scanning the insertedObjects list */
+  protected Map<Class<?>, Map<String, PersistentObject>> insertedObjectsIndex = new HashMap<Class<?>, Map<String,PersistentObject>>();
   protected Map<Class<?>, Map<String, CachedObject>> cachedObjects = new HashMap<Class<?>, Map<String,CachedObject>>();
   protected List<DeleteOperation> deletedObjects = new ArrayList<DeleteOperation>();
+  /** ids of the {@link DeleteById} operations indexed by class, to avoid scanning the deletedObjects list */
+  protected Map<Class<?>, Set<String>> deletedObjectsIndex = new HashMap<Class<?>, Set<String>>();
   protected List<DeserializedObject> deserializedObjects = new ArrayList<DeserializedObject>();
   protected String connectionMetadataDefaultCatalog = null;
   protected String connectionMetadataDefaultSchema = null;
+  protected boolean isAsyncHistoryEnabled;
 
   public DbSqlSession(DbSqlSessionFactory dbSqlSessionFactory) {
     this.dbSqlSessionFactory = dbSqlSessionFactory;
-    this.sqlSession = dbSqlSessionFactory
-      .getSqlSessionFactory()
-      .openSession();
+    this.isAsyncHistoryEnabled = dbSqlSessionFactory.isAsyncHistoryEnabled();
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      this.sqlSession = dbSqlSessionFactory
+        .getSqlSessionFactory()
+        .openSession(ExecutorType.BATCH);
+    } else {
+      this.sqlSession = dbSqlSessionFactory
+        .getSqlSessionFactory()
+        .openSession();
+    }
   }
 
   public DbSqlSession(DbSqlSessionFactory dbSqlSessionFactory, Connection connection, String catalog, String schema) {
     this.dbSqlSessionFactory = dbSqlSessionFactory;
-    this.sqlSession = dbSqlSessionFactory
-      .getSqlSessionFactory()
-      .openSession(connection);
+    this.isAsyncHistoryEnabled = dbSqlSessionFactory.isAsyncHistoryEnabled();
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      this.sqlSession = dbSqlSessionFactory
+        .getSqlSessionFactory()
+        .openSession(ExecutorType.BATCH, connection);
+    } else {
+      this.sqlSession = dbSqlSessionFactory
+        .getSqlSessionFactory()
+        .openSession(connection);
+    }
     this.connectionMetadataDefaultCatalog = catalog;
     this.connectionMetadataDefaultSchema = schema;
   }
@@ -105,26 +145,36 @@ public class DbSqlSession implements Session {
       persistentObject.setId(id);
     }
     insertedObjects.add(persistentObject);
+    Map<String, PersistentObject> classInserts = insertedObjectsIndex.get(persistentObject.getClass());
+    if (classInserts==null) {
+      classInserts = new HashMap<String, PersistentObject>();
+      insertedObjectsIndex.put(persistentObject.getClass(), classInserts);
+    }
+    classInserts.put(persistentObject.getId(), persistentObject);
     cachePut(persistentObject, false);
   }
   
   // delete ///////////////////////////////////////////////////////////////////
   
   public void delete(Class<?> persistentObjectClass, String persistentObjectId) {
-    for (DeleteOperation deleteOperation: deletedObjects) {
-      if (deleteOperation instanceof DeleteById) {
-        DeleteById deleteById = (DeleteById) deleteOperation;
-        if ( persistentObjectClass.equals(deleteById.persistenceObjectClass)
-             && persistentObjectId.equals(deleteById.persistentObjectId)
-           ) {
-          // skip this delete
-          return;
-        }
-      }
+    Set<String> classDeletes = deletedObjectsIndex.get(persistentObjectClass);
+    if (classDeletes==null) {
+      classDeletes = new HashSet<String>();
+      deletedObjectsIndex.put(persistentObjectClass, classDeletes);
+    }
+    if (!classDeletes.add(persistentObjectId)) {
+      // skip this delete
+      return;
     }
     deletedObjects.add(new DeleteById(persistentObjectClass, persistentObjectId));
   }
   
+  /** true if the object was deleted in this session, but the delete is not flushed yet */
+  public boolean isDeleted(Class<?> persistentObjectClass, String persistentObjectId) {
+    Set<String> classDeletes = deletedObjectsIndex.get(persistentObjectClass);
+    return (classDeletes!=null && classDeletes.contains(persistentObjectId));
+  }
+  
   public interface DeleteOperation {
     void execute();
   }
@@ -154,6 +204,24 @@ public class DbSqlSession implements Session {
     deletedObjects.add(new DeleteBulk(statement, parameter));
   }
   
+  /** executes the given delete statement right away instead of deferring 
+   * it to the flush and returns the number of deleted rows, also when the 
+   * statements are sent to the database in jdbc batches. */
+  public int deleteImmediately(String statement, Object parameter) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    int deletedRows = sqlSession.delete(statement, parameter);
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      deletedRows = 0;
+      for (BatchResult batchResult: sqlSession.flushStatements()) {
+        for (int updateCount: batchResult.getUpdateCounts()) {
+          // some jdbc drivers don't report the row counts for batched statements
+          deletedRows += (updateCount==Statement.SUCCESS_NO_INFO ? 1 : updateCount);
+        }
+      }
+    }
+    return deletedRows;
+  }
+  
   public class DeleteBulk implements DeleteOperation {
     String statement;
     Object parameter;
@@ -169,6 +237,23 @@ public class DbSqlSession implements Session {
     }
   }
   
+  // bulk update //////////////////////////////////////////////////////////////
+  
+  /** executes the given update statement right away instead of deferring 
+   * it to the flush.  Objects in the session cache are not refreshed. 
+   * @return the number of updated rows, also with batch flushing enabled. */
+  public int update(String statement, Object parameter) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      // the batch executor would only queue the statement without 
+      // reporting the number of updated rows
+      int updatedRows = updateUnbatched(statement, parameter);
+      sqlSession.clearCache();
+      return updatedRows;
+    }
+    return sqlSession.update(statement, parameter);
+  }
+  
   // select ///////////////////////////////////////////////////////////////////
 
   @SuppressWarnings("unchecked")
@@ -194,6 +279,13 @@ public class DbSqlSession implements Session {
     }
     return filterLoadedObjects(loadedObjects);
   }
+  
+  /** passes the results of the given select statement one by one to the result 
+   * handler instead of collecting them in a list.  Loaded entities are not cached. */
+  public void select(String statement, Object parameter, ResultHandler resultHandler) {
+    statement = dbSqlSessionFactory.mapStatement(statement);
+    sqlSession.select(statement, parameter, resultHandler);
+  }
 
 
   public Object selectOne(String statement, Object parameter) {
@@ -327,6 +419,9 @@ public class DbSqlSession implements Session {
 
   public void flush() {
     removeUnnecessaryOperations();
+    if (isAsyncHistoryEnabled) {
+      moveHistoryToOutbox();
+    }
     flushDeserializedObjects();
     List<PersistentObject> updatedObjects = getUpdatedObjects();
     
@@ -350,36 +445,118 @@ public class DbSqlSession implements Session {
   }
 
   protected void removeUnnecessaryOperations() {
-    List<DeleteOperation> deletedObjectsCopy = new ArrayList<DeleteOperation>(deletedObjects);
+    List<DeleteOperation> remainingDeletes = new ArrayList<DeleteOperation>(deletedObjects.size());
+    boolean insertsRemoved = false;
     // for all deleted objects
-    for (DeleteOperation deleteOperation: deletedObjectsCopy) {
+    for (DeleteOperation deleteOperation: deletedObjects) {
       if (deleteOperation instanceof DeleteById) {
         DeleteById deleteById = (DeleteById) deleteOperation;
         PersistentObject insertedObject = findInsertedObject(deleteById.persistenceObjectClass, deleteById.persistentObjectId);
         // if the deleted object is inserted,
         if (insertedObject!=null) {
           // remove the insert and the delete
-          insertedObjects.remove(insertedObject);
-          deletedObjects.remove(deleteOperation);
+          insertedObjectsIndex.get(deleteById.persistenceObjectClass).remove(deleteById.persistentObjectId);
+          deletedObjectsIndex.get(deleteById.persistenceObjectClass).remove(deleteById.persistentObjectId);
+          insertsRemoved = true;
+        } else {
+          remainingDeletes.add(deleteOperation);
         }
         // in any case, remove the deleted object from the cache
         cacheRemove(deleteById.persistenceObjectClass, deleteById.persistentObjectId);
+      } else {
+        remainingDeletes.add(deleteOperation);
+      }
+    }
+    deletedObjects.clear();
+    deletedObjects.addAll(remainingDeletes);
+    
+    if (insertsRemoved) {
+      // rebuild the inserts in a single pass, keeping the original insert order
+      List<PersistentObject> remainingInserts = new ArrayList<PersistentObject>(insertedObjects.size());
+      for (PersistentObject insertedObject: insertedObjects) {
+        if (findInsertedObject(insertedObject.getClass(), insertedObject.getId())==insertedObject) {
+          remainingInserts.add(insertedObject);
+        }
       }
+      insertedObjects.clear();
+      insertedObjects.addAll(remainingInserts);
     }
+    
     for (PersistentObject insertedObject: insertedObjects) {
       cacheRemove(insertedObject.getClass(), insertedObject.getId());
     }
   }
 
-  protected PersistentObject findInsertedObject(Class< ? > persistenceObjectClass, String persistentObjectId) {
-    for (PersistentObject insertedObject: insertedObjects) {
-      if ( insertedObject.getClass().equals(persistenceObjectClass)
-           && insertedObject.getId().equals(persistentObjectId)
+  protected boolean isHistoricProcessInstanceBulkDeleted() {
+    String statement = dbSqlSessionFactory.mapStatement("deleteHistoricProcessInstances");
+    for (DeleteOperation deleteOperation: deletedObjects) {
+      if ( (deleteOperation instanceof DeleteBulk)
+           && (statement.equals(((DeleteBulk) deleteOperation).statement))
          ) {
-        return insertedObject;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** replaces the inserts of the history that can be written asynchronously 
+   * by one {@link HistoryOutboxEntity outbox} insert per process instance.  
+   * The outboxes are handed to the {@link AsyncHistoryWriter} when the 
+   * transaction commits. */
+  protected void moveHistoryToOutbox() {
+    if (isHistoricProcessInstanceBulkDeleted()) {
+      // the history of a session that deletes historic process instances is 
+      // inserted right away, so that the deletes of the flush remove it as well
+      return;
+    }
+    Map<String, List<HistoryEvent>> historyEventsByProcessInstance = new LinkedHashMap<String, List<HistoryEvent>>();
+    Iterator<PersistentObject> insertedObjectsIterator = insertedObjects.iterator();
+    while (insertedObjectsIterator.hasNext()) {
+      PersistentObject insertedObject = insertedObjectsIterator.next();
+      HistoryEvent historyEvent = HistoryEvent.createHistoryEvent(insertedObject);
+      if (historyEvent!=null) {
+        insertedObjectsIterator.remove();
+        insertedObjectsIndex.get(insertedObject.getClass()).remove(insertedObject.getId());
+        List<HistoryEvent> historyEvents = historyEventsByProcessInstance.get(historyEvent.getProcessInstanceId());
+        if (historyEvents==null) {
+          historyEvents = new ArrayList<HistoryEvent>();
+          historyEventsByProcessInstance.put(historyEvent.getProcessInstanceId(), historyEvents);
+        }
+        historyEvents.add(historyEvent);
+      }
+    }
+    if (historyEventsByProcessInstance.isEmpty()) {
+      return;
+    }
+    
+    Date now = ClockUtil.getCurrentTime();
+    List<String> outboxIds = new ArrayList<String>();
+    for (Map.Entry<String, List<HistoryEvent>> entry: historyEventsByProcessInstance.entrySet()) {
+      HistoryOutboxEntity historyOutbox = new HistoryOutboxEntity(entry.getKey(), now, entry.getValue());
+      historyOutbox.setId(dbSqlSessionFactory.getIdGenerator().getNextId());
+      // not cached: the outbox is never read back in this session
+      insertedObjects.add(historyOutbox);
+      outboxIds.add(historyOutbox.getId());
+    }
+    
+    CommandContext commandContext = Context.getCommandContext();
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (commandContext!=null && processEngineConfiguration!=null) {
+      AsyncHistoryWriter asyncHistoryWriter = processEngineConfiguration.getAsyncHistoryWriter();
+      if (asyncHistoryWriter!=null) {
+        commandContext
+          .getTransactionContext()
+          .addTransactionListener(TransactionState.COMMITTED, new HistoryOutboxCommittedListener(asyncHistoryWriter, outboxIds));
       }
     }
-    return null;
+  }
+
+  protected PersistentObject findInsertedObject(Class< ? > persistenceObjectClass, String persistentObjectId) {
+    Map<String, PersistentObject> classInserts = insertedObjectsIndex.get(persistenceObjectClass);
+    if (classInserts==null) {
+      return null;
+    }
+    return classInserts.get(persistentObjectId);
   }
 
   protected void flushDeserializedObjects() {
@@ -390,11 +567,10 @@ public class DbSqlSession implements Session {
 
   public List<PersistentObject> getUpdatedObjects() {
     List<PersistentObject> updatedObjects = new ArrayList<PersistentObject>();
-    for (Class<?> clazz: cachedObjects.keySet()) {
-      Map<String, CachedObject> classCache = cachedObjects.get(clazz);
+    for (Map<String, CachedObject> classCache: cachedObjects.values()) {
       for (CachedObject cachedObject: classCache.values()) {
         PersistentObject persistentObject = (PersistentObject) cachedObject.getPersistentObject();
-        if (!deletedObjects.contains(persistentObject)) {
+        if (!isDeleted(persistentObject.getClass(), persistentObject.getId())) {
           Object originalState = cachedObject.getPersistentObjectState();
           if (!originalState.equals(persistentObject.getPersistentState())) {
             updatedObjects.add(persistentObject);
@@ -408,17 +584,10 @@ public class DbSqlSession implements Session {
   }
   
   public <T extends PersistentObject> List<T> pruneDeletedEntities(List<T> listToPrune) {   
-    ArrayList<T> prunedList = new ArrayList<T>(listToPrune);
+    ArrayList<T> prunedList = new ArrayList<T>(listToPrune.size());
     for (T potentiallyDeleted : listToPrune) {
-      for (DeleteOperation deleteOperation: deletedObjects) {
-        if (deleteOperation instanceof DeleteById) {
-          DeleteById deleteById = (DeleteById) deleteOperation;
-          if ( potentiallyDeleted.getClass().equals(deleteById.persistenceObjectClass)
-               && potentiallyDeleted.getId().equals(deleteById.persistentObjectId)
-             ) {            
-            prunedList.remove(potentiallyDeleted);
-          }
-        }
+      if (!isDeleted(potentiallyDeleted.getClass(), potentiallyDeleted.getId())) {
+        prunedList.add(potentiallyDeleted);
       }
     }
     return prunedList;
@@ -436,10 +605,20 @@ public class DbSqlSession implements Session {
       log.fine("inserting: "+toString(insertedObject));
       sqlSession.insert(insertStatement, insertedObject);
     }
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      // inserts are kept in their original order because of the foreign keys, 
+      // so only consecutive inserts of the same statement end up in the same jdbc batch 
+      sqlSession.flushStatements();
+    }
     insertedObjects.clear();
+    insertedObjectsIndex.clear();
   }
 
   protected void flushUpdates(List<PersistentObject> updatedObjects) {
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      flushUpdatesBatched(updatedObjects);
+      return;
+    }
     for (PersistentObject updatedObject: updatedObjects) {
       String updateStatement = dbSqlSessionFactory.getUpdateStatement(updatedObject);
       updateStatement = dbSqlSessionFactory.mapStatement(updateStatement);
@@ -455,12 +634,106 @@ public class DbSqlSession implements Session {
     updatedObjects.clear();
   }
 
+  /** groups the updates per statement so that each group is sent to the 
+   * database as a single jdbc batch.  the optimistic locking check is done 
+   * on the update counts reported for the individual rows of the batches. 
+   * On databases that don't report the update counts of batched statements, 
+   * the updates are executed one by one instead, see 
+   * {@link DbSqlSessionFactory#isDbBatchUpdateCountReported()}. */
+  protected void flushUpdatesBatched(List<PersistentObject> updatedObjects) {
+    if (!dbSqlSessionFactory.isDbBatchUpdateCountReported()) {
+      for (PersistentObject updatedObject: updatedObjects) {
+        String updateStatement = dbSqlSessionFactory.getUpdateStatement(updatedObject);
+        updateStatement = dbSqlSessionFactory.mapStatement(updateStatement);
+        if (updateStatement==null) {
+          throw new ActivitiException("no update statement for "+updatedObject.getClass()+" in the ibatis mapping files");
+        }
+        log.fine("updating: "+toString(updatedObject)+"]");
+        int updatedRecords = updateUnbatched(updateStatement, updatedObject);
+        if (updatedRecords!=1) {
+          throw new ActivitiOptimisticLockingException(toString(updatedObject)+" was updated by another transaction concurrently");
+        }
+      }
+      updatedObjects.clear();
+      return;
+    }
+    Map<String, List<PersistentObject>> updatedObjectsByStatement = new LinkedHashMap<String, List<PersistentObject>>();
+    for (PersistentObject updatedObject: updatedObjects) {
+      String updateStatement = dbSqlSessionFactory.getUpdateStatement(updatedObject);
+      updateStatement = dbSqlSessionFactory.mapStatement(updateStatement);
+      if (updateStatement==null) {
+        throw new ActivitiException("no update statement for "+updatedObject.getClass()+" in the ibatis mapping files");
+      }
+      List<PersistentObject> statementObjects = updatedObjectsByStatement.get(updateStatement);
+      if (statementObjects==null) {
+        statementObjects = new ArrayList<PersistentObject>();
+        updatedObjectsByStatement.put(updateStatement, statementObjects);
+      }
+      statementObjects.add(updatedObject);
+    }
+    
+    List<PersistentObject> batchedObjects = new ArrayList<PersistentObject>(updatedObjects.size());
+    for (Map.Entry<String, List<PersistentObject>> entry: updatedObjectsByStatement.entrySet()) {
+      for (PersistentObject updatedObject: entry.getValue()) {
+        log.fine("updating: "+toString(updatedObject)+"]");
+        sqlSession.update(entry.getKey(), updatedObject);
+        batchedObjects.add(updatedObject);
+      }
+    }
+    
+    List<BatchResult> batchResults = sqlSession.flushStatements();
+    int index = 0;
+    for (BatchResult batchResult: batchResults) {
+      for (int updatedRecords: batchResult.getUpdateCounts()) {
+        if (index>=batchedObjects.size()) {
+          break;
+        }
+        PersistentObject updatedObject = batchedObjects.get(index++);
+        // some jdbc drivers don't report the row counts for batched statements
+        if ( (updatedRecords!=1) 
+             && (updatedRecords!=Statement.SUCCESS_NO_INFO)
+           ) {
+          throw new ActivitiOptimisticLockingException(toString(updatedObject)+" was updated by another transaction concurrently");
+        }
+      }
+    }
+    updatedObjects.clear();
+  }
+
+  /** executes the given update statement on the connection of this session 
+   * outside of the jdbc batch, so that its real update count is returned. */
+  protected int updateUnbatched(String statement, Object parameter) {
+    MappedStatement mappedStatement = sqlSession.getConfiguration().getMappedStatement(statement);
+    BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+    PreparedStatement preparedStatement = null;
+    try {
+      preparedStatement = sqlSession.getConnection().prepareStatement(boundSql.getSql());
+      new DefaultParameterHandler(mappedStatement, parameter, boundSql).setParameters(preparedStatement);
+      return preparedStatement.executeUpdate();
+    } catch (SQLException e) {
+      throw new ActivitiException("couldn't execute update "+statement+": "+e.getMessage(), e);
+    } finally {
+      if (preparedStatement!=null) {
+        try {
+          preparedStatement.close();
+        } catch (SQLException e) {
+          log.log(Level.FINE, "couldn't close statement of update "+statement, e);
+        }
+      }
+    }
+  }
+
   protected void flushDeletes() {
     for (DeleteOperation delete: deletedObjects) {
       log.fine("executing: "+delete);
       delete.execute();
     }
+    if (dbSqlSessionFactory.isDbBatchFlushEnabled()) {
+      // deletes are kept in their original order because of the foreign keys 
+      sqlSession.flushStatements();
+    }
     deletedObjects.clear();
+    deletedObjectsIndex.clear();
   }
 
   public void close() {
@@ -584,7 +857,19 @@ public class DbSqlSession implements Session {
   }
 
   protected void dbSchemaCreateHistory() {
-    executeMandatorySchemaResource("create", "history");
+    if (dbSqlSessionFactory.isHistoryPartitioned()) {
+      executeMandatorySchemaResource("create", "history.partitioned");
+      insert(new PropertyEntity(HISTORY_PARTITIONED_PROPERTY, "true"));
+    } else {
+      executeMandatorySchemaResource("create", "history");
+    }
+  }
+
+  /** converts the history tables of an existing schema into partitioned tables */
+  protected void dbSchemaPartitionHistory() {
+    log.info("partitioning activiti history schema");
+    executeSchemaResource("upgrade", "history", getResourceForDbOperation("upgrade", "partitioning", "history"), false);
+    insert(new PropertyEntity(HISTORY_PARTITIONED_PROPERTY, "true"));
   }
 
   protected void dbSchemaCreateEngine() {
@@ -608,6 +893,9 @@ public class DbSqlSession implements Session {
   public void dbSchemaPrune() {
     if (isHistoryTablePresent() && !dbSqlSessionFactory.isDbHistoryUsed()) {
       executeMandatorySchemaResource("drop", "history");
+      if (selectById(PropertyEntity.class, HISTORY_PARTITIONED_PROPERTY)!=null) {
+        delete(PropertyEntity.class, HISTORY_PARTITIONED_PROPERTY);
+      }
     }
     if (isIdentityTablePresent() && dbSqlSessionFactory.isDbIdentityUsed()) {
       executeMandatorySchemaResource("drop", "identity");
@@ -619,6 +907,10 @@ public class DbSqlSession implements Session {
   }
 
   public static String[] JDBC_METADATA_TABLE_TYPES = {"TABLE"};
+  /** postgres reports partitioned tables with their own table type */
+  public static String[] POSTGRES_JDBC_METADATA_TABLE_TYPES = {"TABLE", "PARTITIONED TABLE"};
+  /** present if the history tables are partitioned, see {@link ProcessEngineConfigurationImpl#setHistoryPartitioned(boolean)} */
+  public static final String HISTORY_PARTITIONED_PROPERTY = "history.partitioned";
 
   public String dbSchemaUpdate() {
     String feedback = null;
@@ -657,6 +949,11 @@ public class DbSqlSession implements Session {
       if (isUpgradeNeeded) {
         dbSchemaUpgrade("history", dbVersion);
       }
+      if ( dbSqlSessionFactory.isHistoryPartitioned()
+           && selectById(PropertyEntity.class, HISTORY_PARTITIONED_PROPERTY)==null
+         ) {
+        dbSchemaPartitionHistory();
+      }
     } else if (dbSqlSessionFactory.isDbHistoryUsed()) {
       dbSchemaCreateHistory();
     }
@@ -692,9 +989,11 @@ public class DbSqlSession implements Session {
       
       String schema = this.connectionMetadataDefaultSchema;
       String databaseType = dbSqlSessionFactory.getDatabaseType();
+      String[] tableTypes = JDBC_METADATA_TABLE_TYPES;
       
       if ("postgres".equals(databaseType)) {
         tableName = tableName.toLowerCase();
+        tableTypes = POSTGRES_JDBC_METADATA_TABLE_TYPES;
       }
       
       if ("oracle".equals(databaseType)) {
@@ -706,7 +1005,7 @@ public class DbSqlSession implements Session {
       }
       
       try {
-        tables = databaseMetaData.getTables(this.connectionMetadataDefaultCatalog, schema, tableName, JDBC_METADATA_TABLE_TYPES);
+        tables = databaseMetaData.getTables(this.connectionMetadataDefaultCatalog, schema, tableName, tableTypes);
         return tables.next();
       } finally {
         tables.close();
@@ -947,4 +1246,12 @@ public class DbSqlSession implements Session {
   public DbSqlSessionFactory getDbSqlSessionFactory() {
     return dbSqlSessionFactory;
   }
+  public boolean isAsyncHistoryEnabled() {
+    return isAsyncHistoryEnabled;
+  }
+  /** the {@link AsyncHistoryWriter} switches this off for its own sessions, 
+   * so that the history it writes is not put back in the outbox. */
+  public void setAsyncHistoryEnabled(boolean isAsyncHistoryEnabled) {
+    this.isAsyncHistoryEnabled = isAsyncHistoryEnabled;
+  }
 }
@@ -39,6 +39,16 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement("mysql", "selectProcessDefinitionCountByQueryCriteria", "selectProcessDefinitionCountByQueryCriteria_mysql");
     addDatabaseSpecificStatement("mysql", "selectDeploymentsByQueryCriteria", "selectDeploymentsByQueryCriteria_mysql");
     addDatabaseSpecificStatement("mysql", "selectDeploymentCountByQueryCriteria", "selectDeploymentCountByQueryCriteria_mysql");
+    addDatabaseSpecificStatement("mysql", "selectNextJobsToExecuteSkipLocked", "selectNextJobsToExecuteSkipLocked_mysql");
+    addDatabaseSpecificStatement("mysql", "selectExclusiveJobsToExecuteSkipLocked", "selectExclusiveJobsToExecuteSkipLocked_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteHistoryOutboxesOfHistoricProcessInstances", "deleteHistoryOutboxesOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteHistoricDetailByteArraysOfHistoricProcessInstances", "deleteHistoricDetailByteArraysOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteHistoricDetailsOfHistoricProcessInstances", "deleteHistoricDetailsOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteCommentsOfHistoricProcessInstances", "deleteCommentsOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteAttachmentContentsOfHistoricProcessInstances", "deleteAttachmentContentsOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteAttachmentsOfHistoricProcessInstances", "deleteAttachmentsOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteHistoricActivityInstancesOfHistoricProcessInstances", "deleteHistoricActivityInstancesOfHistoricProcessInstances_mysql");
+    addDatabaseSpecificStatement("mysql", "deleteHistoricTaskInstancesOfHistoricProcessInstances", "deleteHistoricTaskInstancesOfHistoricProcessInstances_mysql");
     
     //postgres specific
     addDatabaseSpecificStatement("postgres", "insertByteArray", "insertByteArray_postgres");
@@ -56,9 +66,15 @@ public class DbSqlSessionFactory implements SessionFactory {
     addDatabaseSpecificStatement("postgres", "insertComment", "insertComment_postgres");
     addDatabaseSpecificStatement("postgres", "selectCommentsByTaskId", "selectCommentsByTaskId_postgres");
     addDatabaseSpecificStatement("postgres", "selectCommentsByProcessInstanceId", "selectCommentsByProcessInstanceId_postgres");
+    addDatabaseSpecificStatement("postgres", "selectNextJobsToExecuteSkipLocked", "selectNextJobsToExecuteSkipLocked_postgres");
+    addDatabaseSpecificStatement("postgres", "selectExclusiveJobsToExecuteSkipLocked", "selectExclusiveJobsToExecuteSkipLocked_postgres");
+    addDatabaseSpecificStatement("postgres", "insertHistoryOutbox", "insertHistoryOutbox_postgres");
+    addDatabaseSpecificStatement("postgres", "selectHistoryOutbox", "selectHistoryOutbox_postgres");
         
     // oracle
     addDatabaseSpecificStatement("oracle", "selectExclusiveJobsToExecute", "selectExclusiveJobsToExecute_integerBoolean");
+    addDatabaseSpecificStatement("oracle", "selectNextJobsToExecuteSkipLocked", "selectNextJobsToExecuteSkipLocked_oracle");
+    addDatabaseSpecificStatement("oracle", "selectExclusiveJobsToExecuteSkipLocked", "selectExclusiveJobsToExecuteSkipLocked_oracle");
     
     // db2
     addDatabaseSpecificStatement("db2", "selectExclusiveJobsToExecute", "selectExclusiveJobsToExecute_integerBoolean");
@@ -78,6 +94,12 @@ public class DbSqlSessionFactory implements SessionFactory {
   protected Map<Class<?>,String>  selectStatements = Collections.synchronizedMap(new HashMap<Class<?>, String>());
   protected boolean isDbIdentityUsed = true;
   protected boolean isDbHistoryUsed = true;
+  protected boolean isDbBatchFlushEnabled = false;
+  /** false for databases that report {@link java.sql.Statement#SUCCESS_NO_INFO} 
+   * for the rows of batched statements, which hides optimistic locking failures */
+  protected boolean isDbBatchUpdateCountReported = true;
+  protected boolean isAsyncHistoryEnabled = false;
+  protected boolean isHistoryPartitioned = false;
 
   public Class< ? > getSessionType() {
     return DbSqlSession.class;
@@ -135,11 +157,19 @@ public class DbSqlSessionFactory implements SessionFactory {
     return (mappedStatement!=null ? mappedStatement : statement);
   }
   
+  /** true if the given statement has a mapping for the current database type. 
+   * Used for statements that only exist on some databases. */
+  public boolean isDatabaseSpecificStatement(String statement) {
+    return statementMappings!=null && statementMappings.containsKey(statement);
+  }
+  
   // customized getters and setters ///////////////////////////////////////////
   
   public void setDatabaseType(String databaseType) {
     this.databaseType = databaseType;
     this.statementMappings = databaseSpecificStatements.get(databaseType);
+    // the oracle jdbc drivers before 12c don't report row counts for batched statements
+    this.isDbBatchUpdateCountReported = !"oracle".equals(databaseType);
   }
 
   // getters and setters //////////////////////////////////////////////////////
@@ -234,6 +264,41 @@ public class DbSqlSessionFactory implements SessionFactory {
     this.isDbHistoryUsed = isDbHistoryUsed;
   }
 
+  public boolean isDbBatchFlushEnabled() {
+    return isDbBatchFlushEnabled;
+  }
+
+  public void setDbBatchFlushEnabled(boolean isDbBatchFlushEnabled) {
+    this.isDbBatchFlushEnabled = isDbBatchFlushEnabled;
+  }
+
+  /** when false, the updates of a batch flush are executed one by one, so that 
+   * optimistic locking failures are still detected.  Inserts and deletes are 
+   * still batched. */
+  public boolean isDbBatchUpdateCountReported() {
+    return isDbBatchUpdateCountReported;
+  }
+
+  public void setDbBatchUpdateCountReported(boolean isDbBatchUpdateCountReported) {
+    this.isDbBatchUpdateCountReported = isDbBatchUpdateCountReported;
+  }
+
+  public boolean isAsyncHistoryEnabled() {
+    return isAsyncHistoryEnabled;
+  }
+
+  public void setAsyncHistoryEnabled(boolean isAsyncHistoryEnabled) {
+    this.isAsyncHistoryEnabled = isAsyncHistoryEnabled;
+  }
+
+  public boolean isHistoryPartitioned() {
+    return isHistoryPartitioned;
+  }
+
+  public void setHistoryPartitioned(boolean isHistoryPartitioned) {
+    this.isHistoryPartitioned = isHistoryPartitioned;
+  }
+
   public void setDatabaseTablePrefix(String databaseTablePrefix) {
     this.databaseTablePrefix = databaseTablePrefix;
   }
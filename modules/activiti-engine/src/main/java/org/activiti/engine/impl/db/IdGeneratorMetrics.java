@@ -0,0 +1,93 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counters of the {@link DbIdGenerator}.
+ * 
+ * A fetch is the transaction that reserves a new id block in the database, 
+ * a conflict is a fetch that failed because another process engine 
+ * reserved a block concurrently, and a blocking fetch is a fetch 
+ * that callers of {@link DbIdGenerator#getNextId()} had to wait for.
+ */
+public class IdGeneratorMetrics {
+
+  protected AtomicLong fetchCount = new AtomicLong();
+  protected AtomicLong totalFetchTimeMillis = new AtomicLong();
+  protected AtomicLong conflictCount = new AtomicLong();
+  protected AtomicLong prefetchCount = new AtomicLong();
+  protected AtomicLong blockingFetchCount = new AtomicLong();
+
+  public void recordFetch(long fetchTimeMillis) {
+    fetchCount.incrementAndGet();
+    totalFetchTimeMillis.addAndGet(fetchTimeMillis);
+  }
+
+  public void recordConflict() {
+    conflictCount.incrementAndGet();
+  }
+
+  public void recordPrefetch() {
+    prefetchCount.incrementAndGet();
+  }
+
+  public void recordBlockingFetch() {
+    blockingFetchCount.incrementAndGet();
+  }
+
+  public void reset() {
+    fetchCount.set(0);
+    totalFetchTimeMillis.set(0);
+    conflictCount.set(0);
+    prefetchCount.set(0);
+    blockingFetchCount.set(0);
+  }
+
+  // getters //////////////////////////////////////////////////////////////////
+
+  public long getFetchCount() {
+    return fetchCount.get();
+  }
+
+  public long getTotalFetchTimeMillis() {
+    return totalFetchTimeMillis.get();
+  }
+
+  public long getAverageFetchTimeMillis() {
+    long fetches = fetchCount.get();
+    return (fetches!=0 ? totalFetchTimeMillis.get() / fetches : 0);
+  }
+
+  public long getConflictCount() {
+    return conflictCount.get();
+  }
+
+  public long getPrefetchCount() {
+    return prefetchCount.get();
+  }
+
+  public long getBlockingFetchCount() {
+    return blockingFetchCount.get();
+  }
+
+  public String toString() {
+    return "fetches="+getFetchCount()
+      +", totalFetchTime="+getTotalFetchTimeMillis()+"ms"
+      +", conflicts="+getConflictCount()
+      +", prefetches="+getPrefetchCount()
+      +", blockingFetches="+getBlockingFetchCount();
+  }
+}
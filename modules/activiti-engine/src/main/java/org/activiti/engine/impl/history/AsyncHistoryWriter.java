@@ -0,0 +1,222 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.history;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.Page;
+import org.activiti.engine.impl.cmd.WriteHistoryOutboxCmd;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxEntity;
+import org.activiti.engine.impl.util.ClockUtil;
+
+
+/**
+ * <p>Background thread that writes the {@link HistoryEvent history events} 
+ * of committed transactions to the history tables.  Outboxes are written 
+ * in batches of up to {@link #setBatchSize(int) batchSize} outboxes per 
+ * transaction, so the history inserts of many runtime transactions share 
+ * one flush (and one jdbc batch when batch flushing is enabled).</p>
+ * 
+ * <p>The ids of the outboxes are only kept in memory.  Outboxes that are 
+ * lost that way (crash, failed write, outbox of another engine that went 
+ * down) are picked up again by a periodic recovery once they are older than 
+ * {@link #setRecoveryAgeInMillis(long) recoveryAgeInMillis}.  An outbox is 
+ * deleted in the transaction that writes it, so it is written only once 
+ * even if several writers pick it up.</p>
+ */
+public class AsyncHistoryWriter implements Runnable {
+
+  private static Logger log = Logger.getLogger(AsyncHistoryWriter.class.getName());
+
+  protected CommandExecutor commandExecutor;
+  protected int batchSize = 100;
+  protected long waitTimeInMillis = 1000;
+  protected long recoveryIntervalInMillis = 60000;
+  protected long recoveryAgeInMillis = 60000;
+
+  protected final BlockingQueue<String> pendingHistoryOutboxIds = new LinkedBlockingQueue<String>();
+  protected long lastRecoveryTime;
+  protected volatile boolean isActive = false;
+  protected Thread writerThread;
+
+  public synchronized void start() {
+    if (isActive) {
+      return;
+    }
+    log.info("Starting up the async history writer");
+    isActive = true;
+    // recover the outboxes that were left behind the last time right away
+    lastRecoveryTime = 0;
+    writerThread = new Thread(this, "activiti-async-history-writer");
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /** stops the writer after it wrote the outboxes it already knows about */
+  public synchronized void shutdown() {
+    if (!isActive) {
+      return;
+    }
+    log.info("Shutting down the async history writer");
+    isActive = false;
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      log.log(Level.WARNING, "Interrupted while waiting for the async history writer to terminate", e);
+    }
+    writerThread = null;
+  }
+
+  /** called when the transaction that inserted the given outboxes committed */
+  public void historyOutboxesAdded(Collection<String> historyOutboxIds) {
+    pendingHistoryOutboxIds.addAll(historyOutboxIds);
+  }
+
+  public void run() {
+    while (isActive) {
+      try {
+        List<String> historyOutboxIds = takePendingHistoryOutboxIds();
+        if (!historyOutboxIds.isEmpty()) {
+          writeHistoryOutboxes(historyOutboxIds);
+        }
+        if (ClockUtil.getCurrentTime().getTime() >= lastRecoveryTime+recoveryIntervalInMillis) {
+          recoverHistoryOutboxes();
+        }
+      } catch (InterruptedException e) {
+        log.fine("async history writer wait interrupted");
+      } catch (Exception e) {
+        log.log(Level.SEVERE, "exception in async history writer: " + e.getMessage(), e);
+      }
+    }
+
+    // write what is left, so that a clean shutdown leaves nothing for the recovery
+    List<String> historyOutboxIds = new ArrayList<String>();
+    while (pendingHistoryOutboxIds.drainTo(historyOutboxIds, batchSize)>0) {
+      writeHistoryOutboxes(historyOutboxIds);
+      historyOutboxIds.clear();
+    }
+  }
+
+  protected List<String> takePendingHistoryOutboxIds() throws InterruptedException {
+    List<String> historyOutboxIds = new ArrayList<String>();
+    String historyOutboxId = pendingHistoryOutboxIds.poll(waitTimeInMillis, TimeUnit.MILLISECONDS);
+    if (historyOutboxId!=null) {
+      historyOutboxIds.add(historyOutboxId);
+      pendingHistoryOutboxIds.drainTo(historyOutboxIds, batchSize-1);
+    }
+    return historyOutboxIds;
+  }
+
+  /** writes the outboxes in one transaction.  If that fails, every outbox 
+   * is retried in a transaction of its own, so that one bad outbox doesn't 
+   * hold back the others. */
+  protected void writeHistoryOutboxes(List<String> historyOutboxIds) {
+    try {
+      commandExecutor.execute(new WriteHistoryOutboxCmd(historyOutboxIds));
+    } catch (Exception e) {
+      if (historyOutboxIds.size()==1) {
+        log.log(Level.WARNING, "couldn't write history outbox "+historyOutboxIds.get(0)+", it will be retried by the recovery: "+e.getMessage(), e);
+      } else {
+        log.log(Level.FINE, "couldn't write "+historyOutboxIds.size()+" history outboxes in one transaction, writing them one by one", e);
+        for (String historyOutboxId: historyOutboxIds) {
+          writeHistoryOutboxes(Collections.singletonList(historyOutboxId));
+        }
+      }
+    }
+  }
+
+  /** queues the outboxes that are older than the recovery age */
+  protected void recoverHistoryOutboxes() {
+    lastRecoveryTime = ClockUtil.getCurrentTime().getTime();
+    final Date createdBefore = new Date(lastRecoveryTime-recoveryAgeInMillis);
+    List<String> historyOutboxIds = commandExecutor.execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        return commandContext
+          .getHistoryOutboxManager()
+          .findHistoryOutboxIdsCreatedBefore(createdBefore, new Page(0, batchSize*10));
+      }
+    });
+    if (!historyOutboxIds.isEmpty()) {
+      log.info("recovering "+historyOutboxIds.size()+" history outboxes");
+      historyOutboxesAdded(historyOutboxIds);
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  /** number of committed {@link HistoryOutboxEntity outboxes} that are not written yet */
+  public int getPendingHistoryOutboxCount() {
+    return pendingHistoryOutboxIds.size();
+  }
+
+  public boolean isActive() {
+    return isActive;
+  }
+
+  public CommandExecutor getCommandExecutor() {
+    return commandExecutor;
+  }
+
+  public void setCommandExecutor(CommandExecutor commandExecutor) {
+    this.commandExecutor = commandExecutor;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /** maximum number of outboxes that are written in one transaction */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public long getWaitTimeInMillis() {
+    return waitTimeInMillis;
+  }
+
+  /** how long the writer waits for new outboxes before it checks whether 
+   * it has to recover or to shut down */
+  public void setWaitTimeInMillis(long waitTimeInMillis) {
+    this.waitTimeInMillis = waitTimeInMillis;
+  }
+
+  public long getRecoveryIntervalInMillis() {
+    return recoveryIntervalInMillis;
+  }
+
+  public void setRecoveryIntervalInMillis(long recoveryIntervalInMillis) {
+    this.recoveryIntervalInMillis = recoveryIntervalInMillis;
+  }
+
+  public long getRecoveryAgeInMillis() {
+    return recoveryAgeInMillis;
+  }
+
+  /** age after which an outbox is considered to be left behind by the 
+   * writer that should have written it */
+  public void setRecoveryAgeInMillis(long recoveryAgeInMillis) {
+    this.recoveryAgeInMillis = recoveryAgeInMillis;
+  }
+}
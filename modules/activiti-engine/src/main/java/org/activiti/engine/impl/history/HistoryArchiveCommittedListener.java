@@ -0,0 +1,51 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.history;
+
+import java.io.File;
+import java.util.Date;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.cmd.DropHistoryPartitionCmd;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+
+
+/**
+ * Completes the archiving of a history partition once the deletion of its 
+ * rows committed: renames the written archive to its final name and drops 
+ * the emptied partitions in a new transaction.
+ */
+public class HistoryArchiveCommittedListener implements TransactionListener {
+
+  protected final CommandExecutor commandExecutor;
+  protected final Date month;
+  protected final File temporaryFile;
+  protected final File archiveFile;
+
+  /** @param temporaryFile the written archive, null if the archive already has its final name. */
+  public HistoryArchiveCommittedListener(CommandExecutor commandExecutor, Date month, File temporaryFile, File archiveFile) {
+    this.commandExecutor = commandExecutor;
+    this.month = month;
+    this.temporaryFile = temporaryFile;
+    this.archiveFile = archiveFile;
+  }
+
+  public void execute(CommandContext commandContext) {
+    if (temporaryFile!=null && !temporaryFile.renameTo(archiveFile)) {
+      throw new ActivitiException("couldn't rename history archive "+temporaryFile+" to "+archiveFile+", the history is deleted, archiving the month again completes the archive");
+    }
+    commandExecutor.execute(new DropHistoryPartitionCmd(month));
+  }
+}
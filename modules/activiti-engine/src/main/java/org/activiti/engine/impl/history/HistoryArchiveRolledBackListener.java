@@ -0,0 +1,36 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.history;
+
+import java.io.File;
+
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+
+/**
+ * Removes the archive written for a history partition when the deletion 
+ * of its rows rolled back.
+ */
+public class HistoryArchiveRolledBackListener implements TransactionListener {
+
+  protected final File temporaryFile;
+
+  public HistoryArchiveRolledBackListener(File temporaryFile) {
+    this.temporaryFile = temporaryFile;
+  }
+
+  public void execute(CommandContext commandContext) {
+    temporaryFile.delete();
+  }
+}
@@ -0,0 +1,126 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.history;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.util.CompressionUtil;
+import org.activiti.engine.impl.util.json.JSONObject;
+import org.apache.ibatis.executor.result.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+
+/**
+ * <p>Writes the rows of archived history tables to a gzip compressed file, 
+ * one json object per line: <code>{"table":"ACT_HI_PROCINST","row":{"ID_":"..."}}</code>.  
+ * Dates are written as milliseconds and binary columns as hex strings of 
+ * their uncompressed bytes.</p>
+ * 
+ * <p>Rows are streamed from the {@link org.apache.ibatis.session.SqlSession#select(String, Object, ResultHandler) select} 
+ * into the file so that large partitions never have to fit in memory.</p>
+ */
+public class HistoryArchiveWriter implements ResultHandler {
+  
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+  
+  protected File file;
+  protected Writer writer;
+  protected String tableName;
+  protected long rowCount = 0;
+
+  public HistoryArchiveWriter(File file) {
+    this.file = file;
+    try {
+      this.writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(file)), "UTF-8"));
+    } catch (IOException e) {
+      throw new ActivitiException("couldn't create history archive "+file+": "+e.getMessage(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public void handleResult(ResultContext resultContext) {
+    Map<String, Object> row = (Map<String, Object>) resultContext.getResultObject();
+    JSONObject jsonRow = new JSONObject();
+    for (Map.Entry<String, Object> column: row.entrySet()) {
+      jsonRow.put(column.getKey().toUpperCase(), toJsonValue(column.getValue()));
+    }
+    JSONObject jsonLine = new JSONObject();
+    jsonLine.put("table", tableName);
+    jsonLine.put("row", jsonRow);
+    try {
+      writer.write(jsonLine.toString());
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new ActivitiException("couldn't write history archive "+file+": "+e.getMessage(), e);
+    }
+    rowCount++;
+  }
+
+  protected Object toJsonValue(Object value) {
+    try {
+      if (value==null) {
+        return JSONObject.NULL;
+      } else if (value instanceof Date) {
+        return ((Date) value).getTime();
+      } else if (value instanceof byte[]) {
+        return toHex(CompressionUtil.uncompress((byte[]) value));
+      } else if (value instanceof Blob) {
+        Blob blob = (Blob) value;
+        return toHex(CompressionUtil.uncompress(blob.getBytes(1, (int) blob.length())));
+      } else if (value instanceof Clob) {
+        Clob clob = (Clob) value;
+        return clob.getSubString(1, (int) clob.length());
+      }
+    } catch (SQLException e) {
+      throw new ActivitiException("couldn't read history column for archive "+file+": "+e.getMessage(), e);
+    }
+    return value;
+  }
+  
+  protected String toHex(byte[] bytes) {
+    char[] hex = new char[bytes.length*2];
+    for (int i=0; i<bytes.length; i++) {
+      hex[i*2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+      hex[i*2+1] = HEX_DIGITS[bytes[i] & 0xf];
+    }
+    return new String(hex);
+  }
+
+  public void close() {
+    try {
+      writer.close();
+    } catch (IOException e) {
+      throw new ActivitiException("couldn't close history archive "+file+": "+e.getMessage(), e);
+    }
+  }
+
+  public void setTableName(String tableName) {
+    this.tableName = tableName;
+  }
+  
+  public long getRowCount() {
+    return rowCount;
+  }
+}
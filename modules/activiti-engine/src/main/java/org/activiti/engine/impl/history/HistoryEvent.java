@@ -0,0 +1,241 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.history;
+
+import java.util.Date;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricDetailEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricFormPropertyEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricVariableUpdateEntity;
+import org.activiti.engine.impl.util.json.JSONObject;
+import org.activiti.engine.impl.variable.VariableType;
+
+
+/**
+ * <p>Immutable snapshot of a history record that is written to the history 
+ * tables asynchronously, after the transaction that produced it committed.</p>
+ * 
+ * <p>Only history that is inserted once and never read back or updated by 
+ * the runtime is turned into events: ended activity instances, variable 
+ * updates and form properties of a process instance.  Historic process and 
+ * task instances, and activity instances that are still running, stay 
+ * synchronous because the runtime updates them later on.</p>
+ */
+public class HistoryEvent {
+
+  public static final String TYPE_ACTIVITY_INSTANCE = "activityInstance";
+  public static final String TYPE_VARIABLE_UPDATE = "variableUpdate";
+  public static final String TYPE_FORM_PROPERTY = "formProperty";
+
+  protected final String type;
+  protected final String processInstanceId;
+  /** private copy of the fields, never handed out */
+  protected final JSONObject fields;
+
+  protected HistoryEvent(String type, String processInstanceId, JSONObject fields) {
+    this.type = type;
+    this.processInstanceId = processInstanceId;
+    this.fields = fields;
+  }
+
+  /** creates the event for the given inserted object or returns null 
+   * if the object has to be inserted synchronously. */
+  public static HistoryEvent createHistoryEvent(PersistentObject persistentObject) {
+    if (persistentObject instanceof HistoricActivityInstanceEntity) {
+      HistoricActivityInstanceEntity activityInstance = (HistoricActivityInstanceEntity) persistentObject;
+      if ( (activityInstance.getEndTime()==null)
+           || (activityInstance.getProcessInstanceId()==null)
+         ) {
+        return null;
+      }
+      JSONObject fields = new JSONObject();
+      fields.put("id", activityInstance.getId());
+      fields.put("processDefinitionId", activityInstance.getProcessDefinitionId());
+      fields.put("executionId", activityInstance.getExecutionId());
+      fields.put("activityId", activityInstance.getActivityId());
+      fields.put("activityName", activityInstance.getActivityName());
+      fields.put("activityType", activityInstance.getActivityType());
+      fields.put("assignee", activityInstance.getAssignee());
+      putDate(fields, "startTime", activityInstance.getStartTime());
+      putDate(fields, "endTime", activityInstance.getEndTime());
+      fields.put("durationInMillis", activityInstance.getDurationInMillis());
+      return new HistoryEvent(TYPE_ACTIVITY_INSTANCE, activityInstance.getProcessInstanceId(), fields);
+    }
+    
+    if (persistentObject instanceof HistoricVariableUpdateEntity) {
+      HistoricVariableUpdateEntity variableUpdate = (HistoricVariableUpdateEntity) persistentObject;
+      if (variableUpdate.getProcessInstanceId()==null) {
+        return null;
+      }
+      JSONObject fields = createDetailFields(variableUpdate);
+      fields.put("name", variableUpdate.getName());
+      fields.put("revision", variableUpdate.getRevision());
+      fields.put("variableType", variableUpdate.getVariableTypeName());
+      fields.put("byteArrayValueId", variableUpdate.getByteArrayValueId());
+      if (variableUpdate.getDoubleValue()!=null) {
+        // the bits survive the json encoding exactly, also for NaN and infinity 
+        fields.put("doubleValueBits", Double.doubleToLongBits(variableUpdate.getDoubleValue()));
+      }
+      fields.put("longValue", variableUpdate.getLongValue());
+      fields.put("textValue", variableUpdate.getTextValue());
+      fields.put("textValue2", variableUpdate.getTextValue2());
+      return new HistoryEvent(TYPE_VARIABLE_UPDATE, variableUpdate.getProcessInstanceId(), fields);
+    }
+    
+    if (persistentObject instanceof HistoricFormPropertyEntity) {
+      HistoricFormPropertyEntity formProperty = (HistoricFormPropertyEntity) persistentObject;
+      if (formProperty.getProcessInstanceId()==null) {
+        return null;
+      }
+      JSONObject fields = createDetailFields(formProperty);
+      fields.put("propertyId", formProperty.getPropertyId());
+      fields.put("propertyValue", formProperty.getPropertyValue());
+      return new HistoryEvent(TYPE_FORM_PROPERTY, formProperty.getProcessInstanceId(), fields);
+    }
+    
+    return null;
+  }
+
+  protected static JSONObject createDetailFields(HistoricDetailEntity historicDetail) {
+    JSONObject fields = new JSONObject();
+    fields.put("id", historicDetail.getId());
+    fields.put("executionId", historicDetail.getExecutionId());
+    fields.put("activityInstanceId", historicDetail.getActivityInstanceId());
+    fields.put("taskId", historicDetail.getTaskId());
+    putDate(fields, "time", historicDetail.getTime());
+    return fields;
+  }
+
+  /** rebuilds the history entity that has to be inserted for this event */
+  public PersistentObject createEntity() {
+    if (TYPE_ACTIVITY_INSTANCE.equals(type)) {
+      HistoricActivityInstanceEntity activityInstance = new HistoricActivityInstanceEntity();
+      activityInstance.setId(getString("id"));
+      activityInstance.setProcessInstanceId(processInstanceId);
+      activityInstance.setProcessDefinitionId(getString("processDefinitionId"));
+      activityInstance.setExecutionId(getString("executionId"));
+      activityInstance.setActivityId(getString("activityId"));
+      activityInstance.setActivityName(getString("activityName"));
+      activityInstance.setActivityType(getString("activityType"));
+      activityInstance.setAssignee(getString("assignee"));
+      activityInstance.setStartTime(getDate("startTime"));
+      activityInstance.setEndTime(getDate("endTime"));
+      activityInstance.setDurationInMillis(getLong("durationInMillis"));
+      return activityInstance;
+    }
+    
+    if (TYPE_VARIABLE_UPDATE.equals(type)) {
+      HistoricVariableUpdateEntity variableUpdate = new HistoricVariableUpdateEntity();
+      initializeDetail(variableUpdate);
+      variableUpdate.setName(getString("name"));
+      variableUpdate.setRevision(fields.getInt("revision"));
+      String variableTypeName = getString("variableType");
+      if (variableTypeName!=null) {
+        VariableType variableType = Context
+          .getProcessEngineConfiguration()
+          .getVariableTypes()
+          .getVariableType(variableTypeName);
+        variableUpdate.setVariableType(variableType);
+      }
+      variableUpdate.setByteArrayValueId(getString("byteArrayValueId"));
+      Long doubleValueBits = getLong("doubleValueBits");
+      if (doubleValueBits!=null) {
+        variableUpdate.setDoubleValue(Double.longBitsToDouble(doubleValueBits));
+      }
+      variableUpdate.setLongValue(getLong("longValue"));
+      variableUpdate.setTextValue(getString("textValue"));
+      variableUpdate.setTextValue2(getString("textValue2"));
+      return variableUpdate;
+    }
+    
+    if (TYPE_FORM_PROPERTY.equals(type)) {
+      HistoricFormPropertyEntity formProperty = new HistoricFormPropertyEntity();
+      initializeDetail(formProperty);
+      formProperty.setPropertyId(getString("propertyId"));
+      formProperty.setPropertyValue(getString("propertyValue"));
+      return formProperty;
+    }
+    
+    throw new ActivitiException("unknown history event type '"+type+"'");
+  }
+
+  protected void initializeDetail(HistoricDetailEntity historicDetail) {
+    historicDetail.setId(getString("id"));
+    historicDetail.setProcessInstanceId(processInstanceId);
+    historicDetail.setExecutionId(getString("executionId"));
+    historicDetail.setActivityInstanceId(getString("activityInstanceId"));
+    historicDetail.setTaskId(getString("taskId"));
+    historicDetail.setTime(getDate("time"));
+  }
+
+  // json /////////////////////////////////////////////////////////////////////
+
+  public JSONObject toJsonObject() {
+    JSONObject jsonObject = new JSONObject();
+    jsonObject.put("type", type);
+    jsonObject.put("processInstanceId", processInstanceId);
+    jsonObject.put("fields", new JSONObject(fields.toString()));
+    return jsonObject;
+  }
+
+  public static HistoryEvent fromJsonObject(JSONObject jsonObject) {
+    return new HistoryEvent(
+            jsonObject.getString("type"), 
+            jsonObject.optString("processInstanceId", null), 
+            new JSONObject(jsonObject.getJSONObject("fields").toString()));
+  }
+
+  protected static void putDate(JSONObject fields, String name, Date date) {
+    if (date!=null) {
+      fields.put(name, date.getTime());
+    }
+  }
+
+  protected String getString(String name) {
+    return fields.optString(name, null);
+  }
+
+  protected Long getLong(String name) {
+    if (!fields.has(name)) {
+      return null;
+    }
+    return fields.getLong(name);
+  }
+
+  protected Date getDate(String name) {
+    Long time = getLong(name);
+    return (time!=null ? new Date(time) : null);
+  }
+
+  // getters //////////////////////////////////////////////////////////////////
+
+  public String getType() {
+    return type;
+  }
+
+  public String getProcessInstanceId() {
+    return processInstanceId;
+  }
+
+  public String getEntityId() {
+    return getString("id");
+  }
+
+  public String toString() {
+    return "HistoryEvent["+type+"|"+getEntityId()+"]";
+  }
+}
@@ -0,0 +1,38 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.history;
+
+import java.util.List;
+
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+
+/**
+ * Hands the history outboxes of a committed transaction to the 
+ * {@link AsyncHistoryWriter}.
+ */
+public class HistoryOutboxCommittedListener implements TransactionListener {
+
+  protected final AsyncHistoryWriter asyncHistoryWriter;
+  protected final List<String> historyOutboxIds;
+
+  public HistoryOutboxCommittedListener(AsyncHistoryWriter asyncHistoryWriter, List<String> historyOutboxIds) {
+    this.asyncHistoryWriter = asyncHistoryWriter;
+    this.historyOutboxIds = historyOutboxIds;
+  }
+
+  public void execute(CommandContext commandContext) {
+    asyncHistoryWriter.historyOutboxesAdded(historyOutboxIds);
+  }
+}
@@ -13,17 +13,12 @@
 
 package org.activiti.engine.impl.history.handler;
 
-import java.util.List;
-
 import org.activiti.engine.delegate.DelegateExecution;
 import org.activiti.engine.delegate.ExecutionListener;
-import org.activiti.engine.history.HistoricActivityInstance;
-import org.activiti.engine.impl.HistoricActivityInstanceQueryImpl;
 import org.activiti.engine.impl.context.Context;
-import org.activiti.engine.impl.db.DbSqlSession;
-import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricActivityInstanceManager;
 
 
 /**
@@ -41,36 +36,17 @@ public class ActivityInstanceEndHandler implements ExecutionListener {
 
   /**
    * Finds the {@link HistoricActivityInstanceEntity} that is active in the given
-   * execution. Uses the {@link DbSqlSession} cache to make sure the right instance
+   * execution. Uses the {@link HistoricActivityInstanceManager} to make sure the right instance
    * is returned, regardless of whether or not entities have already been flushed to DB.
    */
   public static HistoricActivityInstanceEntity findActivityInstance(ExecutionEntity execution) {
-    CommandContext commandContext = Context.getCommandContext();
-
-    String executionId = execution.getId();
-    String activityId = execution.getActivityId();
-
-    // search for the historic activity instance in the dbsqlsession cache
-    DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
-    List<HistoricActivityInstanceEntity> cachedHistoricActivityInstances = dbSqlSession.findInCache(HistoricActivityInstanceEntity.class);
-    for (HistoricActivityInstanceEntity cachedHistoricActivityInstance: cachedHistoricActivityInstances) {
-      if (executionId.equals(cachedHistoricActivityInstance.getExecutionId())
-           && activityId != null
-           && (activityId.equals(cachedHistoricActivityInstance.getActivityId()))
-           && (cachedHistoricActivityInstance.getEndTime()==null)
-         ) {
-        return cachedHistoricActivityInstance;
-      }
-    }
-    
-    List<HistoricActivityInstance> historicActivityInstances = new HistoricActivityInstanceQueryImpl(commandContext)
-      .executionId(executionId)
-      .activityId(activityId)
-      .unfinished()
-      .listPage(0, 1);
+    HistoricActivityInstanceEntity historicActivityInstance = Context
+      .getCommandContext()
+      .getHistoricActivityInstanceManager()
+      .findUnfinishedHistoricActivityInstance(execution.getId(), execution.getActivityId());
     
-    if (!historicActivityInstances.isEmpty()) {
-      return (HistoricActivityInstanceEntity) historicActivityInstances.get(0);
+    if (historicActivityInstance!=null) {
+      return historicActivityInstance;
     }
     
     if (execution.getParentId()!=null) {
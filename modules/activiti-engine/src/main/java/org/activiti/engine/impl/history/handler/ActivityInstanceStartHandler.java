@@ -47,7 +47,7 @@ public class ActivityInstanceStartHandler implements ExecutionListener {
     
     Context
       .getCommandContext()
-      .getDbSqlSession()
-      .insert(historicActivityInstance);
+      .getHistoricActivityInstanceManager()
+      .insertHistoricActivityInstance(historicActivityInstance);
   }
 }
@@ -20,6 +20,7 @@ import org.activiti.engine.impl.bpmn.parser.BpmnParseListener;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
 import org.activiti.engine.impl.pvm.process.ActivityImpl;
+import org.activiti.engine.impl.pvm.process.ProcessDefinitionImpl;
 import org.activiti.engine.impl.pvm.process.ScopeImpl;
 import org.activiti.engine.impl.pvm.process.TransitionImpl;
 import org.activiti.engine.impl.task.TaskDefinition;
@@ -104,7 +105,7 @@ public class HistoryParseListener implements BpmnParseListener {
   }
 
   public void parseStartEvent(Element startEventElement, ScopeImpl scope, ActivityImpl activity) {
-    if (fullHistoryEnabled(historyLevel)) {
+    if (fullHistoryEnabled(getHistoryLevel(activity, historyLevel))) {
       activity.addExecutionListener(org.activiti.engine.impl.pvm.PvmEvent.EVENTNAME_END, START_EVENT_END_HANDLER);
     }
   }
@@ -162,11 +163,21 @@ public class HistoryParseListener implements BpmnParseListener {
   }
 
   public static boolean auditHistoryEnabled(ScopeImpl scopeElement, int historyLevel) {
-    return historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT;
+    return getHistoryLevel(scopeElement, historyLevel) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT;
   }
 
   public static boolean activityHistoryEnabled(ScopeImpl scopeElement, int historyLevel) {
-    return historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY;
+    return getHistoryLevel(scopeElement, historyLevel) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY;
+  }
+
+  /** the given history level, lowered to the history level declared 
+   * for the process definition of the given scope element. */
+  public static int getHistoryLevel(ScopeImpl scopeElement, int historyLevel) {
+    ProcessDefinitionImpl processDefinition = scopeElement.getProcessDefinition();
+    if (processDefinition instanceof ProcessDefinitionEntity) {
+      return ((ProcessDefinitionEntity) processDefinition).getEffectiveHistoryLevel(historyLevel);
+    }
+    return historyLevel;
   }
   
   public void parseIntermediateSignalCatchEventDefinition(Element signalEventDefinition, ActivityImpl signalActivity) {
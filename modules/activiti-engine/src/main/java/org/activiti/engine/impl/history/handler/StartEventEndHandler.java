@@ -13,13 +13,9 @@
 
 package org.activiti.engine.impl.history.handler;
 
-import java.util.List;
-
 import org.activiti.engine.delegate.DelegateExecution;
 import org.activiti.engine.delegate.ExecutionListener;
 import org.activiti.engine.impl.context.Context;
-import org.activiti.engine.impl.db.DbSqlSession;
-import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
 import org.activiti.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
 
@@ -38,18 +34,12 @@ public class StartEventEndHandler implements ExecutionListener {
       return;
     }
 
-    CommandContext commandContext = Context.getCommandContext();
-    // search for the historic activity instance in the dbsqlsession cache
-    DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
-    List<HistoricActivityInstanceEntity> cachedHistoricActivityInstances = dbSqlSession.findInCache(HistoricActivityInstanceEntity.class);
-    for (HistoricActivityInstanceEntity cachedHistoricActivityInstance: cachedHistoricActivityInstances) {
-      if ( executionId.equals(cachedHistoricActivityInstance.getExecutionId())
-           && (activityId.equals(cachedHistoricActivityInstance.getActivityId()))
-           && (cachedHistoricActivityInstance.getEndTime()==null)
-         ) {
-        cachedHistoricActivityInstance.markEnded(null);
-        return;
-      }
+    HistoricActivityInstanceEntity historicActivityInstance = Context
+      .getCommandContext()
+      .getHistoricActivityInstanceManager()
+      .findCachedUnfinishedHistoricActivityInstance(executionId, activityId);
+    if (historicActivityInstance!=null) {
+      historicActivityInstance.markEnded(null);
     }
   }
 
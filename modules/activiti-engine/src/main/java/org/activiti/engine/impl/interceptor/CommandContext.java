@@ -34,6 +34,8 @@ import org.activiti.engine.impl.persistence.entity.HistoricActivityInstanceManag
 import org.activiti.engine.impl.persistence.entity.HistoricDetailManager;
 import org.activiti.engine.impl.persistence.entity.HistoricProcessInstanceManager;
 import org.activiti.engine.impl.persistence.entity.HistoricTaskInstanceManager;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxManager;
+import org.activiti.engine.impl.persistence.entity.HistoryPartitionManager;
 import org.activiti.engine.impl.persistence.entity.IdentityInfoManager;
 import org.activiti.engine.impl.persistence.entity.IdentityLinkManager;
 import org.activiti.engine.impl.persistence.entity.JobManager;
@@ -234,6 +236,14 @@ public class CommandContext {
     return getSession(HistoricTaskInstanceManager.class);
   }
   
+  public HistoryOutboxManager getHistoryOutboxManager() {
+    return getSession(HistoryOutboxManager.class);
+  }
+  
+  public HistoryPartitionManager getHistoryPartitionManager() {
+    return getSession(HistoryPartitionManager.class);
+  }
+  
   public JobManager getJobManager() {
     return getSession(JobManager.class);
   }
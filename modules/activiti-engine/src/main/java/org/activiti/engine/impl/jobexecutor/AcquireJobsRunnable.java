@@ -18,6 +18,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.activiti.engine.ActivitiOptimisticLockingException;
 import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.persistence.entity.TimerEntity;
@@ -32,14 +33,21 @@ public class AcquireJobsRunnable implements Runnable {
   private static Logger log = Logger.getLogger(AcquireJobsRunnable.class.getName());
 
   protected final JobExecutor jobExecutor;
+  protected final int threadIndex;
 
   protected volatile boolean isInterrupted = false;
   protected volatile boolean isJobAdded = false;
+  protected volatile boolean isWaitingForCapacity = false;
   protected final Object MONITOR = new Object();
   protected final AtomicBoolean isWaiting = new AtomicBoolean(false);
 
   public AcquireJobsRunnable(JobExecutor jobExecutor) {
+    this(jobExecutor, 0);
+  }
+
+  public AcquireJobsRunnable(JobExecutor jobExecutor, int threadIndex) {
     this.jobExecutor = jobExecutor;
+    this.threadIndex = threadIndex;
   }
 
   public synchronized void run() {
@@ -49,49 +57,88 @@ public class AcquireJobsRunnable implements Runnable {
     long millisToWait = 0;
     float waitIncreaseFactor = 2;
     long maxWait = 60 * 1000;
+    // the first acquisition thread sends the heartbeats of a partitioned job executor
+    boolean isSendingHeartbeats = jobExecutor.isPartitionedAcquisition() && threadIndex==0;
+    long lastHeartbeat = System.currentTimeMillis();
 
     while (!isInterrupted) {
-      int maxJobsPerAcquisition = jobExecutor.getMaxJobsPerAcquisition();
-
-      try {
-        AcquiredJobs acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd());
-
-        for (List<String> jobIds : acquiredJobs.getJobIdBatches()) {
-          jobExecutor.executeJobs(jobIds);
-        }
+      if (isSendingHeartbeats 
+              && System.currentTimeMillis()-lastHeartbeat >= jobExecutor.getHeartbeatIntervalInMillis()) {
+        jobExecutor.sendHeartbeat();
+        lastHeartbeat = System.currentTimeMillis();
+      }
 
-        // if all jobs were executed
+      int acquisitionSize = jobExecutor.getAcquisitionSize();
+      if (acquisitionSize<=0) {
+        // all threads are busy: don't lock jobs that can't be executed, 
+        // but wait until running jobs are done (checking again to not miss that)
+        isJobAdded = false;
+        isWaitingForCapacity = true;
+        acquisitionSize = jobExecutor.getAcquisitionSize();
+      }
+      
+      if (acquisitionSize<=0) {
+        log.fine("job executor is busy, waiting for free capacity");
         millisToWait = jobExecutor.getWaitTimeInMillis();
-        int jobsAcquired = acquiredJobs.getJobIdBatches().size();
-        if (jobsAcquired < maxJobsPerAcquisition) {
-          
-          isJobAdded = false;
-          
-          // check if the next timer should fire before the normal sleep time is over
-          Date duedate = new Date(ClockUtil.getCurrentTime().getTime() + millisToWait);
-          List<TimerEntity> nextTimers = commandExecutor.execute(new GetUnlockedTimersByDuedateCmd(duedate, new Page(0, 1)));
-          
-          if (!nextTimers.isEmpty()) {
-          long millisTillNextTimer = nextTimers.get(0).getDuedate().getTime() - ClockUtil.getCurrentTime().getTime();
-            if (millisTillNextTimer < millisToWait) {
-              millisToWait = millisTillNextTimer;
-            }
+        
+      } else {
+        try {
+          isWaitingForCapacity = false;
+          long acquisitionStart = System.currentTimeMillis();
+          AcquiredJobs acquiredJobs = commandExecutor.execute(jobExecutor.getAcquireJobsCmd(threadIndex));
+          jobExecutor.getMetricsCollector().acquisitionCompleted(acquiredJobs.size(), System.currentTimeMillis()-acquisitionStart);
+
+          List<List<String>> jobIdBatches = acquiredJobs.getJobIdBatches();
+          for (int i=0; i<jobIdBatches.size(); i++) {
+            jobExecutor.executeJobs(jobIdBatches.get(i), acquiredJobs.getJobIdBatchPriority(i));
           }
-          
-        } else {
-          millisToWait = 0;
-        }
 
-      } catch (Exception e) {
-        log.log(Level.SEVERE, "exception during job acquisition: " + e.getMessage(), e);
-        millisToWait *= waitIncreaseFactor;
-        if (millisToWait > maxWait) {
-          millisToWait = maxWait;
-        } else if (millisToWait==0) {
+          // if all jobs were executed
           millisToWait = jobExecutor.getWaitTimeInMillis();
+          int jobsAcquired = acquiredJobs.getJobIdBatches().size();
+          if (jobsAcquired < acquisitionSize) {
+            
+            isJobAdded = false;
+            
+            TimerWheel timerWheel = jobExecutor.getTimerWheel();
+            if (timerWheel!=null) {
+              millisToWait = preloadTimers(commandExecutor, timerWheel);
+              
+            } else {
+              // check if the next timer should fire before the normal sleep time is over
+              Date duedate = new Date(ClockUtil.getCurrentTime().getTime() + millisToWait);
+              List<TimerEntity> nextTimers = commandExecutor.execute(new GetUnlockedTimersByDuedateCmd(duedate, new Page(0, 1)));
+              
+              if (!nextTimers.isEmpty()) {
+              long millisTillNextTimer = nextTimers.get(0).getDuedate().getTime() - ClockUtil.getCurrentTime().getTime();
+                if (millisTillNextTimer < millisToWait) {
+                  millisToWait = millisTillNextTimer;
+                }
+              }
+            }
+            
+          } else {
+            millisToWait = 0;
+          }
+
+        } catch (Exception e) {
+          if (e instanceof ActivitiOptimisticLockingException) {
+            jobExecutor.getMetricsCollector().acquisitionConflicted();
+          }
+          log.log(Level.SEVERE, "exception during job acquisition: " + e.getMessage(), e);
+          millisToWait *= waitIncreaseFactor;
+          if (millisToWait > maxWait) {
+            millisToWait = maxWait;
+          } else if (millisToWait==0) {
+            millisToWait = jobExecutor.getWaitTimeInMillis();
+          }
         }
       }
 
+      if (isSendingHeartbeats) {
+        millisToWait = Math.min(millisToWait, Math.max(0, lastHeartbeat + jobExecutor.getHeartbeatIntervalInMillis() - System.currentTimeMillis()));
+      }
+
       if ((millisToWait > 0) && (!isJobAdded)) {
         try {
           log.fine("job acquisition thread sleeping for " + millisToWait + " millis");
@@ -112,6 +159,30 @@ public class AcquireJobsRunnable implements Runnable {
     log.info(jobExecutor.getName() + " stopped job acquisition");
   }
 
+  /**
+   * Loads the timers that are due within the look-ahead window into the timer 
+   * wheel, which wakes up the acquisition when they are due.
+   * @return the number of millis until the database has to be polled again.
+   */
+  protected long preloadTimers(CommandExecutor commandExecutor, TimerWheel timerWheel) {
+    int lookAheadInMillis = jobExecutor.getTimerWheelLookAheadInMillis();
+    int preloadSize = jobExecutor.getTimerWheelPreloadSize();
+    Date lookAheadDate = new Date(ClockUtil.getCurrentTime().getTime() + lookAheadInMillis);
+    List<TimerEntity> nextTimers = commandExecutor.execute(new GetUnlockedTimersByDuedateCmd(lookAheadDate, new Page(0, preloadSize)));
+    for (TimerEntity timer: nextTimers) {
+      timerWheel.schedule(timer.getId(), timer.getDuedate());
+    }
+    
+    // poll again before the look-ahead window is over, 
+    // or once the last preloaded timer is due if not all timers fitted in the wheel 
+    long millisToWait = Math.min(jobExecutor.getTimerWheelWaitTimeInMillis(), lookAheadInMillis);
+    if (!nextTimers.isEmpty() && nextTimers.size()>=preloadSize) {
+      long millisTillLastTimer = nextTimers.get(nextTimers.size()-1).getDuedate().getTime() - ClockUtil.getCurrentTime().getTime();
+      millisToWait = Math.min(millisToWait, Math.max(millisTillLastTimer, jobExecutor.getTimerWheelTickInMillis()));
+    }
+    return millisToWait;
+  }
+
   public void stop() {
     synchronized (MONITOR) {
       isInterrupted = true; 
@@ -121,6 +192,14 @@ public class AcquireJobsRunnable implements Runnable {
       }
   }
 
+  /** wakes up the acquisition if it is waiting for free capacity */
+  public void capacityAvailable() {
+    if (isWaitingForCapacity) {
+      isWaitingForCapacity = false;
+      jobWasAdded();
+    }
+  }
+
   public void jobWasAdded() {    
     isJobAdded = true;
     if(isWaiting.compareAndSet(true, false)) { 
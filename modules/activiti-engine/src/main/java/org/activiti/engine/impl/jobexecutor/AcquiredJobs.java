@@ -17,6 +17,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
 
 /**
  * @author Tom Baeyens
@@ -25,6 +27,7 @@ import java.util.Set;
 public class AcquiredJobs {
 
   protected List<List<String>> acquiredJobBatches = new ArrayList<List<String>>();
+  protected List<Integer> acquiredJobBatchPriorities = new ArrayList<Integer>();
   protected Set<String> acquiredJobs = new HashSet<String>();
 
   public List<List<String>> getJobIdBatches() {
@@ -32,10 +35,20 @@ public class AcquiredJobs {
   }
 
   public void addJobIdBatch(List<String> jobIds) {
+    addJobIdBatch(jobIds, JobEntity.DEFAULT_PRIORITY);
+  }
+
+  public void addJobIdBatch(List<String> jobIds, int priority) {
     acquiredJobBatches.add(jobIds);
+    acquiredJobBatchPriorities.add(priority);
     acquiredJobs.addAll(jobIds);
   }
   
+  /** the priority of the batch with the given index in {@link #getJobIdBatches()} */
+  public int getJobIdBatchPriority(int index) {
+    return acquiredJobBatchPriorities.get(index);
+  }
+  
   public boolean contains(String jobId) {
     return acquiredJobs.contains(jobId);    
   }
@@ -6,8 +6,25 @@ import org.activiti.engine.impl.interceptor.Command;
 
 public class DefaultFailedJobCommandFactory implements FailedJobCommandFactory {
 
+  /** postpones the retries of failed jobs, null retries them right away */
+  protected RetryPolicy retryPolicy;
+
+  public DefaultFailedJobCommandFactory() {
+  }
+
+  public DefaultFailedJobCommandFactory(RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
   public Command<Object> getCommand(String jobId, Throwable exception) {
-    return new DecrementJobRetriesCmd(jobId, exception);
+    return new DecrementJobRetriesCmd(jobId, exception, retryPolicy);
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
   }
 
+  public void setRetryPolicy(RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
 }
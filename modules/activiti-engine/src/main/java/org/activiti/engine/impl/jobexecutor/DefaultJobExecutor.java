@@ -12,23 +12,28 @@
  */
 package org.activiti.engine.impl.jobexecutor;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
 
 /**
  * <p>This is a simple implementation of the {@link JobExecutor} using self-managed
  * threads for performing background work.</p>
  * 
  * <p>This implementation uses a {@link ThreadPoolExecutor} backed by a queue to which
- * work is submitted.</p>
+ * work is submitted.  By default this is a {@link JobPriorityQueue}, so that jobs with 
+ * a higher priority are executed first when the threads can't keep up.  The 
+ * job acquisition only acquires as many jobs as the threads and the queue can 
+ * take, see {@link #getAvailableCapacity()}.</p>
  * 
  * <p><em>NOTE: use this class in environments in which self-management of threads 
  * is permitted. Consider using a different thread-management strategy in 
@@ -45,28 +50,37 @@ public class DefaultJobExecutor extends JobExecutor {
   private int maxPoolSize = 10;
 
   protected Thread jobAcquisitionThread;
+  protected List<Thread> jobAcquisitionThreads = new ArrayList<Thread>();
   protected BlockingQueue<Runnable> threadPoolQueue;
   protected ThreadPoolExecutor threadPoolExecutor;
+  /** job batches handed to the thread pool that are not done yet */
+  protected final AtomicInteger pendingJobBatches = new AtomicInteger();
     
   protected void startExecutingJobs() {
     if (threadPoolQueue==null) {
-      threadPoolQueue = new ArrayBlockingQueue<Runnable>(queueSize);
+      threadPoolQueue = new JobPriorityQueue(queueSize);
     }
     if (threadPoolExecutor==null) {
       threadPoolExecutor = new ThreadPoolExecutor(corePoolSize, maxPoolSize, 0L, TimeUnit.MILLISECONDS, threadPoolQueue);      
       threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
     }
     if(jobAcquisitionThread == null) {
-      jobAcquisitionThread = new Thread(acquireJobsRunnable);
-      jobAcquisitionThread.start();      
+      for (AcquireJobsRunnable runnable: acquireJobsRunnables) {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        jobAcquisitionThreads.add(thread);
+      }
+      jobAcquisitionThread = jobAcquisitionThreads.get(0);
     }   
   }
     
   protected void stopExecutingJobs() {
-    try {
-      jobAcquisitionThread.join();
-    }catch (InterruptedException e) {
-      log.log(Level.WARNING, "Interrupted while waiting for the job Acquisition thread to terminate", e);
+    for (Thread thread: jobAcquisitionThreads) {
+      try {
+        thread.join();
+      }catch (InterruptedException e) {
+        log.log(Level.WARNING, "Interrupted while waiting for the job Acquisition thread to terminate", e);
+      }
     }
     
     // Ask the thread pool to finish and exit
@@ -84,13 +98,79 @@ public class DefaultJobExecutor extends JobExecutor {
 
     threadPoolExecutor = null;
     jobAcquisitionThread = null;
+    jobAcquisitionThreads.clear();
   }
   
   public void executeJobs(List<String> jobIds) {
+    executeJobs(jobIds, JobEntity.DEFAULT_PRIORITY);
+  }
+  
+  protected void executeJobs(List<String> jobIds, int priority) {
+    if (!submitJobs(threadPoolExecutor, jobIds, priority)) {
+      jobsRejected(jobIds);
+    }
+  }
+  
+  protected boolean dispatchLocalJobs(List<String> jobIds, int priority) {
+    ThreadPoolExecutor threadPoolExecutor = this.threadPoolExecutor;
+    if (threadPoolExecutor==null) {
+      return false;
+    }
+    // don't run rejected jobs in the thread that created them
+    return submitJobs(threadPoolExecutor, jobIds, priority);
+  }
+  
+  protected boolean submitJobs(ThreadPoolExecutor threadPoolExecutor, List<String> jobIds, int priority) {
+    pendingJobBatches.incrementAndGet();
+    // renew the locks of queued jobs as well
+    jobsLocked(jobIds);
     try {
-      threadPoolExecutor.execute(new ExecuteJobsRunnable(this, jobIds));
-    }catch (RejectedExecutionException e) {
-      rejectedJobsHandler.jobsRejected(this, jobIds);
+      threadPoolExecutor.execute(new PendingExecuteJobsRunnable(jobIds, priority));
+      return true;
+    } catch (RejectedExecutionException e) {
+      pendingJobBatches.decrementAndGet();
+      jobsDone(jobIds);
+      return false;
+    }
+  }
+  
+  /**
+   * The number of job batches the thread pool can take without rejecting 
+   * them: a thread for every batch up to the maximum pool size and the 
+   * remaining capacity of the queue, minus the batches that are not done yet.
+   */
+  public int getAvailableCapacity() {
+    ThreadPoolExecutor threadPoolExecutor = this.threadPoolExecutor;
+    if (threadPoolExecutor==null) {
+      return Integer.MAX_VALUE;
+    }
+    BlockingQueue<Runnable> queue = threadPoolExecutor.getQueue();
+    long capacity = (long) threadPoolExecutor.getMaximumPoolSize() 
+                  + queue.size() 
+                  + queue.remainingCapacity() 
+                  - pendingJobBatches.get();
+    return (int) Math.max(0, Math.min(capacity, Integer.MAX_VALUE));
+  }
+  
+  public int getQueueDepth() {
+    ThreadPoolExecutor threadPoolExecutor = this.threadPoolExecutor;
+    return (threadPoolExecutor!=null ? threadPoolExecutor.getQueue().size() : 0);
+  }
+  
+  /** keeps track of the job batches in the thread pool */
+  protected class PendingExecuteJobsRunnable extends ExecuteJobsRunnable {
+    
+    public PendingExecuteJobsRunnable(List<String> jobIds, int priority) {
+      super(DefaultJobExecutor.this, jobIds, priority);
+    }
+
+    public void run() {
+      try {
+        super.run();
+      } finally {
+        pendingJobBatches.decrementAndGet();
+        jobsExecuted();
+      }
     }
   }
   
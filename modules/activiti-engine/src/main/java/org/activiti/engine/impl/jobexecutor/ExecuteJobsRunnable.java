@@ -12,11 +12,18 @@
  */
 package org.activiti.engine.impl.jobexecutor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import org.activiti.engine.impl.cmd.ExecuteJobsBatchCmd;
 import org.activiti.engine.impl.cmd.ExecuteJobsCmd;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
 
 
 /**
@@ -25,16 +32,28 @@ import org.activiti.engine.impl.interceptor.CommandExecutor;
  */
 public class ExecuteJobsRunnable implements Runnable {
 
+  private static Logger log = Logger.getLogger(ExecuteJobsRunnable.class.getName());
+  
+  private static final AtomicLong sequence = new AtomicLong();
+
   private final List<String> jobIds;
   private final JobExecutor jobExecutor;
+  private final int priority;
+  private final long sequenceNumber = sequence.incrementAndGet();
   
   public ExecuteJobsRunnable(JobExecutor jobExecutor, List<String> jobIds) {
+    this(jobExecutor, jobIds, JobEntity.DEFAULT_PRIORITY);
+  }
+  
+  public ExecuteJobsRunnable(JobExecutor jobExecutor, List<String> jobIds, int priority) {
     this.jobExecutor = jobExecutor;
     this.jobIds = jobIds;
+    this.priority = priority;
   }
 
   public void run() {
     final JobExecutorContext jobExecutorContext = new JobExecutorContext();
+    jobExecutorContext.setJobExecutor(jobExecutor);
     final List<String> currentProcessorJobQueue = jobExecutorContext.getCurrentProcessorJobQueue();
     final CommandExecutor commandExecutor = jobExecutor.getCommandExecutor();
 
@@ -42,11 +61,60 @@ public class ExecuteJobsRunnable implements Runnable {
     
     Context.setJobExecutorContext(jobExecutorContext);
     try {
+      // number of jobs at the head of the queue that must not be batched 
+      // because their batch failed
+      int separateJobs = 0;
       while (!currentProcessorJobQueue.isEmpty()) {
-        commandExecutor.execute(new ExecuteJobsCmd(currentProcessorJobQueue.remove(0)));
+        // exclusive jobs of the same process instance may have been added
+        jobExecutor.jobsLocked(currentProcessorJobQueue);
+        int batchSize = Math.min(jobExecutor.getMaxJobsPerTransaction(), currentProcessorJobQueue.size());
+        if (separateJobs==0 && batchSize>1) {
+          List<String> batch = new ArrayList<String>(currentProcessorJobQueue.subList(0, batchSize));
+          if (executeJobBatch(commandExecutor, batch)) {
+            currentProcessorJobQueue.subList(0, batchSize).clear();
+            jobExecutor.jobsDone(batch);
+          } else {
+            separateJobs = batchSize;
+          }
+          continue;
+        }
+        if (separateJobs>0) {
+          separateJobs--;
+        }
+        String jobId = currentProcessorJobQueue.remove(0);
+        try {
+          commandExecutor.execute(new ExecuteJobsCmd(jobId));
+        } catch (RuntimeException e) {
+          jobExecutor.getMetricsCollector().jobFailed();
+          throw e;
+        } finally {
+          jobExecutor.jobsDone(Collections.singletonList(jobId));
+        }
       }      
     }finally {
+      jobExecutor.jobsDone(currentProcessorJobQueue);
       Context.removeJobExecutorContext();
     }
   }
+  
+  /** @return false if the batch failed and was rolled back */
+  protected boolean executeJobBatch(CommandExecutor commandExecutor, List<String> batch) {
+    try {
+      commandExecutor.execute(new ExecuteJobsBatchCmd(batch));
+      return true;
+    } catch (RuntimeException e) {
+      log.log(Level.FINE, "batch of jobs "+batch+" failed, executing them one per transaction: "+e.getMessage(), e);
+      return false;
+    }
+  }
+  
+  /** the highest priority of the jobs */
+  public int getPriority() {
+    return priority;
+  }
+  
+  /** the order in which the runnables were created */
+  public long getSequenceNumber() {
+    return sequenceNumber;
+  }
 }
@@ -0,0 +1,232 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
+/**
+ * <p>{@link JobExecutor} handing the jobs to a pluggable {@link ExecutorService}, 
+ * like a fixed thread pool, a fork/join pool or an executor starting a new 
+ * (virtual) thread for every task.</p>
+ * 
+ * <p>Unlike the {@link DefaultJobExecutor}, the number of jobs executing at the 
+ * same time is not derived from the size of a thread pool but limited by 
+ * {@link #setMaxConcurrentJobs(int) maxConcurrentJobs}.  Together with an 
+ * executor service that creates cheap threads, this allows many jobs that 
+ * mostly wait for I/O to run at the same time.  Make sure the database 
+ * connection pool and the systems the jobs call can cope with that, possibly 
+ * by {@link #setJobHandlerConcurrencyLimits(java.util.Map) limiting} the 
+ * concurrency of the job handlers calling them.</p>
+ * 
+ * <p>If no executor service is set, a cached thread pool is created when the 
+ * job executor is started and shut down when it is stopped.  An executor 
+ * service that is set belongs to the caller and is never shut down by the job 
+ * executor: stopping the job executor only waits for the job batches it handed 
+ * to the executor service, so that it can be started again.</p>
+ */
+public class ExecutorServiceJobExecutor extends JobExecutor {
+
+  private static Logger log = Logger.getLogger(ExecutorServiceJobExecutor.class.getName());
+
+  protected ExecutorService executorService;
+  protected boolean isExecutorServiceCreated = false;
+  protected int maxConcurrentJobs = 100;
+  protected long shutdownTimeoutInMillis = 60 * 1000;
+
+  protected List<Thread> jobAcquisitionThreads = new ArrayList<Thread>();
+  /** job batches handed to the executor service that are not done yet */
+  protected final AtomicInteger pendingJobBatches = new AtomicInteger();
+
+  public void start() {
+    if (!isActive && executorService!=null && executorService.isShutdown()) {
+      throw new ActivitiException("the executor service of the job executor is shut down");
+    }
+    super.start();
+  }
+
+  protected void startExecutingJobs() {
+    if (executorService==null) {
+      executorService = Executors.newCachedThreadPool();
+      isExecutorServiceCreated = true;
+    }
+    if (jobAcquisitionThreads.isEmpty()) {
+      for (AcquireJobsRunnable runnable: acquireJobsRunnables) {
+        Thread thread = new Thread(runnable);
+        thread.start();
+        jobAcquisitionThreads.add(thread);
+      }
+    }
+  }
+
+  protected void stopExecutingJobs() {
+    for (Thread thread: jobAcquisitionThreads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        log.log(Level.WARNING, "Interrupted while waiting for the job acquisition thread to terminate", e);
+      }
+    }
+    jobAcquisitionThreads.clear();
+
+    boolean isTerminated;
+    try {
+      if (isExecutorServiceCreated) {
+        executorService.shutdown();
+        isTerminated = executorService.awaitTermination(shutdownTimeoutInMillis, TimeUnit.MILLISECONDS);
+      } else {
+        // the executor service belongs to the caller, only the own job batches are awaited
+        isTerminated = awaitPendingJobBatches(shutdownTimeoutInMillis);
+      }
+      if (!isTerminated) {
+        log.log(Level.WARNING, "Timeout during shutdown of job executor. "
+                + "The current running jobs could not end within " + shutdownTimeoutInMillis + " millis after shutdown operation.");
+      }
+    } catch (InterruptedException e) {
+      log.log(Level.WARNING, "Interrupted while shutting down the job executor. ", e);
+    }
+    if (isExecutorServiceCreated) {
+      executorService = null;
+      isExecutorServiceCreated = false;
+    }
+  }
+
+  /** @return false if job batches are still pending after the timeout */
+  protected boolean awaitPendingJobBatches(long timeoutInMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutInMillis;
+    synchronized (pendingJobBatches) {
+      while (pendingJobBatches.get()>0) {
+        long remainingMillis = deadline - System.currentTimeMillis();
+        if (remainingMillis<=0) {
+          return false;
+        }
+        pendingJobBatches.wait(remainingMillis);
+      }
+    }
+    return true;
+  }
+
+  public void executeJobs(List<String> jobIds) {
+    executeJobs(jobIds, JobEntity.DEFAULT_PRIORITY);
+  }
+
+  protected void executeJobs(List<String> jobIds, int priority) {
+    if (!submitJobs(jobIds, priority)) {
+      jobsRejected(jobIds);
+    }
+  }
+
+  protected boolean dispatchLocalJobs(List<String> jobIds, int priority) {
+    // don't run rejected jobs in the thread that created them
+    return submitJobs(jobIds, priority);
+  }
+
+  protected boolean submitJobs(List<String> jobIds, int priority) {
+    ExecutorService executorService = this.executorService;
+    if (executorService==null) {
+      // the rejected jobs handler only unlocks the jobs, 
+      // so their concurrency slots are released here
+      releaseJobs(jobIds);
+      return false;
+    }
+    if (pendingJobBatches.incrementAndGet()>maxConcurrentJobs) {
+      pendingJobBatches.decrementAndGet();
+      releaseJobs(jobIds);
+      return false;
+    }
+    jobsLocked(jobIds);
+    try {
+      executorService.execute(new PendingExecuteJobsRunnable(jobIds, priority));
+      return true;
+    } catch (RejectedExecutionException e) {
+      pendingJobBatches.decrementAndGet();
+      jobsDone(jobIds);
+      return false;
+    }
+  }
+
+  /** the number of job batches that can be started before 
+   * {@link #setMaxConcurrentJobs(int) maxConcurrentJobs} is reached */
+  public int getAvailableCapacity() {
+    return Math.max(0, maxConcurrentJobs - pendingJobBatches.get());
+  }
+
+  /** number of job batches handed to the executor service that are not done yet */
+  public int getPendingJobBatches() {
+    return pendingJobBatches.get();
+  }
+
+  /** keeps track of the job batches in the executor service */
+  protected class PendingExecuteJobsRunnable extends ExecuteJobsRunnable {
+
+    public PendingExecuteJobsRunnable(List<String> jobIds, int priority) {
+      super(ExecutorServiceJobExecutor.this, jobIds, priority);
+    }
+
+    public void run() {
+      try {
+        super.run();
+      } finally {
+        synchronized (pendingJobBatches) {
+          pendingJobBatches.decrementAndGet();
+          pendingJobBatches.notifyAll();
+        }
+        jobsExecuted();
+      }
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public ExecutorService getExecutorService() {
+    return executorService;
+  }
+
+  /** the executor service running the jobs, e.g. 
+   * <code>Executors.newVirtualThreadPerTaskExecutor()</code> on a JVM supporting 
+   * virtual threads.  Must be set before the job executor is started.  The 
+   * job executor doesn't shut it down, starting the job executor fails once 
+   * the executor service is shut down. */
+  public void setExecutorService(ExecutorService executorService) {
+    this.executorService = executorService;
+  }
+
+  public int getMaxConcurrentJobs() {
+    return maxConcurrentJobs;
+  }
+
+  /** the maximum number of job batches (a single job or the exclusive jobs of 
+   * a process instance) executing at the same time.  Acquired jobs over this 
+   * limit are passed to the {@link RejectedJobsHandler}. */
+  public void setMaxConcurrentJobs(int maxConcurrentJobs) {
+    this.maxConcurrentJobs = maxConcurrentJobs;
+  }
+
+  public long getShutdownTimeoutInMillis() {
+    return shutdownTimeoutInMillis;
+  }
+
+  public void setShutdownTimeoutInMillis(long shutdownTimeoutInMillis) {
+    this.shutdownTimeoutInMillis = shutdownTimeoutInMillis;
+  }
+}
@@ -0,0 +1,108 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.util.ClockUtil;
+
+/**
+ * Retries failed jobs with an exponentially growing delay: the first retry 
+ * after {@link #setInitialDelayInMillis(long) initialDelayInMillis}, every 
+ * next one after {@link #setMultiplier(double) multiplier} times the previous 
+ * delay, up to {@link #setMaxDelayInMillis(long) maxDelayInMillis}.  The 
+ * delays are spread randomly by the {@link #setJitter(double) jitter}, so 
+ * that jobs that failed together don't all retry at the same time.
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+  protected long initialDelayInMillis = 10 * 1000;
+  protected double multiplier = 2;
+  protected long maxDelayInMillis = 10 * 60 * 1000;
+  protected double jitter = 0.2;
+  /** the number of retries jobs start with, to derive the number of failed attempts */
+  protected int initialRetries = JobEntity.DEFAULT_RETRIES;
+  protected Random random = new Random();
+
+  public ExponentialBackoffRetryPolicy() {
+  }
+
+  public ExponentialBackoffRetryPolicy(long initialDelayInMillis, double multiplier, long maxDelayInMillis) {
+    this.initialDelayInMillis = initialDelayInMillis;
+    this.multiplier = multiplier;
+    this.maxDelayInMillis = maxDelayInMillis;
+  }
+
+  public Date getRetryTime(JobEntity job, Throwable exception) {
+    long delay = getDelayInMillis(getFailedAttempts(job));
+    return new Date(ClockUtil.getCurrentTime().getTime() + delay);
+  }
+
+  protected int getFailedAttempts(JobEntity job) {
+    return Math.max(initialRetries - job.getRetries(), 1);
+  }
+
+  protected long getDelayInMillis(int failedAttempts) {
+    double delay = initialDelayInMillis * Math.pow(multiplier, failedAttempts - 1);
+    delay = Math.min(delay, maxDelayInMillis);
+    if (jitter > 0) {
+      delay = delay * (1 - jitter + (2 * jitter * random.nextDouble()));
+    }
+    return Math.max((long) delay, 0);
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public long getInitialDelayInMillis() {
+    return initialDelayInMillis;
+  }
+
+  public void setInitialDelayInMillis(long initialDelayInMillis) {
+    this.initialDelayInMillis = initialDelayInMillis;
+  }
+
+  public double getMultiplier() {
+    return multiplier;
+  }
+
+  public void setMultiplier(double multiplier) {
+    this.multiplier = multiplier;
+  }
+
+  public long getMaxDelayInMillis() {
+    return maxDelayInMillis;
+  }
+
+  public void setMaxDelayInMillis(long maxDelayInMillis) {
+    this.maxDelayInMillis = maxDelayInMillis;
+  }
+
+  public double getJitter() {
+    return jitter;
+  }
+
+  /** fraction by which the delays are randomly shortened or lengthened, 0 for none */
+  public void setJitter(double jitter) {
+    this.jitter = jitter;
+  }
+
+  public int getInitialRetries() {
+    return initialRetries;
+  }
+
+  public void setInitialRetries(int initialRetries) {
+    this.initialRetries = initialRetries;
+  }
+}
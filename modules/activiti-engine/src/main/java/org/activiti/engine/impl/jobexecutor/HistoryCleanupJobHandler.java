@@ -0,0 +1,95 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.activiti.engine.history.HistoryCleanup;
+import org.activiti.engine.impl.Page;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ExecutionEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricProcessInstanceManager;
+import org.activiti.engine.impl.persistence.entity.MessageEntity;
+import org.activiti.engine.impl.util.json.JSONObject;
+
+
+/**
+ * Deletes one chunk of the historic process instances that ended before a 
+ * given date and sends a message for the next chunk if there are more.  Each 
+ * chunk is deleted in its own transaction, so a failing chunk is retried on 
+ * its own and the cleanup continues where it stopped.
+ */
+public class HistoryCleanupJobHandler implements JobHandler {
+
+  private static Logger log = Logger.getLogger(HistoryCleanupJobHandler.class.getName());
+
+  public final static String TYPE = "history-cleanup";
+
+  public String getType() {
+    return TYPE;
+  }
+
+  public void execute(String configuration, ExecutionEntity execution, CommandContext commandContext) {
+    HistoryCleanup historyCleanup = parseConfiguration(configuration);
+    int batchSize = Context.getProcessEngineConfiguration().getHistoryCleanupBatchSize();
+
+    HistoricProcessInstanceManager historicProcessInstanceManager = commandContext.getHistoricProcessInstanceManager();
+    List<String> historicProcessInstanceIds = historicProcessInstanceManager
+      .findHistoricProcessInstanceIdsEndedBefore(historyCleanup.getEndedBefore(), historyCleanup.getProcessDefinitionKey(), new Page(0, batchSize));
+    historicProcessInstanceManager.deleteHistoricProcessInstancesByIds(historicProcessInstanceIds);
+    historyCleanup.setDeletedCount(historyCleanup.getDeletedCount() + historicProcessInstanceIds.size());
+
+    if (historicProcessInstanceIds.size()==batchSize) {
+      sendMessage(historyCleanup, commandContext);
+    } else {
+      log.info("history cleanup "+historyCleanup.getId()+" finished after deleting "+historyCleanup.getDeletedCount()+" historic process instances");
+    }
+  }
+
+  /** sends the message that deletes the next chunk of the given cleanup. */
+  public static MessageEntity sendMessage(HistoryCleanup historyCleanup, CommandContext commandContext) {
+    MessageEntity message = new MessageEntity();
+    message.setJobHandlerType(TYPE);
+    message.setJobHandlerConfiguration(createConfiguration(historyCleanup));
+    commandContext
+      .getJobManager()
+      .send(message);
+    return message;
+  }
+
+  public static String createConfiguration(HistoryCleanup historyCleanup) {
+    JSONObject json = new JSONObject();
+    json.put("id", historyCleanup.getId());
+    json.put("endedBefore", historyCleanup.getEndedBefore().getTime());
+    if (historyCleanup.getProcessDefinitionKey()!=null) {
+      json.put("processDefinitionKey", historyCleanup.getProcessDefinitionKey());
+    }
+    json.put("startTime", historyCleanup.getStartTime().getTime());
+    json.put("deletedCount", historyCleanup.getDeletedCount());
+    return json.toString();
+  }
+
+  public static HistoryCleanup parseConfiguration(String configuration) {
+    JSONObject json = new JSONObject(configuration);
+    HistoryCleanup historyCleanup = new HistoryCleanup();
+    historyCleanup.setId(json.getString("id"));
+    historyCleanup.setEndedBefore(new Date(json.getLong("endedBefore")));
+    historyCleanup.setProcessDefinitionKey(json.optString("processDefinitionKey", null));
+    historyCleanup.setStartTime(new Date(json.getLong("startTime")));
+    historyCleanup.setDeletedCount(json.optLong("deletedCount"));
+    return historyCleanup;
+  }
+}
@@ -13,13 +13,29 @@
 
 package org.activiti.engine.impl.jobexecutor;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.activiti.engine.impl.cmd.AcquireJobsCmd;
+import org.activiti.engine.impl.cmd.DeleteJobExecutorNodeCmd;
+import org.activiti.engine.impl.cmd.JobExecutorHeartbeatCmd;
+import org.activiti.engine.impl.cmd.UnlockJobsCmd;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.management.JobExecutorMetrics;
 import org.activiti.engine.runtime.Job;
 
 /**
@@ -43,6 +59,7 @@ public abstract class JobExecutor {
   protected CommandExecutor commandExecutor;
   protected Command<AcquiredJobs> acquireJobsCmd;
   protected AcquireJobsRunnable acquireJobsRunnable;
+  protected List<AcquireJobsRunnable> acquireJobsRunnables = new CopyOnWriteArrayList<AcquireJobsRunnable>();
   protected RejectedJobsHandler rejectedJobsHandler;
   
   protected boolean isAutoActivate = false;
@@ -52,6 +69,40 @@ public abstract class JobExecutor {
   protected int waitTimeInMillis = 5 * 1000;
   protected String lockOwner = UUID.randomUUID().toString();
   protected int lockTimeInMillis = 5 * 60 * 1000;
+  protected boolean isSkipLockedAcquisition = false;
+  protected boolean isLocalJobDispatch = false;
+  
+  protected boolean isTimerWheelEnabled = false;
+  protected int timerWheelTickInMillis = 100;
+  protected int timerWheelSize = 512;
+  protected int timerWheelLookAheadInMillis = 60 * 1000;
+  protected int timerWheelPreloadSize = 100;
+  protected int timerWheelWaitTimeInMillis = 60 * 1000;
+  protected TimerWheel timerWheel;
+  protected Thread timerWheelThread;
+  
+  protected boolean isPartitionedAcquisition = false;
+  protected int acquisitionThreadCount = 1;
+  protected int heartbeatIntervalInMillis = 10 * 1000;
+  protected int nodeTimeoutInMillis = 30 * 1000;
+  /** ids of the live job executor nodes, ordered by id, as of the last heartbeat */
+  protected volatile List<String> clusterNodes;
+  
+  protected final JobExecutorMetricsCollector metricsCollector = new JobExecutorMetricsCollector();
+  protected boolean isJmxEnabled = false;
+  protected ObjectName jmxObjectName;
+  
+  protected int maxJobsPerTransaction = 1;
+  
+  protected Map<String, Integer> jobHandlerConcurrencyLimits;
+  protected JobHandlerConcurrencyLimiter jobHandlerConcurrencyLimiter;
+  
+  protected boolean isLockRenewalEnabled = false;
+  protected int lockRenewalIntervalInMillis = 0;
+  /** ids of the jobs that were handed to this job executor and are not done yet */
+  protected final Map<String, Boolean> lockedJobIds = new ConcurrentHashMap<String, Boolean>();
+  protected RenewJobLocksRunnable renewJobLocksRunnable;
+  protected Thread renewJobLocksThread;
       
   public void start() {
     if (isActive) {
@@ -59,7 +110,15 @@ public abstract class JobExecutor {
     }
     log.info("Starting up the JobExecutor["+getClass().getName()+"].");
     ensureInitialization();    
+    if (isPartitionedAcquisition) {
+      sendHeartbeat();
+    }
+    startTimerWheel();
+    startRenewingJobLocks();
     startExecutingJobs();
+    if (isJmxEnabled) {
+      registerMBean();
+    }
     isActive = true;
   }
   
@@ -68,28 +127,326 @@ public abstract class JobExecutor {
       return;
     }
     log.info("Shutting down the JobExecutor["+getClass().getName()+"].");
-    acquireJobsRunnable.stop();
+    for (AcquireJobsRunnable runnable: acquireJobsRunnables) {
+      runnable.stop();
+    }
+    stopTimerWheel();
     stopExecutingJobs();
+    stopRenewingJobLocks();
+    unregisterMBean();
+    if (isPartitionedAcquisition) {
+      unregisterNode();
+    }
     ensureCleanup();   
     isActive = false;
   }
   
   protected void ensureInitialization() { 
     acquireJobsCmd = new AcquireJobsCmd(this);
-    acquireJobsRunnable = new AcquireJobsRunnable(this);  
+    int threadCount = (isPartitionedAcquisition ? Math.max(acquisitionThreadCount, 1) : 1);
+    for (int i=0; i<threadCount; i++) {
+      acquireJobsRunnables.add(new AcquireJobsRunnable(this, i));
+    }
+    acquireJobsRunnable = acquireJobsRunnables.get(0);  
+    if (isTimerWheelEnabled) {
+      timerWheel = new TimerWheel(this, timerWheelTickInMillis, timerWheelSize);
+    }
   }
   
   protected void ensureCleanup() {  
     acquireJobsCmd = null;
     acquireJobsRunnable = null;  
+    acquireJobsRunnables.clear();
+    timerWheel = null;
+    clusterNodes = null;
+  }
+  
+  protected void startTimerWheel() {
+    if (timerWheel!=null && timerWheelThread==null) {
+      timerWheelThread = new Thread(timerWheel, "activiti-timer-wheel");
+      timerWheelThread.setDaemon(true);
+      timerWheelThread.start();
+    }
+  }
+  
+  protected void stopTimerWheel() {
+    if (timerWheelThread!=null) {
+      timerWheel.stop();
+      try {
+        timerWheelThread.join();
+      } catch (InterruptedException e) {
+        log.log(Level.WARNING, "Interrupted while waiting for the timer wheel thread to terminate", e);
+      }
+      timerWheelThread = null;
+    }
+  }
+  
+  protected void startRenewingJobLocks() {
+    if (isLockRenewalEnabled && renewJobLocksThread==null) {
+      renewJobLocksRunnable = new RenewJobLocksRunnable(this);
+      renewJobLocksThread = new Thread(renewJobLocksRunnable, "activiti-job-lock-renewal");
+      renewJobLocksThread.setDaemon(true);
+      renewJobLocksThread.start();
+    }
+  }
+  
+  protected void stopRenewingJobLocks() {
+    if (renewJobLocksThread!=null) {
+      renewJobLocksRunnable.stop();
+      try {
+        renewJobLocksThread.join();
+      } catch (InterruptedException e) {
+        log.log(Level.WARNING, "Interrupted while waiting for the job lock renewal thread to terminate", e);
+      }
+      renewJobLocksThread = null;
+      renewJobLocksRunnable = null;
+    }
+    lockedJobIds.clear();
+  }
+  
+  /**
+   * Registers a {@link JobExecutorMonitor} exposing the metrics of this job 
+   * executor in the platform MBean server, named 
+   * <code>org.activiti:type=JobExecutor,name=</code><em>lockOwner</em>.
+   */
+  protected void registerMBean() {
+    try {
+      ObjectName objectName = new ObjectName("org.activiti:type=JobExecutor,name="+ObjectName.quote(lockOwner));
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      if (mBeanServer.isRegistered(objectName)) {
+        mBeanServer.unregisterMBean(objectName);
+      }
+      mBeanServer.registerMBean(new JobExecutorMonitor(this), objectName);
+      jmxObjectName = objectName;
+    } catch (Exception e) {
+      log.log(Level.WARNING, "Could not register the job executor in the MBean server: "+e.getMessage(), e);
+    }
+  }
+  
+  protected void unregisterMBean() {
+    if (jmxObjectName!=null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(jmxObjectName);
+      } catch (Exception e) {
+        log.log(Level.WARNING, "Could not unregister the job executor from the MBean server: "+e.getMessage(), e);
+      }
+      jmxObjectName = null;
+    }
+  }
+  
+  /** remembers jobs handed to this job executor, so that their locks are renewed until they are done */
+  public void jobsLocked(Collection<String> jobIds) {
+    if (isLockRenewalEnabled) {
+      for (String jobId: jobIds) {
+        lockedJobIds.put(jobId, Boolean.TRUE);
+      }
+    }
+  }
+  
+  /** stops renewing the locks of the given jobs and releases their concurrency slots */
+  public void jobsDone(Collection<String> jobIds) {
+    if (isLockRenewalEnabled) {
+      for (String jobId: jobIds) {
+        lockedJobIds.remove(jobId);
+      }
+    }
+    releaseJobs(jobIds);
+  }
+  
+  /**
+   * Reserves a slot for the given jobs if the concurrency of their job handler 
+   * is {@link #setJobHandlerConcurrencyLimits(Map) limited}.
+   * @return false if the limit is reached, in which case the jobs must not be acquired.
+   */
+  public boolean reserveJobs(List<JobEntity> jobs) {
+    JobHandlerConcurrencyLimiter limiter = jobHandlerConcurrencyLimiter;
+    return (limiter==null || limiter.reserve(jobs));
+  }
+  
+  /** releases the concurrency slots of the given jobs, waking up the job 
+   * acquisition to acquire the jobs that were skipped because of them */
+  public void releaseJobs(Collection<String> jobIds) {
+    JobHandlerConcurrencyLimiter limiter = jobHandlerConcurrencyLimiter;
+    if (limiter!=null && limiter.release(jobIds)) {
+      jobWasAdded();
+    }
+  }
+  
+  public boolean isJobHandlerConcurrencyLimited() {
+    return jobHandlerConcurrencyLimiter!=null;
+  }
+  
+  /** true if the concurrency of the given job handler type is limited, so that 
+   * its jobs must go through the job acquisition instead of being dispatched locally */
+  public boolean isJobHandlerConcurrencyLimited(String jobHandlerType) {
+    JobHandlerConcurrencyLimiter limiter = jobHandlerConcurrencyLimiter;
+    return (limiter!=null && limiter.isLimited(jobHandlerType));
+  }
+  
+  /** ids of the jobs whose locks are renewed */
+  public List<String> getLockedJobIds() {
+    return new ArrayList<String>(lockedJobIds.keySet());
   }
   
   public void jobWasAdded() {
     if(isActive) {
-      acquireJobsRunnable.jobWasAdded();
+      for (AcquireJobsRunnable runnable: acquireJobsRunnables) {
+        runnable.jobWasAdded();
+      }
+    }
+  }
+  
+  /**
+   * Returns the command acquiring jobs for the given acquisition thread.  With 
+   * {@link #setPartitionedAcquisition(boolean) partitioned acquisition}, every 
+   * thread acquires the jobs of its own range of partitions.
+   */
+  public Command<AcquiredJobs> getAcquireJobsCmd(int threadIndex) {
+    if (!isPartitionedAcquisition) {
+      return acquireJobsCmd;
+    }
+    int[] partitionRange = getPartitionRange(threadIndex);
+    return new AcquireJobsCmd(this, partitionRange[0], partitionRange[1]);
+  }
+  
+  /**
+   * The partitions are divided evenly over the live nodes, in the order of 
+   * their ids, and the share of this node is divided evenly over its 
+   * acquisition threads.  As long as this node doesn't know the other nodes 
+   * (or it is not seen as alive by them), it takes all partitions.  Ranges 
+   * may overlap briefly while nodes join or leave, which is harmless since 
+   * jobs are still locked before they are executed.
+   * @return the first (inclusive) and last (exclusive) partition.
+   */
+  protected int[] getPartitionRange(int threadIndex) {
+    List<String> nodes = clusterNodes;
+    int nodeIndex = (nodes!=null ? nodes.indexOf(lockOwner) : -1);
+    int nodeCount = 1;
+    if (nodeIndex!=-1) {
+      nodeCount = nodes.size();
+    } else {
+      nodeIndex = 0;
+    }
+    int threadCount = acquireJobsRunnables.size();
+    long slices = (long) nodeCount * threadCount;
+    long slice = (long) nodeIndex * threadCount + threadIndex;
+    int partitionFrom = (int) (slice * JobEntity.PARTITION_COUNT / slices);
+    int partitionTo = (int) ((slice+1) * JobEntity.PARTITION_COUNT / slices);
+    return new int[]{partitionFrom, partitionTo};
+  }
+  
+  /**
+   * Tells the other nodes that this job executor is still alive and 
+   * refreshes the list of live nodes its partitions are derived from.
+   */
+  public void sendHeartbeat() {
+    try {
+      clusterNodes = commandExecutor.execute(new JobExecutorHeartbeatCmd(lockOwner, nodeTimeoutInMillis));
+    } catch (RuntimeException e) {
+      // concurrent heartbeats of other nodes may remove our node, it is registered again next time
+      log.log(Level.WARNING, "Could not send the heartbeat of job executor "+lockOwner+": "+e.getMessage(), e);
+    }
+  }
+  
+  protected void unregisterNode() {
+    try {
+      commandExecutor.execute(new DeleteJobExecutorNodeCmd(lockOwner));
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not unregister job executor "+lockOwner+", its partitions are taken over when its heartbeat times out", e);
+    }
+  }
+  
+  /**
+   * Registers a timer that was created in this process engine in the 
+   * timer wheel, so that the job acquisition is woken up when it is due.
+   */
+  public void timerWasScheduled(String jobId, Date duedate) {
+    TimerWheel timerWheel = this.timerWheel;
+    if (isActive && timerWheel!=null) {
+      timerWheel.schedule(jobId, duedate);
+    } else {
+      jobWasAdded();
     }
   }
   
+  /**
+   * Executes a message that was locked to this job executor in the 
+   * transaction that created it (see {@link #setLocalJobDispatch(boolean)}). 
+   * If the job can't be handed to the job executor, it is unlocked again 
+   * and left to the regular acquisition.
+   */
+  public void executeLocalJob(String jobId, int priority) {
+    List<String> jobIds = new ArrayList<String>();
+    jobIds.add(jobId);
+    if (isActive && dispatchLocalJobs(jobIds, priority)) {
+      return;
+    }
+    metricsCollector.jobsRejected(jobIds.size());
+    try {
+      commandExecutor.execute(new UnlockJobsCmd(jobIds, lockOwner));
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not unlock job "+jobId+", it will be acquired again when its lock expires", e);
+    }
+    jobWasAdded();
+  }
+  
+  /**
+   * Hands locally created jobs to the threads executing jobs.
+   * @return false if the jobs were not accepted, in which case they 
+   *   are left to the regular acquisition.  
+   */
+  protected boolean dispatchLocalJobs(List<String> jobIds, int priority) {
+    executeJobs(jobIds, priority);
+    return true;
+  }
+  
+  /**
+   * Executes jobs with the given priority.  Job executors that don't 
+   * prioritize their work just {@link #executeJobs(List) execute} them.
+   */
+  protected void executeJobs(List<String> jobIds, int priority) {
+    executeJobs(jobIds);
+  }
+  
+  /**
+   * Number of jobs that can be handed to this job executor right now without 
+   * being rejected.  Job executors that don't know their capacity return 
+   * {@link Integer#MAX_VALUE}.
+   */
+  public int getAvailableCapacity() {
+    return Integer.MAX_VALUE;
+  }
+  
+  /**
+   * Number of jobs to acquire next: the {@link #getMaxJobsPerAcquisition() maximum} 
+   * limited to the {@link #getAvailableCapacity() available capacity}, so that 
+   * no jobs are locked that can't be executed.
+   */
+  public int getAcquisitionSize() {
+    return Math.min(maxJobsPerAcquisition, getAvailableCapacity());
+  }
+  
+  /**
+   * Called when jobs handed to this job executor are done, so that job 
+   * acquisitions waiting for free capacity are woken up.
+   */
+  protected void jobsExecuted() {
+    if (isActive) {
+      for (AcquireJobsRunnable runnable: acquireJobsRunnables) {
+        runnable.capacityAvailable();
+      }
+    }
+  }
+  
+  /**
+   * Passes jobs that could not be handed to the threads executing jobs to 
+   * the {@link RejectedJobsHandler}.
+   */
+  protected void jobsRejected(List<String> jobIds) {
+    metricsCollector.jobsRejected(jobIds.size());
+    rejectedJobsHandler.jobsRejected(this, jobIds);
+  }
+  
   protected abstract void startExecutingJobs();
   protected abstract void stopExecutingJobs(); 
   protected abstract void executeJobs(List<String> jobIds);
@@ -124,6 +481,70 @@ public abstract class JobExecutor {
     this.lockOwner = lockOwner;
   }
 
+  public boolean isLockRenewalEnabled() {
+    return isLockRenewalEnabled;
+  }
+
+  /** when enabled, a background thread extends the locks of the jobs this 
+   * job executor is executing or about to execute every 
+   * {@link #setLockRenewalIntervalInMillis(int) lockRenewalIntervalInMillis}, 
+   * so that a short {@link #setLockTimeInMillis(int) lock time} can be used 
+   * without long running jobs being acquired by another job executor. */
+  public void setLockRenewalEnabled(boolean isLockRenewalEnabled) {
+    this.isLockRenewalEnabled = isLockRenewalEnabled;
+  }
+
+  /** a third of the lock time, unless configured otherwise */
+  public int getLockRenewalIntervalInMillis() {
+    if (lockRenewalIntervalInMillis<=0) {
+      return Math.max(lockTimeInMillis / 3, 1);
+    }
+    return lockRenewalIntervalInMillis;
+  }
+
+  public void setLockRenewalIntervalInMillis(int lockRenewalIntervalInMillis) {
+    this.lockRenewalIntervalInMillis = lockRenewalIntervalInMillis;
+  }
+
+  public int getMaxJobsPerTransaction() {
+    return maxJobsPerTransaction;
+  }
+
+  /** the maximum number of jobs of one batch, like the exclusive jobs of a 
+   * process instance, that are executed in a single transaction, so that 
+   * the executions and variables they share are only loaded once.  When 
+   * one of the jobs fails, the transaction is rolled back and the jobs are 
+   * executed again one per transaction, so non transactional side effects 
+   * of the jobs before the failing one are repeated.  1 (the default) 
+   * executes every job in its own transaction. */
+  public void setMaxJobsPerTransaction(int maxJobsPerTransaction) {
+    this.maxJobsPerTransaction = maxJobsPerTransaction;
+  }
+
+  public Map<String, Integer> getJobHandlerConcurrencyLimits() {
+    return jobHandlerConcurrencyLimits;
+  }
+
+  /** the maximum number of jobs per {@link JobHandler#getType() job handler type} 
+   * that are executed concurrently, e.g. to keep jobs calling a slow web 
+   * service from occupying all threads.  Jobs over the limit are not 
+   * acquired until running jobs of their type are done.  Job handler types 
+   * without a limit are not restricted.  Must be set before the job executor 
+   * is started. */
+  public void setJobHandlerConcurrencyLimits(Map<String, Integer> jobHandlerConcurrencyLimits) {
+    this.jobHandlerConcurrencyLimits = jobHandlerConcurrencyLimits;
+    if (jobHandlerConcurrencyLimits!=null && !jobHandlerConcurrencyLimits.isEmpty()) {
+      jobHandlerConcurrencyLimiter = new JobHandlerConcurrencyLimiter(jobHandlerConcurrencyLimits);
+    } else {
+      jobHandlerConcurrencyLimiter = null;
+    }
+  }
+  
+  /** the concurrency limiter of this job executor, or null if no limits are configured. */
+  public JobHandlerConcurrencyLimiter getJobHandlerConcurrencyLimiter() {
+    return jobHandlerConcurrencyLimiter;
+  }
+
   public boolean isAutoActivate() {
     return isAutoActivate;
   }
@@ -144,6 +565,145 @@ public abstract class JobExecutor {
     this.maxJobsPerAcquisition = maxJobsPerAcquisition;
   }
 
+  public boolean isSkipLockedAcquisition() {
+    return isSkipLockedAcquisition;
+  }
+
+  /** acquire jobs with SELECT ... FOR UPDATE SKIP LOCKED and lock them with a 
+   * single bulk update, so that concurrent job executors don't compete for 
+   * the same jobs.  Requires a database supporting SKIP LOCKED 
+   * (postgres 9.5+, oracle, mysql 8+).  On other databases (like h2) the 
+   * default optimistic locking acquisition is used. */
+  public void setSkipLockedAcquisition(boolean isSkipLockedAcquisition) {
+    this.isSkipLockedAcquisition = isSkipLockedAcquisition;
+  }
+
+  public boolean isLocalJobDispatch() {
+    return isLocalJobDispatch;
+  }
+
+  /** when enabled, messages (like asynchronous continuations) that are created 
+   * while this job executor is active are locked to it and handed directly 
+   * to its threads after the creating transaction commits, instead of 
+   * waiting for the next acquisition.  Exclusive messages of a process 
+   * instance are still acquired, so that they are executed one after 
+   * the other. */
+  public void setLocalJobDispatch(boolean isLocalJobDispatch) {
+    this.isLocalJobDispatch = isLocalJobDispatch;
+  }
+
+  public boolean isTimerWheelEnabled() {
+    return isTimerWheelEnabled;
+  }
+
+  /** when enabled, timers that are due within the 
+   * {@link #setTimerWheelLookAheadInMillis(int) look-ahead window} are kept 
+   * in an in-memory {@link TimerWheel} that wakes up the job acquisition 
+   * when they are due.  The job acquisition then only polls the database 
+   * every {@link #setTimerWheelWaitTimeInMillis(int) timerWheelWaitTimeInMillis} 
+   * when idle, instead of every {@link #setWaitTimeInMillis(int) waitTimeInMillis}. 
+   * Messages created by other process engines are therefore picked up 
+   * later, so only enable this if they are rare. */
+  public void setTimerWheelEnabled(boolean isTimerWheelEnabled) {
+    this.isTimerWheelEnabled = isTimerWheelEnabled;
+  }
+
+  public int getTimerWheelTickInMillis() {
+    return timerWheelTickInMillis;
+  }
+
+  public void setTimerWheelTickInMillis(int timerWheelTickInMillis) {
+    this.timerWheelTickInMillis = timerWheelTickInMillis;
+  }
+
+  public int getTimerWheelSize() {
+    return timerWheelSize;
+  }
+
+  public void setTimerWheelSize(int timerWheelSize) {
+    this.timerWheelSize = timerWheelSize;
+  }
+
+  public int getTimerWheelLookAheadInMillis() {
+    return timerWheelLookAheadInMillis;
+  }
+
+  public void setTimerWheelLookAheadInMillis(int timerWheelLookAheadInMillis) {
+    this.timerWheelLookAheadInMillis = timerWheelLookAheadInMillis;
+  }
+
+  public int getTimerWheelPreloadSize() {
+    return timerWheelPreloadSize;
+  }
+
+  public void setTimerWheelPreloadSize(int timerWheelPreloadSize) {
+    this.timerWheelPreloadSize = timerWheelPreloadSize;
+  }
+
+  public int getTimerWheelWaitTimeInMillis() {
+    return timerWheelWaitTimeInMillis;
+  }
+
+  public void setTimerWheelWaitTimeInMillis(int timerWheelWaitTimeInMillis) {
+    this.timerWheelWaitTimeInMillis = timerWheelWaitTimeInMillis;
+  }
+
+  public boolean isPartitionedAcquisition() {
+    return isPartitionedAcquisition;
+  }
+
+  /** when enabled, the jobs are spread over {@link JobEntity#PARTITION_COUNT} 
+   * partitions by process instance and every job executor (identified by its 
+   * {@link #setLockOwner(String) lock owner}) only acquires the jobs of its 
+   * share of the partitions.  The job executors register themselves in a 
+   * heartbeat table, so that the partitions are rebalanced when job executors 
+   * join or leave the cluster.  Every job executor can run 
+   * {@link #setAcquisitionThreadCount(int) several acquisition threads}, each 
+   * one over its own partitions.  The lock owner must be unique per job executor. */
+  public void setPartitionedAcquisition(boolean isPartitionedAcquisition) {
+    this.isPartitionedAcquisition = isPartitionedAcquisition;
+  }
+
+  public int getAcquisitionThreadCount() {
+    return acquisitionThreadCount;
+  }
+
+  /** number of job acquisition threads, only used with partitioned acquisition */
+  public void setAcquisitionThreadCount(int acquisitionThreadCount) {
+    this.acquisitionThreadCount = acquisitionThreadCount;
+  }
+
+  public int getHeartbeatIntervalInMillis() {
+    return heartbeatIntervalInMillis;
+  }
+
+  public void setHeartbeatIntervalInMillis(int heartbeatIntervalInMillis) {
+    this.heartbeatIntervalInMillis = heartbeatIntervalInMillis;
+  }
+
+  public int getNodeTimeoutInMillis() {
+    return nodeTimeoutInMillis;
+  }
+
+  /** time after which a job executor that didn't send a heartbeat is considered 
+   * dead and its partitions are taken over by the others.  Should be a multiple 
+   * of the {@link #setHeartbeatIntervalInMillis(int) heartbeat interval}. */
+  public void setNodeTimeoutInMillis(int nodeTimeoutInMillis) {
+    this.nodeTimeoutInMillis = nodeTimeoutInMillis;
+  }
+  
+  /** ids of the live job executors as of the last heartbeat, or null if 
+   * partitioned acquisition is not enabled or the job executor is not started. */
+  public List<String> getClusterNodes() {
+    return clusterNodes;
+  }
+  
+  /** the timer wheel of this job executor, or null if it is not enabled or 
+   * the job executor is not started. */
+  public TimerWheel getTimerWheel() {
+    return timerWheel;
+  }
+
   public String getName() {
     return name;
   }
@@ -160,6 +720,37 @@ public abstract class JobExecutor {
     return isActive;
   }
   
+  /** number of jobs that were rejected because the job executor was busy */
+  public long getRejectedJobsCount() {
+    return metricsCollector.getRejectedJobs();
+  }
+  
+  public JobExecutorMetricsCollector getMetricsCollector() {
+    return metricsCollector;
+  }
+  
+  /** snapshot of the metrics collected by this job executor */
+  public JobExecutorMetrics getMetrics() {
+    JobExecutorMetrics metrics = metricsCollector.getMetrics();
+    metrics.setQueueDepth(getQueueDepth());
+    return metrics;
+  }
+  
+  public boolean isJmxEnabled() {
+    return isJmxEnabled;
+  }
+  
+  /** when enabled, the {@link #getMetrics() metrics} of this job executor are 
+   * exposed as an MBean in the platform MBean server while it is active. */
+  public void setJmxEnabled(boolean isJmxEnabled) {
+    this.isJmxEnabled = isJmxEnabled;
+  }
+  
+  /** number of job batches waiting for a free thread */
+  public int getQueueDepth() {
+    return 0;
+  }
+  
   public RejectedJobsHandler getRejectedJobsHandler() {
     return rejectedJobsHandler;
   }
@@ -24,6 +24,7 @@ public class JobExecutorContext {
 
   protected List<String> currentProcessorJobQueue = new LinkedList<String>();
   protected JobEntity currentJob;
+  protected JobExecutor jobExecutor;
         
   public List<String> getCurrentProcessorJobQueue() {
     return currentProcessorJobQueue;
@@ -40,4 +41,18 @@ public class JobExecutorContext {
   public JobEntity getCurrentJob() {
     return currentJob;
   }
+  
+  /** the job executor executing the jobs, null if unknown */
+  public JobExecutor getJobExecutor() {
+    return jobExecutor;
+  }
+  
+  public void setJobExecutor(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+  }
+  
+  /** the metrics collector of the job executor, null if the job executor is unknown */
+  public JobExecutorMetricsCollector getMetricsCollector() {
+    return (jobExecutor != null ? jobExecutor.getMetricsCollector() : null);
+  }
 }
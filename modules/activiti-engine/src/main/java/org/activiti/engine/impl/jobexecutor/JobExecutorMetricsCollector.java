@@ -0,0 +1,157 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+import org.activiti.engine.impl.util.ClockUtil;
+import org.activiti.engine.management.DurationHistogram;
+import org.activiti.engine.management.JobExecutorMetrics;
+
+
+/**
+ * Collects the counters and timings of a {@link JobExecutor}.  All methods 
+ * are thread safe and cheap enough to be called for every acquisition and 
+ * every job.
+ */
+public class JobExecutorMetricsCollector {
+
+  public static final long[] DEFAULT_BUCKET_LIMITS_IN_MILLIS = {
+    10, 50, 100, 500, 1000, 5000, 10000, 60000, 300000
+  };
+
+  protected final long[] bucketLimitsInMillis;
+  
+  protected final AtomicLong acquisitionCycles = new AtomicLong();
+  protected final AtomicLong acquiredJobs = new AtomicLong();
+  protected final AtomicLong rejectedJobs = new AtomicLong();
+  protected final AtomicLong failedJobs = new AtomicLong();
+  protected final AtomicLong acquisitionConflicts = new AtomicLong();
+  protected volatile Histogram acquisitionTimes;
+  protected volatile Histogram startDelays;
+  protected final ConcurrentMap<String, Histogram> executionTimes = new ConcurrentHashMap<String, Histogram>();
+
+  public JobExecutorMetricsCollector() {
+    this(DEFAULT_BUCKET_LIMITS_IN_MILLIS);
+  }
+  
+  public JobExecutorMetricsCollector(long[] bucketLimitsInMillis) {
+    this.bucketLimitsInMillis = bucketLimitsInMillis.clone();
+    this.acquisitionTimes = new Histogram(this.bucketLimitsInMillis);
+    this.startDelays = new Histogram(this.bucketLimitsInMillis);
+  }
+
+  public void acquisitionCompleted(int acquiredJobCount, long millis) {
+    acquisitionCycles.incrementAndGet();
+    acquiredJobs.addAndGet(acquiredJobCount);
+    acquisitionTimes.record(millis);
+  }
+
+  public void acquisitionConflicted() {
+    acquisitionConflicts.incrementAndGet();
+  }
+
+  public void jobsRejected(int jobCount) {
+    rejectedJobs.addAndGet(jobCount);
+  }
+
+  public void jobFailed() {
+    failedJobs.incrementAndGet();
+  }
+
+  /** records the delay between the due date of the job and now */
+  public void jobStarted(JobEntity job) {
+    Date duedate = job.getDuedate();
+    if (duedate!=null) {
+      startDelays.record(Math.max(0, ClockUtil.getCurrentTime().getTime() - duedate.getTime()));
+    }
+  }
+
+  public void jobExecuted(JobEntity job, long millis) {
+    String jobHandlerType = job.getJobHandlerType();
+    Histogram histogram = executionTimes.get(jobHandlerType);
+    if (histogram==null) {
+      executionTimes.putIfAbsent(jobHandlerType, new Histogram(bucketLimitsInMillis));
+      histogram = executionTimes.get(jobHandlerType);
+    }
+    histogram.record(millis);
+  }
+
+  public long getRejectedJobs() {
+    return rejectedJobs.get();
+  }
+
+  public JobExecutorMetrics getMetrics() {
+    JobExecutorMetrics metrics = new JobExecutorMetrics();
+    metrics.setAcquisitionCycles(acquisitionCycles.get());
+    metrics.setAcquiredJobs(acquiredJobs.get());
+    metrics.setRejectedJobs(rejectedJobs.get());
+    metrics.setFailedJobs(failedJobs.get());
+    metrics.setAcquisitionConflicts(acquisitionConflicts.get());
+    metrics.setAcquisitionTimes(acquisitionTimes.getSnapshot());
+    metrics.setStartDelays(startDelays.getSnapshot());
+    Map<String, DurationHistogram> executionTimeSnapshots = new HashMap<String, DurationHistogram>();
+    for (Map.Entry<String, Histogram> executionTime: executionTimes.entrySet()) {
+      executionTimeSnapshots.put(executionTime.getKey(), executionTime.getValue().getSnapshot());
+    }
+    metrics.setExecutionTimes(executionTimeSnapshots);
+    return metrics;
+  }
+
+  /** sets all counters and timings back to zero */
+  public void reset() {
+    acquisitionCycles.set(0);
+    acquiredJobs.set(0);
+    rejectedJobs.set(0);
+    failedJobs.set(0);
+    acquisitionConflicts.set(0);
+    acquisitionTimes = new Histogram(bucketLimitsInMillis);
+    startDelays = new Histogram(bucketLimitsInMillis);
+    executionTimes.clear();
+  }
+
+  protected static class Histogram {
+    
+    protected final long[] bucketLimitsInMillis;
+    protected final long[] bucketCounts;
+    protected long count;
+    protected long totalMillis;
+    protected long maxMillis;
+    
+    public Histogram(long[] bucketLimitsInMillis) {
+      this.bucketLimitsInMillis = bucketLimitsInMillis;
+      this.bucketCounts = new long[bucketLimitsInMillis.length+1];
+    }
+    
+    public synchronized void record(long millis) {
+      int bucket = 0;
+      while (bucket<bucketLimitsInMillis.length && millis>bucketLimitsInMillis[bucket]) {
+        bucket++;
+      }
+      bucketCounts[bucket]++;
+      count++;
+      totalMillis += millis;
+      maxMillis = Math.max(maxMillis, millis);
+    }
+    
+    public synchronized DurationHistogram getSnapshot() {
+      return new DurationHistogram(bucketLimitsInMillis.clone(), bucketCounts.clone(), count, totalMillis, maxMillis);
+    }
+  }
+}
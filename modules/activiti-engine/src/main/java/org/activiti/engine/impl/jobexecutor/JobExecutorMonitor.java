@@ -0,0 +1,114 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.activiti.engine.management.DurationHistogram;
+import org.activiti.engine.management.JobExecutorMetrics;
+
+
+/**
+ * Exposes the metrics of a {@link JobExecutor} over JMX.
+ */
+public class JobExecutorMonitor implements JobExecutorMonitorMBean {
+
+  protected final JobExecutor jobExecutor;
+
+  public JobExecutorMonitor(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+  }
+
+  public String getName() {
+    return jobExecutor.getName();
+  }
+
+  public String getLockOwner() {
+    return jobExecutor.getLockOwner();
+  }
+
+  public boolean isActive() {
+    return jobExecutor.isActive();
+  }
+
+  public long getAcquisitionCycles() {
+    return jobExecutor.getMetrics().getAcquisitionCycles();
+  }
+
+  public long getAcquiredJobs() {
+    return jobExecutor.getMetrics().getAcquiredJobs();
+  }
+
+  public long getRejectedJobs() {
+    return jobExecutor.getMetrics().getRejectedJobs();
+  }
+
+  public long getFailedJobs() {
+    return jobExecutor.getMetrics().getFailedJobs();
+  }
+
+  public long getAcquisitionConflicts() {
+    return jobExecutor.getMetrics().getAcquisitionConflicts();
+  }
+
+  public double getAcquiredJobsPerCycle() {
+    return jobExecutor.getMetrics().getAcquiredJobsPerCycle();
+  }
+
+  public double getRejectedJobsPerCycle() {
+    return jobExecutor.getMetrics().getRejectedJobsPerCycle();
+  }
+
+  public double getFailedJobsPerCycle() {
+    return jobExecutor.getMetrics().getFailedJobsPerCycle();
+  }
+
+  public int getQueueDepth() {
+    return jobExecutor.getQueueDepth();
+  }
+
+  public double getAverageAcquisitionTimeInMillis() {
+    return jobExecutor.getMetrics().getAcquisitionTimes().getAverageMillis();
+  }
+
+  public long getMaxAcquisitionTimeInMillis() {
+    return jobExecutor.getMetrics().getAcquisitionTimes().getMaxMillis();
+  }
+
+  public double getAverageStartDelayInMillis() {
+    return jobExecutor.getMetrics().getStartDelays().getAverageMillis();
+  }
+
+  public long getMaxStartDelayInMillis() {
+    return jobExecutor.getMetrics().getStartDelays().getMaxMillis();
+  }
+
+  public String[] getHistograms() {
+    JobExecutorMetrics metrics = jobExecutor.getMetrics();
+    List<String> histograms = new ArrayList<String>();
+    histograms.add("acquisition: " + metrics.getAcquisitionTimes());
+    histograms.add("start delay: " + metrics.getStartDelays());
+    Map<String, DurationHistogram> executionTimes = new TreeMap<String, DurationHistogram>(metrics.getExecutionTimes());
+    for (Map.Entry<String, DurationHistogram> executionTime: executionTimes.entrySet()) {
+      histograms.add("execution of " + executionTime.getKey() + ": " + executionTime.getValue());
+    }
+    return histograms.toArray(new String[histograms.size()]);
+  }
+
+  public void resetMetrics() {
+    jobExecutor.getMetricsCollector().reset();
+  }
+}
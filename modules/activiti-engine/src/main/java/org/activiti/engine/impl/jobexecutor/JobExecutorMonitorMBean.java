@@ -0,0 +1,44 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+
+/**
+ * Management interface of a {@link JobExecutor}, see {@link JobExecutor#setJmxEnabled(boolean)}.
+ */
+public interface JobExecutorMonitorMBean {
+
+  String getName();
+  String getLockOwner();
+  boolean isActive();
+  
+  long getAcquisitionCycles();
+  long getAcquiredJobs();
+  long getRejectedJobs();
+  long getFailedJobs();
+  long getAcquisitionConflicts();
+  double getAcquiredJobsPerCycle();
+  double getRejectedJobsPerCycle();
+  double getFailedJobsPerCycle();
+  int getQueueDepth();
+  
+  double getAverageAcquisitionTimeInMillis();
+  long getMaxAcquisitionTimeInMillis();
+  double getAverageStartDelayInMillis();
+  long getMaxStartDelayInMillis();
+  
+  /** the histograms of the acquisition times, start delays and execution times per job handler type */
+  String[] getHistograms();
+  
+  void resetMetrics();
+}
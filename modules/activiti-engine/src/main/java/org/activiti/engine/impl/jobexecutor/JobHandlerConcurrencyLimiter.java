@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
+
+/**
+ * <p>Limits the number of jobs per {@link JobHandler#getType() job handler type} 
+ * that a {@link JobExecutor} executes concurrently, so that jobs calling a slow 
+ * external system (like a web service or a mail server) can't occupy all 
+ * threads of the job executor or overload that system.</p>
+ * 
+ * <p>The job acquisition reserves a slot for every job before it is locked and 
+ * skips the jobs for which no slot is free, leaving them for a later 
+ * acquisition.  The slot is released when the job executor is done with the 
+ * job.  Job handler types without a limit are not restricted.</p>
+ * 
+ * @see JobExecutor#setJobHandlerConcurrencyLimits(Map)
+ */
+public class JobHandlerConcurrencyLimiter {
+
+  /** maximum number of concurrent jobs by job handler type */
+  protected final Map<String, Integer> limits;
+  /** number of reserved slots by job handler type */
+  protected final Map<String, Integer> reservedSlots = new HashMap<String, Integer>();
+  /** job handler type by id of the jobs holding a slot */
+  protected final Map<String, String> reservedJobs = new HashMap<String, String>();
+
+  public JobHandlerConcurrencyLimiter(Map<String, Integer> limits) {
+    this.limits = new HashMap<String, Integer>(limits);
+  }
+
+  public boolean isLimited(String jobHandlerType) {
+    return limits.containsKey(jobHandlerType);
+  }
+
+  /**
+   * Reserves a slot for all the given jobs, or for none of them if the 
+   * limit of one of their job handler types would be exceeded.  Jobs that 
+   * already hold a slot keep it.
+   * @return true if all jobs hold a slot.
+   */
+  public synchronized boolean reserve(Collection<JobEntity> jobs) {
+    Map<String, Integer> requiredSlots = new HashMap<String, Integer>();
+    for (JobEntity job: jobs) {
+      String jobHandlerType = job.getJobHandlerType();
+      if (isLimited(jobHandlerType) && !reservedJobs.containsKey(job.getId())) {
+        Integer required = requiredSlots.get(jobHandlerType);
+        requiredSlots.put(jobHandlerType, (required!=null ? required+1 : 1));
+      }
+    }
+    for (Map.Entry<String, Integer> required: requiredSlots.entrySet()) {
+      if (getReservedSlots(required.getKey()) + required.getValue() > limits.get(required.getKey())) {
+        return false;
+      }
+    }
+    for (JobEntity job: jobs) {
+      String jobHandlerType = job.getJobHandlerType();
+      if (isLimited(jobHandlerType) && !reservedJobs.containsKey(job.getId())) {
+        reservedJobs.put(job.getId(), jobHandlerType);
+        reservedSlots.put(jobHandlerType, getReservedSlots(jobHandlerType)+1);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Releases the slots of the given jobs.  Jobs that don't hold a slot are ignored.
+   * @return true if a slot was released.
+   */
+  public synchronized boolean release(Collection<String> jobIds) {
+    boolean isReleased = false;
+    for (String jobId: jobIds) {
+      String jobHandlerType = reservedJobs.remove(jobId);
+      if (jobHandlerType!=null) {
+        reservedSlots.put(jobHandlerType, getReservedSlots(jobHandlerType)-1);
+        isReleased = true;
+      }
+    }
+    return isReleased;
+  }
+
+  /** number of jobs with the given job handler type that hold a slot */
+  public synchronized int getReservedSlots(String jobHandlerType) {
+    Integer slots = reservedSlots.get(jobHandlerType);
+    return (slots!=null ? slots : 0);
+  }
+  
+  public Map<String, Integer> getLimits() {
+    return limits;
+  }
+}
@@ -0,0 +1,185 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.activiti.engine.ActivitiException;
+
+
+/**
+ * <p>Bounded work queue of the {@link DefaultJobExecutor} that hands out
+ * {@link ExecuteJobsRunnable}s with the highest job priority first, and 
+ * jobs with the same priority in the order in which they were submitted.</p>
+ * 
+ * <p>Like an {@link java.util.concurrent.ArrayBlockingQueue}, offering work 
+ * to a full queue fails, so that the thread pool rejects it and the 
+ * {@link RejectedJobsHandler} kicks in.  {@link #put(Runnable)} and the 
+ * timed {@link #offer(Runnable, long, TimeUnit)} wait for space instead.</p>
+ */
+public class JobPriorityQueue extends PriorityBlockingQueue<Runnable> {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected final int capacity;
+
+  public JobPriorityQueue(int capacity) {
+    super(capacity, new JobPriorityComparator());
+    this.capacity = capacity;
+  }
+
+  public synchronized boolean offer(Runnable runnable) {
+    if (size() >= capacity) {
+      return false;
+    }
+    return super.offer(runnable);
+  }
+
+  /** waits up to the given timeout for space.  
+   * @return false if the queue is still full after the timeout or if the 
+   * waiting thread is interrupted. */
+  public synchronized boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+    long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+    try {
+      while (size() >= capacity) {
+        long waitTime = deadline - System.currentTimeMillis();
+        if (waitTime <= 0) {
+          return false;
+        }
+        wait(waitTime);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return super.offer(runnable);
+  }
+  
+  /** waits until there is space in the queue.  
+   * @throws ActivitiException if the waiting thread is interrupted, as 
+   * {@link PriorityBlockingQueue#put(Object)} doesn't declare the InterruptedException. */
+  public synchronized void put(Runnable runnable) {
+    try {
+      while (size() >= capacity) {
+        wait();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ActivitiException("interrupted while waiting for space in the job queue", e);
+    }
+    super.offer(runnable);
+  }
+  
+  public boolean add(Runnable runnable) {
+    if (!offer(runnable)) {
+      throw new IllegalStateException("Queue full");
+    }
+    return true;
+  }
+
+  // removing work wakes up the threads waiting for space /////////////////////
+  
+  public Runnable take() throws InterruptedException {
+    Runnable runnable = super.take();
+    spaceAvailable();
+    return runnable;
+  }
+  
+  public Runnable poll() {
+    Runnable runnable = super.poll();
+    if (runnable!=null) {
+      spaceAvailable();
+    }
+    return runnable;
+  }
+  
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    Runnable runnable = super.poll(timeout, unit);
+    if (runnable!=null) {
+      spaceAvailable();
+    }
+    return runnable;
+  }
+  
+  public boolean remove(Object object) {
+    boolean isRemoved = super.remove(object);
+    if (isRemoved) {
+      spaceAvailable();
+    }
+    return isRemoved;
+  }
+  
+  public int drainTo(Collection<? super Runnable> collection) {
+    int drained = super.drainTo(collection);
+    spaceAvailable();
+    return drained;
+  }
+  
+  public int drainTo(Collection<? super Runnable> collection, int maxElements) {
+    int drained = super.drainTo(collection, maxElements);
+    spaceAvailable();
+    return drained;
+  }
+  
+  public void clear() {
+    super.clear();
+    spaceAvailable();
+  }
+  
+  protected synchronized void spaceAvailable() {
+    notifyAll();
+  }
+
+  public int remainingCapacity() {
+    return Math.max(capacity - size(), 0);
+  }
+  
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** orders {@link ExecuteJobsRunnable}s by descending priority and then by submission order */
+  public static class JobPriorityComparator implements Comparator<Runnable> {
+
+    public int compare(Runnable runnable1, Runnable runnable2) {
+      int priority1 = getPriority(runnable1);
+      int priority2 = getPriority(runnable2);
+      if (priority1!=priority2) {
+        return priority1 > priority2 ? -1 : 1;
+      }
+      long sequenceNumber1 = getSequenceNumber(runnable1);
+      long sequenceNumber2 = getSequenceNumber(runnable2);
+      if (sequenceNumber1!=sequenceNumber2) {
+        return sequenceNumber1 < sequenceNumber2 ? -1 : 1;
+      }
+      return 0;
+    }
+    
+    protected int getPriority(Runnable runnable) {
+      if (runnable instanceof ExecuteJobsRunnable) {
+        return ((ExecuteJobsRunnable) runnable).getPriority();
+      }
+      return 0;
+    }
+    
+    protected long getSequenceNumber(Runnable runnable) {
+      if (runnable instanceof ExecuteJobsRunnable) {
+        return ((ExecuteJobsRunnable) runnable).getSequenceNumber();
+      }
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+
+/**
+ * Hands a job that was locked to this job executor when it was 
+ * created directly to the job executor, without waiting for the 
+ * next acquisition.
+ * 
+ * @see JobExecutor#setLocalJobDispatch(boolean)
+ */
+public class LocalJobAddedNotification implements TransactionListener {
+  
+  private static Logger log = Logger.getLogger(LocalJobAddedNotification.class.getName());
+  
+  protected final JobExecutor jobExecutor;
+  protected final String jobId;
+  protected final int priority;
+  
+  public LocalJobAddedNotification(JobExecutor jobExecutor, String jobId, int priority) {
+    this.jobExecutor = jobExecutor;
+    this.jobId = jobId;
+    this.priority = priority;
+  }
+
+  public void execute(CommandContext commandContext) {
+    log.fine("dispatching new job "+jobId+" to the local job executor");
+    jobExecutor.executeLocalJob(jobId, priority);
+  }
+}
@@ -0,0 +1,85 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.cmd.RenewJobLocksCmd;
+import org.activiti.engine.impl.util.ClockUtil;
+
+
+/**
+ * <p>Periodically extends the locks of the jobs that the {@link JobExecutor} 
+ * acquired and did not finish yet, with one bulk update per renewal.</p>
+ * 
+ * <p>This way the lock time can be short, so that the jobs of a crashed job 
+ * executor are picked up quickly by the others, without long running jobs 
+ * being executed a second time when their lock expires.</p>
+ */
+public class RenewJobLocksRunnable implements Runnable {
+
+  private static Logger log = Logger.getLogger(RenewJobLocksRunnable.class.getName());
+
+  protected final JobExecutor jobExecutor;
+
+  protected volatile boolean isInterrupted = false;
+  protected final Object MONITOR = new Object();
+
+  public RenewJobLocksRunnable(JobExecutor jobExecutor) {
+    this.jobExecutor = jobExecutor;
+  }
+
+  public void run() {
+    log.fine(jobExecutor.getName() + " starting to renew job locks");
+    while (!isInterrupted) {
+      try {
+        synchronized (MONITOR) {
+          if (!isInterrupted) {
+            MONITOR.wait(jobExecutor.getLockRenewalIntervalInMillis());
+          }
+        }
+      } catch (InterruptedException e) {
+        log.fine("job lock renewal wait interrupted");
+      }
+
+      if (!isInterrupted) {
+        try {
+          renewJobLocks();
+        } catch (Exception e) {
+          log.log(Level.SEVERE, "exception during job lock renewal: " + e.getMessage(), e);
+        }
+      }
+    }
+    log.fine(jobExecutor.getName() + " stopped renewing job locks");
+  }
+
+  protected void renewJobLocks() {
+    List<String> jobIds = jobExecutor.getLockedJobIds();
+    if (jobIds.isEmpty()) {
+      return;
+    }
+    Date lockExpirationTime = new Date(ClockUtil.getCurrentTime().getTime() + jobExecutor.getLockTimeInMillis());
+    int renewedLocks = jobExecutor.getCommandExecutor().execute(new RenewJobLocksCmd(jobIds, jobExecutor.getLockOwner(), lockExpirationTime));
+    log.fine("renewed " + renewedLocks + " of " + jobIds.size() + " job locks");
+  }
+
+  public void stop() {
+    synchronized (MONITOR) {
+      isInterrupted = true;
+      MONITOR.notifyAll();
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+
+import org.activiti.engine.impl.persistence.entity.JobEntity;
+
+/**
+ * <p>Strategy deciding when a failed job is retried, see 
+ * {@link DefaultFailedJobCommandFactory#setRetryPolicy(RetryPolicy)}.</p>
+ * 
+ * <p>The retry time is stored as the due date of the job, so that the job 
+ * is not acquired again before.</p>
+ */
+public interface RetryPolicy {
+
+  /**
+   * @param job the failed job, with its retries already decremented.
+   * @return the time at which the job is retried, or null to retry it right away.
+   */
+  Date getRetryTime(JobEntity job, Throwable exception);
+  
+}
@@ -49,6 +49,7 @@ public class TimerDeclarationImpl implements Serializable {
   protected String repeat;
   protected boolean exclusive = TimerEntity.DEFAULT_EXCLUSIVE;
   protected int retries = TimerEntity.DEFAULT_RETRIES;
+  protected int priority = TimerEntity.DEFAULT_PRIORITY;
 
   public TimerDeclarationImpl(Expression expression, TimerDeclarationType type, String jobHandlerType) {
     this.jobHandlerType = jobHandlerType;
@@ -92,6 +93,14 @@ public class TimerDeclarationImpl implements Serializable {
     this.retries = retries;
   }
 
+  public int getPriority() {
+    return priority;
+  }
+
+  public void setPriority(int priority) {
+    this.priority = priority;
+  }
+
   public void setJobHandlerType(String jobHandlerType) {
     this.jobHandlerType = jobHandlerType;
   }
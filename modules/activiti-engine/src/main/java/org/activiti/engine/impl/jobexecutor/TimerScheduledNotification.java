@@ -0,0 +1,46 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.cfg.TransactionListener;
+import org.activiti.engine.impl.interceptor.CommandContext;
+
+
+/**
+ * Registers a timer that was created in this process engine 
+ * in the {@link TimerWheel} of the job executor.
+ * 
+ * @see JobExecutor#setTimerWheelEnabled(boolean)
+ */
+public class TimerScheduledNotification implements TransactionListener {
+  
+  private static Logger log = Logger.getLogger(TimerScheduledNotification.class.getName());
+  
+  protected final JobExecutor jobExecutor;
+  protected final String jobId;
+  protected final Date duedate;
+  
+  public TimerScheduledNotification(JobExecutor jobExecutor, String jobId, Date duedate) {
+    this.jobExecutor = jobExecutor;
+    this.jobId = jobId;
+    this.duedate = duedate;
+  }
+
+  public void execute(CommandContext commandContext) {
+    log.fine("registering timer "+jobId+" in the timer wheel");
+    jobExecutor.timerWasScheduled(jobId, duedate);
+  }
+}
@@ -0,0 +1,145 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.util.ClockUtil;
+
+
+/**
+ * <p>Hashed timer wheel keeping track of the timers that are due in the near
+ * future, so that the {@link JobExecutor} can be woken up when they are due
+ * instead of polling the database for them.</p>
+ *
+ * <p>The wheel only remembers job ids and due dates.  Firing a timer wakes up
+ * the job acquisition, which then acquires and locks the timer as usual, so
+ * a timer that was already executed by another job executor is simply not
+ * found.</p>
+ */
+public class TimerWheel implements Runnable {
+
+  private static Logger log = Logger.getLogger(TimerWheel.class.getName());
+
+  protected final JobExecutor jobExecutor;
+  protected final long tickInMillis;
+  protected final Map<String, Long>[] buckets;
+  /** bucket index by job id */
+  protected final Map<String, Integer> scheduledTimers = new HashMap<String, Integer>();
+  protected long lastTick;
+
+  protected volatile boolean isInterrupted = false;
+  protected final Object MONITOR = new Object();
+
+  @SuppressWarnings("unchecked")
+  public TimerWheel(JobExecutor jobExecutor, long tickInMillis, int wheelSize) {
+    this.jobExecutor = jobExecutor;
+    this.tickInMillis = tickInMillis;
+    this.buckets = new Map[wheelSize];
+    for (int i=0; i<wheelSize; i++) {
+      buckets[i] = new HashMap<String, Long>();
+    }
+    this.lastTick = ClockUtil.getCurrentTime().getTime() / tickInMillis;
+  }
+
+  /** remembers that the given timer is due at the given time.  Scheduling
+   * a timer again replaces its previous due date. */
+  public synchronized void schedule(String jobId, Date duedate) {
+    long dueTime = duedate.getTime();
+    Integer previousBucketIndex = scheduledTimers.get(jobId);
+    if (previousBucketIndex!=null) {
+      Long previousDueTime = buckets[previousBucketIndex].remove(jobId);
+      if (previousDueTime!=null && previousDueTime.longValue()==dueTime) {
+        buckets[previousBucketIndex].put(jobId, previousDueTime);
+        return;
+      }
+    }
+    int bucketIndex = getBucketIndex(dueTime);
+    buckets[bucketIndex].put(jobId, dueTime);
+    scheduledTimers.put(jobId, bucketIndex);
+  }
+
+  protected int getBucketIndex(long dueTime) {
+    // timers that are already due go in the bucket of the next tick
+    long tick = Math.max(dueTime / tickInMillis, lastTick+1);
+    return (int) (tick % buckets.length);
+  }
+
+  /** removes the timers that are due from the wheel.
+   * @return true if at least one timer was due. */
+  public synchronized boolean fireDueTimers() {
+    long now = ClockUtil.getCurrentTime().getTime();
+    long currentTick = now / tickInMillis;
+    if (currentTick<=lastTick) {
+      return false;
+    }
+
+    boolean isTimerDue = false;
+    // if the clock moved more than a full rotation, every bucket is visited once
+    long firstTick = Math.max(lastTick+1, currentTick-buckets.length+1);
+    for (long tick=firstTick; tick<=currentTick; tick++) {
+      Iterator<Map.Entry<String, Long>> timers = buckets[(int) (tick % buckets.length)].entrySet().iterator();
+      while (timers.hasNext()) {
+        Map.Entry<String, Long> timer = timers.next();
+        if (timer.getValue()<=now) {
+          timers.remove();
+          scheduledTimers.remove(timer.getKey());
+          isTimerDue = true;
+        }
+      }
+    }
+    lastTick = currentTick;
+    return isTimerDue;
+  }
+
+  public synchronized int size() {
+    return scheduledTimers.size();
+  }
+
+  public void run() {
+    log.fine(jobExecutor.getName() + " starting timer wheel");
+    while (!isInterrupted) {
+      try {
+        if (fireDueTimers()) {
+          log.fine("timers are due, notifying job executor");
+          jobExecutor.jobWasAdded();
+        }
+      } catch (Exception e) {
+        log.log(Level.SEVERE, "exception in timer wheel: " + e.getMessage(), e);
+      }
+
+      try {
+        synchronized (MONITOR) {
+          if (!isInterrupted) {
+            MONITOR.wait(tickInMillis);
+          }
+        }
+      } catch (InterruptedException e) {
+        log.fine("timer wheel wait interrupted");
+      }
+    }
+    log.fine(jobExecutor.getName() + " stopped timer wheel");
+  }
+
+  public void stop() {
+    synchronized (MONITOR) {
+      isInterrupted = true;
+      MONITOR.notifyAll();
+    }
+  }
+}
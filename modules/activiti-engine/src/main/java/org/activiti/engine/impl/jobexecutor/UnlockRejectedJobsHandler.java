@@ -0,0 +1,39 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.jobexecutor;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.cmd.UnlockJobsCmd;
+
+/**
+ * Releases the locks of rejected jobs, so that they are acquired again as 
+ * soon as the job executor has free capacity, instead of blocking the job 
+ * acquisition (like {@link CallerRunsRejectedJobsHandler}) or staying locked 
+ * until the lock expires.
+ */
+public class UnlockRejectedJobsHandler implements RejectedJobsHandler {
+
+  private static Logger log = Logger.getLogger(UnlockRejectedJobsHandler.class.getName());
+
+  public void jobsRejected(JobExecutor jobExecutor, List<String> jobIds) {
+    try {
+      jobExecutor.getCommandExecutor().execute(new UnlockJobsCmd(jobIds, jobExecutor.getLockOwner()));
+    } catch (RuntimeException e) {
+      log.log(Level.WARNING, "Could not unlock rejected jobs "+jobIds+", they will be acquired again when their locks expire", e);
+    }
+  }
+
+}
@@ -16,6 +16,8 @@ package org.activiti.engine.impl.persistence;
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.persistence.deploy.DeploymentCache;
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
 
 
 /**
@@ -35,4 +37,19 @@ public class AbstractHistoricManager extends AbstractManager {
   public boolean isHistoryEnabled() {
     return isHistoryEnabled;
   }
+  
+  /** the history level that applies to the instances of the given process definition.
+   * Without a process definition, e.g. for standalone tasks, that is the history 
+   * level of the engine.  Cached process definitions are used without a query. */
+  public int getHistoryLevel(String processDefinitionId) {
+    if (processDefinitionId==null || !isHistoryEnabled) {
+      return historyLevel;
+    }
+    DeploymentCache deploymentCache = Context.getProcessEngineConfiguration().getDeploymentCache();
+    ProcessDefinitionEntity processDefinition = deploymentCache.getProcessDefinitionCache().get(processDefinitionId);
+    if (processDefinition==null) {
+      processDefinition = deploymentCache.findDeployedProcessDefinitionById(processDefinitionId);
+    }
+    return processDefinition.getEffectiveHistoryLevel(historyLevel);
+  }
 }
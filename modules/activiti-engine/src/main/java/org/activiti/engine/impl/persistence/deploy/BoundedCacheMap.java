@@ -0,0 +1,188 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.deploy;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.activiti.engine.ActivitiException;
+
+
+/**
+ * Thread safe map that evicts entries when its total weight exceeds the 
+ * configured limit.  Without a {@link CacheWeigher}, every entry weighs 1 
+ * so the limit is the maximum number of entries.  A limit of 0 or less 
+ * means the map is unbounded.
+ * 
+ * The victim is the least recently used entry ({@link #EVICTION_POLICY_LRU}) 
+ * or the least frequently used entry ({@link #EVICTION_POLICY_LFU}), where 
+ * ties between equally used entries are broken by recency.  The entry that 
+ * is being put is never evicted by its own put.
+ */
+public class BoundedCacheMap<K, V> extends AbstractMap<K, V> {
+
+  public static final String EVICTION_POLICY_LRU = "lru";
+  public static final String EVICTION_POLICY_LFU = "lfu";
+
+  /** access ordered, so iteration starts at the least recently used entry */
+  protected LinkedHashMap<K, CacheEntry<V>> entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true);
+  protected int limit;
+  protected boolean isLfu;
+  protected CacheWeigher<V> weigher;
+  protected CacheMetrics metrics;
+  protected long weight = 0;
+
+  public BoundedCacheMap() {
+    this(-1, EVICTION_POLICY_LRU, null);
+  }
+
+  public BoundedCacheMap(int limit, String evictionPolicy, CacheWeigher<V> weigher) {
+    this.limit = limit;
+    this.weigher = weigher;
+    if (EVICTION_POLICY_LRU.equalsIgnoreCase(evictionPolicy)) {
+      this.isLfu = false;
+    } else if (EVICTION_POLICY_LFU.equalsIgnoreCase(evictionPolicy)) {
+      this.isLfu = true;
+    } else {
+      throw new ActivitiException("invalid cache eviction policy '"+evictionPolicy+"', expected '"+EVICTION_POLICY_LRU+"' or '"+EVICTION_POLICY_LFU+"'");
+    }
+  }
+
+  public synchronized V get(Object key) {
+    CacheEntry<V> entry = entries.get(key);
+    if (entry==null) {
+      return null;
+    }
+    entry.useCount++;
+    return entry.value;
+  }
+
+  public synchronized boolean containsKey(Object key) {
+    return entries.containsKey(key);
+  }
+
+  public synchronized V put(K key, V value) {
+    CacheEntry<V> entry = new CacheEntry<V>(value, weigh(value));
+    CacheEntry<V> previous = entries.put(key, entry);
+    weight += entry.weight;
+    if (previous!=null) {
+      weight -= previous.weight;
+    }
+    evict(key);
+    return (previous!=null ? previous.value : null);
+  }
+
+  public synchronized V remove(Object key) {
+    CacheEntry<V> entry = entries.remove(key);
+    if (entry==null) {
+      return null;
+    }
+    weight -= entry.weight;
+    return entry.value;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    weight = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /** returns a snapshot of the entries, changes to the snapshot are not reflected in this map. */
+  public synchronized Set<Map.Entry<K, V>> entrySet() {
+    Map<K, V> snapshot = new LinkedHashMap<K, V>();
+    for (Map.Entry<K, CacheEntry<V>> entry: entries.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().value);
+    }
+    return snapshot.entrySet();
+  }
+
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  protected int weigh(V value) {
+    if (weigher==null) {
+      return 1;
+    }
+    return Math.max(1, weigher.weigh(value));
+  }
+
+  protected void evict(K keptKey) {
+    if (limit<=0) {
+      return;
+    }
+    while ( (weight>limit) && (entries.size()>1) ) {
+      K victimKey = selectVictim(keptKey);
+      CacheEntry<V> victim = entries.remove(victimKey);
+      weight -= victim.weight;
+      if (metrics!=null) {
+        metrics.recordEviction();
+      }
+    }
+  }
+
+  protected K selectVictim(K keptKey) {
+    K victimKey = null;
+    int victimUseCount = Integer.MAX_VALUE;
+    Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<K, CacheEntry<V>> entry = iterator.next();
+      if (entry.getKey().equals(keptKey)) {
+        continue;
+      }
+      if (!isLfu) {
+        // the first entry in access order is the least recently used one
+        return entry.getKey();
+      }
+      if (entry.getValue().useCount<victimUseCount) {
+        victimKey = entry.getKey();
+        victimUseCount = entry.getValue().useCount;
+      }
+    }
+    return victimKey;
+  }
+
+  protected static class CacheEntry<V> {
+    protected V value;
+    protected int weight;
+    protected int useCount = 0;
+    public CacheEntry(V value, int weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public boolean isLfu() {
+    return isLfu;
+  }
+
+  public CacheMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(CacheMetrics metrics) {
+    this.metrics = metrics;
+  }
+}
@@ -0,0 +1,90 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.deploy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Counters of a cache in the {@link DeploymentCache}.  
+ * 
+ * A load is the redeployment that is performed when a lookup misses.
+ */
+public class CacheMetrics {
+
+  protected AtomicLong hitCount = new AtomicLong();
+  protected AtomicLong missCount = new AtomicLong();
+  protected AtomicLong evictionCount = new AtomicLong();
+  protected AtomicLong loadCount = new AtomicLong();
+  protected AtomicLong totalLoadTimeMillis = new AtomicLong();
+
+  public void recordHit() {
+    hitCount.incrementAndGet();
+  }
+
+  public void recordMiss() {
+    missCount.incrementAndGet();
+  }
+
+  public void recordEviction() {
+    evictionCount.incrementAndGet();
+  }
+
+  public void recordLoad(long loadTimeMillis) {
+    loadCount.incrementAndGet();
+    totalLoadTimeMillis.addAndGet(loadTimeMillis);
+  }
+  
+  public void reset() {
+    hitCount.set(0);
+    missCount.set(0);
+    evictionCount.set(0);
+    loadCount.set(0);
+    totalLoadTimeMillis.set(0);
+  }
+
+  // getters //////////////////////////////////////////////////////////////////
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public long getLoadCount() {
+    return loadCount.get();
+  }
+
+  public long getTotalLoadTimeMillis() {
+    return totalLoadTimeMillis.get();
+  }
+
+  public long getAverageLoadTimeMillis() {
+    long loads = loadCount.get();
+    return (loads!=0 ? totalLoadTimeMillis.get() / loads : 0);
+  }
+
+  public String toString() {
+    return "hits="+getHitCount()
+      +", misses="+getMissCount()
+      +", evictions="+getEvictionCount()
+      +", loads="+getLoadCount()
+      +", totalLoadTime="+getTotalLoadTimeMillis()+"ms";
+  }
+}
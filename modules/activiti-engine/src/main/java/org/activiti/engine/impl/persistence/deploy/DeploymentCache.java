@@ -13,9 +13,9 @@
 
 package org.activiti.engine.impl.persistence.deploy;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Logger;
 
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.impl.context.Context;
@@ -24,13 +24,24 @@ import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
 
 
 /**
+ * Caches the parsed process definitions and knowledge bases.  The caches are 
+ * shared by all threads of the process engine and are therefore thread safe. 
+ * By default they are unbounded, see {@link BoundedCacheMap} for the eviction.  
+ * A process definition that misses is resolved from the redeployed deployment 
+ * itself, not from the cache: with a limit below the number of process 
+ * definitions of a deployment, or under concurrent misses, the redeployment 
+ * can evict it again before it is returned.
+ * 
  * @author Tom Baeyens
  * @author Falko Menge
  */
 public class DeploymentCache {
+  
+  private static Logger log = Logger.getLogger(DeploymentCache.class.getName());
 
-  protected Map<String, ProcessDefinitionEntity> processDefinitionCache = new HashMap<String, ProcessDefinitionEntity>(); 
-  protected Map<String, Object> knowledgeBaseCache = new HashMap<String, Object>(); 
+  protected Map<String, ProcessDefinitionEntity> processDefinitionCache = new BoundedCacheMap<String, ProcessDefinitionEntity>(); 
+  protected Map<String, Object> knowledgeBaseCache = new BoundedCacheMap<String, Object>(); 
+  protected CacheMetrics processDefinitionCacheMetrics = new CacheMetrics();
   protected List<Deployer> deployers;
   
   public void deploy(DeploymentEntity deployment) {
@@ -83,17 +94,30 @@ public class DeploymentCache {
     String deploymentId = processDefinition.getDeploymentId();
     processDefinition = processDefinitionCache.get(processDefinitionId);
     if (processDefinition==null) {
+      processDefinitionCacheMetrics.recordMiss();
+      long start = System.currentTimeMillis();
       DeploymentEntity deployment = Context
         .getCommandContext()
         .getDeploymentManager()
         .findDeploymentById(deploymentId);
       deployment.setNew(false);
       deploy(deployment);
-      processDefinition = processDefinitionCache.get(processDefinitionId);
+      // taken from the deployment, a bounded cache may have evicted the definition 
+      // again because of concurrent misses or a deployment exceeding the limit
+      for (ProcessDefinitionEntity deployedProcessDefinition: deployment.getDeployedArtifacts(ProcessDefinitionEntity.class)) {
+        if (processDefinitionId.equals(deployedProcessDefinition.getId())) {
+          processDefinition = deployedProcessDefinition;
+        }
+      }
       
       if (processDefinition==null) {
         throw new ActivitiException("deployment '"+deploymentId+"' didn't put process definition '"+processDefinitionId+"' in the cache");
       }
+      long loadTime = System.currentTimeMillis() - start;
+      processDefinitionCacheMetrics.recordLoad(loadTime);
+      log.fine("reloaded process definition '"+processDefinitionId+"' in "+loadTime+" ms");
+    } else {
+      processDefinitionCacheMetrics.recordHit();
     }
     return processDefinition;
   }
@@ -127,8 +151,16 @@ public class DeploymentCache {
     return processDefinitionCache;
   }
   
+  @SuppressWarnings("unchecked")
   public void setProcessDefinitionCache(Map<String, ProcessDefinitionEntity> processDefinitionCache) {
     this.processDefinitionCache = processDefinitionCache;
+    if (processDefinitionCache instanceof BoundedCacheMap) {
+      ((BoundedCacheMap<String, ProcessDefinitionEntity>) processDefinitionCache).setMetrics(processDefinitionCacheMetrics);
+    }
+  }
+  
+  public CacheMetrics getProcessDefinitionCacheMetrics() {
+    return processDefinitionCacheMetrics;
   }
   
   public Map<String, Object> getKnowledgeBaseCache() {
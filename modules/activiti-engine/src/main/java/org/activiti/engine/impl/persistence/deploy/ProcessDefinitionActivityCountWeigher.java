@@ -0,0 +1,39 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.deploy;
+
+import java.util.List;
+
+import org.activiti.engine.impl.persistence.entity.ProcessDefinitionEntity;
+import org.activiti.engine.impl.pvm.process.ActivityImpl;
+
+
+/**
+ * Weighs a process definition by the number of activities, including 
+ * the nested ones, so that large processes take a bigger share of a 
+ * weight-bounded process definition cache.
+ */
+public class ProcessDefinitionActivityCountWeigher implements CacheWeigher<ProcessDefinitionEntity> {
+
+  public int weigh(ProcessDefinitionEntity processDefinition) {
+    return 1 + countActivities(processDefinition.getActivities());
+  }
+
+  protected int countActivities(List<ActivityImpl> activities) {
+    int count = activities.size();
+    for (ActivityImpl activity: activities) {
+      count += countActivities(activity.getActivities());
+    }
+    return count;
+  }
+}
@@ -13,8 +13,13 @@
 package org.activiti.engine.impl.persistence.entity;
 
 import java.io.Serializable;
+import java.security.MessageDigest;
 
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.util.CompressionUtil;
 
 /**
  * @author Tom Baeyens
@@ -30,6 +35,7 @@ public class ByteArrayEntity implements Serializable, PersistentObject {
   protected String name;
   protected byte[] bytes;
   protected String deploymentId;
+  protected String hash;
 
   public ByteArrayEntity() {
   }
@@ -47,6 +53,40 @@ public class ByteArrayEntity implements Serializable, PersistentObject {
     return bytes;
   }
 
+  /** the bytes as they are stored in the database: compressed if byte array 
+   * compression is enabled, see {@link ProcessEngineConfigurationImpl#setByteArrayCompressionEnabled(boolean)} */
+  public byte[] getPersistentBytes() {
+    return toPersistentBytes(bytes);
+  }
+
+  public void setPersistentBytes(byte[] persistentBytes) {
+    this.bytes = CompressionUtil.uncompress(persistentBytes);
+  }
+  
+  public static byte[] toPersistentBytes(byte[] bytes) {
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    if (processEngineConfiguration!=null && processEngineConfiguration.isByteArrayCompressionEnabled()) {
+      return CompressionUtil.compress(bytes, processEngineConfiguration.getByteArrayCompressionThreshold());
+    }
+    return CompressionUtil.escape(bytes);
+  }
+
+  /** hex encoded SHA-256 hash of the given bytes, used to find identical 
+   * byte arrays that can be shared instead of stored again */
+  public static String createHash(byte[] bytes) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+      StringBuilder hash = new StringBuilder(digest.length*2);
+      for (byte b: digest) {
+        hash.append(Character.forDigit((b >> 4) & 0xf, 16));
+        hash.append(Character.forDigit(b & 0xf, 16));
+      }
+      return hash.toString();
+    } catch (Exception e) {
+      throw new ActivitiException("couldn't hash byte array: "+e.getMessage(), e);
+    }
+  }
+
   public Object getPersistentState() {
     return (bytes != null ? bytes : PERSISTENTSTATE_NULL);
   }
@@ -81,4 +121,10 @@ public class ByteArrayEntity implements Serializable, PersistentObject {
   public void setRevision(int revision) {
     this.revision = revision;
   }
+  public String getHash() {
+    return hash;
+  }
+  public void setHash(String hash) {
+    this.hash = hash;
+  }
 }
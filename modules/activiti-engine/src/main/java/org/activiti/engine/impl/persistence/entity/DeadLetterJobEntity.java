@@ -0,0 +1,213 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.db.DbSqlSession;
+import org.activiti.engine.impl.db.PersistentObject;
+
+
+/**
+ * A job that failed and ran out of retries, moved out of the job table so 
+ * that the job acquisition doesn't scan it anymore.  Setting the retries 
+ * of the job moves it back, see {@link #toJob()}.
+ */
+public class DeadLetterJobEntity implements Serializable, PersistentObject {
+
+  private static final long serialVersionUID = 1L;
+  
+  public static final String TYPE_MESSAGE = "message";
+  public static final String TYPE_TIMER = "timer";
+
+  protected String id;
+  protected int revision;
+  protected String type;
+  protected Date duedate;
+  protected String repeat;
+  protected String executionId;
+  protected String processInstanceId;
+  protected boolean isExclusive;
+  protected int priority;
+  protected String jobHandlerType;
+  protected String jobHandlerConfiguration;
+  protected String exceptionByteArrayId;
+  protected String exceptionMessage;
+  protected Date failedTime;
+
+  public DeadLetterJobEntity() {
+  }
+
+  public DeadLetterJobEntity(JobEntity job) {
+    id = job.getId();
+    type = (job instanceof TimerEntity ? TYPE_TIMER : TYPE_MESSAGE);
+    duedate = job.getDuedate();
+    if (job instanceof TimerEntity) {
+      repeat = ((TimerEntity) job).getRepeat();
+    }
+    executionId = job.getExecutionId();
+    processInstanceId = job.getProcessInstanceId();
+    isExclusive = job.isExclusive();
+    priority = job.getPriority();
+    jobHandlerType = job.getJobHandlerType();
+    jobHandlerConfiguration = job.getJobHandlerConfiguration();
+    exceptionByteArrayId = job.getExceptionByteArrayId();
+    exceptionMessage = job.getExceptionMessage();
+  }
+
+  /** recreates the job, keeping its id and exception, with no retries yet */
+  public JobEntity toJob() {
+    JobEntity job;
+    if (TYPE_TIMER.equals(type)) {
+      TimerEntity timer = new TimerEntity();
+      timer.setRepeat(repeat);
+      job = timer;
+    } else {
+      job = new MessageEntity();
+    }
+    job.setId(id);
+    job.setDuedate(duedate);
+    job.setExecutionId(executionId);
+    job.setProcessInstanceId(processInstanceId);
+    job.setExclusive(isExclusive);
+    job.setPriority(priority);
+    job.setJobHandlerType(jobHandlerType);
+    job.setJobHandlerConfiguration(jobHandlerConfiguration);
+    job.setExceptionByteArrayId(exceptionByteArrayId);
+    job.setExceptionMessage(exceptionMessage);
+    job.setRetries(0);
+    job.initializePartition();
+    return job;
+  }
+
+  /** deletes the dead letter job together with its exception stacktrace */
+  public void delete() {
+    DbSqlSession dbSqlSession = Context
+      .getCommandContext()
+      .getDbSqlSession();
+
+    dbSqlSession.delete(DeadLetterJobEntity.class, id);
+
+    if (exceptionByteArrayId != null) {
+      dbSqlSession.delete(ByteArrayEntity.class, exceptionByteArrayId);
+    }
+  }
+
+  public void setExecution(ExecutionEntity execution) {
+    executionId = execution.getId();
+    processInstanceId = execution.getProcessInstanceId();
+  }
+
+  public Object getPersistentState() {
+    // only replacing the execution updates a dead letter job
+    Map<String, Object> persistentState = new HashMap<String, Object>();
+    persistentState.put("executionId", executionId);
+    persistentState.put("processInstanceId", processInstanceId);
+    return persistentState;
+  }
+
+  public int getRevisionNext() {
+    return revision+1;
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public String getId() {
+    return id;
+  }
+  public void setId(String id) {
+    this.id = id;
+  }
+  public int getRevision() {
+    return revision;
+  }
+  public void setRevision(int revision) {
+    this.revision = revision;
+  }
+  public String getType() {
+    return type;
+  }
+  public void setType(String type) {
+    this.type = type;
+  }
+  public Date getDuedate() {
+    return duedate;
+  }
+  public void setDuedate(Date duedate) {
+    this.duedate = duedate;
+  }
+  public String getRepeat() {
+    return repeat;
+  }
+  public void setRepeat(String repeat) {
+    this.repeat = repeat;
+  }
+  public String getExecutionId() {
+    return executionId;
+  }
+  public void setExecutionId(String executionId) {
+    this.executionId = executionId;
+  }
+  public String getProcessInstanceId() {
+    return processInstanceId;
+  }
+  public void setProcessInstanceId(String processInstanceId) {
+    this.processInstanceId = processInstanceId;
+  }
+  public boolean isExclusive() {
+    return isExclusive;
+  }
+  public void setExclusive(boolean isExclusive) {
+    this.isExclusive = isExclusive;
+  }
+  public int getPriority() {
+    return priority;
+  }
+  public void setPriority(int priority) {
+    this.priority = priority;
+  }
+  public String getJobHandlerType() {
+    return jobHandlerType;
+  }
+  public void setJobHandlerType(String jobHandlerType) {
+    this.jobHandlerType = jobHandlerType;
+  }
+  public String getJobHandlerConfiguration() {
+    return jobHandlerConfiguration;
+  }
+  public void setJobHandlerConfiguration(String jobHandlerConfiguration) {
+    this.jobHandlerConfiguration = jobHandlerConfiguration;
+  }
+  public String getExceptionByteArrayId() {
+    return exceptionByteArrayId;
+  }
+  public void setExceptionByteArrayId(String exceptionByteArrayId) {
+    this.exceptionByteArrayId = exceptionByteArrayId;
+  }
+  public String getExceptionMessage() {
+    return exceptionMessage;
+  }
+  public void setExceptionMessage(String exceptionMessage) {
+    this.exceptionMessage = exceptionMessage;
+  }
+  public Date getFailedTime() {
+    return failedTime;
+  }
+  public void setFailedTime(Date failedTime) {
+    this.failedTime = failedTime;
+  }
+}
@@ -14,6 +14,8 @@
 package org.activiti.engine.impl.persistence.entity;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -38,6 +40,10 @@ public class DeploymentEntity implements Serializable, Deployment, PersistentObj
   protected boolean validatingSchema = true;
   protected boolean isNew;
   
+  /** the artifacts (e.g. process definitions) the deployers created for this 
+   * deployment entity, only present while it is deployed */
+  protected transient Map<Class<?>, List<Object>> deployedArtifacts;
+  
   public ResourceEntity getResource(String resourceName) {
     return getResources().get(resourceName);
   }
@@ -64,6 +70,28 @@ public class DeploymentEntity implements Serializable, Deployment, PersistentObj
     return resources;
   }
 
+  public void addDeployedArtifact(Object deployedArtifact) {
+    if (deployedArtifacts==null) {
+      deployedArtifacts = new HashMap<Class<?>, List<Object>>();
+    }
+    Class<?> clazz = deployedArtifact.getClass();
+    List<Object> artifacts = deployedArtifacts.get(clazz);
+    if (artifacts==null) {
+      artifacts = new ArrayList<Object>();
+      deployedArtifacts.put(clazz, artifacts);
+    }
+    artifacts.add(deployedArtifact);
+  }
+  
+  /** the artifacts of the given type the deployers created for this deployment entity */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> getDeployedArtifacts(Class<T> clazz) {
+    if (deployedArtifacts==null || !deployedArtifacts.containsKey(clazz)) {
+      return Collections.emptyList();
+    }
+    return (List<T>) deployedArtifacts.get(clazz);
+  }
+
   public Object getPersistentState() {
     // properties of this entity are immutable
     // so always the same value is returned
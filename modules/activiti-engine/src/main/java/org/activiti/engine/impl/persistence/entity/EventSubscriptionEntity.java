@@ -18,6 +18,7 @@ import java.util.Date;
 import java.util.HashMap;
 
 import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.bpmn.parser.BpmnParse;
 import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.db.PersistentObject;
 import org.activiti.engine.impl.event.EventHandler;
@@ -85,6 +86,13 @@ public abstract class EventSubscriptionEntity implements PersistentObject {
     MessageEntity message = new MessageEntity();
     message.setJobHandlerType(ProcessEventJobHandler.TYPE);
     message.setJobHandlerConfiguration(id);
+    ActivityImpl activity = getActivity();
+    if (activity!=null) {
+      Integer jobPriority = (Integer) activity.getProperty(BpmnParse.PROPERTYNAME_JOB_PRIORITY);
+      if (jobPriority!=null) {
+        message.setPriority(jobPriority);
+      }
+    }
 
     // TODO: support payload
 //    if(payload != null) {
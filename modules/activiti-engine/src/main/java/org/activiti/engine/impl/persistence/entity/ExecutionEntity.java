@@ -14,6 +14,7 @@
 package org.activiti.engine.impl.persistence.entity;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +22,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.activiti.engine.impl.EventSubscriptionQueryImpl;
-import org.activiti.engine.impl.HistoricActivityInstanceQueryImpl;
 import org.activiti.engine.impl.JobQueryImpl;
 import org.activiti.engine.impl.TaskQueryImpl;
 import org.activiti.engine.impl.bpmn.parser.BpmnParse;
@@ -243,7 +243,7 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
     subProcessInstance.setProcessInstance(subProcessInstance);
     
     CommandContext commandContext = Context.getCommandContext();
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = subProcessInstance.getHistoryLevel();
     if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
       DbSqlSession dbSqlSession = commandContext.getSession(DbSqlSession.class);
       HistoricProcessInstanceEntity historicProcessInstance = new HistoricProcessInstanceEntity((ExecutionEntity) subProcessInstance);
@@ -534,6 +534,10 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
     MessageEntity message = new MessageEntity();
     message.setExecution(this);
     message.setExclusive(getActivity().isExclusive());
+    Integer jobPriority = (Integer) getActivity().getProperty(BpmnParse.PROPERTYNAME_JOB_PRIORITY);
+    if (jobPriority!=null) {
+      message.setPriority(jobPriority);
+    }
     message.setJobHandlerType(AsyncContinuationJobHandler.TYPE);
     // At the moment, only AtomicOperationTransitionCreateScope can be performed asynchronously,
     // so there is no need to pass it to the handler
@@ -847,6 +851,20 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
       }
     }
     
+    if (Context.getProcessEngineConfiguration().isDeadLetterJobsEnabled()) {
+      List<DeadLetterJobEntity> deadLetterJobs = commandContext
+        .getJobManager()
+        .findDeadLetterJobsByExecutionId(id);
+      
+      for (DeadLetterJobEntity deadLetterJob: deadLetterJobs) {
+        if (replacedBy!=null) {
+          deadLetterJob.setExecution((ExecutionEntity) replacedBy);
+        } else {
+          deadLetterJob.delete();
+        }
+      }
+    }
+    
     // delete event subscriptions for this scope:
     List<SignalEventSubscriptionEntity> eventSubscriptions = commandContext.getEventSubscriptionManager()
             .findSignalEventSubscriptionsByExecution(id);
@@ -952,26 +970,10 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
       }
     }
     
-    // update the cached historic activity instances that are open
-    List<HistoricActivityInstanceEntity> cachedHistoricActivityInstances = dbSqlSession.findInCache(HistoricActivityInstanceEntity.class);
-    for (HistoricActivityInstanceEntity cachedHistoricActivityInstance: cachedHistoricActivityInstances) {
-      if ( (cachedHistoricActivityInstance.getEndTime()==null)
-           && (id.equals(cachedHistoricActivityInstance.getExecutionId())) 
-         ) {
-        cachedHistoricActivityInstance.setExecutionId(replacedBy.getId());
-      }
-    }
-    
-    // update the persisted historic activity instances that are open
-    if (Context.getProcessEngineConfiguration().getHistoryLevel()>ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE) {
-      List<HistoricActivityInstanceEntity> historicActivityInstances = (List) new HistoricActivityInstanceQueryImpl(commandContext)
-        .executionId(id)
-        .unfinished()
-        .list();
-      for (HistoricActivityInstanceEntity historicActivityInstance: historicActivityInstances) {
-        historicActivityInstance.setExecutionId(replacedBy.getId());
-      }
-    }
+    // update the historic activity instances that are open
+    commandContext
+      .getHistoricActivityInstanceManager()
+      .replaceExecutionId(id, replacedBy.getId());
   }
 
   // variables ////////////////////////////////////////////////////////////////
@@ -990,6 +992,14 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
       .findVariableInstancesByExecutionId(id);
   }
 
+  @Override
+  protected List<VariableInstanceEntity> loadVariableInstances(Collection<String> variableNames) {
+    return Context
+      .getCommandContext()
+      .getVariableInstanceManager()
+      .findVariableInstancesByExecutionIdAndNames(id, variableNames);
+  }
+
   @Override
   protected VariableScopeImpl getParentVariableScope() {
     return getParent();
@@ -997,7 +1007,7 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
   
   @Override
   protected void initializeActivityInstanceId(HistoricVariableUpdateEntity historicVariableUpdate) {
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = getHistoryLevel();
     if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
       HistoricActivityInstanceEntity historicActivityInstance = ActivityInstanceEndHandler.findActivityInstance(this);
       if (historicActivityInstance!=null) {
@@ -1006,6 +1016,17 @@ public class ExecutionEntity extends VariableScopeImpl implements ActivityExecut
     }
   }
 
+  @Override
+  protected int getHistoryLevel() {
+    if (processDefinition instanceof ProcessDefinitionEntity) {
+      return ((ProcessDefinitionEntity) processDefinition).getEffectiveHistoryLevel();
+    }
+    return Context
+      .getCommandContext()
+      .getHistoricProcessInstanceManager()
+      .getHistoryLevel(processDefinitionId);
+  }
+
   // persistent state /////////////////////////////////////////////////////////
 
   public Object getPersistentState() {
@@ -13,6 +13,7 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +22,7 @@ import org.activiti.engine.history.HistoricActivityInstance;
 import org.activiti.engine.impl.HistoricActivityInstanceQueryImpl;
 import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.context.Context;
 import org.activiti.engine.impl.persistence.AbstractHistoricManager;
 
 
@@ -28,6 +30,11 @@ import org.activiti.engine.impl.persistence.AbstractHistoricManager;
  * @author Tom Baeyens
  */
 public class HistoricActivityInstanceManager extends AbstractHistoricManager {
+  
+  /** unfinished historic activity instances that were inserted or looked up 
+   * in this command, by execution id and activity id.  Entries are checked 
+   * on lookup, as instances can be ended without the manager knowing. */
+  protected Map<String, Map<String, HistoricActivityInstanceEntity>> unfinishedActivityInstances = new HashMap<String, Map<String,HistoricActivityInstanceEntity>>();
 
   public void deleteHistoricActivityInstancesByProcessInstanceId(String historicProcessInstanceId) {
     if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
@@ -37,6 +44,98 @@ public class HistoricActivityInstanceManager extends AbstractHistoricManager {
   
   public void insertHistoricActivityInstance(HistoricActivityInstanceEntity historicActivityInstance) {
     getDbSqlSession().insert(historicActivityInstance);
+    addUnfinishedActivityInstance(historicActivityInstance);
+  }
+  
+  /**
+   * Finds the unfinished historic activity instance of the given activity in the 
+   * given execution, whether or not it has already been flushed to the database.
+   */
+  public HistoricActivityInstanceEntity findUnfinishedHistoricActivityInstance(String executionId, String activityId) {
+    HistoricActivityInstanceEntity historicActivityInstance = findCachedUnfinishedHistoricActivityInstance(executionId, activityId);
+    if (historicActivityInstance!=null) {
+      return historicActivityInstance;
+    }
+    
+    List<HistoricActivityInstance> historicActivityInstances = new HistoricActivityInstanceQueryImpl(Context.getCommandContext())
+      .executionId(executionId)
+      .activityId(activityId)
+      .unfinished()
+      .listPage(0, 1);
+    if (historicActivityInstances.isEmpty()) {
+      return null;
+    }
+    historicActivityInstance = (HistoricActivityInstanceEntity) historicActivityInstances.get(0);
+    if (historicActivityInstance.getEndTime()!=null) {
+      // already ended in this command, but not yet flushed
+      return null;
+    }
+    addUnfinishedActivityInstance(historicActivityInstance);
+    return historicActivityInstance;
+  }
+  
+  /**
+   * Like {@link #findUnfinishedHistoricActivityInstance(String, String)}, but 
+   * only considers historic activity instances that were inserted or looked up 
+   * in this command.
+   */
+  public HistoricActivityInstanceEntity findCachedUnfinishedHistoricActivityInstance(String executionId, String activityId) {
+    if (activityId==null) {
+      return null;
+    }
+    Map<String, HistoricActivityInstanceEntity> executionActivityInstances = unfinishedActivityInstances.get(executionId);
+    if (executionActivityInstances==null) {
+      return null;
+    }
+    HistoricActivityInstanceEntity historicActivityInstance = executionActivityInstances.get(activityId);
+    if (historicActivityInstance==null) {
+      return null;
+    }
+    if (historicActivityInstance.getEndTime()!=null) {
+      executionActivityInstances.remove(activityId);
+      return null;
+    }
+    return historicActivityInstance;
+  }
+  
+  /**
+   * Moves the unfinished historic activity instances of an execution to the 
+   * execution that replaces it.
+   */
+  public void replaceExecutionId(String executionId, String replacedByExecutionId) {
+    List<HistoricActivityInstanceEntity> historicActivityInstances = new ArrayList<HistoricActivityInstanceEntity>();
+    
+    Map<String, HistoricActivityInstanceEntity> executionActivityInstances = unfinishedActivityInstances.remove(executionId);
+    if (executionActivityInstances!=null) {
+      historicActivityInstances.addAll(executionActivityInstances.values());
+    }
+    if (isHistoryEnabled) {
+      for (Object historicActivityInstance: new HistoricActivityInstanceQueryImpl(Context.getCommandContext())
+              .executionId(executionId)
+              .unfinished()
+              .list()) {
+        historicActivityInstances.add((HistoricActivityInstanceEntity) historicActivityInstance);
+      }
+    }
+    
+    for (HistoricActivityInstanceEntity historicActivityInstance: historicActivityInstances) {
+      if (historicActivityInstance.getEndTime()==null) {
+        historicActivityInstance.setExecutionId(replacedByExecutionId);
+        addUnfinishedActivityInstance(historicActivityInstance);
+      }
+    }
+  }
+  
+  protected void addUnfinishedActivityInstance(HistoricActivityInstanceEntity historicActivityInstance) {
+    if (historicActivityInstance.getActivityId()==null || historicActivityInstance.getEndTime()!=null) {
+      return;
+    }
+    Map<String, HistoricActivityInstanceEntity> executionActivityInstances = unfinishedActivityInstances.get(historicActivityInstance.getExecutionId());
+    if (executionActivityInstances==null) {
+      executionActivityInstances = new HashMap<String, HistoricActivityInstanceEntity>();
+      unfinishedActivityInstances.put(historicActivityInstance.getExecutionId(), executionActivityInstances);
+    }
+    executionActivityInstances.put(historicActivityInstance.getActivityId(), historicActivityInstance);
   }
 
   public void deleteHistoricActivityInstance(String historicActivityInstanceId) {
@@ -13,7 +13,10 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.activiti.engine.history.HistoricDetail;
 import org.activiti.engine.impl.HistoricDetailQueryImpl;
@@ -65,6 +68,25 @@ public class HistoricDetailManager extends AbstractHistoricManager {
     }
   }
   
+  /** the id of a byte array with the given content hash that can be shared with 
+   * the variable updates of the given process instance and task since the given time, 
+   * or null if there is no such byte array. */
+  @SuppressWarnings("unchecked")
+  public String findHistoricVariableUpdateByteArrayIdByHash(String processInstanceId, String taskId, String hash, Date since) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("processInstanceId", processInstanceId);
+    parameters.put("taskId", taskId);
+    parameters.put("hash", hash);
+    parameters.put("since", since);
+    List<String> byteArrayIds = getDbSqlSession().selectList("selectHistoricVariableUpdateByteArrayIdsByHash", parameters);
+    for (String byteArrayId: byteArrayIds) {
+      if (!getDbSqlSession().isDeleted(ByteArrayEntity.class, byteArrayId)) {
+        return byteArrayId;
+      }
+    }
+    return null;
+  }
+
   public long findHistoricDetailCountByQueryCriteria(HistoricDetailQueryImpl historicVariableUpdateQuery) {
     return (Long) getDbSqlSession().selectOne("selectHistoricDetailCountByQueryCriteria", historicVariableUpdateQuery);
   }
@@ -14,14 +14,15 @@
 package org.activiti.engine.impl.persistence.entity;
 
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.activiti.engine.history.HistoricProcessInstance;
 import org.activiti.engine.impl.HistoricProcessInstanceQueryImpl;
 import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
-import org.activiti.engine.impl.context.Context;
-import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.persistence.AbstractHistoricManager;
 
 
@@ -30,6 +31,19 @@ import org.activiti.engine.impl.persistence.AbstractHistoricManager;
  */
 public class HistoricProcessInstanceManager extends AbstractHistoricManager {
 
+  /** the set based deletes of historic process instances, in execution order */
+  protected static final String[] BULK_DELETE_STATEMENTS = {
+    "deleteHistoryOutboxesOfHistoricProcessInstances",
+    "deleteHistoricDetailByteArraysOfHistoricProcessInstances",
+    "deleteHistoricDetailsOfHistoricProcessInstances",
+    "deleteCommentsOfHistoricProcessInstances",
+    "deleteAttachmentContentsOfHistoricProcessInstances",
+    "deleteAttachmentsOfHistoricProcessInstances",
+    "deleteHistoricActivityInstancesOfHistoricProcessInstances",
+    "deleteHistoricTaskInstancesOfHistoricProcessInstances",
+    "deleteHistoricProcessInstances"
+  };
+
   public HistoricProcessInstanceEntity findHistoricProcessInstance(String processInstanceId) {
     if (historyLevel>ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE) {
       return (HistoricProcessInstanceEntity) getDbSqlSession().selectById(HistoricProcessInstanceEntity.class, processInstanceId);
@@ -38,36 +52,65 @@ public class HistoricProcessInstanceManager extends AbstractHistoricManager {
   }
 
 
-  @SuppressWarnings("unchecked")
   public void deleteHistoricProcessInstanceByProcessDefinitionId(String processDefinitionId) {
     if (historyLevel>ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE) {
-      List<String> historicProcessInstanceIds = getDbSqlSession()
-        .selectList("selectHistoricProcessInstanceIdsByProcessDefinitionId", processDefinitionId);
-    
-      for (String historicProcessInstanceId: historicProcessInstanceIds) {
-        deleteHistoricProcessInstanceById(historicProcessInstanceId);
-      }
+      Map<String, Object> parameters = new HashMap<String, Object>();
+      parameters.put("processDefinitionId", processDefinitionId);
+      bulkDeleteHistoricProcessInstances(parameters);
     }
   }
   
   public void deleteHistoricProcessInstanceById(String historicProcessInstanceId) {
+    deleteHistoricProcessInstancesByIds(Collections.singletonList(historicProcessInstanceId));
+  }
+
+  /** deletes the given historic process instances with their details, activity 
+   * instances, task instances, comments, attachments and pending history, using 
+   * a fixed number of set based delete statements.  Keep the number of ids 
+   * below the maximum size of an 'in' list of the database, 1000 on Oracle. */
+  public void deleteHistoricProcessInstancesByIds(List<String> historicProcessInstanceIds) {
+    if ( historyLevel>ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE
+         && !historicProcessInstanceIds.isEmpty()
+       ) {
+      Map<String, Object> parameters = new HashMap<String, Object>();
+      parameters.put("processInstanceIds", historicProcessInstanceIds);
+      bulkDeleteHistoricProcessInstances(parameters);
+    }
+  }
+
+  protected void bulkDeleteHistoricProcessInstances(Map<String, Object> parameters) {
+    // pending history in the outbox is deleted first: an async history writer that 
+    // claimed it before is waited for, and one that claims it later finds nothing
+    for (String statement: BULK_DELETE_STATEMENTS) {
+      getDbSqlSession().delete(statement, parameters);
+    }
+  }
+
+  /** the ids of the historic process instances that ended before the given date, 
+   * optionally only those of the process definitions with the given key, oldest first. */
+  @SuppressWarnings("unchecked")
+  public List<String> findHistoricProcessInstanceIdsEndedBefore(Date endedBefore, String processDefinitionKey, Page page) {
     if (historyLevel>ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE) {
-      CommandContext commandContext = Context.getCommandContext();
-      
-      commandContext
-        .getHistoricDetailManager()
-        .deleteHistoricDetailsByProcessInstanceId(historicProcessInstanceId);
-      
-      commandContext
-        .getHistoricActivityInstanceManager()
-        .deleteHistoricActivityInstancesByProcessInstanceId(historicProcessInstanceId);
+      return getDbSqlSession().selectList("selectHistoricProcessInstanceIdsEndedBefore", createEndedBeforeParameters(endedBefore, processDefinitionKey), page);
+    }
+    return Collections.EMPTY_LIST;
+  }
 
-      commandContext
-        .getHistoricTaskInstanceManager()
-        .deleteHistoricTaskInstancesByProcessInstanceId(historicProcessInstanceId);
+  public long findHistoricProcessInstanceCountEndedBefore(Date endedBefore, String processDefinitionKey) {
+    if (historyLevel>ProcessEngineConfigurationImpl.HISTORYLEVEL_NONE) {
+      return (Long) getDbSqlSession().selectOne("selectHistoricProcessInstanceCountEndedBefore", createEndedBeforeParameters(endedBefore, processDefinitionKey));
+    }
+    return 0;
+  }
 
-      getDbSqlSession().delete(HistoricProcessInstanceEntity.class, historicProcessInstanceId);
+  protected Map<String, Object> createEndedBeforeParameters(Date endedBefore, String processDefinitionKey) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("endedBefore", endedBefore);
+    if (processDefinitionKey!=null) {
+      // like in the historic process instance query
+      parameters.put("processDefinitionIdLike", processDefinitionKey + ":%:%");
     }
+    return parameters;
   }
   
   public long findHistoricProcessInstanceCountByQueryCriteria(HistoricProcessInstanceQueryImpl historicProcessInstanceQuery) {
@@ -73,6 +73,12 @@ public class HistoricTaskInstanceManager extends AbstractHistoricManager {
       if(historicTaskInstance!=null) {
         CommandContext commandContext = Context.getCommandContext();
         
+        if (historicTaskInstance.getProcessInstanceId()!=null) {
+          commandContext
+            .getHistoryOutboxManager()
+            .writePendingHistory(historicTaskInstance.getProcessInstanceId());
+        }
+        
         commandContext
           .getHistoricDetailManager()
           .deleteHistoricDetailsByTaskId(taskId);
@@ -90,72 +96,72 @@ public class HistoricTaskInstanceManager extends AbstractHistoricManager {
     }
   }
 
-  public void markTaskInstanceEnded(String taskId, String deleteReason) {
-    if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, taskId);
+  public void markTaskInstanceEnded(TaskEntity task, String deleteReason) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.markEnded(deleteReason);
       }
     }
   }
 
-  public void setTaskAssignee(String taskId, String assignee) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, taskId);
+  public void setTaskAssignee(TaskEntity task, String assignee) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setAssignee(assignee);
       }
     }
   }
 
-  public void setTaskOwner(String taskId, String owner) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, taskId);
+  public void setTaskOwner(TaskEntity task, String owner) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setOwner(owner);
       }
     }
   }
 
-  public void setTaskName(String id, String taskName) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
+  public void setTaskName(TaskEntity task, String taskName) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setName(taskName);
       }
     }
   }
 
-  public void setTaskDescription(String id, String description) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
+  public void setTaskDescription(TaskEntity task, String description) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setDescription(description);
       }
     }
   }
 
-  public void setTaskDueDate(String id, Date dueDate) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
+  public void setTaskDueDate(TaskEntity task, Date dueDate) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setDueDate(dueDate);
       }
     }
   }
 
-  public void setTaskPriority(String id, int priority) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
+  public void setTaskPriority(TaskEntity task, int priority) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setPriority(priority);
       }
     }
   }
 
-  public void setTaskParentTaskId(String id, String parentTaskId) {
-    if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
-      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
+  public void setTaskParentTaskId(TaskEntity task, String parentTaskId) {
+    if (getHistoryLevel(task.getProcessDefinitionId()) >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      HistoricTaskInstanceEntity historicTaskInstance = getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, task.getId());
       if (historicTaskInstance!=null) {
         historicTaskInstance.setParentTaskId(parentTaskId);
       }
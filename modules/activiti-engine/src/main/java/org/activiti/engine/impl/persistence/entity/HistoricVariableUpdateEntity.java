@@ -57,13 +57,26 @@ public class HistoricVariableUpdateEntity extends HistoricDetailEntity implement
     this.variableType = variableInstance.getType();
     this.time = ClockUtil.getCurrentTime();
     if (variableInstance.getByteArrayValueId()!=null) {
-      // TODO test and review.  name ok here?
-      this.byteArrayValue = new ByteArrayEntity(name, variableInstance.getByteArrayValue().getBytes());
-      Context
-        .getCommandContext()
-        .getDbSqlSession()
-        .insert(byteArrayValue);
-      this.byteArrayValueId = byteArrayValue.getId();
+      byte[] bytes = variableInstance.getByteArrayValue().getBytes();
+      String hash = null;
+      if (processInstanceId!=null && Context.getProcessEngineConfiguration().isByteArrayDeduplicationEnabled()) {
+        hash = ByteArrayEntity.createHash(bytes);
+        // only shared within one history partition, see HistoryPartitionManager
+        this.byteArrayValueId = Context
+          .getCommandContext()
+          .getHistoricDetailManager()
+          .findHistoricVariableUpdateByteArrayIdByHash(processInstanceId, taskId, hash, HistoryPartitionManager.getPartitionStart(time));
+      }
+      if (byteArrayValueId==null) {
+        // TODO test and review.  name ok here?
+        this.byteArrayValue = new ByteArrayEntity(name, bytes);
+        byteArrayValue.setHash(hash);
+        Context
+          .getCommandContext()
+          .getDbSqlSession()
+          .insert(byteArrayValue);
+        this.byteArrayValueId = byteArrayValue.getId();
+      }
     }
     this.textValue = variableInstance.getTextValue();
     this.textValue2 = variableInstance.getTextValue2();
@@ -94,7 +107,12 @@ public class HistoricVariableUpdateEntity extends HistoricDetailEntity implement
   }
 
   public ByteArrayEntity getByteArrayValue() {
-    // Aren't we forgetting lazy initialization here?
+    if ((byteArrayValue == null) && (byteArrayValueId != null)) {
+      byteArrayValue = Context
+        .getCommandContext()
+        .getDbSqlSession()
+        .selectById(ByteArrayEntity.class, byteArrayValueId);
+    }
     return byteArrayValue;
   }
 
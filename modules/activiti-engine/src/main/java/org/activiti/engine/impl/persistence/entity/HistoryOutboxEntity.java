@@ -0,0 +1,109 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.entity;
+
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.history.HistoryEvent;
+import org.activiti.engine.impl.util.json.JSONArray;
+
+
+/**
+ * The {@link HistoryEvent history events} of a process instance that were 
+ * produced by one transaction and that are not yet written to the history 
+ * tables.  The outbox is inserted in the same transaction as the runtime 
+ * changes, so the events survive a crash before they are written.
+ */
+public class HistoryOutboxEntity implements Serializable, PersistentObject {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected String id;
+  protected String processInstanceId;
+  protected Date createTime;
+  protected byte[] events;
+
+  public HistoryOutboxEntity() {
+  }
+
+  public HistoryOutboxEntity(String processInstanceId, Date createTime, List<HistoryEvent> historyEvents) {
+    this.processInstanceId = processInstanceId;
+    this.createTime = createTime;
+    setHistoryEvents(historyEvents);
+  }
+
+  public Object getPersistentState() {
+    // an outbox is never updated, it is only inserted and deleted
+    return HistoryOutboxEntity.class;
+  }
+
+  public List<HistoryEvent> getHistoryEvents() {
+    List<HistoryEvent> historyEvents = new ArrayList<HistoryEvent>();
+    if (events!=null) {
+      try {
+        JSONArray jsonArray = new JSONArray(new String(events, "UTF-8"));
+        for (int i=0; i<jsonArray.length(); i++) {
+          historyEvents.add(HistoryEvent.fromJsonObject(jsonArray.getJSONObject(i)));
+        }
+      } catch (UnsupportedEncodingException e) {
+        throw new ActivitiException("couldn't read history events of outbox "+id, e);
+      }
+    }
+    return historyEvents;
+  }
+
+  public void setHistoryEvents(List<HistoryEvent> historyEvents) {
+    JSONArray jsonArray = new JSONArray();
+    for (HistoryEvent historyEvent: historyEvents) {
+      jsonArray.put(historyEvent.toJsonObject());
+    }
+    try {
+      this.events = jsonArray.toString().getBytes("UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new ActivitiException("couldn't write history events of outbox "+id, e);
+    }
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public String getId() {
+    return id;
+  }
+  public void setId(String id) {
+    this.id = id;
+  }
+  public String getProcessInstanceId() {
+    return processInstanceId;
+  }
+  public void setProcessInstanceId(String processInstanceId) {
+    this.processInstanceId = processInstanceId;
+  }
+  public Date getCreateTime() {
+    return createTime;
+  }
+  public void setCreateTime(Date createTime) {
+    this.createTime = createTime;
+  }
+  public byte[] getEvents() {
+    return events;
+  }
+  public void setEvents(byte[] events) {
+    this.events = events;
+  }
+}
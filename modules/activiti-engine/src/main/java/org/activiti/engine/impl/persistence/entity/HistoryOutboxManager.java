@@ -0,0 +1,72 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.entity;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.activiti.engine.impl.Page;
+import org.activiti.engine.impl.cmd.WriteHistoryOutboxCmd;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.history.AsyncHistoryWriter;
+import org.activiti.engine.impl.persistence.AbstractManager;
+
+
+/**
+ * Access to the {@link HistoryOutboxEntity history outboxes} that are 
+ * waiting for the {@link AsyncHistoryWriter}.
+ */
+public class HistoryOutboxManager extends AbstractManager {
+  
+  /** process instances of which the pending history was written in this command */
+  protected Set<String> writtenProcessInstanceIds = new HashSet<String>();
+
+  public HistoryOutboxEntity findHistoryOutboxById(String historyOutboxId) {
+    return getDbSqlSession().selectById(HistoryOutboxEntity.class, historyOutboxId);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<String> findHistoryOutboxIdsByProcessInstanceId(String processInstanceId) {
+    return getDbSqlSession().selectList("selectHistoryOutboxIdsByProcessInstanceId", processInstanceId);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<String> findHistoryOutboxIdsCreatedBefore(Date createTime, Page page) {
+    return getDbSqlSession().selectList("selectHistoryOutboxIdsByCreateTime", createTime, page);
+  }
+
+  /** deletes the outbox right away, so that concurrent writers block on 
+   * it until this transaction ends.  
+   * @return false if the outbox was already written by another transaction. */
+  public boolean claimHistoryOutbox(String historyOutboxId) {
+    return getDbSqlSession().deleteImmediately("deleteHistoryOutbox", historyOutboxId)>0;
+  }
+
+  /** writes the pending history of the given process instance in a separate 
+   * transaction, so that it can be found and deleted together with the 
+   * history that was already written.  Does nothing if async history is 
+   * not enabled. */
+  public void writePendingHistory(String processInstanceId) {
+    if ( !getDbSqlSession().isAsyncHistoryEnabled()
+         || !writtenProcessInstanceIds.add(processInstanceId)
+       ) {
+      return;
+    }
+    Context
+      .getProcessEngineConfiguration()
+      .getCommandExecutorTxRequiresNew()
+      .execute(new WriteHistoryOutboxCmd(processInstanceId));
+  }
+}
@@ -0,0 +1,209 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.entity;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.context.Context;
+import org.activiti.engine.impl.history.HistoryArchiveWriter;
+import org.activiti.engine.impl.persistence.AbstractManager;
+
+
+/**
+ * Access to the monthly partitions of the history tables ACT_HI_PROCINST, 
+ * ACT_HI_ACTINST and ACT_HI_DETAIL.  The history of a month is the history 
+ * of the process instances that started in that month: their activity 
+ * instances, details and other dependent rows belong to it, whatever month 
+ * they were written in.  When the history tables are not partitioned, the 
+ * partition of a month stands for the rows of that month.
+ */
+public class HistoryPartitionManager extends AbstractManager {
+  
+  private static Logger log = Logger.getLogger(HistoryPartitionManager.class.getName());
+
+  /** the partitioned history tables with their partitioning column */
+  public static final Map<String, String> PARTITIONED_TABLES = new LinkedHashMap<String, String>();
+  static {
+    PARTITIONED_TABLES.put("ACT_HI_PROCINST", "START_TIME_");
+    PARTITIONED_TABLES.put("ACT_HI_ACTINST", "START_TIME_");
+    PARTITIONED_TABLES.put("ACT_HI_DETAIL", "TIME_");
+  }
+  
+  /** the mysql partition below the first monthly partition, it keeps the rows 
+   * written before the history tables were partitioned */
+  public static final String LEGACY_PARTITION_NAME = "PLEGACY";
+  
+  /** the tables with rows that belong to the process instances started in 
+   * a month, selected by their PROC_INST_ID_, in delete order */
+  public static final String[] DEPENDENT_TABLES = {"ACT_HI_ATTACHMENT", "ACT_HI_COMMENT", "ACT_HI_TASKINST", "ACT_HI_DETAIL", "ACT_HI_ACTINST"};
+
+  /** creates the missing partitions of the given month.  On postgres, the rows 
+   * of the month are moved out of the default partition before the new partition 
+   * is attached. */
+  public void createHistoryPartition(Date month) {
+    if (!isHistoryPartitioned()) {
+      throw new ActivitiException("the history tables are not partitioned");
+    }
+    String databaseType = getDbSqlSession().getDbSqlSessionFactory().getDatabaseType();
+    if ("oracle".equals(databaseType)) {
+      log.fine("oracle creates the history partition "+getPartitionName(month)+" itself");
+      return;
+    }
+    for (String tableName: PARTITIONED_TABLES.keySet()) {
+      Map<String, Object> parameters = createPartitionParameters(tableName, month);
+      if (isHistoryPartitionPresent(parameters)) {
+        log.fine("history partition "+getPartitionName(month)+" of "+tableName+" already exists");
+        continue;
+      }
+      if ("mysql".equals(databaseType)) {
+        Map<String, Object> legacyParameters = new HashMap<String, Object>(parameters);
+        legacyParameters.put("partitionName", LEGACY_PARTITION_NAME);
+        parameters.put("legacyPartition", !isHistoryPartitionPresent(legacyParameters));
+      }
+      getDbSqlSession().update("createHistoryPartition", parameters);
+      if ("postgres".equals(databaseType)) {
+        getDbSqlSession().update("insertHistoryPartitionDefaultRows", parameters);
+        getDbSqlSession().deleteImmediately("deleteHistoryPartitionDefaultRows", parameters);
+        getDbSqlSession().update("attachHistoryPartition", parameters);
+      }
+    }
+  }
+  
+  public long findUnfinishedProcessInstanceCount(Date month) {
+    return (Long) getDbSqlSession().selectOne("selectHistoryPartitionUnfinishedProcessInstanceCount", createPartitionParameters("ACT_HI_PROCINST", month));
+  }
+  
+  public long findProcessInstanceCount(Date month) {
+    return findRowCount(createPartitionParameters("ACT_HI_PROCINST", month));
+  }
+  
+  /** writes the process instances started in the given month and the rows 
+   * that belong to them to the archive writer, one table after the other. */
+  public void writeHistoryPartition(Date month, HistoryArchiveWriter archiveWriter) {
+    Map<String, Object> processInstanceParameters = createPartitionParameters("ACT_HI_PROCINST", month);
+    archiveWriter.setTableName("ACT_HI_PROCINST");
+    getDbSqlSession().select("selectHistoryPartitionProcessInstances", processInstanceParameters, archiveWriter);
+    
+    for (String dependentTable: DEPENDENT_TABLES) {
+      Map<String, Object> parameters = new HashMap<String, Object>(processInstanceParameters);
+      parameters.put("dependentTable", dependentTable);
+      archiveWriter.setTableName(dependentTable);
+      getDbSqlSession().select("selectHistoryPartitionDependentRows", parameters, archiveWriter);
+    }
+    
+    archiveWriter.setTableName("ACT_GE_BYTEARRAY");
+    getDbSqlSession().select("selectHistoryPartitionAttachmentContents", processInstanceParameters, archiveWriter);
+    getDbSqlSession().select("selectHistoryPartitionDetailByteArrays", processInstanceParameters, archiveWriter);
+  }
+  
+  /** deletes the process instances started in the given month and the rows 
+   * that belong to them.  Only data is deleted, so that this is part of the 
+   * transaction of the command; the emptied partitions are dropped with 
+   * {@link #dropHistoryPartition(Date)} after that transaction committed. */
+  public void deleteHistoryPartition(Date month) {
+    Map<String, Object> processInstanceParameters = createPartitionParameters("ACT_HI_PROCINST", month);
+    getDbSqlSession().deleteImmediately("deleteHistoryPartitionAttachmentContents", processInstanceParameters);
+    getDbSqlSession().deleteImmediately("deleteHistoryPartitionDetailByteArrays", processInstanceParameters);
+    for (String dependentTable: DEPENDENT_TABLES) {
+      Map<String, Object> parameters = new HashMap<String, Object>(processInstanceParameters);
+      parameters.put("dependentTable", dependentTable);
+      getDbSqlSession().deleteImmediately("deleteHistoryPartitionDependentRows", parameters);
+    }
+    getDbSqlSession().deleteImmediately("deleteHistoryPartitionProcessInstances", processInstanceParameters);
+  }
+  
+  /** drops the partitions of the given month that are empty.  Partitions of 
+   * ACT_HI_ACTINST and ACT_HI_DETAIL keep the rows of process instances that 
+   * started in an earlier month and are not archived yet, they are dropped by 
+   * a later archiving of the month.  The partition DDL commits implicitly on 
+   * mysql and oracle, so this has to run in a transaction of its own. */
+  public void dropHistoryPartition(Date month) {
+    if (!isHistoryPartitioned()) {
+      return;
+    }
+    boolean isOracle = "oracle".equals(getDbSqlSession().getDbSqlSessionFactory().getDatabaseType());
+    for (String tableName: PARTITIONED_TABLES.keySet()) {
+      Map<String, Object> parameters = createPartitionParameters(tableName, month);
+      long rowCount = findRowCount(parameters);
+      if (rowCount>0) {
+        log.fine("keeping history partition "+getPartitionName(month)+" of "+tableName+" with "+rowCount+" rows of other process instances");
+      } else if (isOracle || isHistoryPartitionPresent(parameters)) {
+        // oracle skips missing partitions in the drop statement itself
+        getDbSqlSession().update("dropHistoryPartition", parameters);
+      }
+    }
+  }
+
+  protected long findRowCount(Map<String, Object> parameters) {
+    return (Long) getDbSqlSession().selectOne("selectHistoryPartitionRowCount", parameters);
+  }
+
+  protected boolean isHistoryPartitionPresent(Map<String, Object> parameters) {
+    return (Long) getDbSqlSession().selectOne("selectHistoryPartitionExists", parameters) > 0;
+  }
+
+  protected Map<String, Object> createPartitionParameters(String tableName, Date month) {
+    Date from = getPartitionStart(month);
+    Date to = getPartitionEnd(month);
+    SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("tableName", tableName);
+    parameters.put("timeColumn", PARTITIONED_TABLES.get(tableName));
+    parameters.put("partitionName", getPartitionName(month));
+    parameters.put("from", from);
+    parameters.put("to", to);
+    parameters.put("fromLiteral", timestampFormat.format(from));
+    parameters.put("toLiteral", timestampFormat.format(to));
+    if (isHistoryPartitioned()) {
+      parameters.put("databaseType", getDbSqlSession().getDbSqlSessionFactory().getDatabaseType());
+    }
+    return parameters;
+  }
+
+  protected boolean isHistoryPartitioned() {
+    return Context.getProcessEngineConfiguration().isHistoryPartitioned();
+  }
+  
+  /** the name of the partitions of the month of the given date: P followed by yyyyMM */
+  public static String getPartitionName(Date month) {
+    return "P" + new SimpleDateFormat("yyyyMM").format(month);
+  }
+
+  /** the first moment of the month of the given date */
+  public static Date getPartitionStart(Date month) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(month);
+    calendar.set(Calendar.DAY_OF_MONTH, 1);
+    calendar.set(Calendar.HOUR_OF_DAY, 0);
+    calendar.set(Calendar.MINUTE, 0);
+    calendar.set(Calendar.SECOND, 0);
+    calendar.set(Calendar.MILLISECOND, 0);
+    return calendar.getTime();
+  }
+
+  /** the first moment of the month after the month of the given date */
+  public static Date getPartitionEnd(Date month) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(getPartitionStart(month));
+    calendar.add(Calendar.MONTH, 1);
+    return calendar.getTime();
+  }
+}
@@ -39,6 +39,9 @@ public abstract class JobEntity implements Serializable, Job, PersistentObject {
 
   public static final boolean DEFAULT_EXCLUSIVE = true;
   public static final int DEFAULT_RETRIES = 3;
+  public static final int DEFAULT_PRIORITY = 0;
+  /** number of partitions the jobs are spread over for partitioned acquisition */
+  public static final int PARTITION_COUNT = 1024;
   private static final int MAX_EXCEPTION_MESSAGE_LENGTH = 255;
 
   private static final long serialVersionUID = 1L;
@@ -57,6 +60,10 @@ public abstract class JobEntity implements Serializable, Job, PersistentObject {
   protected boolean isExclusive = DEFAULT_EXCLUSIVE;
 
   protected int retries = DEFAULT_RETRIES;
+  
+  protected int priority = DEFAULT_PRIORITY;
+  
+  protected int partition;
 
   protected String jobHandlerType = null;
   protected String jobHandlerConfiguration = null;
@@ -127,6 +134,25 @@ public abstract class JobEntity implements Serializable, Job, PersistentObject {
   public void setRetries(int retries) {
     this.retries = retries;
   }
+  public int getPriority() {
+    return priority;
+  }
+  public void setPriority(int priority) {
+    this.priority = priority;
+  }
+  public int getPartition() {
+    return partition;
+  }
+  public void setPartition(int partition) {
+    this.partition = partition;
+  }
+  
+  /** jobs of the same process instance always end up in the same partition, 
+   * so that exclusive jobs are acquired by one job executor. */
+  public void initializePartition() {
+    String partitionKey = (processInstanceId!=null ? processInstanceId : id);
+    partition = (partitionKey!=null ? (partitionKey.hashCode() & 0x7fffffff) % PARTITION_COUNT : 0);
+  }
   
   public String getExceptionStacktrace() {
     String exception = null;
@@ -239,6 +265,11 @@ public abstract class JobEntity implements Serializable, Job, PersistentObject {
   public String getExceptionByteArrayId() {
     return exceptionByteArrayId;
   }
+  
+  public void setExceptionByteArrayId(String exceptionByteArrayId) {
+    this.exceptionByteArrayId = exceptionByteArrayId;
+    this.exceptionByteArray = null;
+  }
 
   private ByteArrayEntity getExceptionByteArray() {
     if ((exceptionByteArray == null) && (exceptionByteArrayId != null)) {
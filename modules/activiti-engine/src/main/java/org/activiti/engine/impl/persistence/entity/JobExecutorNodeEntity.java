@@ -0,0 +1,69 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.persistence.entity;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import org.activiti.engine.impl.db.PersistentObject;
+
+
+/**
+ * A job executor taking part in partitioned job acquisition, identified by 
+ * its lock owner.  The heartbeat tells the other job executors that it is 
+ * still alive and owns its share of the job partitions.
+ */
+public class JobExecutorNodeEntity implements Serializable, PersistentObject {
+
+  private static final long serialVersionUID = 1L;
+
+  protected String id;
+  protected int revision;
+  protected Date heartbeat;
+
+  public JobExecutorNodeEntity() {
+  }
+
+  public JobExecutorNodeEntity(String id) {
+    this.id = id;
+  }
+
+  public Object getPersistentState() {
+    return heartbeat;
+  }
+
+  public int getRevisionNext() {
+    return revision+1;
+  }
+
+  // getters and setters //////////////////////////////////////////////////////
+
+  public String getId() {
+    return id;
+  }
+  public void setId(String id) {
+    this.id = id;
+  }
+  public int getRevision() {
+    return revision;
+  }
+  public void setRevision(int revision) {
+    this.revision = revision;
+  }
+  public Date getHeartbeat() {
+    return heartbeat;
+  }
+  public void setHeartbeat(Date heartbeat) {
+    this.heartbeat = heartbeat;
+  }
+}
@@ -28,7 +28,9 @@ import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.jobexecutor.ExclusiveJobAddedNotification;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.jobexecutor.JobExecutorContext;
+import org.activiti.engine.impl.jobexecutor.LocalJobAddedNotification;
 import org.activiti.engine.impl.jobexecutor.MessageAddedNotification;
+import org.activiti.engine.impl.jobexecutor.TimerScheduledNotification;
 import org.activiti.engine.impl.persistence.AbstractManager;
 import org.activiti.engine.impl.util.ClockUtil;
 import org.activiti.engine.runtime.Job;
@@ -39,6 +41,9 @@ import org.activiti.engine.runtime.Job;
  * @author Daniel Meyer
  */
 public class JobManager extends AbstractManager {
+  
+  /** stays below the maximum number of expressions in an in-list on oracle */
+  protected static final int RENEW_JOB_LOCKS_BATCH_SIZE = 500;
 
   public void send(MessageEntity message) {
     CommandContext commandContext = Context.getCommandContext();
@@ -46,6 +51,7 @@ public class JobManager extends AbstractManager {
     commandContext
       .getDbSqlSession()
       .insert(message);
+    message.initializePartition();
        
     hintJobExecutor(message);    
   }
@@ -61,14 +67,27 @@ public class JobManager extends AbstractManager {
     commandContext
       .getDbSqlSession()
       .insert(timer);
+    timer.initializePartition();
     
     // Check if this timer fires before the next time the job executor will check for new timers to fire.
     // This is highly unlikely because normally waitTimeInMillis is 5000 (5 seconds)
     // and timers are usually set further in the future
     
     JobExecutor jobExecutor = Context.getProcessEngineConfiguration().getJobExecutor();
+    long now = ClockUtil.getCurrentTime().getTime();
+    if (jobExecutor.getTimerWheel()!=null && duedate.getTime()>now) {
+      // let the timer wheel of this process engine wake up the job executor when the timer is due.
+      // timers beyond the look-ahead window are preloaded by the job acquisition later on.
+      if (duedate.getTime() < (now+jobExecutor.getTimerWheelLookAheadInMillis())) {
+        commandContext
+          .getTransactionContext()
+          .addTransactionListener(TransactionState.COMMITTED, new TimerScheduledNotification(jobExecutor, timer.getId(), duedate));
+      }
+      return;
+    }
+    
     int waitTimeInMillis = jobExecutor.getWaitTimeInMillis();
-    if (duedate.getTime() < (ClockUtil.getCurrentTime().getTime()+waitTimeInMillis)) {
+    if (duedate.getTime() < (now+waitTimeInMillis)) {
       hintJobExecutor(timer);
     }
   }
@@ -81,10 +100,16 @@ public class JobManager extends AbstractManager {
             && jobExecutorContext != null 
             && jobExecutorContext.isExecutingExclusiveJob()) {
       // lock job & add to the queue of the current processor
-      Date currentTime = ClockUtil.getCurrentTime();
-      job.setLockExpirationTime(new Date(currentTime.getTime() + jobExecutor.getLockTimeInMillis()));
-      job.setLockOwner(jobExecutor.getLockOwner());
+      lockJob(job, jobExecutor);
       transactionListener = new ExclusiveJobAddedNotification(job.getId());      
+    } else if (job instanceof MessageEntity
+            && (!job.isExclusive() || job.getProcessInstanceId() == null)
+            && jobExecutor.isLocalJobDispatch()
+            && jobExecutor.isActive()
+            && !jobExecutor.isJobHandlerConcurrencyLimited(job.getJobHandlerType())) {
+      // lock job & hand it to the local job executor after commit
+      lockJob(job, jobExecutor);
+      transactionListener = new LocalJobAddedNotification(jobExecutor, job.getId(), job.getPriority());
     } else {
       // notify job executor:      
       transactionListener = new MessageAddedNotification(jobExecutor);
@@ -93,6 +118,12 @@ public class JobManager extends AbstractManager {
     .getTransactionContext()
     .addTransactionListener(TransactionState.COMMITTED, transactionListener);
   }
+  
+  protected void lockJob(JobEntity job, JobExecutor jobExecutor) {
+    Date currentTime = ClockUtil.getCurrentTime();
+    job.setLockExpirationTime(new Date(currentTime.getTime() + jobExecutor.getLockTimeInMillis()));
+    job.setLockOwner(jobExecutor.getLockOwner());
+  }
  
   public void cancelTimers(ExecutionEntity execution) {
     List<TimerEntity> timers = Context
@@ -109,10 +140,19 @@ public class JobManager extends AbstractManager {
     return (JobEntity) getDbSqlSession().selectOne("selectJob", jobId);
   }
   
-  @SuppressWarnings("unchecked")
   public List<JobEntity> findNextJobsToExecute(Page page) {
-    Date now = ClockUtil.getCurrentTime();
-    return getDbSqlSession().selectList("selectNextJobsToExecute", now, page);
+    return findNextJobsToExecute(null, null, page);
+  }
+  
+  /** selects the next jobs to execute with a {@link JobEntity#getPartition() partition} 
+   * in [partitionFrom, partitionTo), or in all partitions if partitionFrom is null. */
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findNextJobsToExecute(Integer partitionFrom, Integer partitionTo, Page page) {
+    Map<String,Object> params = new HashMap<String, Object>();
+    params.put("now", ClockUtil.getCurrentTime());
+    params.put("partitionFrom", partitionFrom);
+    params.put("partitionTo", partitionTo);
+    return getDbSqlSession().selectList("selectNextJobsToExecute", params, page);
   }
   
   @SuppressWarnings("unchecked")
@@ -128,6 +168,66 @@ public class JobManager extends AbstractManager {
     return getDbSqlSession().selectList("selectExclusiveJobsToExecute", params);
   }
 
+  public boolean isSkipLockedAcquisitionSupported() {
+    return getDbSqlSession()
+      .getDbSqlSessionFactory()
+      .isDatabaseSpecificStatement("selectNextJobsToExecuteSkipLocked");
+  }
+
+  /** selects and row-locks the next jobs to execute, skipping rows 
+   * that are locked by concurrent acquisitions.  Only available if 
+   * {@link #isSkipLockedAcquisitionSupported()}. */
+  public List<JobEntity> findNextJobsToExecuteSkipLocked(Page page) {
+    return findNextJobsToExecuteSkipLocked(null, null, page);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findNextJobsToExecuteSkipLocked(Integer partitionFrom, Integer partitionTo, Page page) {
+    Map<String,Object> params = new HashMap<String, Object>();
+    params.put("now", ClockUtil.getCurrentTime());
+    params.put("maxResults", page.getMaxResults());
+    params.put("partitionFrom", partitionFrom);
+    params.put("partitionTo", partitionTo);
+    return getDbSqlSession().selectList("selectNextJobsToExecuteSkipLocked", params, page);
+  }
+
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findExclusiveJobsToExecuteSkipLocked(String processInstanceId) {
+    Map<String,Object> params = new HashMap<String, Object>();
+    params.put("pid", processInstanceId);
+    params.put("now",ClockUtil.getCurrentTime());
+    return getDbSqlSession().selectList("selectExclusiveJobsToExecuteSkipLocked", params);
+  }
+  
+  /** locks all given jobs with a single update statement.  The jobs must 
+   * be row-locked by the current transaction (see 
+   * {@link #findNextJobsToExecuteSkipLocked(Page)}), so no revision check is done. */
+  public void lockJobs(List<String> jobIds, String lockOwner, Date lockExpirationTime) {
+    if (jobIds.isEmpty()) {
+      return;
+    }
+    Map<String,Object> params = new HashMap<String, Object>();
+    params.put("jobIds", jobIds);
+    params.put("lockOwner", lockOwner);
+    params.put("lockExpirationTime", lockExpirationTime);
+    getDbSqlSession().update("updateJobLocks", params);
+  }
+  
+  /** extends the locks of the given jobs that are still owned by the given 
+   * lock owner, with one update statement per {@link #RENEW_JOB_LOCKS_BATCH_SIZE} jobs. 
+   * @return the number of renewed locks, see {@link org.activiti.engine.impl.db.DbSqlSession#update(String, Object)}. */
+  public int renewJobLocks(List<String> jobIds, String lockOwner, Date lockExpirationTime) {
+    int renewedLocks = 0;
+    for (int i=0; i<jobIds.size(); i+=RENEW_JOB_LOCKS_BATCH_SIZE) {
+      Map<String,Object> params = new HashMap<String, Object>();
+      params.put("jobIds", jobIds.subList(i, Math.min(i+RENEW_JOB_LOCKS_BATCH_SIZE, jobIds.size())));
+      params.put("lockOwner", lockOwner);
+      params.put("lockExpirationTime", lockExpirationTime);
+      renewedLocks += getDbSqlSession().update("updateJobLockExpirationTimes", params);
+    }
+    return renewedLocks;
+  }
+
 
   @SuppressWarnings("unchecked")
   public List<TimerEntity> findUnlockedTimersByDuedate(Date duedate, Page page) {
@@ -154,8 +254,71 @@ public class JobManager extends AbstractManager {
     return getDbSqlSession().selectList("selectJobsByConfiguration", params);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<JobEntity> findJobsByHandlerType(String jobHandlerType) {
+    return getDbSqlSession().selectList("selectJobsByHandlerType", jobHandlerType);
+  }
+
   public long findJobCountByQueryCriteria(JobQueryImpl jobQuery) {
     return (Long) getDbSqlSession().selectOne("selectJobCountByQueryCriteria", jobQuery);
   }
+  
+  // job executor nodes ///////////////////////////////////////////////////////
+  
+  public JobExecutorNodeEntity findJobExecutorNodeById(String nodeId) {
+    return getDbSqlSession().selectById(JobExecutorNodeEntity.class, nodeId);
+  }
+  
+  public void insertJobExecutorNode(JobExecutorNodeEntity node) {
+    getDbSqlSession().insert(node);
+  }
+  
+  public void deleteJobExecutorNode(String nodeId) {
+    getDbSqlSession().delete(JobExecutorNodeEntity.class, nodeId);
+  }
+  
+  /** deletes the nodes that didn't send a heartbeat since the given time */
+  public void deleteJobExecutorNodesByHeartbeat(Date heartbeat) {
+    getDbSqlSession().delete("deleteJobExecutorNodesByHeartbeat", heartbeat);
+  }
+  
+  /** the ids of the nodes that sent a heartbeat since the given time, ordered by id */
+  @SuppressWarnings("unchecked")
+  public List<String> findJobExecutorNodeIdsByHeartbeat(Date heartbeat) {
+    return getDbSqlSession().selectList("selectJobExecutorNodeIdsByHeartbeat", heartbeat);
+  }
+  
+  // dead letter jobs /////////////////////////////////////////////////////////
+  
+  /** moves a job that ran out of retries to the dead letter table, keeping its exception */
+  public DeadLetterJobEntity moveJobToDeadLetter(JobEntity job) {
+    DeadLetterJobEntity deadLetterJob = new DeadLetterJobEntity(job);
+    deadLetterJob.setFailedTime(ClockUtil.getCurrentTime());
+    getDbSqlSession().insert(deadLetterJob);
+    getDbSqlSession().delete(JobEntity.class, job.getId());
+    return deadLetterJob;
+  }
+  
+  /** moves a dead letter job back to the job table */
+  public JobEntity restoreDeadLetterJob(DeadLetterJobEntity deadLetterJob) {
+    JobEntity job = deadLetterJob.toJob();
+    getDbSqlSession().insert(job);
+    getDbSqlSession().delete(DeadLetterJobEntity.class, deadLetterJob.getId());
+    return job;
+  }
+  
+  public DeadLetterJobEntity findDeadLetterJobById(String jobId) {
+    return getDbSqlSession().selectById(DeadLetterJobEntity.class, jobId);
+  }
+  
+  @SuppressWarnings("unchecked")
+  public List<DeadLetterJobEntity> findDeadLetterJobsByExecutionId(String executionId) {
+    return getDbSqlSession().selectList("selectDeadLetterJobsByExecutionId", executionId);
+  }
+  
+  @SuppressWarnings("unchecked")
+  public List<DeadLetterJobEntity> findDeadLetterJobsByHandlerType(String jobHandlerType) {
+    return getDbSqlSession().selectList("selectDeadLetterJobsByHandlerType", jobHandlerType);
+  }
 
 }
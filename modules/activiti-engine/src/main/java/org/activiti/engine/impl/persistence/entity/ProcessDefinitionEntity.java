@@ -88,7 +88,7 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
       processInstance.setVariable(initiatorVariableName, authenticatedUserId);
     }
     
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = getEffectiveHistoryLevel();
     if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
       HistoricProcessInstanceEntity historicProcessInstance = new HistoricProcessInstanceEntity(processInstance);
 
@@ -116,8 +116,8 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
       historicActivityInstance.setStartTime(now);
       
       commandContext
-        .getDbSqlSession()
-        .insert(historicActivityInstance);
+        .getHistoricActivityInstanceManager()
+        .insertHistoricActivityInstance(historicActivityInstance);
     }
 
     return processInstance;
@@ -191,6 +191,8 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
     this.resourceName = resourceName;
   }
 
+  /** the history level declared for this process definition or null 
+   * if the history level of the process engine applies. */
   public Integer getHistoryLevel() {
     return historyLevel;
   }
@@ -198,6 +200,20 @@ public class ProcessDefinitionEntity extends ProcessDefinitionImpl implements Pr
   public void setHistoryLevel(Integer historyLevel) {
     this.historyLevel = historyLevel;
   }
+  
+  /** the history level that applies to the instances of this process definition. */
+  public int getEffectiveHistoryLevel() {
+    return getEffectiveHistoryLevel(Context.getProcessEngineConfiguration().getHistoryLevel());
+  }
+
+  /** the declared history level can only lower the history level of the engine, 
+   * as the history tables and queries are configured for the latter. */
+  public int getEffectiveHistoryLevel(int engineHistoryLevel) {
+    if (historyLevel!=null && historyLevel<engineHistoryLevel) {
+      return historyLevel;
+    }
+    return engineHistoryLevel;
+  }
 
   public StartFormHandler getStartFormHandler() {
     return startFormHandler;
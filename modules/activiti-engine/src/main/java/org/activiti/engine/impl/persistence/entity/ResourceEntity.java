@@ -16,6 +16,7 @@ package org.activiti.engine.impl.persistence.entity;
 import java.io.Serializable;
 
 import org.activiti.engine.impl.db.PersistentObject;
+import org.activiti.engine.impl.util.CompressionUtil;
 
 
 /**
@@ -55,6 +56,14 @@ public class ResourceEntity implements Serializable, PersistentObject {
     this.bytes = bytes;
   }
   
+  public byte[] getPersistentBytes() {
+    return ByteArrayEntity.toPersistentBytes(bytes);
+  }
+  
+  public void setPersistentBytes(byte[] persistentBytes) {
+    this.bytes = CompressionUtil.uncompress(persistentBytes);
+  }
+  
   public String getDeploymentId() {
     return deploymentId;
   }
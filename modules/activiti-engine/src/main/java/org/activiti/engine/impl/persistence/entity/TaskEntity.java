@@ -104,7 +104,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
     dbSqlSession.insert(this);
     
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = (execution!=null ? execution.getHistoryLevel() : getHistoryLevel());
     if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
       HistoricTaskInstanceEntity historicTaskInstance = new HistoricTaskInstanceEntity(this, execution);
       dbSqlSession.insert(historicTaskInstance);
@@ -190,6 +190,14 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
 
   // variables ////////////////////////////////////////////////////////////////
   
+  @Override
+  protected int getHistoryLevel() {
+    return Context
+      .getCommandContext()
+      .getHistoricTaskInstanceManager()
+      .getHistoryLevel(processDefinitionId);
+  }
+  
   @Override
   protected VariableScopeImpl getParentVariableScope() {
     if (getExecution()!=null) {
@@ -213,6 +221,14 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
       .findVariableInstancesByTaskId(id);
   }
 
+  @Override
+  protected List<VariableInstanceEntity> loadVariableInstances(Collection<String> variableNames) {
+    return Context
+      .getCommandContext()
+      .getVariableInstanceManager()
+      .findVariableInstancesByTaskIdAndNames(id, variableNames);
+  }
+
   // execution ////////////////////////////////////////////////////////////////
 
   public ExecutionEntity getExecution() {
@@ -232,7 +248,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
       this.processInstanceId = this.execution.getProcessInstanceId();
       this.processDefinitionId = this.execution.getProcessDefinitionId();
       
-      int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+      int historyLevel = this.execution.getHistoryLevel();
       if (historyLevel>=ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
         HistoricTaskInstanceEntity historicTaskInstance = Context
           .getCommandContext()
@@ -374,7 +390,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskName(id, taskName);
+        .setTaskName(this, taskName);
     }
   }
 
@@ -390,7 +406,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskDescription(id, description);
+        .setTaskDescription(this, description);
     }
   }
 
@@ -412,7 +428,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskAssignee(id, assignee);
+        .setTaskAssignee(this, assignee);
       
       // if there is no command context, then it means that the user is calling the 
       // setAssignee outside a service method.  E.g. while creating a new task.
@@ -440,7 +456,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskOwner(id, owner);
+        .setTaskOwner(this, owner);
     }
   }
 
@@ -456,7 +472,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskDueDate(id, dueDate);
+        .setTaskDueDate(this, dueDate);
     }
   }
 
@@ -471,7 +487,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskPriority(id, priority);
+        .setTaskPriority(this, priority);
     }
   }
 
@@ -486,7 +502,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     if (commandContext!=null) {
       commandContext
         .getHistoricTaskInstanceManager()
-        .setTaskParentTaskId(id, parentTaskId);
+        .setTaskParentTaskId(this, parentTaskId);
     }
   }
 
@@ -528,7 +544,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     
     CommandContext commandContext = Context.getCommandContext();
     if(commandContext != null) {
-      int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+      int historyLevel = getHistoryLevel();
       if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
         HistoricTaskInstanceEntity historicTaskInstance = commandContext.getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
         if (historicTaskInstance!=null) {
@@ -620,7 +636,7 @@ public class TaskEntity extends VariableScopeImpl implements Task, DelegateTask,
     
     CommandContext commandContext = Context.getCommandContext();
     if(commandContext != null) {
-      int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+      int historyLevel = getHistoryLevel();
       if (historyLevel >= ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
         HistoricTaskInstanceEntity historicTaskInstance = commandContext.getDbSqlSession().selectById(HistoricTaskInstanceEntity.class, id);
         if (historicTaskInstance!=null) {
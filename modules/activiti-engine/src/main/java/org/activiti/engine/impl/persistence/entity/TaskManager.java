@@ -70,7 +70,7 @@ public class TaskManager extends AbstractManager {
       } else {
         commandContext
           .getHistoricTaskInstanceManager()
-          .markTaskInstanceEnded(taskId, deleteReason);
+          .markTaskInstanceEnded(task, deleteReason);
       }
         
       getDbSqlSession().delete(TaskEntity.class, task.getId());
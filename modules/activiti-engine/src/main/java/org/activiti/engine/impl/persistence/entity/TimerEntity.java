@@ -43,6 +43,7 @@ public class TimerEntity extends JobEntity {
     isExclusive = timerDeclaration.isExclusive();
     repeat = timerDeclaration.getRepeat();
     retries = timerDeclaration.getRetries();
+    priority = timerDeclaration.getPriority();
   }
 
   private TimerEntity(TimerEntity te) {
@@ -51,6 +52,7 @@ public class TimerEntity extends JobEntity {
     isExclusive = te.isExclusive;
     repeat = te.repeat;
     retries = te.retries;
+    priority = te.priority;
     executionId = te.executionId;
     processInstanceId = te.processInstanceId;
 
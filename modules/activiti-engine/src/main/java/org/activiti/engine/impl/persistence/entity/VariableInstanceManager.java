@@ -13,6 +13,8 @@
 
 package org.activiti.engine.impl.persistence.entity;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -47,6 +49,22 @@ public class VariableInstanceManager extends AbstractManager {
     return getDbSqlSession().selectList("selectVariablesByExecutionId", executionId);
   }
 
+  @SuppressWarnings("unchecked")
+  public List<VariableInstanceEntity> findVariableInstancesByTaskIdAndNames(String taskId, Collection<String> variableNames) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("taskId", taskId);
+    parameters.put("variableNames", variableNames);
+    return getDbSqlSession().selectList("selectVariablesByTaskIdAndNames", parameters);
+  }
+  
+  @SuppressWarnings("unchecked")
+  public List<VariableInstanceEntity> findVariableInstancesByExecutionIdAndNames(String executionId, Collection<String> variableNames) {
+    Map<String, Object> parameters = new HashMap<String, Object>();
+    parameters.put("executionId", executionId);
+    parameters.put("variableNames", variableNames);
+    return getDbSqlSession().selectList("selectVariablesByExecutionIdAndNames", parameters);
+  }
+
   public void deleteVariableInstanceByTask(TaskEntity task) {
     Map<String, VariableInstanceEntity> variableInstances = task.getVariableInstances();
     if (variableInstances!=null) {
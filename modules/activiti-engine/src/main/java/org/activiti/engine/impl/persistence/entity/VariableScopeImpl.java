@@ -14,6 +14,8 @@ package org.activiti.engine.impl.persistence.entity;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -41,9 +43,14 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
   
   protected Map<String, VariableInstanceEntity> variableInstances = null;
   
+  /** variable instances that were fetched by name before all variable instances 
+   * were loaded.  A null value marks a variable that doesn't exist in this scope. */
+  protected Map<String, VariableInstanceEntity> selectedVariableInstances = null;
+  
   protected ELContext cachedElContext;
 
   protected abstract List<VariableInstanceEntity> loadVariableInstances();
+  protected abstract List<VariableInstanceEntity> loadVariableInstances(Collection<String> variableNames);
   protected abstract VariableScopeImpl getParentVariableScope();
   protected abstract void initializeVariableInstanceBackPointer(VariableInstanceEntity variableInstance);
 
@@ -58,7 +65,56 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
       for (VariableInstanceEntity variableInstance : variableInstancesList) {
         variableInstances.put(variableInstance.getName(), variableInstance);
       }
+      selectedVariableInstances = null;
+    }
+  }
+  
+  /** true if single variables should be fetched by name because not all 
+   * variable instances of this scope are loaded yet. 
+   * @see ProcessEngineConfigurationImpl#setSelectiveVariableLoading(boolean) */
+  protected boolean isSelectiveVariableLoading() {
+    if (variableInstances!=null) {
+      return false;
+    }
+    ProcessEngineConfigurationImpl processEngineConfiguration = Context.getProcessEngineConfiguration();
+    return processEngineConfiguration!=null 
+           && processEngineConfiguration.isSelectiveVariableLoading();
+  }
+  
+  /** fetches the given variables of this scope that weren't fetched 
+   * before in this command and returns all fetched variable instances */
+  protected Map<String, VariableInstanceEntity> selectVariableInstances(Collection<String> variableNames) {
+    if (selectedVariableInstances==null) {
+      selectedVariableInstances = new HashMap<String, VariableInstanceEntity>();
+    }
+    List<String> unselectedVariableNames = new ArrayList<String>();
+    for (String variableName: variableNames) {
+      if (!selectedVariableInstances.containsKey(variableName)) {
+        unselectedVariableNames.add(variableName);
+        selectedVariableInstances.put(variableName, null);
+      }
+    }
+    if (!unselectedVariableNames.isEmpty()) {
+      if (Context.getCommandContext() == null) {
+        throw new ActivitiException("lazy loading outside command context");
+      }
+      for (VariableInstanceEntity variableInstance: loadVariableInstances(unselectedVariableNames)) {
+        selectedVariableInstances.put(variableInstance.getName(), variableInstance);
+      }
     }
+    return selectedVariableInstances;
+  }
+  
+  protected Map<String, VariableInstanceEntity> getVariableInstancesLocal(Collection<String> variableNames) {
+    if (isSelectiveVariableLoading()) {
+      return selectVariableInstances(variableNames);
+    }
+    ensureVariableInstancesInitialized();
+    return variableInstances;
+  }
+  
+  protected VariableInstanceEntity getVariableInstanceLocal(String variableName) {
+    return getVariableInstancesLocal(Collections.singleton(variableName)).get(variableName);
   }
   
   public Map<String, Object> getVariables() {
@@ -86,9 +142,44 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
     return variables;
   }
   
+  /** the values of the given variables that are visible from this scope */
+  public Map<String, Object> getVariables(Collection<String> variableNames) {
+    return collectVariables(variableNames, new HashMap<String, Object>());
+  }
+  
+  /** the values of the given variables that are defined in this scope */
+  public Map<String, Object> getVariablesLocal(Collection<String> variableNames) {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    Map<String, VariableInstanceEntity> variableInstances = getVariableInstancesLocal(variableNames);
+    for (String variableName: variableNames) {
+      VariableInstanceEntity variableInstance = variableInstances.get(variableName);
+      if (variableInstance!=null) {
+        variables.put(variableName, variableInstance.getValue());
+      }
+    }
+    return variables;
+  }
+  
+  protected Map<String, Object> collectVariables(Collection<String> variableNames, Map<String, Object> variables) {
+    List<String> parentVariableNames = new ArrayList<String>();
+    Map<String, VariableInstanceEntity> variableInstances = getVariableInstancesLocal(variableNames);
+    for (String variableName: variableNames) {
+      VariableInstanceEntity variableInstance = variableInstances.get(variableName);
+      if (variableInstance!=null) {
+        variables.put(variableName, variableInstance.getValue());
+      } else {
+        parentVariableNames.add(variableName);
+      }
+    }
+    VariableScopeImpl parentScope = getParentVariableScope();
+    if (parentScope!=null && !parentVariableNames.isEmpty()) {
+      parentScope.collectVariables(parentVariableNames, variables);
+    }
+    return variables;
+  }
+  
   public Object getVariable(String variableName) {
-    ensureVariableInstancesInitialized();
-    VariableInstanceEntity variableInstance = variableInstances.get(variableName);
+    VariableInstanceEntity variableInstance = getVariableInstanceLocal(variableName);
     if (variableInstance!=null) {
       return variableInstance.getValue();
     }
@@ -100,8 +191,7 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
   }
   
   public Object getVariableLocal(Object variableName) {
-    ensureVariableInstancesInitialized();
-    VariableInstanceEntity variableInstance = variableInstances.get(variableName);
+    VariableInstanceEntity variableInstance = getVariableInstanceLocal((String) variableName);
     if (variableInstance!=null) {
       return variableInstance.getValue();
     }
@@ -137,6 +227,9 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
   }
 
   public boolean hasVariableLocal(String variableName) {
+    if (isSelectiveVariableLoading()) {
+      return getVariableInstanceLocal(variableName)!=null;
+    }
     ensureVariableInstancesInitialized();
     return variableInstances.containsKey(variableName);
   }
@@ -195,7 +288,7 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
   protected void setVariableInstanceValue(Object value, VariableInstanceEntity variableInstance) {
     variableInstance.setValue(value);
     
-    int historyLevel = Context.getProcessEngineConfiguration().getHistoryLevel();
+    int historyLevel = getHistoryLevel();
     if (historyLevel==ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
       HistoricVariableUpdateEntity historicVariableUpdate = new HistoricVariableUpdateEntity(variableInstance);
       initializeActivityInstanceId(historicVariableUpdate);
@@ -208,6 +301,13 @@ public abstract class VariableScopeImpl implements Serializable, VariableScope {
   
   protected void initializeActivityInstanceId(HistoricVariableUpdateEntity historicVariableUpdate) {
   }
+  
+  /** the history level that applies to this variable scope.  Variable scopes 
+   * that belong to a process definition override this with the history level 
+   * of their process definition. */
+  protected int getHistoryLevel() {
+    return Context.getProcessEngineConfiguration().getHistoryLevel();
+  }
 
   public void createVariableLocal(String variableName, Object value) {
     ensureVariableInstancesInitialized();
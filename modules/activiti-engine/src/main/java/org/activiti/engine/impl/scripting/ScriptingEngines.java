@@ -14,10 +14,14 @@ package org.activiti.engine.impl.scripting;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
@@ -25,6 +29,7 @@ import javax.script.ScriptException;
 
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.delegate.VariableScope;
+import org.activiti.engine.impl.persistence.deploy.BoundedCacheMap;
 
 /**
  * @author Tom Baeyens
@@ -33,9 +38,17 @@ public class ScriptingEngines {
 
   private static Logger log = Logger.getLogger(ScriptingEngines.class.getName());
   public static final String DEFAULT_SCRIPTING_LANGUAGE = "juel";
+  public static final int DEFAULT_COMPILED_SCRIPT_CACHE_LIMIT = 500;
 
   private final ScriptEngineManager scriptEngineManager;
   protected ScriptBindingsFactory scriptBindingsFactory;
+  
+  /** engines that can be shared between threads, by language */
+  protected Map<String, ScriptEngine> sharedScriptEngines = new ConcurrentHashMap<String, ScriptEngine>();
+  /** compiled scripts by script text, by language */
+  protected Map<String, Map<String, CompiledScript>> compiledScripts = new ConcurrentHashMap<String, Map<String, CompiledScript>>();
+  /** maximum number of compiled scripts cached per language, 0 disables caching */
+  protected int compiledScriptCacheLimit = DEFAULT_COMPILED_SCRIPT_CACHE_LIMIT;
 
   public ScriptingEngines(ScriptBindingsFactory scriptBindingsFactory) {
     this(new ScriptEngineManager());
@@ -61,21 +74,87 @@ public class ScriptingEngines {
 
   public Object evaluate(String script, String language, VariableScope variableScope) {
     Bindings bindings = createBindings(variableScope);
-    ScriptEngine scriptEngine = scriptEngineManager.getEngineByName(language);
+    ScriptEngine scriptEngine = getScriptEngine(language);
 
+    try {
+      CompiledScript compiledScript = getCompiledScript(script, language, scriptEngine);
+      if (compiledScript!=null) {
+        return compiledScript.eval(bindings);
+      }
+      return scriptEngine.eval(script, bindings);
+    } catch (ScriptException e) {
+      throw new ActivitiException("problem evaluating script: " + e.getMessage(), e);
+    }
+  }
+  
+  /**
+   * Engines which declare in their THREADING parameter that they can be used 
+   * from multiple threads are created once and shared, unless the compiled 
+   * script cache is disabled.  Others are created for every evaluation.
+   */
+  protected ScriptEngine getScriptEngine(String language) {
+    ScriptEngine scriptEngine = sharedScriptEngines.get(language);
+    if (scriptEngine != null) {
+      return scriptEngine;
+    }
+    
+    scriptEngine = scriptEngineManager.getEngineByName(language);
     if (scriptEngine == null) {
       scriptEngine = checkForOSGiEngine(language);
     }
-    
     if (scriptEngine == null) {
       throw new ActivitiException("Can't find scripting engine for '" + language + "'");
     }
-
-    try {
-      return scriptEngine.eval(script, bindings);
-    } catch (ScriptException e) {
-      throw new ActivitiException("problem evaluating script: " + e.getMessage(), e);
+    
+    if (compiledScriptCacheLimit>0 && isThreadSafe(scriptEngine)) {
+      // engines like groovy keep every class they compiled from a script text, 
+      // so an engine evaluating scripts from source is not kept
+      sharedScriptEngines.put(language, scriptEngine);
     }
+    return scriptEngine;
+  }
+  
+  protected boolean isThreadSafe(ScriptEngine scriptEngine) {
+    // MULTITHREADED, THREAD-ISOLATED and STATELESS engines can be used concurrently, 
+    // null means the engine is not thread safe
+    return scriptEngine.getFactory().getParameter("THREADING") != null;
+  }
+  
+  /**
+   * @return the cached compiled script or null if the script can't 
+   *   be compiled and has to be evaluated from source. 
+   */
+  protected CompiledScript getCompiledScript(String script, String language, ScriptEngine scriptEngine) throws ScriptException {
+    if (compiledScriptCacheLimit<=0 
+            || !(scriptEngine instanceof Compilable) 
+            || scriptEngine instanceof JuelScriptEngine
+            || !isThreadSafe(scriptEngine)) {
+      // juel resolves variables when the expression is parsed, so compiled 
+      // juel scripts can't be evaluated with other bindings
+      return null;
+    }
+    
+    Map<String, CompiledScript> languageScripts = compiledScripts.get(language);
+    if (languageScripts == null) {
+      synchronized (compiledScripts) {
+        languageScripts = compiledScripts.get(language);
+        if (languageScripts == null) {
+          languageScripts = new BoundedCacheMap<String, CompiledScript>(compiledScriptCacheLimit, BoundedCacheMap.EVICTION_POLICY_LRU, null);
+          compiledScripts.put(language, languageScripts);
+        }
+      }
+    }
+    
+    CompiledScript compiledScript = languageScripts.get(script);
+    if (compiledScript == null) {
+      // every script is compiled by an engine of its own, so that the classes 
+      // cached by the engine (and its class loader) are only reachable through 
+      // the compiled script and become garbage when it is evicted 
+      ScriptEngine compilingScriptEngine = scriptEngine.getFactory().getScriptEngine();
+      compiledScript = ((Compilable) compilingScriptEngine).compile(script);
+      languageScripts.put(script, compiledScript);
+    }
+    return compiledScript;
   }
   
   private ScriptEngine checkForOSGiEngine(String language) {
@@ -107,4 +186,11 @@ public class ScriptingEngines {
   public void setScriptBindingsFactory(ScriptBindingsFactory scriptBindingsFactory) {
     this.scriptBindingsFactory = scriptBindingsFactory;
   }
+  public int getCompiledScriptCacheLimit() {
+    return compiledScriptCacheLimit;
+  }
+  public void setCompiledScriptCacheLimit(int compiledScriptCacheLimit) {
+    this.compiledScriptCacheLimit = compiledScriptCacheLimit;
+    compiledScripts.clear();
+  }
 }
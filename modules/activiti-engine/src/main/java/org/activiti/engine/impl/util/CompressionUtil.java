@@ -0,0 +1,117 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.impl.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.activiti.engine.ActivitiException;
+
+
+/**
+ * <p>Compression of the byte array payloads that are stored in ACT_GE_BYTEARRAY.</p>
+ * 
+ * <p>Compressed payloads start with a format marker followed by the 
+ * compression method, so that payloads written before compression was 
+ * enabled, or written below the compression threshold, stay readable as 
+ * they are.  Uncompressed payloads that happen to start with the marker 
+ * are stored behind the marker with the {@link #METHOD_STORED stored} method.</p>
+ */
+public class CompressionUtil {
+  
+  /** format marker: a zero byte followed by ACTZ */
+  public static final byte[] MARKER = {0, 'A', 'C', 'T', 'Z'};
+  public static final byte METHOD_DEFLATE = 'D';
+  public static final byte METHOD_STORED = 'S';
+  
+  protected static final int HEADER_LENGTH = MARKER.length + 1;
+
+  /** deflates the given bytes if they have at least threshold bytes and 
+   * compressing actually makes them smaller.  Otherwise the bytes are 
+   * returned as they are, see {@link #escape(byte[])}. */
+  public static byte[] compress(byte[] bytes, int threshold) {
+    if (bytes==null || bytes.length<threshold) {
+      return escape(bytes);
+    }
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length/2 + HEADER_LENGTH);
+    outputStream.write(MARKER, 0, MARKER.length);
+    outputStream.write(METHOD_DEFLATE);
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(outputStream, deflater);
+      deflaterOutputStream.write(bytes);
+      deflaterOutputStream.finish();
+    } catch (Exception e) {
+      throw new ActivitiException("couldn't compress byte array: "+e.getMessage(), e);
+    } finally {
+      deflater.end();
+    }
+    if (outputStream.size()>=bytes.length) {
+      return escape(bytes);
+    }
+    return outputStream.toByteArray();
+  }
+  
+  /** returns the given bytes uncompressed.  Only bytes that start with the 
+   * format marker get the stored header, so they can't be mistaken for 
+   * compressed bytes when they are read. */
+  public static byte[] escape(byte[] bytes) {
+    if (!hasMarker(bytes)) {
+      return bytes;
+    }
+    byte[] escapedBytes = new byte[bytes.length + HEADER_LENGTH];
+    System.arraycopy(MARKER, 0, escapedBytes, 0, MARKER.length);
+    escapedBytes[MARKER.length] = METHOD_STORED;
+    System.arraycopy(bytes, 0, escapedBytes, HEADER_LENGTH, bytes.length);
+    return escapedBytes;
+  }
+
+  /** returns the original bytes of bytes that were produced by 
+   * {@link #compress(byte[], int)} or {@link #escape(byte[])}.  Bytes 
+   * without format marker are returned as they are. */
+  public static byte[] uncompress(byte[] bytes) {
+    if (!hasMarker(bytes) || bytes.length<HEADER_LENGTH) {
+      return bytes;
+    }
+    byte method = bytes[MARKER.length];
+    if (method==METHOD_STORED) {
+      byte[] storedBytes = new byte[bytes.length - HEADER_LENGTH];
+      System.arraycopy(bytes, HEADER_LENGTH, storedBytes, 0, storedBytes.length);
+      return storedBytes;
+    }
+    if (method==METHOD_DEFLATE) {
+      InflaterInputStream inputStream = new InflaterInputStream(new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH));
+      try {
+        return IoUtil.readInputStream(inputStream, "compressed byte array");
+      } finally {
+        IoUtil.closeSilently(inputStream);
+      }
+    }
+    throw new ActivitiException("unknown byte array compression method '"+(char) method+"'");
+  }
+
+  protected static boolean hasMarker(byte[] bytes) {
+    if (bytes==null || bytes.length<MARKER.length) {
+      return false;
+    }
+    for (int i=0; i<MARKER.length; i++) {
+      if (bytes[i]!=MARKER[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -55,6 +55,7 @@ public class Parse extends DefaultHandler {
   protected List<Problem> errors = new ArrayList<Problem>();
   protected List<Problem> warnings = new ArrayList<Problem>();
   protected String schemaResource;
+  protected boolean isValidatingSchema = true;
 
   public Parse(Parser parser) {
     this.parser = parser;
@@ -120,15 +121,24 @@ public class Parse extends DefaultHandler {
     try {
       InputStream inputStream = streamSource.getInputStream();
 
-      if (schemaResource == null) { // must be done before parser is created
-        parser.getSaxParserFactory().setNamespaceAware(false);
-        parser.getSaxParserFactory().setValidating(false);
-      }
-
-      SAXParser saxParser = parser.getSaxParser(); 
-      if (schemaResource != null) { 
-        saxParser.setProperty(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
-        saxParser.setProperty(JAXP_SCHEMA_SOURCE, schemaResource);
+      SAXParser saxParser = null;
+      if ( (schemaResource != null) 
+           && (!isValidatingSchema)
+         ) {
+        // same namespace handling as a validating parse, without compiling and checking the schema
+        saxParser = parser.getNonValidatingSaxParser();
+        
+      } else {
+        if (schemaResource == null) { // must be done before parser is created
+          parser.getSaxParserFactory().setNamespaceAware(false);
+          parser.getSaxParserFactory().setValidating(false);
+        }
+  
+        saxParser = parser.getSaxParser(); 
+        if (schemaResource != null) { 
+          saxParser.setProperty(JAXP_SCHEMA_LANGUAGE, W3C_XML_SCHEMA);
+          saxParser.setProperty(JAXP_SCHEMA_SOURCE, schemaResource);
+        }
       }
       saxParser.parse(inputStream, new ParseHandler(this));
       
@@ -197,5 +207,18 @@ public class Parse extends DefaultHandler {
     }
     this.schemaResource = schemaResource;
   }
+  
+  public boolean isValidatingSchema() {
+    return isValidatingSchema;
+  }
+  
+  /**
+   * When set to false, the document is parsed as if a schema resource was configured, 
+   * but it isn't validated against that schema.  Meant for documents that were 
+   * already validated before, since compiling the schema dominates the parse time.
+   */
+  public void setValidatingSchema(boolean isValidatingSchema) {
+    this.isValidatingSchema = isValidatingSchema;
+  }
 
 }
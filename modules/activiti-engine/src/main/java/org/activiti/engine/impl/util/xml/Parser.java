@@ -12,6 +12,8 @@
  */
 package org.activiti.engine.impl.util.xml;
 
+import java.util.logging.Logger;
+
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
@@ -20,9 +22,14 @@ import javax.xml.parsers.SAXParserFactory;
  * @author Tom Baeyens
  */
 public class Parser {
+  
+  private static final Logger LOGGER = Logger.getLogger(Parser.class.getName());
 
   protected static SAXParserFactory defaultSaxParserFactory = SAXParserFactory.newInstance();
   
+  /** namespace aware, but never validating.  it is configured once and not changed afterwards. */
+  protected static SAXParserFactory nonValidatingSaxParserFactory = createNonValidatingSaxParserFactory();
+  
   public static final Parser INSTANCE = new Parser();
 
   public Parse createParse() {
@@ -36,4 +43,20 @@ public class Parser {
   protected SAXParserFactory getSaxParserFactory() {
     return defaultSaxParserFactory;
   }
+
+  protected SAXParser getNonValidatingSaxParser() throws Exception {
+    return nonValidatingSaxParserFactory.newSAXParser();
+  }
+
+  protected static SAXParserFactory createNonValidatingSaxParserFactory() {
+    SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+    saxParserFactory.setNamespaceAware(true);
+    saxParserFactory.setValidating(false);
+    try {
+      saxParserFactory.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+    } catch (Exception e) {
+      LOGGER.warning(e.getMessage());
+    }
+    return saxParserFactory;
+  }
 }
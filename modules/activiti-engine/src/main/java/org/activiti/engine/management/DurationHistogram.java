@@ -0,0 +1,84 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.management;
+
+import java.io.Serializable;
+
+
+/**
+ * Distribution of measured durations over buckets with fixed upper limits.  
+ * Bucket <code>i</code> counts the durations up to 
+ * <code>getBucketLimitsInMillis()[i]</code>, the last bucket counts the 
+ * durations above the highest limit.
+ */
+public class DurationHistogram implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected long[] bucketLimitsInMillis;
+  protected long[] bucketCounts;
+  protected long count;
+  protected long totalMillis;
+  protected long maxMillis;
+
+  public DurationHistogram(long[] bucketLimitsInMillis, long[] bucketCounts, long count, long totalMillis, long maxMillis) {
+    this.bucketLimitsInMillis = bucketLimitsInMillis;
+    this.bucketCounts = bucketCounts;
+    this.count = count;
+    this.totalMillis = totalMillis;
+    this.maxMillis = maxMillis;
+  }
+
+  /** the upper limits of all buckets but the last one, in ascending order */
+  public long[] getBucketLimitsInMillis() {
+    return bucketLimitsInMillis;
+  }
+
+  /** number of durations per bucket, one more than there are limits */
+  public long[] getBucketCounts() {
+    return bucketCounts;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  public long getMaxMillis() {
+    return maxMillis;
+  }
+
+  public double getAverageMillis() {
+    return (count>0 ? (double) totalMillis / count : 0);
+  }
+
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    text.append("count=").append(count)
+      .append(", avg=").append(Math.round(getAverageMillis())).append("ms")
+      .append(", max=").append(maxMillis).append("ms");
+    for (int i=0; i<bucketCounts.length; i++) {
+      text.append(", ");
+      if (i<bucketLimitsInMillis.length) {
+        text.append("<=").append(bucketLimitsInMillis[i]);
+      } else {
+        text.append(">").append(bucketLimitsInMillis[bucketLimitsInMillis.length-1]);
+      }
+      text.append("ms: ").append(bucketCounts[i]);
+    }
+    return text.toString();
+  }
+}
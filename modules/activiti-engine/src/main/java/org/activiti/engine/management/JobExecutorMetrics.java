@@ -0,0 +1,134 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.management;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import org.activiti.engine.ManagementService;
+
+
+/**
+ * Snapshot of the counters and timings the job executor collected since 
+ * it was created or its metrics were last reset, see 
+ * {@link ManagementService#getJobExecutorMetrics()}.
+ */
+public class JobExecutorMetrics implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+  
+  protected long acquisitionCycles;
+  protected long acquiredJobs;
+  protected long rejectedJobs;
+  protected long failedJobs;
+  protected long acquisitionConflicts;
+  protected DurationHistogram acquisitionTimes;
+  protected Map<String, DurationHistogram> executionTimes;
+  protected DurationHistogram startDelays;
+  protected int queueDepth;
+
+  /** number of completed job acquisitions */
+  public long getAcquisitionCycles() {
+    return acquisitionCycles;
+  }
+
+  public void setAcquisitionCycles(long acquisitionCycles) {
+    this.acquisitionCycles = acquisitionCycles;
+  }
+
+  /** number of jobs that were acquired and locked */
+  public long getAcquiredJobs() {
+    return acquiredJobs;
+  }
+
+  public void setAcquiredJobs(long acquiredJobs) {
+    this.acquiredJobs = acquiredJobs;
+  }
+
+  /** number of acquired jobs that could not be handed to the job executor because it was busy */
+  public long getRejectedJobs() {
+    return rejectedJobs;
+  }
+
+  public void setRejectedJobs(long rejectedJobs) {
+    this.rejectedJobs = rejectedJobs;
+  }
+
+  /** number of job executions that failed */
+  public long getFailedJobs() {
+    return failedJobs;
+  }
+
+  public void setFailedJobs(long failedJobs) {
+    this.failedJobs = failedJobs;
+  }
+
+  /** number of job acquisitions that failed because another job executor 
+   * locked the same jobs concurrently */
+  public long getAcquisitionConflicts() {
+    return acquisitionConflicts;
+  }
+
+  public void setAcquisitionConflicts(long acquisitionConflicts) {
+    this.acquisitionConflicts = acquisitionConflicts;
+  }
+
+  public double getAcquiredJobsPerCycle() {
+    return (acquisitionCycles>0 ? (double) acquiredJobs / acquisitionCycles : 0);
+  }
+
+  public double getRejectedJobsPerCycle() {
+    return (acquisitionCycles>0 ? (double) rejectedJobs / acquisitionCycles : 0);
+  }
+
+  public double getFailedJobsPerCycle() {
+    return (acquisitionCycles>0 ? (double) failedJobs / acquisitionCycles : 0);
+  }
+
+  /** duration of the job acquisitions, including the queries and the locking of the jobs */
+  public DurationHistogram getAcquisitionTimes() {
+    return acquisitionTimes;
+  }
+
+  public void setAcquisitionTimes(DurationHistogram acquisitionTimes) {
+    this.acquisitionTimes = acquisitionTimes;
+  }
+
+  /** duration of the job executions by job handler type */
+  public Map<String, DurationHistogram> getExecutionTimes() {
+    return executionTimes;
+  }
+
+  public void setExecutionTimes(Map<String, DurationHistogram> executionTimes) {
+    this.executionTimes = executionTimes;
+  }
+
+  /** time from the due date of a job to the start of its execution, only 
+   * for jobs with a due date like timers */
+  public DurationHistogram getStartDelays() {
+    return startDelays;
+  }
+
+  public void setStartDelays(DurationHistogram startDelays) {
+    this.startDelays = startDelays;
+  }
+
+  /** number of job batches waiting for a free thread */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  public void setQueueDepth(int queueDepth) {
+    this.queueDepth = queueDepth;
+  }
+}
@@ -53,6 +53,12 @@ public interface Job {
    */
   int getRetries();
   
+  /**
+   * Returns the priority of this job.  Jobs with a higher priority are 
+   * acquired and executed before jobs with a lower priority.
+   */
+  int getPriority();
+  
   /**
    * Returns the message of the exception that occurred, the last time the job was
    * executed. Returns null when no exception occurred.
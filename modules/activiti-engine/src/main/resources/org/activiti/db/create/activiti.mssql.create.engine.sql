@@ -21,6 +21,7 @@ create table ACT_GE_BYTEARRAY (
     DEPLOYMENT_ID_ nvarchar(64),
     BYTES_ image,
     GENERATED_ tinyint,
+    HASH_ nvarchar(64),
     primary key (ID_)
 );
 
@@ -64,6 +65,33 @@ create table ACT_RU_JOB (
     REPEAT_ nvarchar(255),
     HANDLER_TYPE_ nvarchar(255),
     HANDLER_CFG_ nvarchar(4000),
+    PRIORITY_ int default 0 not null,
+    PARTITION_ int,
+    primary key (ID_)
+);
+
+create table ACT_RU_JOB_NODE (
+    ID_ nvarchar(255) not null,
+    REV_ int,
+    HEARTBEAT_ datetime,
+    primary key (ID_)
+);
+
+create table ACT_RU_DEADLETTER_JOB (
+    ID_ nvarchar(64) NOT NULL,
+    REV_ int,
+    TYPE_ nvarchar(255) NOT NULL,
+    EXCLUSIVE_ bit,
+    EXECUTION_ID_ nvarchar(64),
+    PROCESS_INSTANCE_ID_ nvarchar(64),
+    EXCEPTION_STACK_ID_ nvarchar(64),
+    EXCEPTION_MSG_ nvarchar(4000),
+    DUEDATE_ datetime NULL,
+    REPEAT_ nvarchar(255),
+    HANDLER_TYPE_ nvarchar(255),
+    HANDLER_CFG_ nvarchar(4000),
+    PRIORITY_ int default 0 not null,
+    FAILED_TIME_ datetime NULL,
     primary key (ID_)
 );
 
@@ -146,6 +174,10 @@ create index ACT_IDX_IDENT_LNK_USER on ACT_RU_IDENTITYLINK(USER_ID_);
 create index ACT_IDX_IDENT_LNK_GROUP on ACT_RU_IDENTITYLINK(GROUP_ID_);
 create index ACT_IDX_EVENT_SUBSCR_CONFIG_ on ACT_RU_EVENT_SUBSCR(CONFIGURATION_);
 create index ACT_IDX_VARIABLE_TASK_ID on ACT_RU_VARIABLE(TASK_ID_);
+create index ACT_IDX_JOB_PRIORITY on ACT_RU_JOB(PRIORITY_, DUEDATE_);
+create index ACT_IDX_JOB_PARTITION on ACT_RU_JOB(PARTITION_);
+create index ACT_IDX_DEADLETTER_JOB_EXEC on ACT_RU_DEADLETTER_JOB(EXECUTION_ID_);
+create index ACT_IDX_BYTEAR_HASH on ACT_GE_BYTEARRAY(HASH_);
 create unique index ACT_UNIQ_RU_BUS_KEY on ACT_RU_EXECUTION (PROC_DEF_ID_, BUSINESS_KEY_) where BUSINESS_KEY_ is not null;
 
 alter table ACT_GE_BYTEARRAY
@@ -96,6 +96,14 @@ create table ACT_HI_ATTACHMENT (
     primary key (ID_)
 );
 
+create table ACT_HI_OUTBOX (
+    ID_ nvarchar(64) not null,
+    PROC_INST_ID_ nvarchar(64),
+    CREATE_TIME_ datetime not null,
+    EVENTS_ image,
+    primary key (ID_)
+);
+
 create index ACT_IDX_HI_PRO_INST_END on ACT_HI_PROCINST(END_TIME_);
 create index ACT_IDX_HI_PRO_I_BUSKEY on ACT_HI_PROCINST(BUSINESS_KEY_);
 create index ACT_IDX_HI_ACT_INST_START on ACT_HI_ACTINST(START_TIME_);
@@ -105,4 +113,5 @@ create index ACT_IDX_HI_DETAIL_ACT_INST on ACT_HI_DETAIL(ACT_INST_ID_);
 create index ACT_IDX_HI_DETAIL_TIME on ACT_HI_DETAIL(TIME_);
 create index ACT_IDX_HI_DETAIL_NAME on ACT_HI_DETAIL(NAME_);
 create index ACT_IDX_HI_DETAIL_TASK_ID on ACT_HI_DETAIL(TASK_ID_);
+create index ACT_IDX_HI_OUTBOX_PROC_INST on ACT_HI_OUTBOX(PROC_INST_ID_);
 create unique index ACT_UNIQ_HI_BUS_KEY on ACT_HI_PROCINST (PROC_DEF_ID_, BUSINESS_KEY_) where BUSINESS_KEY_ is not null;
\ No newline at end of file
@@ -2,6 +2,10 @@ drop index ACT_IDX_EXEC_BUSKEY;
 drop index ACT_IDX_TASK_CREATE;
 drop index ACT_IDX_IDENT_LNK_USER;
 drop index ACT_IDX_IDENT_LNK_GROUP;
+drop index ACT_IDX_JOB_PRIORITY;
+drop index ACT_IDX_JOB_PARTITION;
+drop index ACT_IDX_DEADLETTER_JOB_EXEC;
+drop index ACT_IDX_BYTEAR_HASH;
 
 alter table ACT_GE_BYTEARRAY 
     drop constraint ACT_FK_BYTEARR_DEPL;
@@ -50,6 +54,8 @@ drop table ACT_GE_BYTEARRAY if exists;
 drop table ACT_RE_DEPLOYMENT if exists;
 drop table ACT_RU_EXECUTION if exists;
 drop table ACT_RU_JOB if exists;
+drop table ACT_RU_JOB_NODE if exists;
+drop table ACT_RU_DEADLETTER_JOB if exists;
 drop table ACT_RE_PROCDEF if exists;
 drop table ACT_RU_TASK if exists;
 drop table ACT_RU_IDENTITYLINK if exists;
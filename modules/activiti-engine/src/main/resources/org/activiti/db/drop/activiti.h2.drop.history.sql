@@ -6,6 +6,7 @@ drop index ACT_IDX_HI_DETAIL_PROC_INST;
 drop index ACT_IDX_HI_DETAIL_ACT_INST;
 drop index ACT_IDX_HI_DETAIL_TIME;
 drop index ACT_IDX_HI_DETAIL_NAME;
+drop index ACT_IDX_HI_OUTBOX_PROC_INST;
 
 alter table ACT_HI_PROCINST
     drop constraint ACT_UNIQ_HI_BUS_KEY;
@@ -16,3 +17,4 @@ drop table ACT_HI_TASKINST if exists;
 drop table ACT_HI_DETAIL if exists;
 drop table ACT_HI_COMMENT if exists;
 drop table ACT_HI_ATTACHMENT if exists;
+drop table ACT_HI_OUTBOX if exists;
@@ -2,6 +2,10 @@ drop index ACT_RU_EXECUTION.ACT_IDX_EXEC_BUSKEY;
 drop index ACT_RU_TASK.ACT_IDX_TASK_CREATE;
 drop index ACT_RU_IDENTITYLINK.ACT_IDX_IDENT_LNK_USER;
 drop index ACT_RU_IDENTITYLINK.ACT_IDX_IDENT_LNK_GROUP;
+drop index ACT_RU_JOB.ACT_IDX_JOB_PRIORITY;
+drop index ACT_RU_JOB.ACT_IDX_JOB_PARTITION;
+drop index ACT_RU_DEADLETTER_JOB.ACT_IDX_DEADLETTER_JOB_EXEC;
+drop index ACT_GE_BYTEARRAY.ACT_IDX_BYTEAR_HASH;
 
 alter table ACT_GE_BYTEARRAY 
     drop constraint ACT_FK_BYTEARR_DEPL;
@@ -48,4 +52,5 @@ if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = '
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_VARIABLE') drop table ACT_RU_VARIABLE;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_EXECUTION') drop table ACT_RU_EXECUTION;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_EVENT_SUBSCR') drop table ACT_RU_EVENT_SUBSCR;
-if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_JOB') drop table ACT_RU_JOB;
\ No newline at end of file
+if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_JOB') drop table ACT_RU_JOB;
+if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_RU_JOB_NODE') drop table ACT_RU_JOB_NODE;
\ No newline at end of file
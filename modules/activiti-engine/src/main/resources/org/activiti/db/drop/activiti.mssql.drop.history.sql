@@ -6,6 +6,7 @@ drop index ACT_HI_DETAIL.ACT_IDX_HI_DETAIL_PROC_INST;
 drop index ACT_HI_DETAIL.ACT_IDX_HI_DETAIL_ACT_INST;
 drop index ACT_HI_DETAIL.ACT_IDX_HI_DETAIL_TIME;
 drop index ACT_HI_DETAIL.ACT_IDX_HI_DETAIL_NAME;
+drop index ACT_HI_OUTBOX.ACT_IDX_HI_OUTBOX_PROC_INST;
 
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_HI_PROCINST') drop table ACT_HI_PROCINST;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_HI_ACTINST') drop table ACT_HI_ACTINST;
@@ -13,3 +14,4 @@ if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = '
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_HI_DETAIL') drop table ACT_HI_DETAIL;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_HI_COMMENT') drop table ACT_HI_COMMENT;
 if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_HI_ATTACHMENT') drop table ACT_HI_ATTACHMENT;
+if exists (select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'ACT_HI_OUTBOX') drop table ACT_HI_OUTBOX;
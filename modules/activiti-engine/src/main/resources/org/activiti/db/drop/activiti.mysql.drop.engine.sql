@@ -2,6 +2,10 @@ drop index ACT_IDX_EXEC_BUSKEY on ACT_RU_EXECUTION;
 drop index ACT_IDX_TASK_CREATE on ACT_RU_TASK;
 drop index ACT_IDX_IDENT_LNK_USER on ACT_RU_IDENTITYLINK;
 drop index ACT_IDX_IDENT_LNK_GROUP on ACT_RU_IDENTITYLINK;
+drop index ACT_IDX_JOB_PRIORITY on ACT_RU_JOB;
+drop index ACT_IDX_JOB_PARTITION on ACT_RU_JOB;
+drop index ACT_IDX_DEADLETTER_JOB_EXEC on ACT_RU_DEADLETTER_JOB;
+drop index ACT_IDX_BYTEAR_HASH on ACT_GE_BYTEARRAY;
 
 alter table ACT_GE_BYTEARRAY 
     drop FOREIGN KEY ACT_FK_BYTEARR_DEPL;
@@ -51,4 +55,6 @@ drop table if exists ACT_RU_TASK;
 drop table if exists ACT_RE_PROCDEF;
 drop table if exists ACT_RU_EXECUTION;
 drop table if exists ACT_RU_JOB; 
+drop table if exists ACT_RU_JOB_NODE; 
+drop table if exists ACT_RU_DEADLETTER_JOB; 
 drop table if exists ACT_RU_EVENT_SUBSCR;
\ No newline at end of file
@@ -6,6 +6,7 @@ drop index ACT_IDX_HI_DETAIL_PROC_INST on ACT_HI_DETAIL;
 drop index ACT_IDX_HI_DETAIL_ACT_INST on ACT_HI_DETAIL;
 drop index ACT_IDX_HI_DETAIL_TIME on ACT_HI_DETAIL;
 drop index ACT_IDX_HI_DETAIL_NAME on ACT_HI_DETAIL;
+drop index ACT_IDX_HI_OUTBOX_PROC_INST on ACT_HI_OUTBOX;
 
 drop table if exists ACT_HI_PROCINST;
 drop table if exists ACT_HI_ACTINST;
@@ -13,4 +14,5 @@ drop table if exists ACT_HI_TASKINST;
 drop table if exists ACT_HI_DETAIL;
 drop table if exists ACT_HI_COMMENT;
 drop table if exists ACT_HI_ATTACHMENT;
+drop table if exists ACT_HI_OUTBOX;
  
\ No newline at end of file
@@ -15,6 +15,10 @@ drop index ACT_IDX_EXEC_BUSKEY;
 drop index ACT_IDX_TASK_CREATE;
 drop index ACT_IDX_IDENT_LNK_USER;
 drop index ACT_IDX_IDENT_LNK_GROUP;
+drop index ACT_IDX_JOB_PRIORITY;
+drop index ACT_IDX_JOB_PARTITION;
+drop index ACT_IDX_DEADLETTER_JOB_EXEC;
+drop index ACT_IDX_BYTEAR_HASH;
 drop index ACT_IDX_EVENT_SUBSCR;
 
 alter table ACT_GE_BYTEARRAY 
@@ -65,4 +69,6 @@ drop table  ACT_RU_VARIABLE;
 drop table  ACT_RU_TASK;
 drop table  ACT_RU_EXECUTION;
 drop table  ACT_RU_JOB;
+drop table  ACT_RU_JOB_NODE;
+drop table  ACT_RU_DEADLETTER_JOB;
 drop table  ACT_RU_EVENT_SUBSCR;
@@ -17,6 +17,10 @@ drop index ACT_IDX_EXEC_BUSKEY;
 drop index ACT_IDX_TASK_CREATE;
 drop index ACT_IDX_IDENT_LNK_USER;
 drop index ACT_IDX_IDENT_LNK_GROUP;
+drop index ACT_IDX_JOB_PRIORITY;
+drop index ACT_IDX_JOB_PARTITION;
+drop index ACT_IDX_DEADLETTER_JOB_EXEC;
+drop index ACT_IDX_BYTEAR_HASH;
 drop index ACT_IDX_EVENT_SUBSCR;
 
 
@@ -65,6 +69,8 @@ drop table ACT_RE_DEPLOYMENT;
 drop table ACT_RE_PROCDEF;
 drop table ACT_RU_EXECUTION;
 drop table ACT_RU_JOB;
+drop table ACT_RU_JOB_NODE;
+drop table ACT_RU_DEADLETTER_JOB;
 drop table ACT_RU_TASK;
 drop table ACT_RU_IDENTITYLINK;
 drop table ACT_RU_VARIABLE;
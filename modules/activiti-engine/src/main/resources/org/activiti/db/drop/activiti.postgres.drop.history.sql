@@ -6,6 +6,7 @@ drop index ACT_IDX_HI_DETAIL_PROC_INST;
 drop index ACT_IDX_HI_DETAIL_ACT_INST;
 drop index ACT_IDX_HI_DETAIL_TIME;
 drop index ACT_IDX_HI_DETAIL_NAME;
+drop index ACT_IDX_HI_OUTBOX_PROC_INST;
 
 drop table ACT_HI_PROCINST;
 drop table ACT_HI_ACTINST;
@@ -13,3 +14,4 @@ drop table ACT_HI_TASKINST;
 drop table ACT_HI_DETAIL;
 drop table ACT_HI_COMMENT;
 drop table ACT_HI_ATTACHMENT;
+drop table ACT_HI_OUTBOX;
@@ -1,2 +1,12 @@
 alter table ACT_HI_PROCINST 
 add SUPER_PROCESS_INSTANCE_ID_ varchar(64);
+
+create table ACT_HI_OUTBOX (
+    ID_ nvarchar(64) not null,
+    PROC_INST_ID_ nvarchar(64),
+    CREATE_TIME_ datetime not null,
+    EVENTS_ image,
+    primary key (ID_)
+);
+
+create index ACT_IDX_HI_OUTBOX_PROC_INST on ACT_HI_OUTBOX(PROC_INST_ID_);
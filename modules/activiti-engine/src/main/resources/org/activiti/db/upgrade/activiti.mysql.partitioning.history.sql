@@ -0,0 +1,38 @@
+-- converts the history tables ACT_HI_PROCINST, ACT_HI_ACTINST and ACT_HI_DETAIL into
+-- tables that are range partitioned by month (mysql 5.6 or later).  The existing rows
+-- end up in the PMAX partition, the first ManagementService.createHistoryPartition moves
+-- them to the PLEGACY partition below the new monthly partition.  All unique keys of a
+-- partitioned table must contain the partitioning column.  ACT_UNIQ_HI_BUS_KEY therefore
+-- only keeps historic process instances with the same start time from sharing a business
+-- key; running process instances stay unique through ACT_UNIQ_RU_BUS_KEY.
+
+alter table ACT_HI_PROCINST
+    drop primary key,
+    add primary key (ID_, START_TIME_),
+    drop index PROC_INST_ID_,
+    add unique (PROC_INST_ID_, START_TIME_),
+    drop index ACT_UNIQ_HI_BUS_KEY,
+    add unique ACT_UNIQ_HI_BUS_KEY (PROC_DEF_ID_, BUSINESS_KEY_, START_TIME_);
+
+alter table ACT_HI_PROCINST
+    partition by range columns (START_TIME_) (
+        partition PMAX values less than (MAXVALUE)
+    );
+
+alter table ACT_HI_ACTINST
+    drop primary key,
+    add primary key (ID_, START_TIME_);
+
+alter table ACT_HI_ACTINST
+    partition by range columns (START_TIME_) (
+        partition PMAX values less than (MAXVALUE)
+    );
+
+alter table ACT_HI_DETAIL
+    drop primary key,
+    add primary key (ID_, TIME_);
+
+alter table ACT_HI_DETAIL
+    partition by range columns (TIME_) (
+        partition PMAX values less than (MAXVALUE)
+    );
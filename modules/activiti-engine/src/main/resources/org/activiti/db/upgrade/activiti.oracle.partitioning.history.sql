@@ -0,0 +1,39 @@
+-- converts the history tables ACT_HI_PROCINST, ACT_HI_ACTINST and ACT_HI_DETAIL into
+-- tables that are interval partitioned by month (oracle 12.2 or later).  The existing
+-- rows are moved into monthly partitions.
+
+alter table ACT_HI_PROCINST modify
+    partition by range (START_TIME_) interval (numtoyminterval(1, 'MONTH')) (
+        partition P0 values less than (TIMESTAMP '2000-01-01 00:00:00')
+    )
+    update indexes (
+        ACT_IDX_HI_PRO_INST_END local,
+        ACT_IDX_HI_PRO_I_BUSKEY local
+    );
+
+alter table ACT_HI_PROCINST enable row movement;
+
+alter table ACT_HI_ACTINST modify
+    partition by range (START_TIME_) interval (numtoyminterval(1, 'MONTH')) (
+        partition P0 values less than (TIMESTAMP '2000-01-01 00:00:00')
+    )
+    update indexes (
+        ACT_IDX_HI_ACT_INST_START local,
+        ACT_IDX_HI_ACT_INST_END local
+    );
+
+alter table ACT_HI_ACTINST enable row movement;
+
+alter table ACT_HI_DETAIL modify
+    partition by range (TIME_) interval (numtoyminterval(1, 'MONTH')) (
+        partition P0 values less than (TIMESTAMP '2000-01-01 00:00:00')
+    )
+    update indexes (
+        ACT_IDX_HI_DETAIL_PROC_INST local,
+        ACT_IDX_HI_DETAIL_ACT_INST local,
+        ACT_IDX_HI_DETAIL_TIME local,
+        ACT_IDX_HI_DETAIL_NAME local,
+        ACT_IDX_HI_DETAIL_TASK_ID local
+    );
+
+alter table ACT_HI_DETAIL enable row movement;
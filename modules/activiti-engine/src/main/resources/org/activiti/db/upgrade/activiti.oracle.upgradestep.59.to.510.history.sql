@@ -1,2 +1,12 @@
 alter table ACT_HI_PROCINST 
 add SUPER_PROCESS_INSTANCE_ID_ varchar(64);
+
+create table ACT_HI_OUTBOX (
+    ID_ varchar(64) not null,
+    PROC_INST_ID_ NVARCHAR2(64),
+    CREATE_TIME_ TIMESTAMP(6) not null,
+    EVENTS_ BLOB,
+    primary key (ID_)
+);
+
+create index ACT_IDX_HI_OUTBOX_PROC_INST on ACT_HI_OUTBOX(PROC_INST_ID_);
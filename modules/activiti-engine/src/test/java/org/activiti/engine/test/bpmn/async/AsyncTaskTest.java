@@ -13,12 +13,17 @@
 package org.activiti.engine.test.bpmn.async;
 
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.persistence.entity.MessageEntity;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.impl.util.ClockUtil;
 import org.activiti.engine.runtime.Execution;
 import org.activiti.engine.runtime.Job;
+import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.engine.test.Deployment;
 
 /**
@@ -257,5 +262,108 @@ public class AsyncTaskTest extends PluggableActivitiTestCase {
     
   }
   
+  @Deployment
+  public void testAsyncServiceChainWithLocalJobDispatch() throws Exception {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    int waitTimeInMillis = jobExecutor.getWaitTimeInMillis();
+    jobExecutor.setLocalJobDispatch(true);
+    // make sure the jobs are not picked up by the regular acquisition
+    jobExecutor.setWaitTimeInMillis(60000);
+    jobExecutor.start();
+    try {
+      runtimeService.startProcessInstanceByKey("asyncServiceChain");
+      
+      long timeout = System.currentTimeMillis() + 10000L;
+      while (runtimeService.createProcessInstanceQuery().count() > 0 
+              && System.currentTimeMillis() < timeout) {
+        Thread.sleep(25L);
+      }
+      // all three continuations were executed without acquisition
+      assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+      assertEquals(0, managementService.createJobQuery().count());
+    } finally {
+      jobExecutor.shutdown();
+      jobExecutor.setWaitTimeInMillis(waitTimeInMillis);
+      jobExecutor.setLocalJobDispatch(false);
+    }
+  }
+  
+  @Deployment
+  public void testExclusiveAsyncServicesConcurrentWithLocalJobDispatch() throws Exception {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.setLocalJobDispatch(true);
+    jobExecutor.start();
+    try {
+      runtimeService.startProcessInstanceByKey("exclusiveAsyncServices");
+      
+      long timeout = System.currentTimeMillis() + 10000L;
+      while (runtimeService.createProcessInstanceQuery().count() > 0 
+              && System.currentTimeMillis() < timeout) {
+        Thread.sleep(25L);
+      }
+      // the exclusive continuations of the parallel branches were acquired 
+      // together and executed one after the other, so the join didn't fail 
+      // with an optimistic locking exception
+      assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+      assertEquals(0, managementService.createJobQuery().count());
+    } finally {
+      jobExecutor.shutdown();
+      jobExecutor.setLocalJobDispatch(false);
+    }
+  }
+  
+  @Deployment
+  public void testAsyncServiceWithJobPriority() {
+    runtimeService.startProcessInstanceByKey("asyncServiceWithJobPriority");
+    
+    // the job priority of the process is used unless the activity declares its own
+    List<Job> jobs = managementService.createJobQuery().list();
+    assertEquals(2, jobs.size());
+    Set<Integer> priorities = new HashSet<Integer>();
+    for (Job job: jobs) {
+      priorities.add(job.getPriority());
+    }
+    assertTrue(priorities.contains(5));
+    assertTrue(priorities.contains(10));
+    
+    waitForJobExecutorToProcessAllJobs(5000L, 100L);
+    assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+  }
+  
+  @Deployment
+  public void testFailingAsyncServiceWithRetryTimeCycle() {
+    Date startTime = new Date((System.currentTimeMillis() / 1000) * 1000);
+    ClockUtil.setCurrentTime(startTime);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("failingAsyncServiceWithRetryTimeCycle");
+    String jobId = managementService.createJobQuery().singleResult().getId();
+    
+    try {
+      managementService.executeJob(jobId);
+      fail("exception expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+    
+    // the first failure takes the number of retries from the cycle and the retry is postponed
+    Job job = managementService.createJobQuery().singleResult();
+    assertEquals(5, job.getRetries());
+    assertEquals(new Date(startTime.getTime() + 5 * 60 * 1000), job.getDuedate());
+    assertEquals(0, managementService.createJobQuery().executable().count());
+    
+    ClockUtil.setCurrentTime(new Date(startTime.getTime() + 6 * 60 * 1000));
+    assertEquals(1, managementService.createJobQuery().executable().count());
+    try {
+      managementService.executeJob(jobId);
+      fail("exception expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+    
+    job = managementService.createJobQuery().singleResult();
+    assertEquals(4, job.getRetries());
+    assertEquals(new Date(startTime.getTime() + 11 * 60 * 1000), job.getDuedate());
+    
+    runtimeService.deleteProcessInstance(processInstance.getId(), "dead");
+  }
 
 }
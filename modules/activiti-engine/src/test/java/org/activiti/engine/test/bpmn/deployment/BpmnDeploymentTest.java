@@ -23,6 +23,8 @@ import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.impl.util.IoUtil;
 import org.activiti.engine.impl.util.ReflectUtil;
 import org.activiti.engine.repository.ProcessDefinition;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
 import org.activiti.engine.test.Deployment;
 
 
@@ -120,4 +122,15 @@ public class BpmnDeploymentTest extends PluggableActivitiTestCase {
     assertEquals("This is really good process documentation!", processDefinition.getDescription());
   }
   
+  @Deployment
+  public void testRedeploymentAfterCacheMiss() {
+    // the redeployment parses the resource without schema validation, 
+    // the activiti extension attributes must still be recognized
+    processEngineConfiguration.getDeploymentCache().discardProcessDefinitionCache();
+    
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("redeploymentProcess");
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    assertEquals("kermit", task.getAssignee());
+  }
+
 }
@@ -12,9 +12,15 @@
  */
 package org.activiti.engine.test.bpmn.exclusive;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.activiti.engine.impl.jobexecutor.ExecuteJobsRunnable;
+import org.activiti.engine.impl.jobexecutor.JobExecutor;
 import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.runtime.Job;
+import org.activiti.engine.runtime.ProcessInstance;
 import org.activiti.engine.test.Deployment;
 
 /**
@@ -66,4 +72,61 @@ public class ExclusiveTaskTest extends PluggableActivitiTestCase {
     assertEquals(0, managementService.createJobQuery().count());      
   }
   
+  @Deployment(resources={"org/activiti/engine/test/bpmn/exclusive/ExclusiveTaskTest.testExclusiveServiceConcurrent.bpmn20.xml"})
+  public void testExclusiveServiceConcurrentInOneTransaction() {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.setMaxJobsPerTransaction(3);
+    try {
+      runtimeService.startProcessInstanceByKey("exclusive");
+      assertEquals(3, managementService.createJobQuery().count());
+      
+      waitForJobExecutorToProcessAllJobs(5000L, 25L);
+      
+      // all the jobs are done and the process instance ended
+      assertEquals(0, managementService.createJobQuery().count());
+      assertEquals(0, runtimeService.createProcessInstanceQuery().count());
+    } finally {
+      jobExecutor.setMaxJobsPerTransaction(1);
+    }
+  }
+  
+  @Deployment
+  public void testFailingExclusiveServiceInOneTransaction() {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.setMaxJobsPerTransaction(3);
+    try {
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("exclusive");
+      
+      // the failing job goes last, so that the other jobs are executed before it fails again
+      List<String> jobIds = new ArrayList<String>();
+      String failingJobId = null;
+      for (Job job: managementService.createJobQuery().list()) {
+        if (runtimeService.getActiveActivityIds(job.getExecutionId()).contains("failingService")) {
+          failingJobId = job.getId();
+        } else {
+          jobIds.add(job.getId());
+        }
+      }
+      assertNotNull(failingJobId);
+      jobIds.add(failingJobId);
+      
+      try {
+        new ExecuteJobsRunnable(jobExecutor, jobIds).run();
+        fail("exception expected");
+      } catch (RuntimeException e) {
+        // the failing job was executed in its own transaction
+      }
+      
+      // the batch was rolled back and the other jobs were executed one per transaction
+      Job job = managementService.createJobQuery().singleResult();
+      assertEquals(failingJobId, job.getId());
+      assertEquals(JobEntity.DEFAULT_RETRIES - 1, job.getRetries());
+      assertEquals(2, runtimeService.createExecutionQuery().activityId("join").count());
+      
+      runtimeService.deleteProcessInstance(processInstance.getId(), "failed");
+    } finally {
+      jobExecutor.setMaxJobsPerTransaction(1);
+    }
+  }
+  
 }
@@ -0,0 +1,107 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.engine.test.cache;
+
+import junit.framework.TestCase;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.persistence.deploy.BoundedCacheMap;
+import org.activiti.engine.impl.persistence.deploy.CacheMetrics;
+import org.activiti.engine.impl.persistence.deploy.CacheWeigher;
+
+
+public class BoundedCacheMapTest extends TestCase {
+
+  public void testUnbounded() {
+    BoundedCacheMap<String, String> cache = new BoundedCacheMap<String, String>();
+    for (int i=0; i<1000; i++) {
+      cache.put("key"+i, "value"+i);
+    }
+    assertEquals(1000, cache.size());
+    assertEquals("value0", cache.get("key0"));
+  }
+
+  public void testLruEviction() {
+    BoundedCacheMap<String, String> cache = new BoundedCacheMap<String, String>(2, BoundedCacheMap.EVICTION_POLICY_LRU, null);
+    CacheMetrics metrics = new CacheMetrics();
+    cache.setMetrics(metrics);
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    // touching a makes b the least recently used entry
+    assertEquals("1", cache.get("a"));
+    cache.put("c", "3");
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    assertTrue(cache.containsKey("c"));
+    assertEquals(1, metrics.getEvictionCount());
+  }
+
+  public void testLfuEviction() {
+    BoundedCacheMap<String, String> cache = new BoundedCacheMap<String, String>(2, BoundedCacheMap.EVICTION_POLICY_LFU, null);
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.get("a");
+    cache.get("a");
+    cache.get("b");
+    // b is more recently used than a, but a is used more frequently
+    cache.put("c", "3");
+
+    assertTrue(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    // the entry that is put is never evicted by its own put
+    assertTrue(cache.containsKey("c"));
+  }
+
+  public void testWeightBounded() {
+    CacheWeigher<String> lengthWeigher = new CacheWeigher<String>() {
+      public int weigh(String value) {
+        return value.length();
+      }
+    };
+    BoundedCacheMap<String, String> cache = new BoundedCacheMap<String, String>(10, BoundedCacheMap.EVICTION_POLICY_LRU, lengthWeigher);
+
+    cache.put("a", "1234");
+    cache.put("b", "1234");
+    assertEquals(8, cache.getWeight());
+    cache.put("c", "12345");
+    assertEquals(9, cache.getWeight());
+    assertFalse(cache.containsKey("a"));
+
+    cache.put("b", "1");
+    assertEquals(6, cache.getWeight());
+    cache.remove("c");
+    assertEquals(1, cache.getWeight());
+  }
+
+  public void testInvalidEvictionPolicy() {
+    try {
+      new BoundedCacheMap<String, String>(10, "fifo", null);
+      fail("exception expected");
+    } catch (ActivitiException e) {
+      assertTextPresent("invalid cache eviction policy", e.getMessage());
+    }
+  }
+
+  protected void assertTextPresent(String expected, String actual) {
+    if ( (actual==null)
+         || (actual.indexOf(expected)==-1)
+       ) {
+      fail("expected presence of ["+expected+"] but was ["+actual+"]");
+    }
+  }
+}
@@ -24,6 +24,7 @@ import org.activiti.engine.TaskService;
 import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
 import org.activiti.engine.impl.cfg.StandaloneInMemProcessEngineConfiguration;
 import org.activiti.engine.impl.cfg.StandaloneProcessEngineConfiguration;
+import org.activiti.engine.impl.persistence.deploy.CacheMetrics;
 import org.activiti.engine.impl.test.PvmTestCase;
 import org.activiti.engine.repository.ProcessDefinition;
 import org.activiti.engine.runtime.ProcessInstance;
@@ -193,4 +194,81 @@ public class ProcessDefinitionCacheTest extends PvmTestCase {
     processEngine2.close();
   }
  
+  public void testBoundedProcessDefinitionCache() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = (ProcessEngineConfigurationImpl) new StandaloneProcessEngineConfiguration()
+      .setProcessEngineName("bounded-cache-test")
+      .setDatabaseSchemaUpdate(org.activiti.engine.ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE)
+      .setJdbcUrl("jdbc:h2:mem:activiti-bounded-cache-test;DB_CLOSE_DELAY=1000")
+      .setJobExecutorActivate(false);
+    processEngineConfiguration.setProcessDefinitionCacheLimit(1);
+    ProcessEngine processEngine = processEngineConfiguration.buildProcessEngine();
+    RepositoryService repositoryService = processEngine.getRepositoryService();
+    RuntimeService runtimeService = processEngine.getRuntimeService();
+    
+    String originalDeploymentId = repositoryService.createDeployment()
+      .addClasspathResource("org/activiti/engine/test/cache/originalProcess.bpmn20.xml")
+      .deploy()
+      .getId();
+    String revisedDeploymentId = repositoryService.createDeployment()
+      .addClasspathResource("org/activiti/engine/test/cache/revisedProcess.bpmn20.xml")
+      .deploy()
+      .getId();
+    String originalProcessDefinitionId = repositoryService.createProcessDefinitionQuery().deploymentId(originalDeploymentId).singleResult().getId();
+    String revisedProcessDefinitionId = repositoryService.createProcessDefinitionQuery().deploymentId(revisedDeploymentId).singleResult().getId();
+    
+    // only the latest deployed process definition is cached
+    assertEquals(1, processEngineConfiguration.getDeploymentCache().getProcessDefinitionCache().size());
+    CacheMetrics metrics = processEngineConfiguration.getDeploymentCache().getProcessDefinitionCacheMetrics();
+    metrics.reset();
+    
+    runtimeService.startProcessInstanceById(revisedProcessDefinitionId);
+    assertEquals(0, metrics.getMissCount());
+    
+    // the original process definition is redeployed and evicts the revised one
+    runtimeService.startProcessInstanceById(originalProcessDefinitionId);
+    runtimeService.startProcessInstanceById(revisedProcessDefinitionId);
+    assertEquals(2, metrics.getMissCount());
+    assertEquals(2, metrics.getLoadCount());
+    assertEquals(2, metrics.getEvictionCount());
+    assertEquals(1, processEngineConfiguration.getDeploymentCache().getProcessDefinitionCache().size());
+    
+    assertEquals(3, runtimeService.createProcessInstanceQuery().count());
+    
+    // cleanup
+    repositoryService.deleteDeployment(originalDeploymentId, true);
+    repositoryService.deleteDeployment(revisedDeploymentId, true);
+    processEngine.close();
+  }
+
+  public void testProcessDefinitionCacheSmallerThanDeployment() {
+    ProcessEngineConfigurationImpl processEngineConfiguration = (ProcessEngineConfigurationImpl) new StandaloneProcessEngineConfiguration()
+      .setProcessEngineName("bounded-cache-test")
+      .setDatabaseSchemaUpdate(org.activiti.engine.ProcessEngineConfiguration.DB_SCHEMA_UPDATE_TRUE)
+      .setJdbcUrl("jdbc:h2:mem:activiti-bounded-cache-test;DB_CLOSE_DELAY=1000")
+      .setJobExecutorActivate(false);
+    processEngineConfiguration.setProcessDefinitionCacheLimit(1);
+    ProcessEngine processEngine = processEngineConfiguration.buildProcessEngine();
+    RepositoryService repositoryService = processEngine.getRepositoryService();
+    RuntimeService runtimeService = processEngine.getRuntimeService();
+    
+    // three process definitions in one deployment
+    String deploymentId = repositoryService.createDeployment()
+      .addClasspathResource("org/activiti/engine/test/bpmn/deployment/BpmnDeploymentTest.testMultipleDiagramResourcesProvided.bpmn20.xml")
+      .deploy()
+      .getId();
+    CacheMetrics metrics = processEngineConfiguration.getDeploymentCache().getProcessDefinitionCacheMetrics();
+    metrics.reset();
+    
+    // redeploying evicts the requested process definition again, it is still resolved
+    runtimeService.startProcessInstanceByKey("a");
+    runtimeService.startProcessInstanceByKey("b");
+    runtimeService.startProcessInstanceByKey("c");
+    assertEquals(2, metrics.getMissCount());
+    assertEquals(1, processEngineConfiguration.getDeploymentCache().getProcessDefinitionCache().size());
+    
+    // cleanup
+    repositoryService.deleteDeployment(deploymentId, true);
+    processEngine.close();
+  }
+ 
 }
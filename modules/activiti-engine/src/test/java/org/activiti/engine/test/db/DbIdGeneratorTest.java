@@ -0,0 +1,156 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import junit.framework.TestCase;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.db.DbIdGenerator;
+import org.activiti.engine.impl.db.IdBlock;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+
+
+public class DbIdGeneratorTest extends TestCase {
+
+  public void testSequentialIds() {
+    DbIdGenerator idGenerator = createIdGenerator(new IdBlockCommandExecutor(10, 0));
+    for (int i=0; i<25; i++) {
+      assertEquals(Integer.toString(i), idGenerator.getNextId());
+    }
+    assertEquals(3, idGenerator.getMetrics().getFetchCount());
+    assertEquals(3, idGenerator.getMetrics().getBlockingFetchCount());
+  }
+
+  public void testPrefetch() throws Exception {
+    DbIdGenerator idGenerator = createIdGenerator(new IdBlockCommandExecutor(10, 0));
+    idGenerator.setLowWaterMark(5);
+    for (int i=0; i<30; i++) {
+      assertEquals(Integer.toString(i), idGenerator.getNextId());
+    }
+    // only the very first block was fetched by a caller
+    assertEquals(1, idGenerator.getMetrics().getBlockingFetchCount());
+    assertEquals(3, idGenerator.getMetrics().getPrefetchCount());
+    idGenerator.shutdown();
+  }
+
+  public void testShutdownStopsPrefetchThread() throws Exception {
+    DbIdGenerator idGenerator = createIdGenerator(new IdBlockCommandExecutor(10, 0));
+    idGenerator.setLowWaterMark(5);
+    for (int i=0; i<10; i++) {
+      assertEquals(Integer.toString(i), idGenerator.getNextId());
+    }
+    Thread prefetchThread = findThread("activiti-id-block-prefetch");
+    assertNotNull(prefetchThread);
+    
+    idGenerator.shutdown();
+    prefetchThread.join(5000);
+    assertFalse(prefetchThread.isAlive());
+    
+    // the prefetched block is still used
+    assertEquals("10", idGenerator.getNextId());
+    assertEquals(1, idGenerator.getMetrics().getBlockingFetchCount());
+    idGenerator.shutdown();
+  }
+
+  public void testConflictRetry() {
+    DbIdGenerator idGenerator = createIdGenerator(new IdBlockCommandExecutor(10, 2));
+    assertEquals("0", idGenerator.getNextId());
+    assertEquals(2, idGenerator.getMetrics().getConflictCount());
+    assertEquals(1, idGenerator.getMetrics().getFetchCount());
+  }
+
+  public void testConflictRetriesExceeded() {
+    DbIdGenerator idGenerator = createIdGenerator(new IdBlockCommandExecutor(10, 5));
+    try {
+      idGenerator.getNextId();
+      fail("expected optimistic locking exception");
+    } catch (ActivitiOptimisticLockingException e) {
+      // expected
+    }
+  }
+
+  public void testConcurrentIdsAreUnique() throws Exception {
+    final DbIdGenerator idGenerator = createIdGenerator(new IdBlockCommandExecutor(50, 0));
+    idGenerator.setLowWaterMark(20);
+    idGenerator.setThreadIdBlockSize(7);
+    
+    final List<String> ids = Collections.synchronizedList(new ArrayList<String>());
+    List<Thread> threads = new ArrayList<Thread>();
+    for (int i=0; i<8; i++) {
+      Thread thread = new Thread() {
+        public void run() {
+          for (int j=0; j<1000; j++) {
+            ids.add(idGenerator.getNextId());
+          }
+        }
+      };
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread: threads) {
+      thread.join();
+    }
+    
+    Set<String> uniqueIds = new HashSet<String>(ids);
+    assertEquals(8000, ids.size());
+    assertEquals(8000, uniqueIds.size());
+    idGenerator.shutdown();
+  }
+
+  protected Thread findThread(String name) {
+    for (Thread thread: Thread.getAllStackTraces().keySet()) {
+      if (name.equals(thread.getName()) && thread.isAlive()) {
+        return thread;
+      }
+    }
+    return null;
+  }
+
+  protected DbIdGenerator createIdGenerator(IdBlockCommandExecutor commandExecutor) {
+    DbIdGenerator idGenerator = new DbIdGenerator();
+    idGenerator.setIdBlockSize(commandExecutor.idBlockSize);
+    idGenerator.setCommandExecutor(commandExecutor);
+    return idGenerator;
+  }
+  
+  /** hands out consecutive id blocks, failing with the given number of conflicts first */
+  static class IdBlockCommandExecutor implements CommandExecutor {
+
+    protected final int idBlockSize;
+    protected final AtomicInteger conflicts;
+    protected final AtomicLong nextId = new AtomicLong();
+
+    public IdBlockCommandExecutor(int idBlockSize, int conflicts) {
+      this.idBlockSize = idBlockSize;
+      this.conflicts = new AtomicInteger(conflicts);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Command<T> command) {
+      if (conflicts.getAndDecrement()>0) {
+        throw new ActivitiOptimisticLockingException("next.dbid was updated by another transaction concurrently");
+      }
+      long first = nextId.getAndAdd(idBlockSize);
+      return (T) new IdBlock(first, first+idBlockSize-1);
+    }
+  }
+}
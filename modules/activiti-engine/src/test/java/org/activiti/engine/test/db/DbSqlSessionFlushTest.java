@@ -0,0 +1,108 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.engine.test.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.activiti.engine.impl.db.DbSqlSession;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.ByteArrayEntity;
+import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+
+
+/**
+ * Regression benchmark for the bookkeeping of large sessions: flushing 
+ * must stay linear in the number of inserted, updated and deleted entities.
+ */
+public class DbSqlSessionFlushTest extends PluggableActivitiTestCase {
+  
+  private static Logger log = Logger.getLogger(DbSqlSessionFlushTest.class.getName());
+  
+  protected static final int ENTITY_COUNT = 10000;
+  
+  public void testFlushLargeSession() {
+    final long byteArrayCountBefore = getByteArrayCount();
+    
+    long start = System.currentTimeMillis();
+    final List<String> ids = processEngineConfiguration
+      .getCommandExecutorTxRequired()
+      .execute(new Command<List<String>>() {
+        public List<String> execute(CommandContext commandContext) {
+          DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+          List<String> ids = new ArrayList<String>();
+          for (int i=0; i<ENTITY_COUNT; i++) {
+            ByteArrayEntity byteArray = new ByteArrayEntity("flush-test-"+i, new byte[]{(byte)i});
+            dbSqlSession.insert(byteArray);
+            ids.add(byteArray.getId());
+          }
+          // deleting half of the inserted objects in the same session cancels out their inserts
+          for (int i=0; i<ENTITY_COUNT; i+=2) {
+            dbSqlSession.delete(ByteArrayEntity.class, ids.get(i));
+          }
+          return ids;
+        }
+      });
+    log.info("flushed "+ENTITY_COUNT+" inserts and "+(ENTITY_COUNT/2)+" cancelling deletes in "+(System.currentTimeMillis()-start)+" ms");
+    assertEquals(byteArrayCountBefore + ENTITY_COUNT/2, getByteArrayCount());
+    
+    start = System.currentTimeMillis();
+    processEngineConfiguration
+      .getCommandExecutorTxRequired()
+      .execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+          List<ByteArrayEntity> loaded = new ArrayList<ByteArrayEntity>();
+          for (int i=1; i<ENTITY_COUNT; i+=2) {
+            ByteArrayEntity byteArray = dbSqlSession.selectById(ByteArrayEntity.class, ids.get(i));
+            assertNotNull(byteArray);
+            loaded.add(byteArray);
+          }
+          // update one half of the loaded objects and delete the other half
+          for (int i=0; i<loaded.size(); i++) {
+            ByteArrayEntity byteArray = loaded.get(i);
+            if (i%2==0) {
+              byteArray.setBytes(new byte[]{(byte)-i});
+            } else {
+              dbSqlSession.delete(ByteArrayEntity.class, byteArray.getId());
+            }
+          }
+          assertEquals(loaded.size()/2, dbSqlSession.pruneDeletedEntities(loaded).size());
+          return null;
+        }
+      });
+    log.info("flushed "+(ENTITY_COUNT/4)+" updates and "+(ENTITY_COUNT/4)+" deletes in "+(System.currentTimeMillis()-start)+" ms");
+    assertEquals(byteArrayCountBefore + ENTITY_COUNT/4, getByteArrayCount());
+    
+    // clean up
+    processEngineConfiguration
+      .getCommandExecutorTxRequired()
+      .execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          DbSqlSession dbSqlSession = commandContext.getDbSqlSession();
+          for (String id: ids) {
+            dbSqlSession.delete(ByteArrayEntity.class, id);
+          }
+          return null;
+        }
+      });
+    assertEquals(byteArrayCountBefore, getByteArrayCount());
+  }
+
+  protected long getByteArrayCount() {
+    return managementService.getTableCount().get("ACT_GE_BYTEARRAY");
+  }
+}
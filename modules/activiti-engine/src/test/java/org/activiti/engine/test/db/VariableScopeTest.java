@@ -78,6 +78,52 @@ public class VariableScopeTest extends PluggableActivitiTestCase {
     taskService.complete(subProcessTask.getId());
   }
   
+  @Deployment(resources = {"org/activiti/engine/test/db/VariableScopeTest.testVariableScope.bpmn20.xml"})
+  public void testSelectiveVariableLoading() {
+    Map<String, Object> varMap = new HashMap<String, Object>();
+    varMap.put("test", "test");
+    varMap.put("other", "other");
+    ProcessInstance pi = runtimeService.startProcessInstanceByKey("simpleSubProcess", varMap);
+    final String executionId = taskService.createTaskQuery()
+        .processInstanceId(pi.getId())
+        .singleResult()
+        .getExecutionId();
+    
+    processEngineConfiguration.setSelectiveVariableLoading(true);
+    try {
+      // the local variable hides the one of the process instance
+      assertEquals("test2", runtimeService.getVariable(executionId, "test"));
+      assertEquals("other", runtimeService.getVariable(executionId, "other"));
+      
+      List<String> variableNames = new ArrayList<String>();
+      variableNames.add("test");
+      variableNames.add("other");
+      variableNames.add("unknown");
+      Map<String, Object> variables = runtimeService.getVariables(executionId, variableNames);
+      assertEquals(2, variables.size());
+      assertEquals("test2", variables.get("test"));
+      assertEquals("other", variables.get("other"));
+      
+      variables = runtimeService.getVariablesLocal(executionId, variableNames);
+      assertEquals(1, variables.size());
+      assertEquals("test2", variables.get("test"));
+      
+      // a variable that was found missing can still be created in the same command
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          ExecutionEntity execution = commandContext.getExecutionManager().findExecutionById(executionId);
+          assertNull(execution.getVariableLocal("unknown"));
+          execution.setVariableLocal("unknown", "known");
+          assertEquals("known", execution.getVariableLocal("unknown"));
+          return null;
+        }
+      });
+      assertEquals("known", runtimeService.getVariable(executionId, "unknown"));
+    } finally {
+      processEngineConfiguration.setSelectiveVariableLoading(false);
+    }
+  }
+  
   /**
    * A testcase to produce and fix issue ACT-862.
    * @author Roman Smirnov
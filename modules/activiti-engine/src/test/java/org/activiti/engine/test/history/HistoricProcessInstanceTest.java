@@ -13,19 +13,38 @@
 
 package org.activiti.engine.test.history;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import org.activiti.engine.ActivitiException;
 import org.activiti.engine.ProcessEngineConfiguration;
+import org.activiti.engine.history.HistoricDetail;
 import org.activiti.engine.history.HistoricProcessInstance;
+import org.activiti.engine.history.HistoryCleanup;
+import org.activiti.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.activiti.engine.impl.history.HistoryEvent;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.persistence.entity.AttachmentEntity;
+import org.activiti.engine.impl.persistence.entity.ByteArrayEntity;
+import org.activiti.engine.impl.persistence.entity.HistoricVariableUpdateEntity;
+import org.activiti.engine.impl.persistence.entity.HistoryOutboxEntity;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.impl.util.ClockUtil;
+import org.activiti.engine.impl.util.json.JSONObject;
 import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Attachment;
 import org.activiti.engine.task.Task;
 import org.activiti.engine.test.Deployment;
 import org.apache.commons.lang.time.DateUtils;
@@ -226,4 +245,295 @@ public class HistoricProcessInstanceTest extends PluggableActivitiTestCase {
       assertEquals(deleteReason, hpi.getDeleteReason());
     }
   }
+
+  @Deployment(resources = {
+    "org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml",
+    "org/activiti/engine/test/history/HistoricActivityInstanceTest.testHistoricActivityInstanceNoop.bpmn20.xml"
+  })
+  public void testCleanupHistoricProcessInstancesEndedBefore() {
+    if (processEngineConfiguration.getHistoryLevel()<ProcessEngineConfigurationImpl.HISTORYLEVEL_AUDIT) {
+      return;
+    }
+    int historyCleanupBatchSize = processEngineConfiguration.getHistoryCleanupBatchSize();
+    processEngineConfiguration.setHistoryCleanupBatchSize(2);
+    try {
+      Date today = DateUtils.truncate(new Date(), Calendar.DATE);
+      ClockUtil.setCurrentTime(today);
+      List<String> endedProcessInstanceIds = new ArrayList<String>();
+      List<String> endedTaskIds = new ArrayList<String>();
+      final List<String> byteArrayIds = new ArrayList<String>();
+      for (int i=0; i<3; i++) {
+        String processInstanceId = runtimeService.startProcessInstanceByKey("oneTaskProcess").getId();
+        endedProcessInstanceIds.add(processInstanceId);
+        runtimeService.setVariable(processInstanceId, "bytes", ("content " + i).getBytes());
+        String taskId = taskService.createTaskQuery().singleResult().getId();
+        endedTaskIds.add(taskId);
+        taskService.addComment(taskId, processInstanceId, "comment " + i);
+        Attachment attachment = taskService.createAttachment("text", taskId, processInstanceId, "attachment " + i, null, new ByteArrayInputStream(("attachment " + i).getBytes()));
+        byteArrayIds.add(((AttachmentEntity) attachment).getContentId());
+        taskService.complete(taskId);
+      }
+      for (HistoricDetail historicDetail: historyService.createHistoricDetailQuery().variableUpdates().list()) {
+        if (endedProcessInstanceIds.contains(historicDetail.getProcessInstanceId())) {
+          byteArrayIds.add(((HistoricVariableUpdateEntity) historicDetail).getByteArrayValueId());
+        }
+      }
+      // pending history of an ended process instance that was not written yet
+      final String outboxProcessInstanceId = endedProcessInstanceIds.get(0);
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          commandContext.getDbSqlSession().insert(new HistoryOutboxEntity(outboxProcessInstanceId, ClockUtil.getCurrentTime(), new ArrayList<HistoryEvent>()));
+          return null;
+        }
+      });
+      runtimeService.startProcessInstanceByKey("noopProcess");
+
+      ClockUtil.setCurrentTime(DateUtils.addHours(today, 2));
+      runtimeService.startProcessInstanceByKey("oneTaskProcess");
+      taskService.complete(taskService.createTaskQuery().singleResult().getId());
+      ProcessInstance runningProcessInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+      String historyCleanupId = historyService.cleanupHistoricProcessInstancesEndedBefore(DateUtils.addHours(today, 1), "oneTaskProcess");
+      HistoryCleanup historyCleanup = historyService.getHistoryCleanup(historyCleanupId);
+      assertEquals(historyCleanupId, historyCleanup.getId());
+      assertEquals("oneTaskProcess", historyCleanup.getProcessDefinitionKey());
+      assertEquals(0, historyCleanup.getDeletedCount());
+      assertEquals(3, historyCleanup.getRemainingCount());
+
+      // every chunk is deleted by its own job
+      managementService.executeJob(historyCleanup.getJobId());
+      historyCleanup = historyService.getHistoryCleanup(historyCleanupId);
+      assertEquals(2, historyCleanup.getDeletedCount());
+      assertEquals(1, historyCleanup.getRemainingCount());
+
+      managementService.executeJob(historyCleanup.getJobId());
+      assertNull(historyService.getHistoryCleanup(historyCleanupId));
+      assertEquals(0, managementService.createJobQuery().count());
+
+      // the noop process instance, the one that ended later and the running one are kept
+      assertEquals(3, historyService.createHistoricProcessInstanceQuery().count());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().processDefinitionKey("noopProcess").count());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(runningProcessInstance.getId()).count());
+      assertEquals(2, historyService.createHistoricTaskInstanceQuery().count());
+      for (String endedProcessInstanceId: endedProcessInstanceIds) {
+        assertEquals(0, historyService.createHistoricActivityInstanceQuery().processInstanceId(endedProcessInstanceId).count());
+        assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(endedProcessInstanceId).count());
+      }
+      for (String endedTaskId: endedTaskIds) {
+        assertEquals(0, taskService.getTaskComments(endedTaskId).size());
+        assertEquals(0, taskService.getTaskAttachments(endedTaskId).size());
+      }
+      // the contents of the attachments and the byte arrays of the variable updates
+      assertTrue(byteArrayIds.size() >= 3);
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          for (String byteArrayId: byteArrayIds) {
+            assertNull(commandContext.getDbSqlSession().selectById(ByteArrayEntity.class, byteArrayId));
+          }
+          assertTrue(commandContext.getHistoryOutboxManager().findHistoryOutboxIdsByProcessInstanceId(outboxProcessInstanceId).isEmpty());
+          return null;
+        }
+      });
+    } finally {
+      processEngineConfiguration.setHistoryCleanupBatchSize(historyCleanupBatchSize);
+      ClockUtil.reset();
+    }
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml"})
+  public void testArchiveHistoryPartition() throws Exception {
+    if (processEngineConfiguration.getHistoryLevel()<ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      return;
+    }
+    File archiveDirectory = createArchiveDirectory();
+    try {
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.JANUARY, 15).getTime());
+      Map<String, Object> variables = new HashMap<String, Object>();
+      variables.put("bytes", "archived".getBytes());
+      ProcessInstance januaryProcessInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess", variables);
+      taskService.complete(taskService.createTaskQuery().singleResult().getId());
+
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.FEBRUARY, 1).getTime());
+      ProcessInstance februaryProcessInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+      taskService.complete(taskService.createTaskQuery().singleResult().getId());
+      
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.MARCH, 1).getTime());
+      Date january = new GregorianCalendar(2011, Calendar.JANUARY, 20).getTime();
+      String archivePath = managementService.archiveHistoryPartition(january, archiveDirectory.getPath());
+      
+      File archiveFile = new File(archivePath);
+      assertEquals("activiti-history-P201101.json.gz", archiveFile.getName());
+      assertFalse(new File(archiveDirectory, "activiti-history-P201101.json.gz.tmp").exists());
+      
+      // only the history of the february process instance is left
+      assertEquals(0, historyService.createHistoricProcessInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(0, historyService.createHistoricActivityInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(0, historyService.createHistoricTaskInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(februaryProcessInstance.getId()).count());
+      assertEquals(1, historyService.createHistoricTaskInstanceQuery().processInstanceId(februaryProcessInstance.getId()).count());
+      
+      Map<String, Integer> archivedRowCounts = readArchivedRowCounts(archiveFile, januaryProcessInstance.getId());
+      assertEquals(new Integer(1), archivedRowCounts.get("ACT_HI_PROCINST"));
+      assertEquals(new Integer(3), archivedRowCounts.get("ACT_HI_ACTINST"));
+      assertEquals(new Integer(1), archivedRowCounts.get("ACT_HI_TASKINST"));
+      assertEquals(new Integer(1), archivedRowCounts.get("ACT_HI_DETAIL"));
+      assertEquals(new Integer(1), archivedRowCounts.get("ACT_GE_BYTEARRAY"));
+
+      // archiving the month again keeps the archive
+      long archiveLength = archiveFile.length();
+      assertEquals(archivePath, managementService.archiveHistoryPartition(january, archiveDirectory.getPath()));
+      assertEquals(archiveLength, archiveFile.length());
+      
+      // an archive that wasn't renamed after the deletion committed is completed
+      File temporaryFile = new File(archiveDirectory, "activiti-history-P201101.json.gz.tmp");
+      assertTrue(archiveFile.renameTo(temporaryFile));
+      assertEquals(archivePath, managementService.archiveHistoryPartition(january, archiveDirectory.getPath()));
+      assertFalse(temporaryFile.exists());
+      assertEquals(archiveLength, archiveFile.length());
+
+      // a new process instance of the month can't be archived on top of the existing archive
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.JANUARY, 20).getTime());
+      runtimeService.startProcessInstanceByKey("oneTaskProcess");
+      taskService.complete(taskService.createTaskQuery().singleResult().getId());
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.MARCH, 1).getTime());
+      try {
+        managementService.archiveHistoryPartition(january, archiveDirectory.getPath());
+        fail("expected exception");
+      } catch (ActivitiException e) {
+        assertTextPresent("already exists", e.getMessage());
+      }
+    } finally {
+      ClockUtil.reset();
+      deleteArchiveDirectory(archiveDirectory);
+    }
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml"})
+  public void testArchiveHistoryPartitionOfProcessInstancesEndingInLaterMonth() throws Exception {
+    if (processEngineConfiguration.getHistoryLevel()<ProcessEngineConfigurationImpl.HISTORYLEVEL_FULL) {
+      return;
+    }
+    File archiveDirectory = createArchiveDirectory();
+    try {
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.JANUARY, 31).getTime());
+      ProcessInstance januaryProcessInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+
+      // the january process instance writes activity instances and details in february
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.FEBRUARY, 10).getTime());
+      runtimeService.setVariable(januaryProcessInstance.getId(), "bytes", "archived".getBytes());
+      Task januaryTask = taskService.createTaskQuery().processInstanceId(januaryProcessInstance.getId()).singleResult();
+      taskService.complete(januaryTask.getId());
+      ProcessInstance februaryProcessInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess");
+      taskService.complete(taskService.createTaskQuery().singleResult().getId());
+
+      long januaryActivityInstanceCount = historyService.createHistoricActivityInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count();
+      long januaryDetailCount = historyService.createHistoricDetailQuery().processInstanceId(januaryProcessInstance.getId()).count();
+      assertEquals(3, januaryActivityInstanceCount);
+      assertEquals(1, januaryDetailCount);
+
+      // archiving february leaves the history of the january process instance alone
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.MARCH, 1).getTime());
+      String februaryArchivePath = managementService.archiveHistoryPartition(new GregorianCalendar(2011, Calendar.FEBRUARY, 1).getTime(), archiveDirectory.getPath());
+      Map<String, Integer> februaryRowCounts = readArchivedRowCounts(new File(februaryArchivePath), februaryProcessInstance.getId());
+      assertEquals(new Integer(1), februaryRowCounts.get("ACT_HI_PROCINST"));
+      assertEquals(new Integer(3), februaryRowCounts.get("ACT_HI_ACTINST"));
+      assertNull(februaryRowCounts.get("ACT_HI_DETAIL"));
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(januaryActivityInstanceCount, historyService.createHistoricActivityInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(januaryDetailCount, historyService.createHistoricDetailQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(1, historyService.createHistoricTaskInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+
+      // archiving january takes all history of the january process instance
+      String januaryArchivePath = managementService.archiveHistoryPartition(new GregorianCalendar(2011, Calendar.JANUARY, 1).getTime(), archiveDirectory.getPath());
+      Map<String, Integer> januaryRowCounts = readArchivedRowCounts(new File(januaryArchivePath), januaryProcessInstance.getId());
+      assertEquals(new Integer(1), januaryRowCounts.get("ACT_HI_PROCINST"));
+      assertEquals(new Integer((int) januaryActivityInstanceCount), januaryRowCounts.get("ACT_HI_ACTINST"));
+      assertEquals(new Integer((int) januaryDetailCount), januaryRowCounts.get("ACT_HI_DETAIL"));
+      assertEquals(new Integer(1), januaryRowCounts.get("ACT_HI_TASKINST"));
+      assertEquals(new Integer(1), januaryRowCounts.get("ACT_GE_BYTEARRAY"));
+      assertEquals(0, historyService.createHistoricActivityInstanceQuery().processInstanceId(januaryProcessInstance.getId()).count());
+      assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(januaryProcessInstance.getId()).count());
+    } finally {
+      ClockUtil.reset();
+      deleteArchiveDirectory(archiveDirectory);
+    }
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/history/oneTaskProcess.bpmn20.xml"})
+  public void testArchiveHistoryPartitionNotClosed() throws Exception {
+    File archiveDirectory = createArchiveDirectory();
+    try {
+      ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.JANUARY, 15).getTime());
+      try {
+        managementService.archiveHistoryPartition(ClockUtil.getCurrentTime(), archiveDirectory.getPath());
+        fail("expected exception");
+      } catch (ActivitiException e) {
+        assertTextPresent("not closed", e.getMessage());
+      }
+
+      if (processEngineConfiguration.getHistoryLevel()>=ProcessEngineConfigurationImpl.HISTORYLEVEL_ACTIVITY) {
+        runtimeService.startProcessInstanceByKey("oneTaskProcess");
+        ClockUtil.setCurrentTime(new GregorianCalendar(2011, Calendar.FEBRUARY, 15).getTime());
+        try {
+          managementService.archiveHistoryPartition(new GregorianCalendar(2011, Calendar.JANUARY, 1).getTime(), archiveDirectory.getPath());
+          fail("expected exception");
+        } catch (ActivitiException e) {
+          assertTextPresent("unfinished", e.getMessage());
+        }
+      }
+      assertEquals(0, archiveDirectory.list().length);
+    } finally {
+      ClockUtil.reset();
+      deleteArchiveDirectory(archiveDirectory);
+    }
+  }
+
+  public void testCreateHistoryPartitionWithoutPartitioning() {
+    if (processEngineConfiguration.isHistoryPartitioned()) {
+      return;
+    }
+    try {
+      managementService.createHistoryPartition(new Date());
+      fail("expected exception");
+    } catch (ActivitiException e) {
+      assertTextPresent("not partitioned", e.getMessage());
+    }
+  }
+
+  /** counts the archived rows per table and checks that all archived process instances have the given id */
+  protected Map<String, Integer> readArchivedRowCounts(File archiveFile, String processInstanceId) throws Exception {
+    Map<String, Integer> archivedRowCounts = new HashMap<String, Integer>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(archiveFile)), "UTF-8"));
+    try {
+      String line = reader.readLine();
+      while (line!=null) {
+        JSONObject jsonLine = new JSONObject(line);
+        String table = jsonLine.getString("table");
+        Integer rowCount = archivedRowCounts.get(table);
+        archivedRowCounts.put(table, rowCount==null ? 1 : rowCount+1);
+        if ("ACT_HI_PROCINST".equals(table)) {
+          assertEquals(processInstanceId, jsonLine.getJSONObject("row").getString("ID_"));
+        }
+        line = reader.readLine();
+      }
+    } finally {
+      reader.close();
+    }
+    return archivedRowCounts;
+  }
+
+  protected File createArchiveDirectory() throws Exception {
+    File archiveDirectory = File.createTempFile("activiti-history", "");
+    archiveDirectory.delete();
+    archiveDirectory.mkdir();
+    return archiveDirectory;
+  }
+
+  protected void deleteArchiveDirectory(File archiveDirectory) {
+    for (File file: archiveDirectory.listFiles()) {
+      file.delete();
+    }
+    archiveDirectory.delete();
+  }
 }
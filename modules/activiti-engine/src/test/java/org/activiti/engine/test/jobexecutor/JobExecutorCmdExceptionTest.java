@@ -3,12 +3,19 @@
  */
 package org.activiti.engine.test.jobexecutor;
 
+import java.util.Date;
+
 import org.activiti.engine.impl.cmd.DeleteJobsCmd;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.jobexecutor.DefaultFailedJobCommandFactory;
+import org.activiti.engine.impl.jobexecutor.ExponentialBackoffRetryPolicy;
+import org.activiti.engine.impl.persistence.entity.DeadLetterJobEntity;
 import org.activiti.engine.impl.persistence.entity.MessageEntity;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
+import org.activiti.engine.impl.util.ClockUtil;
+import org.activiti.engine.runtime.Job;
 
 /**
  * @author Tom Baeyens
@@ -60,6 +67,97 @@ public class JobExecutorCmdExceptionTest extends PluggableActivitiTestCase {
     commandExecutor.execute(new DeleteJobsCmd(jobId));
   }
 
+  public void testJobCommandsWithRetryPolicy() {
+    DefaultFailedJobCommandFactory failedJobCommandFactory = (DefaultFailedJobCommandFactory) processEngineConfiguration.getFailedJobCommandFactory();
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(1000, 2, 3000);
+    retryPolicy.setJitter(0);
+    failedJobCommandFactory.setRetryPolicy(retryPolicy);
+    tweetExceptionHandler.setExceptionsRemaining(3);
+    Date startTime = new Date((System.currentTimeMillis() / 1000) * 1000);
+    ClockUtil.setCurrentTime(startTime);
+    
+    try {
+      String jobId = sendTweetExceptionMessage();
+
+      executeFailingJob(jobId);
+      Job job = managementService.createJobQuery().singleResult();
+      assertEquals(2, job.getRetries());
+      assertEquals(new Date(startTime.getTime() + 1000), job.getDuedate());
+      assertEquals(0, managementService.createJobQuery().executable().count());
+
+      executeFailingJob(jobId);
+      job = managementService.createJobQuery().singleResult();
+      assertEquals(1, job.getRetries());
+      assertEquals(new Date(startTime.getTime() + 2000), job.getDuedate());
+
+      // the last failure doesn't postpone the job anymore
+      executeFailingJob(jobId);
+      job = managementService.createJobQuery().singleResult();
+      assertEquals(0, job.getRetries());
+      assertEquals(new Date(startTime.getTime() + 2000), job.getDuedate());
+
+      commandExecutor.execute(new DeleteJobsCmd(jobId));
+    } finally {
+      failedJobCommandFactory.setRetryPolicy(null);
+    }
+  }
+
+  public void testJobCommandsWithDeadLetterJobs() {
+    processEngineConfiguration.setDeadLetterJobsEnabled(true);
+    tweetExceptionHandler.setExceptionsRemaining(3);
+    
+    try {
+      final String jobId = sendTweetExceptionMessage();
+      executeFailingJob(jobId);
+      executeFailingJob(jobId);
+      executeFailingJob(jobId);
+      
+      // the job ran out of retries and was moved to the dead letter jobs
+      assertEquals(0, managementService.createJobQuery().count());
+      DeadLetterJobEntity deadLetterJob = commandExecutor.execute(new Command<DeadLetterJobEntity>() {
+        public DeadLetterJobEntity execute(CommandContext commandContext) {
+          return commandContext.getJobManager().findDeadLetterJobById(jobId);
+        }
+      });
+      assertNotNull(deadLetterJob);
+      assertEquals("tweet-exception", deadLetterJob.getJobHandlerType());
+      assertNotNull(deadLetterJob.getExceptionMessage());
+      assertNotNull(deadLetterJob.getExceptionByteArrayId());
+      
+      // setting the retries moves the job back, with its exception
+      managementService.setJobRetries(jobId, 1);
+      Job job = managementService.createJobQuery().singleResult();
+      assertEquals(jobId, job.getId());
+      assertEquals(1, job.getRetries());
+      assertEquals(deadLetterJob.getExceptionMessage(), job.getExceptionMessage());
+      assertNotNull(managementService.getJobExceptionStacktrace(jobId));
+      
+      managementService.executeJob(jobId);
+      assertEquals(0, managementService.createJobQuery().count());
+    } finally {
+      processEngineConfiguration.setDeadLetterJobsEnabled(false);
+    }
+  }
+
+  protected String sendTweetExceptionMessage() {
+    return commandExecutor.execute(new Command<String>() {
+      public String execute(CommandContext commandContext) {
+        MessageEntity message = createTweetExceptionMessage();
+        commandContext.getJobManager().send(message);
+        return message.getId();
+      }
+    });
+  }
+
+  protected void executeFailingJob(String jobId) {
+    try {
+      managementService.executeJob(jobId);
+      fail("exception expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+  }
+
   protected MessageEntity createTweetExceptionMessage() {
     MessageEntity message = new MessageEntity();
     message.setJobHandlerType("tweet-exception");
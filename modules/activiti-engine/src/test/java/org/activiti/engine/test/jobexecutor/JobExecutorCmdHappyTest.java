@@ -14,18 +14,33 @@ package org.activiti.engine.test.jobexecutor;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
+import org.activiti.engine.impl.Page;
 import org.activiti.engine.impl.cmd.AcquireJobsCmd;
+import org.activiti.engine.impl.cmd.DeleteJobExecutorNodeCmd;
+import org.activiti.engine.impl.cmd.DeleteJobsCmd;
 import org.activiti.engine.impl.cmd.ExecuteJobsCmd;
+import org.activiti.engine.impl.cmd.JobExecutorHeartbeatCmd;
+import org.activiti.engine.impl.cmd.RenewJobLocksCmd;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
 import org.activiti.engine.impl.jobexecutor.AcquiredJobs;
+import org.activiti.engine.impl.jobexecutor.DefaultJobExecutor;
+import org.activiti.engine.impl.jobexecutor.ExecutorServiceJobExecutor;
 import org.activiti.engine.impl.jobexecutor.JobExecutor;
+import org.activiti.engine.impl.jobexecutor.UnlockRejectedJobsHandler;
+import org.activiti.engine.impl.persistence.entity.JobEntity;
 import org.activiti.engine.impl.persistence.entity.MessageEntity;
 import org.activiti.engine.impl.persistence.entity.TimerEntity;
 import org.activiti.engine.impl.util.ClockUtil;
+import org.activiti.engine.runtime.Job;
 
 /**
  * @author Tom Baeyens
@@ -62,6 +77,453 @@ public class JobExecutorCmdHappyTest extends JobExecutorTestCase {
     assertEquals(1, tweetHandler.getMessages().size());
   }
 
+  public void testJobCommandsWithMessageAndSkipLockedAcquisition() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    // on databases without SKIP LOCKED support this falls back to the default acquisition
+    jobExecutor.setSkipLockedAcquisition(true);
+    try {
+      String jobId = commandExecutor.execute(new Command<String>() {
+
+        public String execute(CommandContext commandContext) {
+          MessageEntity message = createTweetMessage("i'm coding a test");
+          commandContext.getJobManager().send(message);
+          return message.getId();
+        }
+      });
+
+      AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+      List<List<String>> jobIdsList = acquiredJobs.getJobIdBatches();
+      assertEquals(1, jobIdsList.size());
+      assertEquals(jobId, jobIdsList.get(0).get(0));
+
+      Job job = managementService.createJobQuery().singleResult();
+      assertEquals(jobExecutor.getLockOwner(), ((JobEntity) job).getLockOwner());
+      assertNotNull(((JobEntity) job).getLockExpirationTime());
+
+      // a locked job is not acquired again
+      acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+      assertEquals(0, acquiredJobs.size());
+
+      commandExecutor.execute(new ExecuteJobsCmd(jobId));
+
+      assertEquals("i'm coding a test", tweetHandler.getMessages().get(0));
+      assertEquals(1, tweetHandler.getMessages().size());
+    } finally {
+      jobExecutor.setSkipLockedAcquisition(false);
+    }
+  }
+
+  public void testLockJobsWithBulkUpdate() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    final List<String> jobIds = commandExecutor.execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        List<String> jobIds = new ArrayList<String>();
+        for (int i=0; i<2; i++) {
+          MessageEntity message = createTweetMessage("message " + i);
+          commandContext.getJobManager().send(message);
+          jobIds.add(message.getId());
+        }
+        return jobIds;
+      }
+    });
+    
+    final Date lockExpirationTime = new Date(ClockUtil.getCurrentTime().getTime() + 60000);
+    commandExecutor.execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getJobManager().lockJobs(jobIds, "bulk-owner", lockExpirationTime);
+        return null;
+      }
+    });
+    
+    for (Job job : managementService.createJobQuery().list()) {
+      assertEquals("bulk-owner", ((JobEntity) job).getLockOwner());
+      assertNotNull(((JobEntity) job).getLockExpirationTime());
+      assertEquals(2, ((JobEntity) job).getRevision());
+    }
+    
+    commandExecutor.execute(new DeleteJobsCmd(jobIds));
+  }
+
+  public void testSkipLockedAcquisitionSkipsJobsLockedByConcurrentTransaction() throws Exception {
+    final CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    if (!isSkipLockedAcquisitionSupported()) {
+      // h2, db2 and mssql use the default acquisition
+      return;
+    }
+    
+    final List<String> jobIds = commandExecutor.execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        List<String> jobIds = new ArrayList<String>();
+        for (int i=0; i<2; i++) {
+          MessageEntity message = createTweetMessage("message " + i);
+          commandContext.getJobManager().send(message);
+          jobIds.add(message.getId());
+        }
+        return jobIds;
+      }
+    });
+    
+    // a concurrent transaction row-locks one of the jobs and keeps it locked 
+    // until the acquisition below is done
+    final CountDownLatch rowLocked = new CountDownLatch(1);
+    final CountDownLatch acquisitionDone = new CountDownLatch(1);
+    final List<String> rowLockedJobIds = new ArrayList<String>();
+    Thread concurrentTransaction = new Thread() {
+      public void run() {
+        commandExecutor.execute(new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            for (JobEntity job : commandContext.getJobManager().findNextJobsToExecuteSkipLocked(new Page(0, 1))) {
+              rowLockedJobIds.add(job.getId());
+            }
+            rowLocked.countDown();
+            try {
+              acquisitionDone.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return null;
+          }
+        });
+      }
+    };
+    concurrentTransaction.start();
+    
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.setSkipLockedAcquisition(true);
+    try {
+      assertTrue(rowLocked.await(10, TimeUnit.SECONDS));
+      assertEquals(1, rowLockedJobIds.size());
+      
+      AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+      assertEquals(1, acquiredJobs.size());
+      String acquiredJobId = acquiredJobs.getJobIdBatches().get(0).get(0);
+      assertFalse(rowLockedJobIds.contains(acquiredJobId));
+      assertTrue(jobIds.contains(acquiredJobId));
+    } finally {
+      acquisitionDone.countDown();
+      concurrentTransaction.join();
+      jobExecutor.setSkipLockedAcquisition(false);
+    }
+    
+    commandExecutor.execute(new DeleteJobsCmd(jobIds));
+  }
+
+  public void testSkipLockedAcquisitionSkipsProcessInstanceWithExclusiveJobsLockedByConcurrentTransaction() throws Exception {
+    final CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    if (!isSkipLockedAcquisitionSupported()) {
+      // h2, db2 and mssql use the default acquisition
+      return;
+    }
+    
+    final List<String> jobIds = commandExecutor.execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        List<String> jobIds = new ArrayList<String>();
+        for (int i=0; i<2; i++) {
+          MessageEntity message = createTweetMessage("exclusive message " + i);
+          message.setExclusive(true);
+          message.setProcessInstanceId("exclusiveProcessInstance");
+          commandContext.getJobManager().send(message);
+          jobIds.add(message.getId());
+        }
+        return jobIds;
+      }
+    });
+    
+    // a concurrent acquisition row-locks one of the exclusive jobs and keeps 
+    // it locked until the acquisition below is done
+    final CountDownLatch rowLocked = new CountDownLatch(1);
+    final CountDownLatch acquisitionDone = new CountDownLatch(1);
+    final List<String> rowLockedJobIds = new ArrayList<String>();
+    Thread concurrentTransaction = new Thread() {
+      public void run() {
+        commandExecutor.execute(new Command<Void>() {
+          public Void execute(CommandContext commandContext) {
+            for (JobEntity job : commandContext.getJobManager().findNextJobsToExecuteSkipLocked(new Page(0, 1))) {
+              rowLockedJobIds.add(job.getId());
+            }
+            rowLocked.countDown();
+            try {
+              acquisitionDone.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            return null;
+          }
+        });
+      }
+    };
+    concurrentTransaction.start();
+    
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.setSkipLockedAcquisition(true);
+    try {
+      assertTrue(rowLocked.await(10, TimeUnit.SECONDS));
+      assertEquals(1, rowLockedJobIds.size());
+      
+      // the other exclusive job of the process instance is not acquired 
+      AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+      assertEquals(0, acquiredJobs.size());
+    } finally {
+      acquisitionDone.countDown();
+      concurrentTransaction.join();
+      jobExecutor.setSkipLockedAcquisition(false);
+    }
+    
+    // once the concurrent transaction ended, both exclusive jobs are acquired together
+    jobExecutor.setSkipLockedAcquisition(true);
+    try {
+      AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+      assertEquals(2, acquiredJobs.size());
+      assertEquals(2, acquiredJobs.getJobIdBatches().get(0).size());
+    } finally {
+      jobExecutor.setSkipLockedAcquisition(false);
+    }
+    
+    commandExecutor.execute(new DeleteJobsCmd(jobIds));
+  }
+
+  public void testJobCommandsWithPriorities() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    final List<String> jobIds = commandExecutor.execute(new Command<List<String>>() {
+
+      public List<String> execute(CommandContext commandContext) {
+        List<String> jobIds = new ArrayList<String>();
+        for (int priority: new int[]{0, 10, 5}) {
+          MessageEntity message = createTweetMessage("priority " + priority);
+          message.setPriority(priority);
+          commandContext.getJobManager().send(message);
+          jobIds.add(message.getId());
+        }
+        return jobIds;
+      }
+    });
+
+    // jobs are acquired by descending priority
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+    List<List<String>> jobIdsList = acquiredJobs.getJobIdBatches();
+    assertEquals(3, jobIdsList.size());
+    assertEquals(jobIds.get(1), jobIdsList.get(0).get(0));
+    assertEquals(10, acquiredJobs.getJobIdBatchPriority(0));
+    assertEquals(jobIds.get(2), jobIdsList.get(1).get(0));
+    assertEquals(5, acquiredJobs.getJobIdBatchPriority(1));
+    assertEquals(jobIds.get(0), jobIdsList.get(2).get(0));
+    assertEquals(0, acquiredJobs.getJobIdBatchPriority(2));
+
+    for (String jobId: jobIds) {
+      commandExecutor.execute(new ExecuteJobsCmd(jobId));
+    }
+    assertEquals(3, tweetHandler.getMessages().size());
+  }
+
+  public void testJobCommandsWithPartitions() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    String jobId = commandExecutor.execute(new Command<String>() {
+
+      public String execute(CommandContext commandContext) {
+        MessageEntity message = createTweetMessage("i'm coding a test");
+        commandContext.getJobManager().send(message);
+        return message.getId();
+      }
+    });
+
+    int partition = ((JobEntity) managementService.createJobQuery().singleResult()).getPartition();
+    assertTrue(partition >= 0 && partition < JobEntity.PARTITION_COUNT);
+
+    // the job is not acquired for other partitions
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, partition+1, partition+2));
+    assertEquals(0, acquiredJobs.size());
+    if (partition > 0) {
+      acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, 0, partition));
+      assertEquals(0, acquiredJobs.size());
+    }
+
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor, partition, partition+1));
+    assertEquals(1, acquiredJobs.size());
+    assertEquals(jobId, acquiredJobs.getJobIdBatches().get(0).get(0));
+
+    commandExecutor.execute(new ExecuteJobsCmd(jobId));
+    assertEquals(1, tweetHandler.getMessages().size());
+  }
+
+  public void testJobCommandsWithoutFreeCapacity() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    final JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    String jobId = commandExecutor.execute(new Command<String>() {
+
+      public String execute(CommandContext commandContext) {
+        MessageEntity message = createTweetMessage("i'm coding a test");
+        commandContext.getJobManager().send(message);
+        return message.getId();
+      }
+    });
+
+    JobExecutor busyJobExecutor = new DefaultJobExecutor() {
+      public int getAvailableCapacity() {
+        return 0;
+      }
+    };
+    busyJobExecutor.setLockOwner(jobExecutor.getLockOwner());
+    busyJobExecutor.setCommandExecutor(commandExecutor);
+    assertEquals(0, busyJobExecutor.getAcquisitionSize());
+
+    // no jobs are locked that can't be executed
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(busyJobExecutor));
+    assertEquals(0, acquiredJobs.size());
+    assertNull(((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    assertEquals(jobExecutor.getLockOwner(), ((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+
+    // rejected jobs are unlocked, so that they are acquired again right away
+    new UnlockRejectedJobsHandler().jobsRejected(busyJobExecutor, acquiredJobs.getJobIdBatches().get(0));
+    assertNull(((JobEntity) managementService.createJobQuery().singleResult()).getLockOwner());
+
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+    assertEquals(1, acquiredJobs.size());
+
+    commandExecutor.execute(new ExecuteJobsCmd(jobId));
+    assertEquals(1, tweetHandler.getMessages().size());
+  }
+
+  public void testJobCommandsWithConcurrencyLimit() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    commandExecutor.execute(new Command<Void>() {
+
+      public Void execute(CommandContext commandContext) {
+        commandContext.getJobManager().send(createTweetMessage("i'm coding a test"));
+        commandContext.getJobManager().send(createTweetMessage("i'm coding another test"));
+        return null;
+      }
+    });
+
+    JobExecutor limitedJobExecutor = new ExecutorServiceJobExecutor();
+    limitedJobExecutor.setCommandExecutor(commandExecutor);
+    Map<String, Integer> limits = new HashMap<String, Integer>();
+    limits.put(tweetHandler.getType(), 1);
+    limitedJobExecutor.setJobHandlerConcurrencyLimits(limits);
+
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(limitedJobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    assertEquals(1, limitedJobExecutor.getJobHandlerConcurrencyLimiter().getReservedSlots(tweetHandler.getType()));
+    List<String> jobIds = acquiredJobs.getJobIdBatches().get(0);
+
+    // the other job is not acquired while the first one is not done
+    assertEquals(0, commandExecutor.execute(new AcquireJobsCmd(limitedJobExecutor)).size());
+
+    commandExecutor.execute(new ExecuteJobsCmd(jobIds.get(0)));
+    limitedJobExecutor.jobsDone(jobIds);
+    assertEquals(0, limitedJobExecutor.getJobHandlerConcurrencyLimiter().getReservedSlots(tweetHandler.getType()));
+
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(limitedJobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    jobIds = acquiredJobs.getJobIdBatches().get(0);
+    commandExecutor.execute(new ExecuteJobsCmd(jobIds.get(0)));
+    limitedJobExecutor.jobsDone(jobIds);
+    assertEquals(2, tweetHandler.getMessages().size());
+  }
+
+  public void testRejectedJobsReleaseConcurrencySlots() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    commandExecutor.execute(new Command<Void>() {
+
+      public Void execute(CommandContext commandContext) {
+        commandContext.getJobManager().send(createTweetMessage("i'm coding a test"));
+        return null;
+      }
+    });
+
+    ExecutorServiceJobExecutor limitedJobExecutor = new ExecutorServiceJobExecutor();
+    limitedJobExecutor.setCommandExecutor(commandExecutor);
+    limitedJobExecutor.setRejectedJobsHandler(new UnlockRejectedJobsHandler());
+    Map<String, Integer> limits = new HashMap<String, Integer>();
+    limits.put(tweetHandler.getType(), 1);
+    limitedJobExecutor.setJobHandlerConcurrencyLimits(limits);
+
+    // without an executor service the jobs are rejected
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(limitedJobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    limitedJobExecutor.executeJobs(acquiredJobs.getJobIdBatches().get(0));
+    assertEquals(0, limitedJobExecutor.getJobHandlerConcurrencyLimiter().getReservedSlots(tweetHandler.getType()));
+
+    // a saturated executor service rejects the jobs as well
+    limitedJobExecutor.setExecutorService(Executors.newSingleThreadExecutor());
+    limitedJobExecutor.setMaxConcurrentJobs(1);
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(limitedJobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    limitedJobExecutor.setMaxConcurrentJobs(0);
+    limitedJobExecutor.executeJobs(acquiredJobs.getJobIdBatches().get(0));
+    assertEquals(0, limitedJobExecutor.getJobHandlerConcurrencyLimiter().getReservedSlots(tweetHandler.getType()));
+    limitedJobExecutor.getExecutorService().shutdown();
+
+    // the rejected job of the limited handler is still acquired and executed
+    acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(limitedJobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    List<String> jobIds = acquiredJobs.getJobIdBatches().get(0);
+    commandExecutor.execute(new ExecuteJobsCmd(jobIds.get(0)));
+    limitedJobExecutor.jobsDone(jobIds);
+    assertEquals(1, tweetHandler.getMessages().size());
+  }
+
+  public void testRenewJobLocks() {
+    ClockUtil.setCurrentTime(new Date(SOME_TIME));
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    String jobId = commandExecutor.execute(new Command<String>() {
+
+      public String execute(CommandContext commandContext) {
+        MessageEntity message = createTweetMessage("i'm coding a test");
+        commandContext.getJobManager().send(message);
+        return message.getId();
+      }
+    });
+
+    AcquiredJobs acquiredJobs = commandExecutor.execute(new AcquireJobsCmd(jobExecutor));
+    assertEquals(1, acquiredJobs.size());
+    List<String> jobIds = acquiredJobs.getJobIdBatches().get(0);
+    Date lockExpirationTime = ((JobEntity) managementService.createJobQuery().singleResult()).getLockExpirationTime();
+
+    // locks of other lock owners are not renewed
+    Date renewedLockExpirationTime = new Date(lockExpirationTime.getTime() + (60 * SECOND));
+    assertEquals(0, (int) commandExecutor.execute(new RenewJobLocksCmd(jobIds, "someoneElse", renewedLockExpirationTime)));
+    assertEquals(lockExpirationTime, ((JobEntity) managementService.createJobQuery().singleResult()).getLockExpirationTime());
+
+    assertEquals(1, (int) commandExecutor.execute(new RenewJobLocksCmd(jobIds, jobExecutor.getLockOwner(), renewedLockExpirationTime)));
+    assertEquals(renewedLockExpirationTime, ((JobEntity) managementService.createJobQuery().singleResult()).getLockExpirationTime());
+
+    // the renewal doesn't interfere with the execution of the job
+    commandExecutor.execute(new ExecuteJobsCmd(jobId));
+    assertEquals(1, tweetHandler.getMessages().size());
+  }
+
+  public void testJobExecutorHeartbeats() {
+    ClockUtil.setCurrentTime(new Date(SOME_TIME));
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+
+    List<String> nodes = commandExecutor.execute(new JobExecutorHeartbeatCmd("nodeB", 30 * SECOND));
+    assertEquals(1, nodes.size());
+    nodes = commandExecutor.execute(new JobExecutorHeartbeatCmd("nodeA", 30 * SECOND));
+    assertEquals(2, nodes.size());
+    assertEquals("nodeA", nodes.get(0));
+    assertEquals("nodeB", nodes.get(1));
+
+    // nodeA stops sending heartbeats
+    ClockUtil.setCurrentTime(new Date(SOME_TIME + (20 * SECOND)));
+    nodes = commandExecutor.execute(new JobExecutorHeartbeatCmd("nodeB", 30 * SECOND));
+    assertEquals(2, nodes.size());
+
+    ClockUtil.setCurrentTime(new Date(SOME_TIME + (40 * SECOND)));
+    nodes = commandExecutor.execute(new JobExecutorHeartbeatCmd("nodeB", 30 * SECOND));
+    assertEquals(1, nodes.size());
+    assertEquals("nodeB", nodes.get(0));
+
+    commandExecutor.execute(new DeleteJobExecutorNodeCmd("nodeB"));
+    commandExecutor.execute(new DeleteJobExecutorNodeCmd("nodeA"));
+  }
+
   static final long SOME_TIME = 928374923546L;
   static final long SECOND = 1000;
 
@@ -105,4 +567,12 @@ public class JobExecutorCmdHappyTest extends JobExecutorTestCase {
     assertEquals("i'm coding a test", tweetHandler.getMessages().get(0));
     assertEquals(1, tweetHandler.getMessages().size());
   }
+
+  protected boolean isSkipLockedAcquisitionSupported() {
+    return processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Boolean>() {
+      public Boolean execute(CommandContext commandContext) {
+        return commandContext.getJobManager().isSkipLockedAcquisitionSupported();
+      }
+    });
+  }
 }
@@ -12,14 +12,26 @@
  */
 package org.activiti.engine.test.jobexecutor;
 
+import java.lang.management.ManagementFactory;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import javax.management.ObjectName;
+
+import org.activiti.engine.ActivitiException;
 import org.activiti.engine.impl.interceptor.Command;
 import org.activiti.engine.impl.interceptor.CommandContext;
 import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.jobexecutor.ExecutorServiceJobExecutor;
+import org.activiti.engine.impl.jobexecutor.JobExecutor;
+import org.activiti.engine.impl.jobexecutor.UnlockRejectedJobsHandler;
 import org.activiti.engine.impl.persistence.entity.JobManager;
+import org.activiti.engine.management.JobExecutorMetrics;
 
 
 
@@ -57,4 +69,154 @@ public class JobExecutorTest extends JobExecutorTestCase {
     
     assertEquals(expectedMessages, messages);
   }
+  
+  public void testJobExecutorMetrics() throws Exception {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.getMetricsCollector().reset();
+    jobExecutor.setJmxEnabled(true);
+    ObjectName objectName = new ObjectName("org.activiti:type=JobExecutor,name="+ObjectName.quote(jobExecutor.getLockOwner()));
+    try {
+      CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+      commandExecutor.execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          JobManager jobManager = commandContext.getJobManager();
+          jobManager.send(createTweetMessage("message-one"));
+          jobManager.send(createTweetMessage("message-two"));
+          jobManager.schedule(createTweetTimer("timer-one", new Date()));
+          return null;
+        }
+      });
+      
+      jobExecutor.start();
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+      assertEquals(jobExecutor.getLockOwner(), ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "LockOwner"));
+      
+      waitForJobExecutorToProcessAllJobs(8000L, 200L);
+      assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+      
+    } finally {
+      jobExecutor.shutdown();
+      jobExecutor.setJmxEnabled(false);
+    }
+    
+    JobExecutorMetrics metrics = managementService.getJobExecutorMetrics();
+    assertTrue(metrics.getAcquisitionCycles() > 0);
+    assertEquals(metrics.getAcquisitionCycles(), metrics.getAcquisitionTimes().getCount());
+    assertEquals(3, metrics.getAcquiredJobs());
+    assertEquals(0, metrics.getRejectedJobs());
+    assertEquals(0, metrics.getFailedJobs());
+    assertEquals(0, metrics.getQueueDepth());
+    assertEquals(1, metrics.getExecutionTimes().size());
+    assertEquals(3, metrics.getExecutionTimes().get(tweetHandler.getType()).getCount());
+    // only the timer has a due date
+    assertEquals(1, metrics.getStartDelays().getCount());
+    
+    jobExecutor.getMetricsCollector().reset();
+    assertEquals(0, managementService.getJobExecutorMetrics().getAcquiredJobs());
+  }
+  
+  public void testExecutorServiceJobExecutor() throws Exception {
+    JobExecutor defaultJobExecutor = processEngineConfiguration.getJobExecutor();
+    ExecutorServiceJobExecutor jobExecutor = new ExecutorServiceJobExecutor();
+    jobExecutor.setCommandExecutor(defaultJobExecutor.getCommandExecutor());
+    jobExecutor.setRejectedJobsHandler(new UnlockRejectedJobsHandler());
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    jobExecutor.setExecutorService(executorService);
+    jobExecutor.setMaxConcurrentJobs(4);
+    Map<String, Integer> limits = new HashMap<String, Integer>();
+    limits.put(tweetHandler.getType(), 2);
+    jobExecutor.setJobHandlerConcurrencyLimits(limits);
+    
+    processEngineConfiguration.setJobExecutor(jobExecutor);
+    try {
+      CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+      commandExecutor.execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          JobManager jobManager = commandContext.getJobManager();
+          jobManager.send(createTweetMessage("message-one"));
+          jobManager.send(createTweetMessage("message-two"));
+          jobManager.send(createTweetMessage("message-three"));
+          jobManager.send(createTweetMessage("message-four"));
+          jobManager.send(createTweetMessage("message-five"));
+          return null;
+        }
+      });
+      
+      waitForJobExecutorToProcessAllJobs(8000L, 200L);
+      
+      // the executor service isn't shut down with the job executor, so it can be started again
+      assertFalse(executorService.isShutdown());
+      commandExecutor.execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          commandContext.getJobManager().send(createTweetMessage("message-six"));
+          return null;
+        }
+      });
+      waitForJobExecutorToProcessAllJobs(8000L, 200L);
+      
+    } finally {
+      processEngineConfiguration.setJobExecutor(defaultJobExecutor);
+      executorService.shutdown();
+    }
+    
+    try {
+      jobExecutor.start();
+      fail("expected exception");
+    } catch (ActivitiException e) {
+      assertTextPresent("shut down", e.getMessage());
+    }
+    assertFalse(jobExecutor.isActive());
+    
+    Set<String> messages = new HashSet<String>(tweetHandler.getMessages());
+    Set<String> expectedMessages = new HashSet<String>();
+    expectedMessages.add("message-one");
+    expectedMessages.add("message-two");
+    expectedMessages.add("message-three");
+    expectedMessages.add("message-four");
+    expectedMessages.add("message-five");
+    expectedMessages.add("message-six");
+    assertEquals(expectedMessages, messages);
+    assertEquals(0, jobExecutor.getJobHandlerConcurrencyLimiter().getReservedSlots(tweetHandler.getType()));
+    assertEquals(0, jobExecutor.getPendingJobBatches());
+  }
+  
+  public void testTimerWheel() throws Exception {
+    final JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.setTimerWheelEnabled(true);
+    try {
+      CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+      // preloaded by the job acquisition
+      commandExecutor.execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          commandContext.getJobManager().schedule(createTweetTimer("timer-one", new Date(System.currentTimeMillis() + 1000)));
+          return null;
+        }
+      });
+      
+      jobExecutor.start();
+      assertNotNull(jobExecutor.getTimerWheel());
+      
+      // registered in the timer wheel when the transaction commits
+      commandExecutor.execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          commandContext.getJobManager().schedule(createTweetTimer("timer-two", new Date(System.currentTimeMillis() + 1500)));
+          return null;
+        }
+      });
+      
+      // the job acquisition only polls the database every minute, 
+      // so the timers can only fire in time if the timer wheel wakes it up
+      waitForJobExecutorToProcessAllJobs(8000L, 200L);
+      
+      Set<String> messages = new HashSet<String>(tweetHandler.getMessages());
+      Set<String> expectedMessages = new HashSet<String>();
+      expectedMessages.add("timer-one");
+      expectedMessages.add("timer-two");
+      assertEquals(expectedMessages, messages);
+      
+    } finally {
+      jobExecutor.shutdown();
+      jobExecutor.setTimerWheelEnabled(false);
+    }
+  }
 }
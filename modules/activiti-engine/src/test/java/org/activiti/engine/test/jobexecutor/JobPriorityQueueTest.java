@@ -0,0 +1,77 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.engine.test.jobexecutor;
+
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.activiti.engine.impl.jobexecutor.JobPriorityQueue;
+
+
+public class JobPriorityQueueTest extends TestCase {
+
+  public void testOfferToFullQueueFails() {
+    JobPriorityQueue queue = new JobPriorityQueue(1);
+    assertTrue(queue.offer(new NoopRunnable()));
+    assertFalse(queue.offer(new NoopRunnable()));
+    assertEquals(1, queue.size());
+  }
+
+  public void testTimedOfferWaitsForSpace() throws Exception {
+    final JobPriorityQueue queue = new JobPriorityQueue(1);
+    queue.offer(new NoopRunnable());
+    assertFalse(queue.offer(new NoopRunnable(), 50, TimeUnit.MILLISECONDS));
+    
+    Thread consumer = new Thread() {
+      public void run() {
+        try {
+          Thread.sleep(100);
+          queue.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    consumer.start();
+    assertTrue(queue.offer(new NoopRunnable(), 10, TimeUnit.SECONDS));
+    consumer.join();
+    assertEquals(1, queue.size());
+  }
+
+  public void testPutWaitsForSpace() throws Exception {
+    final JobPriorityQueue queue = new JobPriorityQueue(1);
+    queue.put(new NoopRunnable());
+    
+    Thread producer = new Thread() {
+      public void run() {
+        queue.put(new NoopRunnable());
+      }
+    };
+    producer.start();
+    producer.join(100);
+    // the second job is not dropped, the producer waits for space
+    assertTrue(producer.isAlive());
+    assertEquals(1, queue.size());
+    
+    assertNotNull(queue.take());
+    producer.join(10000);
+    assertFalse(producer.isAlive());
+    assertEquals(1, queue.size());
+  }
+
+  static class NoopRunnable implements Runnable {
+    public void run() {
+    }
+  }
+}
@@ -13,6 +13,7 @@
 package org.activiti.engine.test.jobexecutor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.activiti.engine.impl.interceptor.CommandContext;
@@ -22,7 +23,7 @@ import org.junit.Assert;
 
 public class TweetHandler implements JobHandler {
 
-  List<String> messages = new ArrayList<String>();
+  List<String> messages = Collections.synchronizedList(new ArrayList<String>());
 
   public String getType() {
     return "tweet";
@@ -13,6 +13,12 @@
 
 package org.activiti.examples.groovy;
 
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import org.activiti.engine.impl.scripting.ScriptingEngines;
 import org.activiti.engine.impl.test.PluggableActivitiTestCase;
 import org.activiti.engine.impl.util.CollectionUtil;
 import org.activiti.engine.runtime.ProcessInstance;
@@ -23,6 +29,18 @@ import org.activiti.engine.test.Deployment;
  * @author Tom Baeyens
  */
 public class GroovyScriptTest extends PluggableActivitiTestCase {
+  
+  static class CompilingScriptingEngines extends ScriptingEngines {
+    public CompilingScriptingEngines() {
+      super(new ScriptEngineManager());
+    }
+    public ScriptEngine getScriptEngine(String language) {
+      return super.getScriptEngine(language);
+    }
+    public CompiledScript compile(String script) throws ScriptException {
+      return getCompiledScript(script, "groovy", getScriptEngine("groovy"));
+    }
+  }
 
   @Deployment
   public void testScriptExecution() {
@@ -33,6 +51,32 @@ public class GroovyScriptTest extends PluggableActivitiTestCase {
     assertEquals(15, result.intValue());
   }
 
+  public void testCompiledScriptsAreEvictedWithTheirEngine() throws Exception {
+    CompilingScriptingEngines scriptingEngines = new CompilingScriptingEngines();
+    scriptingEngines.setCompiledScriptCacheLimit(1);
+    
+    CompiledScript first = scriptingEngines.compile("1 + 1");
+    CompiledScript second = scriptingEngines.compile("2 + 2");
+    // every script has an engine of its own, so the classes 
+    // it compiled are not kept by the shared groovy engine
+    assertNotSame(first.getEngine(), second.getEngine());
+    assertNotSame(scriptingEngines.getScriptEngine("groovy"), first.getEngine());
+    
+    // the first script was evicted and is compiled again
+    assertNotSame(first, scriptingEngines.compile("1 + 1"));
+    assertEquals(2, ((Number) first.eval()).intValue());
+  }
+
+  @Deployment(resources = {"org/activiti/examples/groovy/GroovyScriptTest.testScriptExecution.bpmn20.xml"})
+  public void testCompiledScriptWithDifferentVariables() {
+    // the second execution evaluates the compiled script from the cache
+    ProcessInstance pi1 = runtimeService.startProcessInstanceByKey("scriptExecution", CollectionUtil.singletonMap("inputArray", new int[] {1, 2, 3, 4, 5}));
+    ProcessInstance pi2 = runtimeService.startProcessInstanceByKey("scriptExecution", CollectionUtil.singletonMap("inputArray", new int[] {1, 2, 3}));
+
+    assertEquals(15, ((Integer) runtimeService.getVariable(pi1.getId(), "sum")).intValue());
+    assertEquals(6, ((Integer) runtimeService.getVariable(pi2.getId(), "sum")).intValue());
+  }
+
   @Deployment
   public void testSetVariableThroughExecutionInScript() {
     ProcessInstance pi = runtimeService.startProcessInstanceByKey("setScriptVariableThroughExecution");
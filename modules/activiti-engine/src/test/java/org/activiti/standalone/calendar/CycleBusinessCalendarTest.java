@@ -51,4 +51,35 @@ public class CycleBusinessCalendarTest extends PvmTestCase {
     assertEquals(expectedDuedate, duedate);
   }
 
+  public void testCachedDurationStartsNow() throws Exception {
+    CycleBusinessCalendar businessCalendar = new CycleBusinessCalendar();
+
+    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy MM dd - HH:mm");
+    ClockUtil.setCurrentTime(simpleDateFormat.parse("2010 06 11 - 17:23"));
+    assertEquals(simpleDateFormat.parse("2010 06 11 - 18:23"), businessCalendar.resolveDuedate("R3/PT1H"));
+
+    // the parsed expression is reused, but the cycle starts at the current time again
+    ClockUtil.setCurrentTime(simpleDateFormat.parse("2010 06 12 - 09:00"));
+    assertEquals(simpleDateFormat.parse("2010 06 12 - 10:00"), businessCalendar.resolveDuedate("R3/PT1H"));
+    assertEquals(1, businessCalendar.getCacheSize());
+  }
+
+  public void testCachedCronExpressions() throws Exception {
+    CycleBusinessCalendar businessCalendar = new CycleBusinessCalendar(2);
+
+    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy MM dd - HH:mm");
+    // a friday
+    ClockUtil.setCurrentTime(simpleDateFormat.parse("2011 03 11 - 17:23"));
+
+    for (int i=0; i<2; i++) {
+      assertEquals(simpleDateFormat.parse("2011 03 14 - 10:15"), businessCalendar.resolveDuedate("0 15 10 ? * MON-FRI"));
+      assertEquals(simpleDateFormat.parse("2011 03 31 - 12:00"), businessCalendar.resolveDuedate("0 0 12 L * ?"));
+      assertEquals(simpleDateFormat.parse("2011 03 11 - 17:30"), businessCalendar.resolveDuedate("0 0/30 * * * ?"));
+      assertEquals(simpleDateFormat.parse("2011 04 08 - 09:00"), businessCalendar.resolveDuedate("0 0 9 ? * 6#2"));
+    }
+    
+    // the least recently used expressions were evicted
+    assertEquals(2, businessCalendar.getCacheSize());
+  }
+
 }
@@ -0,0 +1,144 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.standalone.db;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.activiti.engine.ActivitiOptimisticLockingException;
+import org.activiti.engine.impl.cmd.DeleteJobsCmd;
+import org.activiti.engine.impl.cmd.RenewJobLocksCmd;
+import org.activiti.engine.impl.db.DbSqlSessionFactory;
+import org.activiti.engine.impl.interceptor.Command;
+import org.activiti.engine.impl.interceptor.CommandContext;
+import org.activiti.engine.impl.interceptor.CommandExecutor;
+import org.activiti.engine.impl.persistence.entity.MessageEntity;
+import org.activiti.engine.impl.persistence.entity.TaskEntity;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.impl.util.ClockUtil;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+
+
+/**
+ * Runs against an engine that flushes its sessions in jdbc batches.
+ */
+public class BatchFlushTest extends ResourceActivitiTestCase {
+
+  public BatchFlushTest() {
+    super("org/activiti/standalone/db/activiti.cfg.xml");
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testProcessExecutionWithBatchFlush() {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    variables.put("customer", "kermit");
+    variables.put("amount", 100);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess", variables);
+    assertEquals("kermit", runtimeService.getVariable(processInstance.getId(), "customer"));
+
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    taskService.setAssignee(task.getId(), "fozzie");
+    runtimeService.setVariable(processInstance.getId(), "amount", 200);
+    taskService.complete(task.getId());
+
+    assertNull(runtimeService.createProcessInstanceQuery().processInstanceId(processInstance.getId()).singleResult());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstance.getId()).finished().count());
+    assertEquals("fozzie", historyService.createHistoricTaskInstanceQuery().processInstanceId(processInstance.getId()).singleResult().getAssignee());
+  }
+
+  public void testConcurrentUpdateIsDetectedInBatch() {
+    assertConcurrentUpdateIsDetected();
+  }
+
+  /** simulates a database that doesn't report the update counts of batched statements, like oracle */
+  public void testConcurrentUpdateIsDetectedWithoutBatchUpdateCounts() {
+    DbSqlSessionFactory dbSqlSessionFactory = processEngineConfiguration.getDbSqlSessionFactory();
+    dbSqlSessionFactory.setDbBatchUpdateCountReported(false);
+    try {
+      Task task = taskService.newTask();
+      taskService.saveTask(task);
+      taskService.setAssignee(task.getId(), "kermit");
+      assertEquals("kermit", taskService.createTaskQuery().taskId(task.getId()).singleResult().getAssignee());
+      taskService.deleteTask(task.getId(), true);
+      
+      assertConcurrentUpdateIsDetected();
+    } finally {
+      dbSqlSessionFactory.setDbBatchUpdateCountReported(true);
+    }
+  }
+
+  public void testRenewJobLocksCountsRenewedLocksInBatch() {
+    CommandExecutor commandExecutor = processEngineConfiguration.getCommandExecutorTxRequired();
+    final List<String> jobIds = commandExecutor.execute(new Command<List<String>>() {
+      public List<String> execute(CommandContext commandContext) {
+        List<String> jobIds = new ArrayList<String>();
+        for (int i=0; i<2; i++) {
+          MessageEntity message = new MessageEntity();
+          message.setJobHandlerType("unknown");
+          commandContext.getJobManager().send(message);
+          jobIds.add(message.getId());
+        }
+        return jobIds;
+      }
+    });
+    final Date lockExpirationTime = new Date(ClockUtil.getCurrentTime().getTime() + 60000);
+    commandExecutor.execute(new Command<Void>() {
+      public Void execute(CommandContext commandContext) {
+        commandContext.getJobManager().lockJobs(jobIds.subList(0, 1), "batch-owner", lockExpirationTime);
+        return null;
+      }
+    });
+    
+    // only the lock owned by the given lock owner is renewed
+    int renewedLocks = commandExecutor.execute(new RenewJobLocksCmd(jobIds, "batch-owner", lockExpirationTime));
+    assertEquals(1, renewedLocks);
+    
+    commandExecutor.execute(new DeleteJobsCmd(jobIds));
+  }
+
+  protected void assertConcurrentUpdateIsDetected() {
+    Task task = taskService.newTask();
+    taskService.saveTask(task);
+    final String taskId = task.getId();
+    final CommandExecutor commandExecutorTxRequiresNew = processEngineConfiguration.getCommandExecutorTxRequiresNew();
+
+    try {
+      processEngineConfiguration.getCommandExecutorTxRequired().execute(new Command<Void>() {
+        public Void execute(CommandContext commandContext) {
+          TaskEntity staleTask = commandContext.getTaskManager().findTaskById(taskId);
+          commandExecutorTxRequiresNew.execute(new Command<Void>() {
+            public Void execute(CommandContext commandContext) {
+              commandContext.getTaskManager().findTaskById(taskId).setName("concurrent update");
+              return null;
+            }
+          });
+          staleTask.setName("stale update");
+          return null;
+        }
+      });
+      fail("expected optimistic locking exception");
+    } catch (ActivitiOptimisticLockingException e) {
+      // expected
+    }
+
+    assertEquals("concurrent update", taskService.createTaskQuery().taskId(taskId).singleResult().getName());
+    taskService.deleteTask(taskId, true);
+  }
+
+}
@@ -0,0 +1,172 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.standalone.history;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.activiti.engine.history.HistoricVariableUpdate;
+import org.activiti.engine.impl.history.AsyncHistoryWriter;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+import org.activiti.engine.test.api.runtime.DummySerializable;
+
+
+/**
+ * Runs against an engine that writes the history through the history outbox.
+ */
+public class AsyncHistoryTest extends ResourceActivitiTestCase {
+
+  public AsyncHistoryTest() {
+    super("org/activiti/standalone/history/asynchistory.activiti.cfg.xml");
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testHistoryIsWrittenAfterCommit() {
+    String processInstanceId = startAndCompleteProcessInstance();
+    waitForHistoryOutboxToBeWritten();
+
+    assertEquals(3, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(1, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).activityId("theEnd").finished().count());
+    assertEquals(4, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).variableUpdates().count());
+    HistoricVariableUpdate amountUpdate = (HistoricVariableUpdate) historyService
+      .createHistoricDetailQuery()
+      .processInstanceId(processInstanceId)
+      .variableUpdates()
+      .orderByVariableRevision()
+      .desc()
+      .list()
+      .get(0);
+    assertEquals("amount", amountUpdate.getVariableName());
+    assertEquals(200, amountUpdate.getValue());
+    assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstanceId).finished().count());
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testHistoryIsKeptInOutboxUntilWritten() {
+    AsyncHistoryWriter asyncHistoryWriter = processEngineConfiguration.getAsyncHistoryWriter();
+    asyncHistoryWriter.shutdown();
+    String processInstanceId;
+    try {
+      processInstanceId = startAndCompleteProcessInstance();
+      
+      // the process and task instances are written synchronously
+      assertEquals(1, historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstanceId).finished().count());
+      assertEquals(1, historyService.createHistoricTaskInstanceQuery().processInstanceId(processInstanceId).finished().count());
+      // the ended activity instances and the variable updates wait in the outbox
+      assertEquals(1, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+      assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).count());
+      assertTrue(getHistoryOutboxCount()>0);
+      assertEquals(getHistoryOutboxCount(), asyncHistoryWriter.getPendingHistoryOutboxCount());
+    } finally {
+      asyncHistoryWriter.start();
+    }
+    
+    waitForHistoryOutboxToBeWritten();
+    assertEquals(3, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(4, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).count());
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testLostOutboxIsRecovered() {
+    AsyncHistoryWriter asyncHistoryWriter = processEngineConfiguration.getAsyncHistoryWriter();
+    asyncHistoryWriter.shutdown();
+    String processInstanceId;
+    try {
+      processInstanceId = startAndCompleteProcessInstance();
+      
+      // a second writer only knows the outboxes through the recovery
+      AsyncHistoryWriter recoveringWriter = new AsyncHistoryWriter();
+      recoveringWriter.setCommandExecutor(processEngineConfiguration.getCommandExecutorTxRequired());
+      recoveringWriter.setRecoveryAgeInMillis(0);
+      recoveringWriter.start();
+      try {
+        waitForHistoryOutboxToBeWritten();
+      } finally {
+        recoveringWriter.shutdown();
+      }
+    } finally {
+      // the outboxes the first writer still knows about are written already
+      asyncHistoryWriter.start();
+    }
+    
+    waitForPendingHistoryOutboxes(asyncHistoryWriter);
+    assertEquals(3, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(4, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).count());
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testDeleteHistoricProcessInstanceWithPendingHistory() {
+    AsyncHistoryWriter asyncHistoryWriter = processEngineConfiguration.getAsyncHistoryWriter();
+    asyncHistoryWriter.shutdown();
+    try {
+      String processInstanceId = startAndCompleteProcessInstance();
+      assertTrue(getHistoryOutboxCount()>0);
+      
+      historyService.deleteHistoricProcessInstance(processInstanceId);
+      
+      assertEquals(0, getHistoryOutboxCount());
+      assertEquals(0, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+      assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).count());
+    } finally {
+      asyncHistoryWriter.start();
+    }
+    waitForPendingHistoryOutboxes(asyncHistoryWriter);
+  }
+
+  protected String startAndCompleteProcessInstance() {
+    Map<String, Object> variables = new HashMap<String, Object>();
+    variables.put("customer", "kermit");
+    variables.put("amount", 100);
+    variables.put("serializable", new DummySerializable());
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess", variables);
+    runtimeService.setVariable(processInstance.getId(), "amount", 200);
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    taskService.complete(task.getId());
+    return processInstance.getId();
+  }
+
+  protected long getHistoryOutboxCount() {
+    return managementService.getTableCount().get("ACT_HI_OUTBOX");
+  }
+
+  protected void waitForHistoryOutboxToBeWritten() {
+    long timeout = System.currentTimeMillis()+10000;
+    while (getHistoryOutboxCount()>0) {
+      if (System.currentTimeMillis()>timeout) {
+        fail("history outbox not written in time");
+      }
+      sleep();
+    }
+  }
+
+  protected void waitForPendingHistoryOutboxes(AsyncHistoryWriter asyncHistoryWriter) {
+    long timeout = System.currentTimeMillis()+10000;
+    while (asyncHistoryWriter.getPendingHistoryOutboxCount()>0) {
+      if (System.currentTimeMillis()>timeout) {
+        fail("pending history outboxes not processed in time");
+      }
+      sleep();
+    }
+  }
+
+  protected void sleep() {
+    try {
+      Thread.sleep(100);
+    } catch (InterruptedException e) {
+      // ignore
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.activiti.standalone.history;
+
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.activiti.engine.history.HistoricDetail;
+import org.activiti.engine.history.HistoricVariableUpdate;
+import org.activiti.engine.impl.persistence.entity.HistoricVariableUpdateEntity;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.impl.util.ClockUtil;
+import org.activiti.engine.impl.util.CompressionUtil;
+import org.activiti.engine.impl.util.IoUtil;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.test.Deployment;
+
+
+/**
+ * Runs against an engine that compresses byte arrays and shares the byte 
+ * arrays of identical historic variable updates.
+ */
+public class ByteArrayStorageTest extends ResourceActivitiTestCase {
+
+  public ByteArrayStorageTest() {
+    super("org/activiti/standalone/history/bytearraystorage.activiti.cfg.xml");
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testByteArraysAreCompressed() {
+    byte[] bytes = new byte[10000];
+    Arrays.fill(bytes, (byte) 'a');
+    Map<String, Object> variables = new HashMap<String, Object>();
+    variables.put("bytes", bytes);
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess", variables);
+    
+    assertTrue(Arrays.equals(bytes, (byte[]) runtimeService.getVariable(processInstance.getId(), "bytes")));
+    
+    String deploymentId = repositoryService.createDeploymentQuery().singleResult().getId();
+    String resourceName = "org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml";
+    byte[] resourceBytes = IoUtil.readInputStream(getClass().getClassLoader().getResourceAsStream(resourceName), resourceName);
+    assertTrue(Arrays.equals(resourceBytes, IoUtil.readInputStream(repositoryService.getResourceAsStream(deploymentId, resourceName), resourceName)));
+
+    // the deployment resource, the variable and its historic copy are stored compressed 
+    int compressedByteArrayCount = 0;
+    List<Map<String, Object>> rows = managementService.createTablePageQuery().tableName("ACT_GE_BYTEARRAY").listPage(0, 10).getRows();
+    for (Map<String, Object> row: rows) {
+      byte[] storedBytes = (byte[]) row.get("BYTES_");
+      if (storedBytes[CompressionUtil.MARKER.length]==CompressionUtil.METHOD_DEFLATE) {
+        assertTrue(storedBytes.length<resourceBytes.length);
+        compressedByteArrayCount++;
+      }
+    }
+    assertEquals(3, compressedByteArrayCount);
+  }
+  
+  public void testUncompressedByteArraysStayReadable() {
+    byte[] bytes = "uncompressed".getBytes();
+    assertSame(bytes, CompressionUtil.uncompress(bytes));
+    assertSame(bytes, CompressionUtil.compress(bytes, 64));
+    
+    // bytes that look like compressed bytes are escaped
+    byte[] markedBytes = new byte[100];
+    System.arraycopy(CompressionUtil.MARKER, 0, markedBytes, 0, CompressionUtil.MARKER.length);
+    byte[] escapedBytes = CompressionUtil.compress(markedBytes, 1000);
+    assertEquals(CompressionUtil.METHOD_STORED, escapedBytes[CompressionUtil.MARKER.length]);
+    assertTrue(Arrays.equals(markedBytes, CompressionUtil.uncompress(escapedBytes)));
+    assertTrue(Arrays.equals(markedBytes, CompressionUtil.uncompress(CompressionUtil.compress(markedBytes, 64))));
+  }
+
+  @Deployment(resources = {"org/activiti/engine/test/api/oneTaskProcess.bpmn20.xml"})
+  public void testIdenticalHistoricVariableUpdatesShareByteArray() {
+    ClockUtil.setCurrentTime(new GregorianCalendar(2011, 5, 15).getTime());
+    try {
+      byte[] bytes = "identical".getBytes();
+      Map<String, Object> variables = new HashMap<String, Object>();
+      variables.put("bytes", bytes);
+      ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("oneTaskProcess", variables);
+      runtimeService.setVariable(processInstance.getId(), "bytes", "identical".getBytes());
+      runtimeService.setVariable(processInstance.getId(), "bytes", "different".getBytes());
+      runtimeService.setVariable(processInstance.getId(), "bytes", "identical".getBytes());
+      
+      List<HistoricDetail> historicDetails = historyService
+        .createHistoricDetailQuery()
+        .processInstanceId(processInstance.getId())
+        .variableUpdates()
+        .orderByVariableRevision()
+        .asc()
+        .list();
+      assertEquals(4, historicDetails.size());
+      Set<String> byteArrayIds = new HashSet<String>();
+      for (HistoricDetail historicDetail: historicDetails) {
+        byteArrayIds.add(((HistoricVariableUpdateEntity) historicDetail).getByteArrayValueId());
+      }
+      assertEquals(2, byteArrayIds.size());
+      assertEquals("different", new String((byte[]) ((HistoricVariableUpdate) historicDetails.get(2)).getValue()));
+      assertEquals("identical", new String((byte[]) ((HistoricVariableUpdate) historicDetails.get(3)).getValue()));
+      
+      // the shared byte arrays are deleted with the history of the process instance
+      runtimeService.deleteProcessInstance(processInstance.getId(), null);
+      historyService.deleteHistoricProcessInstance(processInstance.getId());
+      assertEquals(new Long(1), managementService.getTableCount().get("ACT_GE_BYTEARRAY"));
+    } finally {
+      ClockUtil.reset();
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/* Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.activiti.standalone.history;
+
+import org.activiti.engine.ActivitiException;
+import org.activiti.engine.impl.test.ResourceActivitiTestCase;
+import org.activiti.engine.runtime.ProcessInstance;
+import org.activiti.engine.task.Task;
+import org.activiti.engine.test.Deployment;
+
+
+/**
+ * The engine runs with full history, the process definitions lower it.
+ */
+public class ProcessDefinitionHistoryLevelTest extends ResourceActivitiTestCase {
+
+  public ProcessDefinitionHistoryLevelTest() {
+    super("org/activiti/standalone/history/historylevel.activiti.cfg.xml");
+  }
+
+  @Deployment
+  public void testHistoryLevelNone() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("noneHistoryLevel");
+    runtimeService.setVariable(processInstance.getId(), "number", "one");
+    
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    taskService.setAssignee(task.getId(), "kermit");
+    taskService.complete(task.getId());
+    assertProcessEnded(processInstance.getId());
+
+    assertNoHistory(processInstance.getId());
+  }
+
+  @Deployment
+  public void testHistoryLevelAudit() {
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("auditHistoryLevel");
+    runtimeService.setVariable(processInstance.getId(), "number", "one");
+    
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    taskService.setAssignee(task.getId(), "kermit");
+    taskService.complete(task.getId());
+    assertProcessEnded(processInstance.getId());
+
+    assertNotNull(historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstance.getId()).finished().singleResult());
+    assertEquals(1, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstance.getId()).activityId("theTask").count());
+    assertEquals("kermit", historyService.createHistoricTaskInstanceQuery().processInstanceId(processInstance.getId()).singleResult().getAssignee());
+    
+    // variable updates are only recorded with full history
+    assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(processInstance.getId()).count());
+  }
+
+  @Deployment
+  public void testConfiguredHistoryLevel() {
+    // the history level configured for the process key overrides the one in the process
+    ProcessInstance processInstance = runtimeService.startProcessInstanceByKey("configuredHistoryLevel");
+    runtimeService.setVariable(processInstance.getId(), "number", "one");
+    
+    Task task = taskService.createTaskQuery().processInstanceId(processInstance.getId()).singleResult();
+    taskService.complete(task.getId());
+    assertProcessEnded(processInstance.getId());
+
+    assertNoHistory(processInstance.getId());
+  }
+
+  public void testInvalidHistoryLevel() {
+    try {
+      repositoryService.createDeployment()
+        .addString("invalidHistoryLevel.bpmn20.xml", 
+                "<definitions xmlns='http://www.omg.org/spec/BPMN/20100524/MODEL' xmlns:activiti='http://activiti.org/bpmn' targetNamespace='Examples'>" +
+                "  <process id='invalidHistoryLevel' activiti:historyLevel='everything'>" +
+                "    <startEvent id='theStart' />" +
+                "  </process>" +
+                "</definitions>")
+        .deploy();
+      fail("expected exception");
+    } catch (ActivitiException e) {
+      assertTextPresent("historyLevel", e.getMessage());
+    }
+  }
+
+  protected void assertNoHistory(String processInstanceId) {
+    assertEquals(0, historyService.createHistoricProcessInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(0, historyService.createHistoricActivityInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(0, historyService.createHistoricTaskInstanceQuery().processInstanceId(processInstanceId).count());
+    assertEquals(0, historyService.createHistoricDetailQuery().processInstanceId(processInstanceId).count());
+  }
+}